@@ -0,0 +1,109 @@
+/*
+ *  AffineScaling.java, linear mapping of values to normalized values.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart;
+
+import info.monitorenter.util.Range;
+import info.monitorenter.util.math.MathUtil;
+
+import java.io.Serializable;
+
+/**
+ * Immutable linear mapping of values of one dimension of a trace to the
+ * normalized values between 0.0 and 1.0 used for painting.
+ * <p>
+ * Axes with a linear scale do not write the normalized value into every point
+ * of a trace whenever their range changes. They just assign a new instance of
+ * this class to the trace (see <code>{@link ITrace2D#setScalingX(AffineScaling)}</code>
+ * ) and the points compute their normalized values from it on demand (see
+ * <code>{@link ITracePoint2D#getScaledX()}</code>). So a range change costs
+ * constant time per trace instead of time proportional to the amount of
+ * points.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ *
+ * @version $Revision: 1.1 $
+ */
+public final class AffineScaling implements Serializable {
+
+  /** Generated <code>serialVersionUID</code>. */
+  private static final long serialVersionUID = -3306658411963839226L;
+
+  /** The value range that is mapped to 0.0 (minimum) and 1.0 (maximum). */
+  private final double m_extent;
+
+  /** If true the maximum of the range is mapped to 0.0. */
+  private final boolean m_inverse;
+
+  /** The value that is mapped to 0.0 (1.0 if inverse). */
+  private final double m_min;
+
+  /**
+   * Creates a mapping of the given range to the normalized values.
+   * <p>
+   *
+   * @param range
+   *          the range of values that will be mapped to [0.0, 1.0].
+   *
+   * @param inverse
+   *          if true the minimum of the range will be mapped to 1.0 and the
+   *          maximum to 0.0.
+   */
+  public AffineScaling(final Range range, final boolean inverse) {
+    this.m_min = range.getMin();
+    this.m_extent = range.getExtent();
+    this.m_inverse = inverse;
+  }
+
+  /**
+   * Returns the normalized value for the given value.
+   * <p>
+   * This is the same computation the axes of a chart use when scaling points
+   * (including the fallback to 0.0 for results that are no valid doubles).
+   * <p>
+   *
+   * @param value
+   *          the value to normalize.
+   *
+   * @return the normalized value for the given value.
+   */
+  public double scale(final double value) {
+    double result = (value - this.m_min) / this.m_extent;
+    if (this.m_inverse) {
+      result = 1 - result;
+    }
+    if (!MathUtil.isDouble(result)) {
+      result = 0;
+    }
+    return result;
+  }
+
+  /**
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return "AffineScaling[min: " + this.m_min + ", extent: " + this.m_extent + ", inverse: "
+        + this.m_inverse + "]";
+  }
+}
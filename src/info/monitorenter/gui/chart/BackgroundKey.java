@@ -0,0 +1,150 @@
+/*
+ *  BackgroundKey.java, the state a cached chart background depends on.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the values that the cached background layer of a
+ * <code>{@link Chart2D}</code> (axes, grid, scales and trace labels) depends
+ * on.
+ * <p>
+ * The chart collects a new key for every paint operation and only renders the
+ * background layer again if the key does not match the key of the cached layer.
+ * Instances are reused, so collecting keys does not allocate memory in steady
+ * state.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ *
+ * @version $Revision: 1.1 $
+ */
+final class BackgroundKey {
+
+  /** The objects collected, compared by identity. */
+  private final List<Object> m_identities = new ArrayList<Object>();
+
+  /** The amount of valid entries in <code>{@link #m_numbers}</code>. */
+  private int m_numberCount;
+
+  /** The numeric values collected, grows on demand. */
+  private double[] m_numbers = new double[32];
+
+  /** The objects collected, compared by <code>equals</code>. */
+  private final List<Object> m_objects = new ArrayList<Object>();
+
+  /**
+   * Adds the given flag to this key.
+   * <p>
+   *
+   * @param flag
+   *          the flag to add.
+   */
+  void add(final boolean flag) {
+    this.add(flag ? 1 : 0);
+  }
+
+  /**
+   * Adds the given number to this key.
+   * <p>
+   *
+   * @param number
+   *          the number to add.
+   */
+  void add(final double number) {
+    if (this.m_numberCount == this.m_numbers.length) {
+      final double[] grown = new double[this.m_numberCount * 2];
+      System.arraycopy(this.m_numbers, 0, grown, 0, this.m_numberCount);
+      this.m_numbers = grown;
+    }
+    this.m_numbers[this.m_numberCount] = number;
+    this.m_numberCount++;
+  }
+
+  /**
+   * Adds the given object (may be null) to this key.
+   * <p>
+   *
+   * @param object
+   *          the object to add.
+   */
+  void add(final Object object) {
+    this.m_objects.add(object);
+  }
+
+  /**
+   * Adds the given object (may be null) to this key that will only match the
+   * same instance.
+   * <p>
+   *
+   * @param object
+   *          the object to add.
+   */
+  void addIdentity(final Object object) {
+    this.m_identities.add(object);
+  }
+
+  /**
+   * Removes all values from this key.
+   * <p>
+   */
+  void clear() {
+    this.m_numberCount = 0;
+    this.m_identities.clear();
+    this.m_objects.clear();
+  }
+
+  /**
+   * Returns true if the given key contains the same values in the same order
+   * as this key.
+   * <p>
+   *
+   * @param other
+   *          the key to compare to.
+   *
+   * @return true if the given key contains the same values in the same order
+   *         as this key.
+   */
+  boolean matches(final BackgroundKey other) {
+    if (this.m_numberCount != other.m_numberCount) {
+      return false;
+    }
+    // NaN values never match which is fine (background is rendered again):
+    for (int i = this.m_numberCount - 1; i >= 0; i--) {
+      if (this.m_numbers[i] != other.m_numbers[i]) {
+        return false;
+      }
+    }
+    final int identities = this.m_identities.size();
+    if (identities != other.m_identities.size()) {
+      return false;
+    }
+    for (int i = 0; i < identities; i++) {
+      if (this.m_identities.get(i) != other.m_identities.get(i)) {
+        return false;
+      }
+    }
+    return this.m_objects.equals(other.m_objects);
+  }
+}
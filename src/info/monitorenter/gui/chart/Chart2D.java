@@ -20,9 +20,12 @@ import info.monitorenter.gui.chart.axis.AAxis;
 import info.monitorenter.gui.chart.axis.AxisLinear;
 import info.monitorenter.gui.chart.axistickpainters.AxisTickPainterDefault;
 import info.monitorenter.gui.chart.events.Chart2DActionPrintSingleton;
+import info.monitorenter.gui.chart.traces.painters.TracePainterLine;
+import info.monitorenter.gui.chart.traces.painters.TracePainterPolyline;
 import info.monitorenter.util.Range;
 import info.monitorenter.util.StringUtil;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Container;
 import java.awt.Cursor;
@@ -35,11 +38,10 @@ import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Stroke;
 import java.awt.Toolkit;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
 import java.awt.event.MouseMotionListener;
+import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.awt.print.PageFormat;
 import java.awt.print.Printable;
@@ -47,6 +49,7 @@ import java.awt.print.PrinterException;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -56,10 +59,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JPanel;
 import javax.swing.JToolTip;
-import javax.swing.Timer;
 
 /**
  * <code> Chart2D</code> is a component for displaying the data contained in a
@@ -273,6 +276,20 @@ import javax.swing.Timer;
  * <td>{@link IPointFinder}</td>
  * <td>if {@link Chart2D#setPointFinder(IPointFinder)} caused a change.</td>
  * </tr>
+ * <tr>
+ * <td>{@link #PROPERTY_PAINT_COST}</td>
+ * <td>{@link Chart2D}</td>
+ * <td>{@link Double}</td>
+ * <td>{@link Double}</td>
+ * <td>after every paint operation that changed the measured paint cost ({@link #getPaintCost()}).</td>
+ * </tr>
+ * <tr>
+ * <td>{@link #PROPERTY_PAINT_LATENCY}</td>
+ * <td>{@link Chart2D}</td>
+ * <td>{@link Integer}</td>
+ * <td>{@link Integer}</td>
+ * <td>if the effective repaint interval ({@link #getPaintLatency()}) changed.</td>
+ * </tr>
  * </table>
  * <p>
  * 
@@ -523,6 +540,22 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
    */
   public static final boolean DEBUG_THREADING = false;
 
+  /**
+   * The factor of the measured paint cost that is used as repaint interval in
+   * adaptive paint latency mode: Paint operations of a chart occupy about a
+   * quarter of the event dispatch thread at most.
+   */
+  private static final double PAINT_LATENCY_FACTOR = 4;
+
+  /** The weight of a new paint duration in the smoothed paint cost. */
+  private static final double PAINT_COST_SMOOTHING = 0.25;
+
+  /**
+   * The minimum length of <code>{@link #m_paintPoints}</code>: It is shrunk to
+   * the points copied by the latest paint operation but not below.
+   */
+  private static final int PAINT_POINTS_MIN = 256;
+
   /**
    * The bean property <code>constant</code> identifying a change of the
    * antialiasing enabled state.
@@ -672,6 +705,27 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
    */
   public static final String PROPERTY_PAINTLABELS = "Chart2D.PROPERTY_PAINTLABELS";
 
+  /**
+   * The bean property <code>constant</code> identifying a change of the
+   * measured paint cost (see <code>{@link #getPaintCost()}</code>).
+   * <p>
+   * Use this constant to register a {@link java.beans.PropertyChangeListener}
+   * with the <code>Chart2D</code>. The event is fired by the thread that
+   * painted the chart.
+   * <p>
+   */
+  public static final String PROPERTY_PAINT_COST = "Chart2D.PROPERTY_PAINT_COST";
+
+  /**
+   * The bean property <code>constant</code> identifying a change of the
+   * effective repaint interval (see <code>{@link #getPaintLatency()}</code>).
+   * <p>
+   * Use this constant to register a {@link java.beans.PropertyChangeListener}
+   * with the <code>Chart2D</code>.
+   * <p>
+   */
+  public static final String PROPERTY_PAINT_LATENCY = "Chart2D.PROPERTY_PAINT_LATENCY";
+
   /**
    * The bean property <code>constant</code> identifying a change of the point
    * highlighting enabled state.
@@ -712,6 +766,17 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
   /** Generated <code>serial version UID</code>. */
   private static final long serialVersionUID = 3978425840633852978L;
 
+  /**
+   * The properties of traces whose changes may require to render the trace
+   * layer again (see <code>{@link #setUseStripChartRendering(boolean)}</code>).
+   */
+  private static final String[] TRACE_LAYER_PROPERTIES = new String[] {
+      ITrace2D.PROPERTY_TRACEPOINT, ITrace2D.PROPERTY_TRACEPOINTS_ADDED,
+      ITrace2D.PROPERTY_POINT_CHANGED, ITrace2D.PROPERTY_COLOR,
+      ITrace2D.PROPERTY_STROKE, ITrace2D.PROPERTY_VISIBLE, ITrace2D.PROPERTY_PAINTERS,
+      ITrace2D.PROPERTY_PAINT_DECIMATION, ITrace2D.PROPERTY_ERRORBARPOLICY,
+      ITrace2D.PROPERTY_ERRORBARPOLICY_CONFIGURATION };
+
   /** Constant describing the x axis (needed for scaling). */
   public static final int X = 1;
 
@@ -758,9 +823,193 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
   /** The internal label painter for this chart. */
   private IAxisTickPainter m_axisTickPainter;
 
+  /**
+   * The cached background layer (axes, grid, scales and trace labels) if
+   * <code>{@link #isUseLayeredRendering()}</code> is true.
+   * <p>
+   */
+  private transient BufferedImage m_background;
+
+  /**
+   * The values the cached <code>{@link #m_background}</code> was rendered
+   * for.
+   * <p>
+   */
+  private transient BackgroundKey m_backgroundKey;
+
+  /**
+   * Counts the property changes received by this chart to render the cached
+   * background layer again after configuration changes of axes and traces.
+   * <p>
+   */
+  private int m_backgroundModCount;
+
+  /**
+   * Reused for collecting the values of the current paint operation that are
+   * compared to <code>{@link #m_backgroundKey}</code>.
+   * <p>
+   */
+  private transient BackgroundKey m_backgroundKeyScratch;
+
+  /**
+   * The amount of visible traces skipped in the latest paint operation because
+   * their bounds are outside the ranges of their axes.
+   * <p>
+   */
+  private int m_culledTraceCount;
+
+  /**
+   * Reused for the x values drained from staging queues, only grows.
+   * <p>
+   */
+  private transient double[] m_drainX = new double[0];
+
+  /**
+   * Reused for the y values drained from staging queues, only grows.
+   * <p>
+   */
+  private transient double[] m_drainY = new double[0];
+
+  /** Flag for adapting the repaint interval to the measured paint cost. */
+  private boolean m_adaptivePaintLatency = false;
+
   /** The grid color. */
   private Color m_gridcolor = Color.lightGray;
 
+  /**
+   * Reused clipping stage for painting the connections of points that are not
+   * both within the visible area.
+   */
+  private final LineClipper m_lineClipper = new LineClipper();
+
+  /**
+   * Clips the connection of two points to the visible area of the chart
+   * ([0.0,1.0] in normalized coordinates) with the Liang-Barsky algorithm.
+   * <p>
+   * Works on primitive values only and keeps the result in its members, so
+   * clipping the segments of traces that leave and enter the visible area
+   * does not allocate any memory.
+   * <p>
+   * Only to be used from <code>{@link Chart2D#paintComponent(Graphics)}</code>
+   * with the locks on the chart and the trace held.
+   * <p>
+   * 
+   * @author Achim Westermann
+   */
+  private static final class LineClipper {
+
+    /** The parameter of the connection where it enters the visible area. */
+    private double m_enter;
+
+    /** The parameter of the connection where it leaves the visible area. */
+    private double m_leave;
+
+    /** The normalized x value of the clipped start point. */
+    private double m_x0;
+
+    /** The normalized x value of the clipped end point. */
+    private double m_x1;
+
+    /** The normalized y value of the clipped start point. */
+    private double m_y0;
+
+    /** The normalized y value of the clipped end point. */
+    private double m_y1;
+
+    /**
+     * Defcon.
+     * <p>
+     */
+    protected LineClipper() {
+      // nop
+    }
+
+    /**
+     * Clips the connection of the given normalized points to the visible area.
+     * <p>
+     * The clipped start and end point are available in the members of this
+     * instance if true is returned or if one of the given points is visible.
+     * <p>
+     * 
+     * @param x0
+     *          the normalized x value of the start point.
+     * 
+     * @param y0
+     *          the normalized y value of the start point.
+     * 
+     * @param x1
+     *          the normalized x value of the end point.
+     * 
+     * @param y1
+     *          the normalized y value of the end point.
+     * 
+     * @return true if the connection cuts the visible area.
+     */
+    boolean clip(final double x0, final double y0, final double x1, final double y1) {
+      final double dx = x1 - x0;
+      final double dy = y1 - y0;
+      this.m_enter = 0.0;
+      this.m_leave = 1.0;
+      boolean result = this.clipBound(-dx, x0) && this.clipBound(dx, 1.0 - x0)
+          && this.clipBound(-dy, y0) && this.clipBound(dy, 1.0 - y0);
+      if (result) {
+        this.m_x0 = x0 + this.m_enter * dx;
+        this.m_y0 = y0 + this.m_enter * dy;
+        this.m_x1 = x0 + this.m_leave * dx;
+        this.m_y1 = y0 + this.m_leave * dy;
+        // no need to paint a connection that only touches the visible area:
+        result = this.m_enter < this.m_leave;
+      }
+      return result;
+    }
+
+    /**
+     * Narrows the parameter range of the connection by one bound of the
+     * visible area.
+     * <p>
+     * 
+     * @param direction
+     *          the (negated for lower bounds) difference of the coordinate
+     *          between end and start point.
+     * 
+     * @param distance
+     *          the distance of the start point to the bound (positive if the
+     *          start point is on the inner side of the bound).
+     * 
+     * @return false if the connection does not cut the visible area.
+     */
+    private boolean clipBound(final double direction, final double distance) {
+      boolean result = true;
+      if (direction == 0.0) {
+        // parallel to the bound:
+        result = distance >= 0.0;
+      } else {
+        final double ratio = distance / direction;
+        if (direction < 0.0) {
+          if (ratio > this.m_leave) {
+            result = false;
+          } else if (ratio > this.m_enter) {
+            this.m_enter = ratio;
+          }
+        } else {
+          if (ratio < this.m_enter) {
+            result = false;
+          } else if (ratio < this.m_leave) {
+            this.m_leave = ratio;
+          }
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * The upper bound for the repaint interval in ms in adaptive paint latency
+   * mode.
+   * <p>
+   */
+  private int m_maxPaintLatency = 1000;
+
   /**
    * Chart - wide setting for the ms to give a repaint operation time for
    * collecting several repaint requests into one (performance versus update
@@ -769,6 +1018,16 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
    */
   protected int m_minPaintLatency = 50;
 
+  /** The smoothed duration of the recent paint operations in ms. */
+  private double m_paintCost;
+
+  /**
+   * The effective repaint interval in ms: the minimum paint latency or the
+   * interval adapted to the paint cost in adaptive paint latency mode.
+   * <p>
+   */
+  private int m_paintLatency = 50;
+
   /**
    * The axis that is used for translation from mouse event to x value by method
    * <code>Chart2D{@link #translateMousePosition(MouseEvent)}</code>.
@@ -798,6 +1057,232 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
    */
   private boolean m_paintLabels = true;
 
+  /**
+   * The highest maximum x value of the visible traces when their points were
+   * copied by the latest <code>{@link #paintTraces(Graphics, double)}</code>.
+   */
+  private double m_paintMaxX;
+
+  /**
+   * Reused array for the points of a trace in coalescing mode that are copied
+   * with the lock on the trace to be painted without it (see
+   * <code>{@link ITrace2D#detachPoint(ITracePoint2D)}</code>).
+   */
+  private transient ITracePoint2D[] m_paintPoints = new ITracePoint2D[Chart2D.PAINT_POINTS_MIN];
+
+  /**
+   * The lowest maximum x value of the visible traces when their points were
+   * copied by the latest <code>{@link #paintTraces(Graphics, double)}</code>.
+   */
+  private double m_paintSeam;
+
+  /**
+   * Reused decimation stage for painting traces.
+   * <p>
+   * 
+   * @see ITrace2D#isPaintDecimation()
+   */
+  private final PixelColumnDecimator m_pixelColumnDecimator = new PixelColumnDecimator();
+
+  /**
+   * Collapses consecutive points of a trace that are painted into the same
+   * pixel column to the first, the minimum, the maximum and the last point of
+   * that column (M4 decimation).
+   * <p>
+   * All points of such a column share the same x pixel coordinate, so the
+   * segments between them are vertical lines within that column. Painting the
+   * first, minimum, maximum and last point in their original order therefore
+   * covers the same pixels as painting all of them with a line based
+   * <code>{@link ITracePainter}</code>. The paint cost of a trace then scales
+   * with the width of the chart instead of the amount of its points.
+   * <p>
+   * Only to be used from <code>{@link Chart2D#paintComponent(Graphics)}</code>
+   * with the locks on the chart and the trace held.
+   * <p>
+   * 
+   * @author Achim Westermann
+   */
+  private final class PixelColumnDecimator {
+
+    /** True if a pixel column is open and may collapse further points. */
+    private boolean m_columnOpen;
+
+    /** The x pixel coordinate of the open column. */
+    private int m_columnX;
+
+    /** The running index of the points within the open column. */
+    private int m_index;
+
+    /** The last point of the open column. */
+    private ITracePoint2D m_last;
+
+    /** The index of the last point within the open column. */
+    private int m_lastIndex;
+
+    /** The y pixel coordinate of the last point of the open column. */
+    private int m_lastY;
+
+    /** The index of the point with the highest y pixel coordinate. */
+    private int m_maxIndex;
+
+    /** The point with the highest y pixel coordinate of the open column. */
+    private ITracePoint2D m_maxPoint;
+
+    /** The highest y pixel coordinate of the open column. */
+    private int m_maxY;
+
+    /** The index of the point with the lowest y pixel coordinate. */
+    private int m_minIndex;
+
+    /** The point with the lowest y pixel coordinate of the open column. */
+    private ITracePoint2D m_minPoint;
+
+    /** The lowest y pixel coordinate of the open column. */
+    private int m_minY;
+
+    /** The index of the point of the open column that was painted last. */
+    private int m_paintedIndex;
+
+    /** The y pixel coordinate of the point that was painted last. */
+    private int m_paintedY;
+
+    /**
+     * Defcon.
+     * <p>
+     */
+    protected PixelColumnDecimator() {
+      // nop
+    }
+
+    /**
+     * Tries to collapse the given point into the open pixel column.
+     * <p>
+     * Points with additional point painters are never collapsed as those have
+     * to be painted.
+     * <p>
+     * 
+     * @param xPx
+     *          the x pixel coordinate of the point.
+     * @param yPx
+     *          the y pixel coordinate of the point.
+     * @param point
+     *          the original point.
+     * @return true if the point was collapsed and must not be painted, false
+     *         if the caller has to <code>{@link #flush(ITrace2D, Graphics)}
+     *         </code>, paint the point and <code>
+     *         {@link #open(int, int, ITracePoint2D)}</code> a new column.
+     */
+    protected boolean collapse(final int xPx, final int yPx, final ITracePoint2D point) {
+      boolean result = false;
+      if (this.m_columnOpen && (xPx == this.m_columnX)
+          && point.getAdditionalPointPainters().isEmpty()) {
+        this.m_index++;
+        if (yPx < this.m_minY) {
+          this.m_minY = yPx;
+          this.m_minPoint = point;
+          this.m_minIndex = this.m_index;
+        }
+        if (yPx > this.m_maxY) {
+          this.m_maxY = yPx;
+          this.m_maxPoint = point;
+          this.m_maxIndex = this.m_index;
+        }
+        this.m_last = point;
+        this.m_lastY = yPx;
+        this.m_lastIndex = this.m_index;
+        result = true;
+      }
+      return result;
+    }
+
+    /**
+     * Paints the collapsed points of the open column (if any) and closes it.
+     * <p>
+     * The first point of the column has already been painted by the caller.
+     * The extrema and the last point are painted in their original order.
+     * <p>
+     * 
+     * @param trace
+     *          the trace that is painted.
+     * @param g
+     *          the graphics context to use.
+     */
+    protected void flush(final ITrace2D trace, final Graphics g) {
+      if (this.m_columnOpen) {
+        this.m_columnOpen = false;
+        this.m_paintedIndex = 0;
+        if (this.m_minIndex < this.m_maxIndex) {
+          this.paintCollapsed(this.m_minIndex, this.m_minY, this.m_minPoint, trace, g);
+          this.paintCollapsed(this.m_maxIndex, this.m_maxY, this.m_maxPoint, trace, g);
+        } else {
+          this.paintCollapsed(this.m_maxIndex, this.m_maxY, this.m_maxPoint, trace, g);
+          this.paintCollapsed(this.m_minIndex, this.m_minY, this.m_minPoint, trace, g);
+        }
+        this.paintCollapsed(this.m_lastIndex, this.m_lastY, this.m_last, trace, g);
+        // don't keep points of the trace alive:
+        this.m_last = null;
+        this.m_maxPoint = null;
+        this.m_minPoint = null;
+      }
+    }
+
+    /**
+     * Opens a new pixel column with the given point that has just been painted
+     * by the caller.
+     * <p>
+     * 
+     * @param xPx
+     *          the x pixel coordinate of the point.
+     * @param yPx
+     *          the y pixel coordinate of the point.
+     * @param point
+     *          the original point.
+     */
+    protected void open(final int xPx, final int yPx, final ITracePoint2D point) {
+      this.m_columnOpen = true;
+      this.m_columnX = xPx;
+      this.m_index = 0;
+      this.m_paintedY = yPx;
+      this.m_last = point;
+      this.m_lastY = yPx;
+      this.m_lastIndex = 0;
+      this.m_maxPoint = point;
+      this.m_maxY = yPx;
+      this.m_maxIndex = 0;
+      this.m_minPoint = point;
+      this.m_minY = yPx;
+      this.m_minIndex = 0;
+    }
+
+    /**
+     * Paints the given collapsed point if it was not painted before and if it
+     * extends the vertical line painted into the column so far.
+     * <p>
+     * 
+     * @param index
+     *          the index of the point within the open column.
+     * @param yPx
+     *          the y pixel coordinate of the point.
+     * @param point
+     *          the original point.
+     * @param trace
+     *          the trace that is painted.
+     * @param g
+     *          the graphics context to use.
+     */
+    private void paintCollapsed(final int index, final int yPx, final ITracePoint2D point,
+        final ITrace2D trace, final Graphics g) {
+      if (index > this.m_paintedIndex) {
+        if (yPx != this.m_paintedY) {
+          Chart2D.this.paintPoint(this.m_columnX, this.m_paintedY, this.m_columnX, yPx, false,
+              trace, g, point, false);
+          this.m_paintedY = yPx;
+        }
+        this.m_paintedIndex = index;
+      }
+    }
+  }
+
   /**
    * The point finder used to find the nearest point corresponding to a mouse
    * event.
@@ -1064,12 +1549,23 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
   }
 
   /**
-   * Internal timer for repaint control with guarantee that the interval between
-   * two frames will not be lower than <code>{@link Chart2D#m_minPaintLatency}
-   * </code> ms.
+   * The scheduler that triggers repaints with guarantee that the interval
+   * between two frames will not be lower than
+   * <code>{@link Chart2D#m_minPaintLatency}</code> ms, null after
+   * <code>{@link #destroy()}</code>.
    * <p>
    */
-  private Timer m_repainter;
+  private volatile FrameScheduler m_frameScheduler;
+
+  /**
+   * The time (<code>{@link System#nanoTime()}</code>) the last repaint was
+   * triggered by the frame scheduler.
+   * <p>
+   */
+  private long m_lastFrame;
+
+  /** The duration of the last paint operation in ns. */
+  private long m_paintDuration;
 
   /**
    * Internal flag that stores a request for a repaint that guarantees that two
@@ -1080,6 +1576,12 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
    */
   private boolean m_requestedRepaint;
 
+  /**
+   * Repaint request of traces that collect points without holding the lock
+   * on this chart, see <code>{@link #requestRepaintWithoutLock()}</code>.
+   */
+  private volatile boolean m_requestedRepaintWithoutLock;
+
   /**
    * Flag to remember whether this chart has synchronized it's x start
    * coordinates with another chart.
@@ -1101,11 +1603,131 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
   /** Used to create trace point instances. */
   private ITracePointProvider m_tracePointProvider;
 
+  /**
+   * The cached trace layer, only used if
+   * <code>{@link #isUseStripChartRendering()}</code> is true.
+   */
+  private transient BufferedImage m_traceLayer;
+
+  /** The extent of the range of the x axis the trace layer was rendered for. */
+  private double m_traceLayerExtent;
+
+  /**
+   * The values the cached <code>{@link #m_traceLayer}</code> was rendered
+   * for, the range of the x axis excluded.
+   */
+  private transient BackgroundKey m_traceLayerKey;
+
+  /**
+   * Reused key for collecting the current values to be compared to
+   * <code>{@link #m_traceLayerKey}</code>.
+   */
+  private transient BackgroundKey m_traceLayerKeyScratch;
+
+  /**
+   * Invalidates the trace layer for changes of traces that cannot be handled
+   * by shifting it.
+   */
+  private final PropertyChangeListener m_traceLayerListener = new PropertyChangeListener() {
+
+    /**
+     * @see java.beans.PropertyChangeListener#propertyChange(java.beans.PropertyChangeEvent)
+     */
+    public void propertyChange(final PropertyChangeEvent evt) {
+      final String property = evt.getPropertyName();
+      final Object newValue = evt.getNewValue();
+      boolean invalid;
+      if (property.equals(ITrace2D.PROPERTY_TRACEPOINT)) {
+        // removed or added left of the points already painted:
+        invalid = (newValue == null) || !this.isRightOfSeam((ITracePoint2D) newValue);
+      } else if (property.equals(ITrace2D.PROPERTY_TRACEPOINTS_ADDED)) {
+        invalid = false;
+        for (Object added : (List< ? >) newValue) {
+          if (!this.isRightOfSeam((ITracePoint2D) added)) {
+            invalid = true;
+            break;
+          }
+        }
+      } else {
+        invalid = true;
+      }
+      if (invalid) {
+        Chart2D.this.m_traceLayerModCount.incrementAndGet();
+      }
+    }
+
+    /**
+     * Returns true if the given point is right of the points completely
+     * painted to the trace layer.
+     * <p>
+     * 
+     * @param point
+     *          the point to test.
+     * 
+     * @return true if the given point is right of the points completely
+     *         painted to the trace layer.
+     */
+    private boolean isRightOfSeam(final ITracePoint2D point) {
+      return point.getX() >= Chart2D.this.m_traceLayerSeam;
+    }
+  };
+
+  /**
+   * Incremented for every change that requires to render the trace layer
+   * again.
+   * <p>
+   * Atomic as traces notify the chart from the threads adding points.
+   * <p>
+   */
+  private final AtomicInteger m_traceLayerModCount = new AtomicInteger();
+
+  /**
+   * The x value at the start pixel of the trace layer, pixel aligned to the
+   * shifts of the layer.
+   */
+  private double m_traceLayerOrigin;
+
+  /**
+   * The lowest maximum x value of the visible traces when the trace layer was
+   * painted: All points up to this value are in the layer.
+   */
+  private volatile double m_traceLayerSeam;
+
+  /**
+   * False if points of traces beyond the x range were clipped when the trace
+   * layer was painted.
+   */
+  private boolean m_traceLayerSeamValid;
+
+  /**
+   * Cached result of <code>{@link #getTraces()}</code>, null if it has to be
+   * rebuilt.
+   * <p>
+   * Only written while holding <code>{@link #m_tracesLock}</code>.
+   * <p>
+   */
+  private volatile SortedSet<ITrace2D> m_traces;
+
+  /**
+   * Guards rebuilding and invalidation of <code>{@link #m_traces}</code>.
+   * <p>
+   * A separate lock allows to call <code>{@link #getTraces()}</code> without
+   * the lock on this chart (e.g. while only holding the lock of a trace).
+   * <p>
+   */
+  private final Object m_tracesLock = new Object();
+
   /**
    * Boolean flag to turn on antialiasing.
    */
   private boolean m_useAntialiasing = false;
 
+  /** Boolean flag to turn on caching of the background layer. */
+  private boolean m_useLayeredRendering = false;
+
+  /** Boolean flag to turn on the strip chart rendering of the traces. */
+  private boolean m_useStripChartRendering = false;
+
   /**
    * The end x pixel coordinate of the chart.
    */
@@ -1163,40 +1785,51 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     // turn off tool tips by default (performance):
     this.setToolTipType(Chart2D.ToolTipType.NONE);
 
-    // one initial call to paint for side effect computations
-    // potentially needed from outside (m_XstartChart...):
-    this.setRequestedRepaint(true);
-
     // set a custom cursor:
     this.setCursor(Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR));
 
-    this.m_repainter = new Timer(this.m_minPaintLatency, new ActionListener() {
+    // assigned not before the end to avoid repaints of partially constructed
+    // charts:
+    this.m_frameScheduler = FrameScheduler.getInstance();
+    // one initial call to paint for side effect computations
+    // potentially needed from outside (m_XstartChart...):
+    this.m_requestedRepaint = false;
+    this.setRequestedRepaint(true);
+  }
 
-      /**
-       * Repaints the Chart if dirty.
-       * <p>
-       * 
-       * @param e
-       *          invoked by the timer to trigger the action.
-       */
-      public void actionPerformed(final ActionEvent e) {
-        synchronized (Chart2D.this) {
-          if (Chart2D.this.isRequestedRepaint()) {
-            if (Chart2D.DEBUG_THREADING) {
-              System.out.println(Thread.currentThread().getName() + " triggering repaint()");
-            }
-            // Only here this deprecated call may be done:
-            Chart2D.this.repaint(Chart2D.this.m_minPaintLatency);
-            Chart2D.this.setRequestedRepaint(false);
-          }
-        }
+  /**
+   * Updates the smoothed paint cost with the duration of the paint operation
+   * that just finished (reported by a <code>{@link #PROPERTY_PAINT_COST}</code>
+   * event) and adapts the repaint interval to it if
+   * <code>{@link #isAdaptivePaintLatency()}</code> is true.
+   * <p>
+   * The interval is stretched immediately if the paint cost grows and shrinks
+   * half way towards the interval matching the paint cost per paint operation
+   * to avoid oscillation.
+   * <p>
+   */
+  private void adaptPaintLatency() {
+    final double duration = this.m_paintDuration / 1000000.0;
+    final double oldCost = this.m_paintCost;
+    if (oldCost == 0) {
+      this.m_paintCost = duration;
+    } else {
+      this.m_paintCost += (duration - oldCost) * Chart2D.PAINT_COST_SMOOTHING;
+    }
+    if (this.m_paintCost != oldCost) {
+      this.firePropertyChange(Chart2D.PROPERTY_PAINT_COST, Double.valueOf(oldCost), Double
+          .valueOf(this.m_paintCost));
+    }
+    if (this.m_adaptivePaintLatency) {
+      final double target = this.m_paintCost * Chart2D.PAINT_LATENCY_FACTOR;
+      final int latency;
+      if (target > this.m_paintLatency) {
+        latency = (int) Math.ceil(target);
+      } else {
+        latency = this.m_paintLatency - (int) ((this.m_paintLatency - target) / 2);
       }
-
-    });
-    Timer.setLogTimers(false);
-    this.m_repainter.setRepeats(true);
-    this.m_repainter.setCoalesce(true);
-    this.m_repainter.start();
+      this.setPaintLatency(latency);
+    }
   }
 
   /**
@@ -1213,6 +1846,7 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     this.ensureUniqueAxis(axisX);
     this.m_axesXBottom.add(axisX);
     axisX.setChart(this, Chart2D.X, Chart2D.CHART_POSITION_BOTTOM);
+    this.invalidateTraces();
 
     this.listenToAxis(axisX);
 
@@ -1234,6 +1868,7 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     this.ensureUniqueAxis(axisX);
     this.m_axesXTop.add(axisX);
     axisX.setChart(this, Chart2D.X, Chart2D.CHART_POSITION_TOP);
+    this.invalidateTraces();
 
     this.listenToAxis(axisX);
 
@@ -1591,20 +2226,198 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     Iterator<IAxis> it = this.m_axesXBottom.iterator();
     while (it.hasNext()) {
       currentAxis = it.next();
-      currentAxis.setPixelYBottom(result);
-      if (currentAxis.isVisible()) {
-        result -= currentAxis.getHeight(g2d);
+      currentAxis.setPixelYBottom(result);
+      if (currentAxis.isVisible()) {
+        result -= currentAxis.getHeight(g2d);
+      }
+      currentAxis.setPixelYTop(result);
+    }
+
+    result = result - axesXBottomHeight;
+    if (result == this.getSize().getHeight()) {
+      // ensure minimum offset when no axis are visible
+      result -= 20;
+    }
+    return result;
+
+  }
+
+  /**
+   * Collects the values the background layer (axes, grid, scales and trace
+   * labels) depends on into the given key.
+   * <p>
+   * 
+   * @param key
+   *          the key to fill (will be cleared first).
+   * 
+   * @param g2d
+   *          the graphics context the chart is painted to.
+   * 
+   * @see #paintBackgroundLayer(Graphics)
+   */
+  private void collectBackgroundKey(final BackgroundKey key, final Graphics g2d) {
+    key.clear();
+    key.add(this.getWidth());
+    key.add(this.getHeight());
+    key.add(this.isOpaque());
+    key.add(this.m_backgroundModCount);
+    key.add(this.m_paintLabels);
+    key.add(this.getBackground());
+    key.add(this.getForeground());
+    key.add(this.getGridColor());
+    key.add(g2d.getFont());
+    key.addIdentity(this.getAxisTickPainter());
+    this.collectBackgroundKey(key, this.m_axesXBottom);
+    this.collectBackgroundKey(key, this.m_axesXTop);
+    this.collectBackgroundKey(key, this.m_axesYLeft);
+    this.collectBackgroundKey(key, this.m_axesYRight);
+    if (this.m_paintLabels) {
+      for (ITrace2D trace : this.getTraces()) {
+        key.add(trace.isVisible());
+        key.add(trace.getLabel());
+        key.add(trace.getColor());
+      }
+    }
+  }
+
+  /**
+   * Collects the values the painting of the given axes depends on into the
+   * given key.
+   * <p>
+   * 
+   * @param key
+   *          the key to add to.
+   * 
+   * @param axes
+   *          the axes to add the values of.
+   */
+  private void collectBackgroundKey(final BackgroundKey key, final List<IAxis> axes) {
+    key.add(axes.size());
+    IAxis.AxisTitle title;
+    IAxisLabelFormatter formatter;
+    for (IAxis axis : axes) {
+      key.addIdentity(axis);
+      key.add(axis.isVisible());
+      key.add(axis.isPaintScale());
+      key.add(axis.isPaintGrid());
+      key.add(axis.isStartMajorTick());
+      key.add(axis.getMin());
+      key.add(axis.getMax());
+      key.add(axis.getMajorTickSpacing());
+      key.add(axis.getMinorTickSpacing());
+      formatter = axis.getFormatter();
+      key.addIdentity(formatter);
+      key.addIdentity(formatter.getUnit());
+      title = axis.getAxisTitle();
+      key.addIdentity(title);
+      if (title != null) {
+        key.add(title.isVisible());
+        key.add(title.getTitle());
+        key.add(title.getTitleColor());
+        key.add(title.getTitleFont());
+        key.addIdentity(title.getTitlePainter());
+      }
+    }
+  }
+
+  /**
+   * Collects the values the trace layer depends on into the given key. The
+   * range of the x axis is not contained as a shifted x range is handled by
+   * shifting the layer.
+   * <p>
+   * 
+   * @param key
+   *          the key to fill (will be cleared first).
+   * 
+   * @param traces
+   *          the traces of this chart.
+   * 
+   * @param minX
+   *          the lower bound of the range of the x axis.
+   * 
+   * @see #paintTraceLayer(Graphics)
+   */
+  private void collectTraceLayerKey(final BackgroundKey key, final SortedSet<ITrace2D> traces,
+      final double minX) {
+    key.clear();
+    key.add(this.getWidth());
+    key.add(this.getHeight());
+    key.add(this.m_xChartStart);
+    key.add(this.m_xChartEnd);
+    key.add(this.m_yChartStart);
+    key.add(this.m_yChartEnd);
+    key.add(this.m_useAntialiasing);
+    key.add(this.m_traceLayerModCount.get());
+    key.addIdentity(this.getAxisX());
+    for (IAxis axis : this.m_axesYLeft) {
+      key.addIdentity(axis);
+      key.add(axis.getMin());
+      key.add(axis.getMax());
+    }
+    for (IAxis axis : this.m_axesYRight) {
+      key.addIdentity(axis);
+      key.add(axis.getMin());
+      key.add(axis.getMax());
+    }
+    for (ITrace2D trace : traces) {
+      key.addIdentity(trace);
+      key.add(trace.getSize() > 0);
+      /*
+       * Points evicted (e.g. by Trace2DLtd) or all removed do not fire point
+       * events: If the first point is within the x range it must not have
+       * changed.
+       */
+      if ((trace.getSize() > 0) && (trace.getMinX() > minX)) {
+        key.add(trace.getMinX());
+      } else {
+        key.add(Double.NEGATIVE_INFINITY);
+      }
+    }
+  }
+
+  /**
+   * Collects the traces of all x axes into a new set sorted by their z-index.
+   * <p>
+   * 
+   * @return the traces of all x axes sorted by their z-index.
+   * 
+   * @see #getTraces()
+   */
+  private SortedSet<ITrace2D> collectTraces() {
+    SortedSet<ITrace2D> result = new TreeSet<ITrace2D>();
+    // 1.1) axes x bottom:
+    Iterator<IAxis> it = this.m_axesXBottom.iterator();
+    IAxis currentAxis;
+    Set<ITrace2D> axisTraces;
+    while (it.hasNext()) {
+      currentAxis = it.next();
+      axisTraces = currentAxis.getTraces();
+      // addAll not feasible: assumes currentAxis.getTraces() is sorted and
+      // order is lost?
+      for (ITrace2D trace : axisTraces) {
+        result.add(trace);
+      }
+
+      // result.addAll(currentAxis.getTraces());
+    }
+    // 1.2) axes x top:
+    it = this.m_axesXTop.iterator();
+    while (it.hasNext()) {
+      currentAxis = it.next();
+      axisTraces = currentAxis.getTraces();
+      for (ITrace2D trace : axisTraces) {
+        result.add(trace);
       }
-      currentAxis.setPixelYTop(result);
+      // result.addAll(currentAxis.getTraces());
     }
+    // We skip y axes as by contract every
+    // trace has to be at least in one x axis
+    // (not logical if trace is e.g. in y axes
+    // only
+    // 2.1) axes y left:
+    // 2.2) axes y right:
 
-    result = result - axesXBottomHeight;
-    if (result == this.getSize().getHeight()) {
-      // ensure minimum offset when no axis are visible
-      result -= 20;
-    }
     return result;
-
   }
 
   /**
@@ -1646,11 +2459,50 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
       this.m_axesYLeft = null;
       this.m_axesYRight.clear();
       this.m_axesYRight = null;
+      this.invalidateTraces();
 
-      // terminate the timer
-      this.m_repainter.stop();
+      // no more repaints by the scheduler
+      this.m_frameScheduler = null;
+
+    }
+  }
 
+  /**
+   * Moves the points staged in the queues of the traces (see
+   * <code>{@link ITrace2D#setStagingQueue(StagingQueue)}</code>) into the
+   * traces.
+   * <p>
+   * This is done at the start of every paint operation. Producers that find a
+   * staging queue full (e.g. because the chart is not visible and therefore
+   * not painted) may invoke this to make room without changing the order of
+   * the points.
+   * <p>
+   * 
+   * @return true if at least one point was moved.
+   */
+  public synchronized boolean drainStagingQueues() {
+    boolean result = false;
+    StagingQueue queue;
+    int size;
+    int drained;
+    for (ITrace2D trace : this.getTraces()) {
+      queue = trace.getStagingQueue();
+      if (queue != null) {
+        size = queue.size();
+        if (size > 0) {
+          if (this.m_drainX.length < size) {
+            this.m_drainX = new double[size];
+            this.m_drainY = new double[size];
+          }
+          drained = queue.drain(this.m_drainX, this.m_drainY);
+          if (drained > 0) {
+            trace.addPoints(this.m_drainX, this.m_drainY, drained);
+            result = true;
+          }
+        }
+      }
     }
+    return result;
   }
 
   /**
@@ -1786,6 +2638,67 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     return result;
   }
 
+  /**
+   * Fires the events the traces in coalescing mode (see
+   * <code>{@link ITrace2D#setCoalescingEvents(boolean)}</code>) collected since
+   * the last paint operation.
+   * <p>
+   * 
+   * @return true if at least one trace had pending events.
+   */
+  private synchronized boolean fireCoalescedEvents() {
+    boolean result = false;
+    for (ITrace2D trace : this.getTraces()) {
+      if (trace.isCoalescingEvents() && trace.fireCoalescedEvents()) {
+        result = true;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Invoked by the <code>{@link FrameScheduler}</code> on the event dispatch
+   * thread to trigger a repaint if this chart requested one or has staged
+   * points.
+   * <p>
+   * The repaint is postponed if the previous one was triggered less than
+   * <code>{@link #getPaintLatency()}</code> ms ago or if the frame budget of
+   * the scheduler is exhausted.
+   * <p>
+   * 
+   * @param now
+   *          the time (<code>{@link System#nanoTime()}</code>) of the current
+   *          tick.
+   * 
+   * @param withinBudget
+   *          false if the frame budget of the current tick is exhausted.
+   * 
+   * @return the estimated duration of the triggered paint operation in ns (the
+   *         duration of the previous one),
+   *         <code>{@link FrameScheduler#FRAME_POSTPONED}</code> or
+   *         <code>{@link FrameScheduler#FRAME_CLEAN}</code> if no repaint is
+   *         required.
+   */
+  synchronized long frame(final long now, final boolean withinBudget) {
+    long result = FrameScheduler.FRAME_CLEAN;
+    if ((this.m_frameScheduler != null)
+        && (this.isRequestedRepaint() || this.m_requestedRepaintWithoutLock || this.hasStagedPoints())) {
+      if ((now - this.m_lastFrame < this.m_paintLatency * 1000000L) || !withinBudget) {
+        result = FrameScheduler.FRAME_POSTPONED;
+      } else {
+        if (Chart2D.DEBUG_THREADING) {
+          System.out.println(Thread.currentThread().getName() + " triggering repaint()");
+        }
+        // Only here this deprecated call may be done:
+        this.repaint();
+        this.setRequestedRepaint(false);
+        this.m_lastFrame = now;
+        result = this.m_paintDuration;
+      }
+    }
+    return result;
+  }
+
   /**
    * Returns the <code>{@link List}&lt;{@link IAxis}&gt;</code> with all axes of the chart.
    * <p>
@@ -1960,6 +2873,21 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     return result;
   }
 
+  /**
+   * Returns the amount of visible traces that were skipped in the latest paint
+   * operation because their bounds are completely outside of the ranges of
+   * their axes.
+   * <p>
+   * Such traces cannot contribute a single pixel to the chart, so none of their
+   * points is iterated.
+   * <p>
+   * 
+   * @return the amount of traces culled in the latest paint operation.
+   */
+  public synchronized int getCulledTraceCount() {
+    return this.m_culledTraceCount;
+  }
+
   /**
    * Returns the color of the grid.
    * <p>
@@ -1992,6 +2920,20 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     return result;
   }
 
+  /**
+   * Returns the upper bound for the repaint interval in ms in adaptive paint
+   * latency mode.
+   * <p>
+   * 
+   * @return the upper bound for the repaint interval in ms in adaptive paint
+   *         latency mode.
+   * 
+   * @see #setAdaptivePaintLatency(boolean)
+   */
+  public synchronized int getMaxPaintLatency() {
+    return this.m_maxPaintLatency;
+  }
+
   /**
    * Returns the chart - wide setting for the ms to give a repaint operation
    * time for collecting several repaint requests into one (performance vs.
@@ -2198,6 +3140,40 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     return this.getNearestPointManhattan(me.getX(), me.getY());
   }
 
+  /**
+   * Returns the measured cost of the recent paint operations of this chart in
+   * ms (smoothed over several paint operations).
+   * <p>
+   * 
+   * Changes are reported by <code>{@link #PROPERTY_PAINT_COST}</code> events.
+   * <p>
+   * 
+   * @return the measured cost of the recent paint operations in ms or 0 if not
+   *         painted yet.
+   */
+  public synchronized double getPaintCost() {
+    return this.m_paintCost;
+  }
+
+  /**
+   * Returns the effective minimum interval between two repaints in ms.
+   * <p>
+   * This is <code>{@link #getMinPaintLatency()}</code> unless
+   * <code>{@link #isAdaptivePaintLatency()}</code> is true. Then it is
+   * adapted to the measured paint cost (<code>{@link #getPaintCost()}</code>)
+   * within <code>{@link #getMinPaintLatency()}</code> and
+   * <code>{@link #getMaxPaintLatency()}</code>.
+   * <p>
+   * Changes are reported by <code>{@link #PROPERTY_PAINT_LATENCY}</code>
+   * events.
+   * <p>
+   * 
+   * @return the effective minimum interval between two repaints in ms.
+   */
+  public synchronized int getPaintLatency() {
+    return this.m_paintLatency;
+  }
+
   /**
    * Returns the point finder used to find the nearest point corresponding to a
    * mouse event.
@@ -2298,49 +3274,29 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
   /**
    * Returns the set of traces that are currently rendered by this instance.
    * <p>
-   * The instances are collected from all underlying axes. The resulting <code> 
-   * {@link Set}</code>
-   * is not an original set. Therefore modification methods like
-   * <code>{@link Set#add(Object)}</code> or <code>{@link Set#clear()}</code>
-   * will not have any effect on the setup of this chart.
+   * The instances are collected from all underlying axes and sorted by their
+   * z-index. The resulting <code>{@link SortedSet}</code> is an unmodifiable
+   * snapshot that is cached until traces are added or removed, x axes are added
+   * or removed or the z-index of a trace changes. Therefore repeated calls are
+   * cheap, modification methods like <code>{@link Set#add(Object)}</code> or
+   * <code>{@link Set#clear()}</code> will throw an
+   * <code>{@link UnsupportedOperationException}</code> and a returned instance
+   * will not reflect later changes of the setup of this chart.
    * <p>
    * 
    * @return the set of traces that are currently rendered by this instance.
    */
   public final SortedSet<ITrace2D> getTraces() {
-    SortedSet<ITrace2D> result = new TreeSet<ITrace2D>();
-    // 1.1) axes x bottom:
-    Iterator<IAxis> it = this.m_axesXBottom.iterator();
-    IAxis currentAxis;
-    Set<ITrace2D> axisTraces;
-    while (it.hasNext()) {
-      currentAxis = it.next();
-      axisTraces = currentAxis.getTraces();
-      // addAll not feasible: assumes currentAxis.getTraces() is sorted and
-      // order is lost?
-      for (ITrace2D trace : axisTraces) {
-        result.add(trace);
-      }
-
-      // result.addAll(currentAxis.getTraces());
-    }
-    // 1.2) axes x top:
-    it = this.m_axesXTop.iterator();
-    while (it.hasNext()) {
-      currentAxis = it.next();
-      axisTraces = currentAxis.getTraces();
-      for (ITrace2D trace : axisTraces) {
-        result.add(trace);
+    SortedSet<ITrace2D> result = this.m_traces;
+    if (result == null) {
+      synchronized (this.m_tracesLock) {
+        result = this.m_traces;
+        if (result == null) {
+          result = Collections.unmodifiableSortedSet(this.collectTraces());
+          this.m_traces = result;
+        }
       }
-      // result.addAll(currentAxis.getTraces());
     }
-    // We skip y axes as by contract every
-    // trace has to be at least in one x axis
-    // (not logical if trace is e.g. in y axes
-    // only
-    // 2.1) axes y left:
-    // 2.2) axes y right:
-
     return result;
   }
 
@@ -2426,40 +3382,43 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
   }
 
   /**
-   * Returns true if the connection of both interpolated points would cross the
-   * visible area.
+   * Returns true if any trace has points in its staging queue (see
+   * <code>{@link ITrace2D#setStagingQueue(StagingQueue)}</code>).
    * <p>
    * 
-   * Caution this method is only intended for two points that were invisible and
-   * have been interpolated to a bound of the chart to avoid drawing horizontal
-   * or vertical lines at the bound. In case two points that were not
-   * interpolated really have a vertical or horizontal connection the result
-   * would not be quite correct in terms of painting: Their line would not be
-   * drawn even if it would be correct.
-   * <p>
-   * 
-   * Also this method assumes that both points were interpolated towards a bound
-   * of the chart via a connection to a previous or following point (line) which
-   * means that two points interpolated to the maximum and the minimum (x or y)
-   * do not have to be tested for intersections with the viewport rectangle.
+   * @return true if any trace has points in its staging queue.
+   */
+  synchronized boolean hasStagedPoints() {
+    boolean result = false;
+    StagingQueue queue;
+    for (ITrace2D trace : this.getTraces()) {
+      queue = trace.getStagingQueue();
+      if ((queue != null) && !queue.isEmpty()) {
+        result = true;
+        break;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns true if any trace has a staging queue (see
+   * <code>{@link ITrace2D#setStagingQueue(StagingQueue)}</code>) and therefore
+   * has to be polled by the <code>{@link FrameScheduler}</code>.
    * <p>
    * 
-   * @param oldpoint
-   *          interpolated point.
-   * 
-   * @param newpoint
-   *          interpolated point following on oldpoint
-   * 
-   * @return true if the connection of both points
+   * @return true if any trace has a staging queue.
    */
-  private boolean hasChartIntersection(ITracePoint2D oldpoint, ITracePoint2D newpoint) {
-    boolean result = true;
-    // if we needed a more generic (slower) solution we had to test:
-    // if x1 >= xmax && x2 >= xmax
-    // Caution: getX() and getY() will always return 0.0 by now as we don't
-    // backtrace values from interpolated points!
-    result = (oldpoint.getScaledX() != newpoint.getScaledX() || oldpoint.getScaledY() != newpoint
-        .getScaledY());
+  synchronized boolean hasStagingQueues() {
+    boolean result = false;
+    if (this.m_frameScheduler != null) {
+      for (ITrace2D trace : this.getTraces()) {
+        if (trace.getStagingQueue() != null) {
+          result = true;
+          break;
+        }
+      }
+    }
     return result;
   }
 
@@ -2533,93 +3492,78 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
   }
 
   /**
-   * Interpolates (linear) the two neighboring points.
+   * Discards the cached result of <code>{@link #getTraces()}</code> and the
+   * trace layer.
    * <p>
-   * Calling this method only makes sense if argument invisible is not null or
-   * if argument visible is not null (if then invisible is null, the visible
-   * point will be returned).
+   * Has to be invoked whenever the traces of the x axes, the x axes or the
+   * z-index of a trace change.
    * <p>
-   * Visibility is determined only by their internally normalized coordinates
-   * that are within [0.0,1.0] for visible points.
+   */
+  private void invalidateTraces() {
+    synchronized (this.m_tracesLock) {
+      this.m_traces = null;
+    }
+    this.m_traceLayerModCount.incrementAndGet();
+  }
+
+  /**
+   * Returns true if the repaint interval is adapted to the measured paint
+   * cost.
    * <p>
    * 
-   * @param visible
-   *          the visible point.
-   * @param invisible
-   *          the invisible point.
-   * @return the interpolation towards the exceeded bound.
+   * @return true if the repaint interval is adapted to the measured paint
+   *         cost.
+   * 
+   * @see #setAdaptivePaintLatency(boolean)
    */
-  private ITracePoint2D interpolateVisible(final ITracePoint2D invisible,
-      final ITracePoint2D visible) {
+  public synchronized boolean isAdaptivePaintLatency() {
+    return this.m_adaptivePaintLatency;
+  }
 
-    ITracePoint2D result;
-    /*
-     * In the first call invisible is null because it is the previous point
-     * (there was no previous point: just return the new point):
-     */
-    if (invisible == null) {
-      result = visible;
-    } else {
-      /*
-       * Interpolation is done by the two point form: (y - y1)/(x - x1) = (y2 -
-       * y1)/(x2 - x1) solved to the missing value.
-       */
-      // interpolate
-      double xInterpolate = Double.NaN;
-      double yInterpolate = Double.NaN;
-      // find the bounds that has been exceeded:
-      // It is possible that two bound have been exceeded,
-      // then only one interpolation will be valid:
-      boolean interpolated = false;
-      boolean interpolatedWrong = false;
-      if (invisible.getScaledX() > 1.0) {
-        // right x bound
-        xInterpolate = 1.0;
-        yInterpolate = (visible.getScaledY() - invisible.getScaledY())
-            / (visible.getScaledX() - invisible.getScaledX()) * (1.0 - invisible.getScaledX())
-            + invisible.getScaledY();
-        interpolated = true;
-        interpolatedWrong = Double.isNaN(yInterpolate) || yInterpolate < 0.0 || yInterpolate > 1.0;
-      }
-      if ((invisible.getScaledX() < 0.0) && (!interpolated || interpolatedWrong)) {
-        // left x bound
-        xInterpolate = 0.0;
-        yInterpolate = (visible.getScaledY() - invisible.getScaledY())
-            / (visible.getScaledX() - invisible.getScaledX()) * -invisible.getScaledX()
-            + invisible.getScaledY();
-        interpolated = true;
-        interpolatedWrong = Double.isNaN(yInterpolate) || yInterpolate < 0.0 || yInterpolate > 1.0;
-      }
-      if ((invisible.getScaledY() > 1.0) && (!interpolated || interpolatedWrong)) {
-        // upper y bound, checked
-        yInterpolate = 1.0;
-        xInterpolate = (1.0 - invisible.getScaledY())
-            * (visible.getScaledX() - invisible.getScaledX())
-            / (visible.getScaledY() - invisible.getScaledY()) + invisible.getScaledX();
-        interpolated = true;
-        interpolatedWrong = Double.isNaN(xInterpolate) || xInterpolate < 0.0 || xInterpolate > 1.0;
+  /**
+   * Returns true if the bounds of the given trace are completely outside of
+   * the ranges of its axes, i.e. the trace cannot contribute a single pixel.
+   * <p>
+   * Traces with undefined bounds (NaN values) or without axes are never
+   * culled.
+   * <p>
+   * 
+   * @param trace
+   *          the trace to test.
+   * @return true if the given trace does not have to be painted.
+   */
+  private boolean isCulled(final ITrace2D trace) {
+    final IAxis axisX = this.getAxisX(trace);
+    final IAxis axisY = this.getAxisY(trace);
+    boolean result = false;
+    if ((axisX != null) && (axisY != null) && !trace.isEmpty()) {
+      result = (trace.getMaxX() < axisX.getMin()) || (trace.getMinX() > axisX.getMax())
+          || (trace.getMaxY() < axisY.getMin()) || (trace.getMinY() > axisY.getMax());
+    }
+    return result;
+  }
 
-      }
-      if ((invisible.getScaledY() < 0.0) && (!interpolated || interpolatedWrong)) {
-        // lower y bound
-        yInterpolate = 0.0;
-        xInterpolate = -invisible.getScaledY() * (visible.getScaledX() - invisible.getScaledX())
-            / (visible.getScaledY() - invisible.getScaledY()) + invisible.getScaledX();
-        interpolated = true;
-        interpolatedWrong = Double.isNaN(xInterpolate) || xInterpolate < 0.0 || xInterpolate > 1.0;
-      }
-      if (interpolatedWrong) {
-        result = visible;
-      } else {
-        result = this.m_tracePointProvider.createTracePoint(0, 0);
-        // transfer potential point highlighters to the synthetic point:
-        for (IPointPainter< ? > highlighter : invisible.getAdditionalPointPainters()) {
-          result.addAdditionalPointPainter(highlighter);
-        }
-        result.setScaledX(xInterpolate);
-        result.setScaledY(yInterpolate);
-        result.setListener(invisible.getListener());
-        // TODO: do we have to compute and set the unscaled real values too?
+  /**
+   * Returns true if all given trace painters render the same pixels when points
+   * sharing a pixel column are collapsed to the first, minimum, maximum and
+   * last point of the column.
+   * <p>
+   * This is the case for painters that just connect subsequent points with
+   * lines. Painters that render every point (discs, bars,...) would lose
+   * points.
+   * <p>
+   * 
+   * @param tracePainters
+   *          the trace painters of a trace.
+   * @return true if all given trace painters may be fed with decimated points.
+   * @see ITrace2D#isPaintDecimation()
+   */
+  private static boolean isDecimationLossless(final Set<ITracePainter< ? >> tracePainters) {
+    boolean result = true;
+    for (ITracePainter< ? > painter : tracePainters) {
+      if (!((painter instanceof TracePainterLine) || (painter instanceof TracePainterPolyline))) {
+        result = false;
+        break;
       }
     }
     return result;
@@ -2682,6 +3626,31 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     return this.m_useAntialiasing;
   }
 
+  /**
+   * Returns whether the background layer (axes, grid, scales and trace labels)
+   * is cached between paint operations.
+   * <p>
+   * 
+   * @return whether the background layer is cached between paint operations.
+   * 
+   * @see #setUseLayeredRendering(boolean)
+   */
+  public final boolean isUseLayeredRendering() {
+    return this.m_useLayeredRendering;
+  }
+
+  /**
+   * Returns whether the traces are rendered as a strip chart.
+   * <p>
+   * 
+   * @return whether the traces are rendered as a strip chart.
+   * 
+   * @see #setUseStripChartRendering(boolean)
+   */
+  public final boolean isUseStripChartRendering() {
+    return this.m_useStripChartRendering;
+  }
+
   /**
    * Returns true if the given point is in the visible drawing area of the
    * Chart2D.
@@ -2719,6 +3688,44 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     return this.getTraces().iterator();
   }
 
+  /**
+   * Returns the points of the given trace to paint: Points outside of the
+   * visible x range are skipped for traces that are sorted by their x values
+   * and summarized per pixel column if decimation is allowed.
+   * <p>
+   * Only to be invoked with the lock on the trace held.
+   * <p>
+   * 
+   * @param trace
+   *          the trace to paint.
+   * 
+   * @param fromX
+   *          the x value of the first point to paint.
+   * 
+   * @param decimate
+   *          if true the points may be summarized per pixel column.
+   * 
+   * @return the points of the given trace to paint.
+   */
+  private Iterator<ITracePoint2D> iteratorPaint(final ITrace2D trace, final double fromX,
+      final boolean decimate) {
+    Iterator<ITracePoint2D> result;
+    if (trace.isSortedX()) {
+      // skip the points outside of the visible x range:
+      IAxis axisX = this.getAxisX(trace);
+      if (decimate) {
+        // allow level of detail summaries:
+        result = trace.iterator(Math.max(fromX, axisX.getMin()), axisX.getMax(),
+            this.m_xChartEnd - this.m_xChartStart);
+      } else {
+        result = trace.iterator(Math.max(fromX, axisX.getMin()), axisX.getMax());
+      }
+    } else {
+      result = trace.iterator();
+    }
+    return result;
+  }
+
   /**
    * Helper that adds this chart as a listener to the required property change
    * events.
@@ -2749,6 +3756,12 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     // for tracking enablement/disablement of point highlighting feature
     // (expensive mouse listener)
     trace.addPropertyChangeListener(ITrace2D.PROPERTY_POINT_HIGHLIGHTERS_CHANGED, this);
+    // for keeping the cached z-index ordered set of traces up to date:
+    trace.addPropertyChangeListener(ITrace2D.PROPERTY_ZINDEX, this);
+    // for keeping the trace layer up to date:
+    for (String property : Chart2D.TRACE_LAYER_PROPERTIES) {
+      trace.addPropertyChangeListener(property, this.m_traceLayerListener);
+    }
   }
 
   /**
@@ -2816,7 +3829,15 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     if (Chart2D.DEBUG_THREADING) {
       System.out.println("paint, 1 lock");
     }
+    final long start = System.nanoTime();
     super.paintComponent(g);
+    final boolean drained = this.drainStagingQueues();
+    // before the events are fired to see later requests:
+    this.m_requestedRepaintWithoutLock = false;
+    if (this.fireCoalescedEvents() || drained) {
+      // the events of the new points requested a repaint: this is it.
+      this.setRequestedRepaint(false);
+    }
     // printing ?
     if (this.m_pageFormat != null) {
       /*
@@ -2829,196 +3850,104 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
       g2d.translate(startX, startY);
     }
     this.updateScaling(false);
-    // will be used in several iterations.
-    ITrace2D trace;
-    Iterator<ITrace2D> traceIt;
-    // painting trace labels
-    this.negociateXChart(g);
-    int labelHeight = this.paintTraceLabels(g);
-    // finding start point of coordinate System.
-    this.m_yChartStart = this.calculateYChartStart(g, labelHeight);
-    this.m_yChartEnd = this.calculateYChartEnd(g);
-    int rangex = this.m_xChartEnd - this.m_xChartStart;
-    int rangey = this.m_yChartStart - this.m_yChartEnd;
-    this.paintCoordinateSystem(g);
-    // paint Traces.
-    int tmpx = 0;
-    int oldtmpx;
-    int tmpy = 0;
-    int oldtmpy;
-    ITracePoint2D oldpoint = null;
-    ITracePoint2D newpoint = null;
-    ITracePoint2D tmppt = null;
-    traceIt = this.getTraces().iterator();
-    // Some operations (e.g. stroke) need Graphics2d
-    Graphics2D g2d = null;
-    Stroke backupStroke = null;
-
-    if (g instanceof Graphics2D) {
-      g2d = (Graphics2D) g;
-      backupStroke = g2d.getStroke();
-      if (this.isUseAntialiasing()) {
-        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
-            RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-      }
+    if (!this.paintBackgroundLayer(g)) {
+      this.paintBackground(g);
     }
+    if (!this.paintTraceLayer(g)) {
+      this.paintTraces(g, Double.NEGATIVE_INFINITY);
+    }
+    this.m_paintDuration = System.nanoTime() - start;
+    this.adaptPaintLatency();
+  }
 
-    int count = 0;
-    Iterator<ITracePainter< ? >> itTracePainters;
-    Iterator<IErrorBarPolicy< ? >> itTraceErrorBarPolicies;
-    ITracePainter< ? > tracePainter;
-    IErrorBarPolicy< ? > errorBarPolicy;
-    while (traceIt.hasNext()) {
-      oldpoint = null;
-      newpoint = null;
-      count++;
-      trace = traceIt.next();
-      if (trace.isVisible()) {
-        synchronized (trace) {
-          if (Chart2D.DEBUG_THREADING) {
-            System.out.println("Chart2D.paintComponent(" + Thread.currentThread().getName()
-                + "), 2 locks (lock on trace " + trace.getName() + ")");
-          }
-          boolean hasErrorBars = trace.getHasErrorBars();
-          if (g2d != null) {
-            g2d.setStroke(trace.getStroke());
-          }
-          g.setColor(trace.getColor());
-          Set<ITracePainter< ? >> tracePainters = trace.getTracePainters();
-          itTracePainters = tracePainters.iterator();
-          tracePainter = null;
-          while (itTracePainters.hasNext()) {
-            tracePainter = itTracePainters.next();
-            tracePainter.startPaintIteration(g);
-          }
-          if (hasErrorBars) {
-            errorBarPolicy = null;
-            Set<IErrorBarPolicy< ? >> errorBarPolicies = trace.getErrorBarPolicies();
-            itTraceErrorBarPolicies = errorBarPolicies.iterator();
-            while (itTraceErrorBarPolicies.hasNext()) {
-              errorBarPolicy = itTraceErrorBarPolicies.next();
-              errorBarPolicy.startPaintIteration(g);
-            }
-          }
-          Iterator<ITracePoint2D> pointIt = trace.iterator();
-          boolean newpointVisible = false;
-          boolean oldpointVisible = false;
-          while (pointIt.hasNext()) {
-            oldpoint = newpoint;
-            oldtmpx = tmpx;
-            oldtmpy = tmpy;
-            newpoint = pointIt.next();
-            newpointVisible = this.isVisible(newpoint);
-            oldpointVisible = this.isVisible(oldpoint);
-
-            /*
-             * Special case: if we have NaN just don't interpolate anything or
-             * paint but just continue (and give a signal to trace painters to
-             * discontinue which is neccessary for implementations that paint
-             * polylines and must not accumulate polylines that have a
-             * discontinuation within):
-             */
-            boolean isNaNNewpoint = Double.isNaN(newpoint.getX()) || Double.isNaN(newpoint.getY());
-            boolean isNanOldpoint;
-            if (oldpoint == null) {
-              isNanOldpoint = false;
-            } else {
-              isNanOldpoint = Double.isNaN(oldpoint.getX()) || Double.isNaN(oldpoint.getY());
-            }
-            if (isNaNNewpoint || isNanOldpoint) {
-              /*
-               * Only discontinue when entering NaN space as calls to it for
-               * subsequent NaN values would repeat the same polyline paint of
-               * the last valid point in TracePainterPolyline (senseless).
-               */
-              if (!(isNanOldpoint) && (isNaNNewpoint)) {
-                for (ITracePainter< ? > painter : trace.getTracePainters()) {
-                  painter.discontinue(g2d);
-                }
-              }
-              if (!isNaNNewpoint) {
-                tmpx = this.m_xChartStart + (int) Math.round(newpoint.getScaledX() * rangex);
-                tmpy = this.m_yChartStart - (int) Math.round(newpoint.getScaledY() * rangey);
+  /**
+   * Paints the labels of the traces and the axes and computes the bounds of
+   * the chart area.
+   * <p>
+   * <b>Caution</b> This is highly coupled code and only factored out for better
+   * overview. This method may only be called by
+   * <code>{@link #paintComponent(Graphics)}</code> (directly or via
+   * <code>{@link #paintBackgroundLayer(Graphics)}</code>).
+   * <p>
+   * 
+   * @param g
+   *          the graphics context to use.
+   */
+  private void paintBackground(final Graphics g) {
+    // painting trace labels
+    this.negociateXChart(g);
+    int labelHeight = this.paintTraceLabels(g);
+    // finding start point of coordinate System.
+    this.m_yChartStart = this.calculateYChartStart(g, labelHeight);
+    this.m_yChartEnd = this.calculateYChartEnd(g);
+    this.paintCoordinateSystem(g);
+  }
 
-              }
-            } else if (!newpointVisible && !oldpointVisible) {
-              // save for next loop:
-              tmppt = (ITracePoint2D) newpoint.clone();
-              int tmptmpx = tmpx;
-              int tmptmpy = tmpy;
-              /*
-               * check if the interconnection of both invisible points cuts the
-               * visible area:
-               */
-              oldpoint = this.interpolateVisible(oldpoint, newpoint);
-              newpoint = this.interpolateVisible(newpoint, oldpoint);
-
-              tmpx = this.m_xChartStart + (int) Math.round(newpoint.getScaledX() * rangex);
-              tmpy = this.m_yChartStart - (int) Math.round(newpoint.getScaledY() * rangey);
-              oldtmpx = this.m_xChartStart + (int) Math.round(oldpoint.getScaledX() * rangex);
-              oldtmpy = this.m_yChartStart - (int) Math.round(oldpoint.getScaledY() * rangey);
-              // only paint if intersection!
-              if (this.hasChartIntersection(oldpoint, newpoint)) {
-                // don't use error bars for interpolated points that do not
-                // intersect the chart's viewport!
-                this.paintPoint(oldtmpx, oldtmpy, tmpx, tmpy, true, trace, g, newpoint, false);
-              }
-              // restore for next loop start:
-              newpoint = tmppt;
-              tmpx = tmptmpx;
-              tmpy = tmptmpy;
-            } else if (newpointVisible && !oldpointVisible) {
-              // entering the visible bounds: interpolate from old point
-              // to new point
-              oldpoint = this.interpolateVisible(oldpoint, newpoint);
-              tmpx = this.m_xChartStart + (int) Math.round(newpoint.getScaledX() * rangex);
-              tmpy = this.m_yChartStart - (int) Math.round(newpoint.getScaledY() * rangey);
-              oldtmpx = this.m_xChartStart + (int) Math.round(oldpoint.getScaledX() * rangex);
-              oldtmpy = this.m_yChartStart - (int) Math.round(oldpoint.getScaledY() * rangey);
-              // don't use error bars for interpolated points!
-              this.paintPoint(oldtmpx, oldtmpy, tmpx, tmpy, true, trace, g, newpoint, false);
-            } else if (!newpointVisible && oldpointVisible) {
-              // leaving the visible bounds:
-              tmppt = (ITracePoint2D) newpoint.clone();
-              newpoint = this.interpolateVisible(newpoint, oldpoint);
-              tmpx = this.m_xChartStart + (int) Math.round(newpoint.getScaledX() * rangex);
-              tmpy = this.m_yChartStart - (int) Math.round(newpoint.getScaledY() * rangey);
-              // don't use error bars for interpolated points!
-              this.paintPoint(oldtmpx, oldtmpy, tmpx, tmpy, true, trace, g, newpoint, false);
-              // restore for next loop start:
-              newpoint = tmppt;
-            } else {
-              // staying in the visible bounds: just paint
-              tmpx = this.m_xChartStart + (int) Math.round(newpoint.getScaledX() * rangex);
-              tmpy = this.m_yChartStart - (int) Math.round(newpoint.getScaledY() * rangey);
-              this
-                  .paintPoint(oldtmpx, oldtmpy, tmpx, tmpy, false, trace, g, newpoint, hasErrorBars);
-            }
-          }
-          itTracePainters = trace.getTracePainters().iterator();
-          while (itTracePainters.hasNext()) {
-            tracePainter = itTracePainters.next();
-            tracePainter.endPaintIteration(g);
-          }
-          if (hasErrorBars) {
-            itTraceErrorBarPolicies = trace.getErrorBarPolicies().iterator();
-            while (itTraceErrorBarPolicies.hasNext()) {
-              errorBarPolicy = itTraceErrorBarPolicies.next();
-              errorBarPolicy.endPaintIteration(g);
-            }
-          }
-        }
+  /**
+   * Paints the cached background layer (see
+   * <code>{@link #setUseLayeredRendering(boolean)}</code>) to the given
+   * graphics context after rendering it again if it is outdated.
+   * <p>
+   * Returns false without painting anything if layered rendering is turned
+   * off or not possible for the given graphics context: printing, charts with
+   * synchronized x start coordinates and graphics contexts that are scaled or
+   * rotated.
+   * <p>
+   * 
+   * @param g
+   *          the graphics context to use.
+   * 
+   * @return true if the background layer was painted.
+   */
+  private boolean paintBackgroundLayer(final Graphics g) {
+    if (!this.m_useLayeredRendering || (this.m_pageFormat != null) || this.m_synchronizedXStart
+        || (this.m_synchronizedXStartChart != null) || !(g instanceof Graphics2D)) {
+      return false;
+    }
+    Graphics2D g2d = (Graphics2D) g;
+    if ((g2d.getTransform().getType() & ~AffineTransform.TYPE_TRANSLATION) != 0) {
+      return false;
+    }
+    final int width = this.getWidth();
+    final int height = this.getHeight();
+    if ((width <= 0) || (height <= 0)) {
+      return false;
+    }
+    if (this.m_backgroundKey == null) {
+      this.m_backgroundKey = new BackgroundKey();
+      this.m_backgroundKeyScratch = new BackgroundKey();
+    }
+    BackgroundKey key = this.m_backgroundKeyScratch;
+    this.collectBackgroundKey(key, g2d);
+    if ((this.m_background == null) || !key.matches(this.m_backgroundKey)) {
+      final boolean opaque = this.isOpaque();
+      final int imageType = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+      if ((this.m_background == null) || (this.m_background.getWidth() != width)
+          || (this.m_background.getHeight() != height)
+          || (this.m_background.getType() != imageType)) {
+        this.m_background = new BufferedImage(width, height, imageType);
       }
-      if (Chart2D.DEBUG_THREADING) {
-        System.out.println("paint(" + Thread.currentThread().getName() + "), left lock on trace "
-            + trace.getName());
+      Graphics2D layer = this.m_background.createGraphics();
+      try {
+        if (opaque) {
+          layer.setColor(this.getBackground());
+        } else {
+          layer.setComposite(AlphaComposite.Clear);
+        }
+        layer.fillRect(0, 0, width, height);
+        layer.setComposite(AlphaComposite.SrcOver);
+        layer.setRenderingHints(g2d.getRenderingHints());
+        layer.setFont(g2d.getFont());
+        layer.setColor(g2d.getColor());
+        this.paintBackground(layer);
+      } finally {
+        layer.dispose();
       }
+      this.m_backgroundKeyScratch = this.m_backgroundKey;
+      this.m_backgroundKey = key;
     }
-    if (g2d != null) {
-      g2d.setStroke(backupStroke);
-    }
-
+    g2d.drawImage(this.m_background, 0, 0, null);
+    return true;
   }
 
   /**
@@ -3260,6 +4189,438 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     return result;
   }
 
+  /**
+   * Paints the cached trace layer (see
+   * <code>{@link #setUseStripChartRendering(boolean)}</code>) to the given
+   * graphics context after updating it.
+   * <p>
+   * If only the range of the x axis moved to higher values since the previous
+   * paint operation the layer is shifted to the left by the pixel delta and
+   * only the points right of the lowest maximum x value of the traces painted
+   * before are painted. Else the layer is rendered again completely.
+   * <p>
+   * Returns false without painting anything if strip chart rendering is turned
+   * off or not possible: printing, charts with synchronized x start
+   * coordinates, graphics contexts that are scaled or rotated, more than one x
+   * axis, a non linear x axis or visible traces with error bars.
+   * <p>
+   * 
+   * @param g
+   *          the graphics context to use.
+   * 
+   * @return true if the trace layer was painted.
+   */
+  private boolean paintTraceLayer(final Graphics g) {
+    if (!this.m_useStripChartRendering || (this.m_pageFormat != null)
+        || this.m_synchronizedXStart || (this.m_synchronizedXStartChart != null)
+        || !(g instanceof Graphics2D)) {
+      return false;
+    }
+    Graphics2D g2d = (Graphics2D) g;
+    if ((g2d.getTransform().getType() & ~AffineTransform.TYPE_TRANSLATION) != 0) {
+      return false;
+    }
+    final int width = this.getWidth();
+    final int height = this.getHeight();
+    final int rangex = this.m_xChartEnd - this.m_xChartStart;
+    if ((width <= 0) || (height <= 0) || (rangex <= 0)
+        || (this.m_axesXBottom.size() + this.m_axesXTop.size() != 1)) {
+      return false;
+    }
+    final IAxis axisX = this.getAxisX();
+    if (!(axisX instanceof AxisLinear)) {
+      return false;
+    }
+    final SortedSet<ITrace2D> traces = this.getTraces();
+    for (ITrace2D trace : traces) {
+      if (trace.isVisible() && trace.getHasErrorBars()) {
+        return false;
+      }
+    }
+    if (this.m_traceLayerKey == null) {
+      this.m_traceLayerKey = new BackgroundKey();
+      this.m_traceLayerKeyScratch = new BackgroundKey();
+    }
+    BackgroundKey key = this.m_traceLayerKeyScratch;
+    final double min = axisX.getMin();
+    final double max = axisX.getMax();
+    this.collectTraceLayerKey(key, traces, min);
+    final double extent = max - min;
+    boolean shift = (this.m_traceLayer != null) && this.m_traceLayerSeamValid
+        && key.matches(this.m_traceLayerKey) && (extent > 0)
+        && (Math.abs(extent - this.m_traceLayerExtent) <= extent * 1e-9);
+    int shiftPx = 0;
+    if (shift) {
+      final double delta = (min - this.m_traceLayerOrigin) / extent * rangex;
+      shift = (delta > -0.5) && (delta < rangex - 0.5);
+      if (shift) {
+        shiftPx = (int) Math.round(delta);
+      }
+    }
+    Graphics2D layer;
+    if (shift) {
+      layer = this.m_traceLayer.createGraphics();
+      if (shiftPx > 0) {
+        // copy transparent pixels too:
+        layer.setComposite(AlphaComposite.Src);
+        layer.copyArea(shiftPx, 0, width - shiftPx, height, -shiftPx, 0);
+        // keep the origin pixel aligned to avoid accumulating rounding errors:
+        this.m_traceLayerOrigin += shiftPx * extent / rangex;
+      }
+      // remove what was shifted out of the chart and what will be painted again:
+      int seamPx = this.m_xChartStart
+          + (int) Math.round((this.m_traceLayerSeam - min) / extent * rangex);
+      seamPx = Math.max(this.m_xChartStart, Math.min(width, seamPx + 1));
+      layer.setComposite(AlphaComposite.Clear);
+      layer.fillRect(0, 0, this.m_xChartStart, height);
+      layer.fillRect(seamPx, 0, width - seamPx, height);
+    } else {
+      if ((this.m_traceLayer == null) || (this.m_traceLayer.getWidth() != width)
+          || (this.m_traceLayer.getHeight() != height)) {
+        this.m_traceLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+      }
+      layer = this.m_traceLayer.createGraphics();
+      layer.setComposite(AlphaComposite.Clear);
+      layer.fillRect(0, 0, width, height);
+      this.m_traceLayerOrigin = min;
+      this.m_traceLayerExtent = extent;
+    }
+    try {
+      layer.setComposite(AlphaComposite.SrcOver);
+      layer.setRenderingHints(g2d.getRenderingHints());
+      layer.setFont(g2d.getFont());
+      this.paintTraces(layer, shift ? this.m_traceLayerSeam : Double.NEGATIVE_INFINITY);
+    } finally {
+      layer.dispose();
+    }
+    this.m_traceLayerKeyScratch = this.m_traceLayerKey;
+    this.m_traceLayerKey = key;
+    // all traces are complete in the layer up to the bounds of the copied
+    // points, points added while painting are painted with the next frame:
+    this.m_traceLayerSeam = this.m_paintSeam;
+    // points right of the x axis have been clipped and would be missing:
+    this.m_traceLayerSeamValid = (this.m_paintMaxX <= max)
+        && (this.m_paintSeam < Double.POSITIVE_INFINITY);
+    g2d.drawImage(this.m_traceLayer, 0, 0, null);
+    return true;
+  }
+
+  /**
+   * Paints the traces.
+   * <p>
+   * Points with an x value lower than the given one are not painted but only
+   * tracked as the start of the next segment: The last segment of the points
+   * painted before is painted again (strip chart rendering, see
+   * <code>{@link #paintTraceLayer(Graphics)}</code>).
+   * <p>
+   * The points of traces in coalescing mode (see
+   * <code>{@link ITrace2D#setCoalescingEvents(boolean)}</code>) are copied with
+   * the lock on the trace held and painted after releasing it: Threads adding
+   * points to such a trace only wait for the copy. The points of other traces
+   * are painted in place with the lock on the trace held.
+   * <p>
+   * <b>Caution</b> This is highly coupled code and only factored out for better
+   * overview. This method may only be called by
+   * <code>{@link #paintComponent(Graphics)}</code> (directly or via
+   * <code>{@link #paintTraceLayer(Graphics)}</code>).
+   * <p>
+   * 
+   * @param g
+   *          the graphics context to use.
+   * 
+   * @param fromX
+   *          the x value of the first point to paint,
+   *          <code>{@link Double#NEGATIVE_INFINITY}</code> to paint all points.
+   */
+  private void paintTraces(final Graphics g, final double fromX) {
+    // will be used in several iterations.
+    ITrace2D trace;
+    Iterator<ITrace2D> traceIt;
+    // paint Traces.
+    traceIt = this.getTraces().iterator();
+    // Some operations (e.g. stroke) need Graphics2d
+    Graphics2D g2d = null;
+    Stroke backupStroke = null;
+
+    if (g instanceof Graphics2D) {
+      g2d = (Graphics2D) g;
+      backupStroke = g2d.getStroke();
+      if (this.isUseAntialiasing()) {
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+            RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      }
+    }
+
+    int count = 0;
+    int culled = 0;
+    double seam = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    // the most points copied for a trace:
+    int copied = 0;
+    while (traceIt.hasNext()) {
+      count++;
+      trace = traceIt.next();
+      if (trace.isVisible() && this.isCulled(trace)) {
+        culled++;
+        synchronized (trace) {
+          if (trace.getSize() > 0) {
+            seam = Math.min(seam, trace.getMaxX());
+            maxX = Math.max(maxX, trace.getMaxX());
+          }
+        }
+      } else if (trace.isVisible()) {
+        final boolean hasErrorBars = trace.getHasErrorBars();
+        final boolean decimate = !hasErrorBars && trace.isPaintDecimation()
+            && Chart2D.isDecimationLossless(trace.getTracePainters());
+        if (trace.isCoalescingEvents()) {
+          // copy the points to paint: threads adding points to the trace only
+          // wait for the copy, not for the painting
+          int size = 0;
+          ITracePoint2D[] points = this.m_paintPoints;
+          synchronized (trace) {
+            if (Chart2D.DEBUG_THREADING) {
+              System.out.println("Chart2D.paintComponent(" + Thread.currentThread().getName()
+                  + "), 2 locks (lock on trace " + trace.getName() + ")");
+            }
+            final Iterator<ITracePoint2D> pointIt = this.iteratorPaint(trace, fromX, decimate);
+            while (pointIt.hasNext()) {
+              if (size == points.length) {
+                final ITracePoint2D[] grown = new ITracePoint2D[size * 2];
+                System.arraycopy(points, 0, grown, 0, size);
+                points = grown;
+                this.m_paintPoints = points;
+              }
+              points[size] = trace.detachPoint(pointIt.next());
+              size++;
+            }
+            if (trace.getSize() > 0) {
+              // the bounds of the copied points:
+              seam = Math.min(seam, trace.getMaxX());
+              maxX = Math.max(maxX, trace.getMaxX());
+            }
+          }
+          copied = Math.max(copied, size);
+          try {
+            this.paintTracePoints(trace, Arrays.asList(points).subList(0, size).iterator(), g,
+                fromX, decimate, hasErrorBars);
+          } finally {
+            Arrays.fill(points, 0, size, null);
+          }
+        } else {
+          synchronized (trace) {
+            if (Chart2D.DEBUG_THREADING) {
+              System.out.println("Chart2D.paintComponent(" + Thread.currentThread().getName()
+                  + "), 2 locks (lock on trace " + trace.getName() + ")");
+            }
+            this.paintTracePoints(trace, this.iteratorPaint(trace, fromX, decimate), g, fromX,
+                decimate, hasErrorBars);
+            if (trace.getSize() > 0) {
+              seam = Math.min(seam, trace.getMaxX());
+              maxX = Math.max(maxX, trace.getMaxX());
+            }
+          }
+        }
+      }
+      if (Chart2D.DEBUG_THREADING) {
+        System.out.println("paint(" + Thread.currentThread().getName() + "), left lock on trace "
+            + trace.getName());
+      }
+    }
+    this.m_culledTraceCount = culled;
+    this.m_paintSeam = seam;
+    this.m_paintMaxX = maxX;
+    if (this.m_paintPoints.length > 2 * Math.max(copied, Chart2D.PAINT_POINTS_MIN)) {
+      // e.g. a trace with many points is not coalescing any more:
+      this.m_paintPoints = new ITracePoint2D[Math.max(copied, Chart2D.PAINT_POINTS_MIN)];
+    }
+    if (g2d != null) {
+      g2d.setStroke(backupStroke);
+    }
+  }
+
+  /**
+   * Paints the given points of the given trace.
+   * <p>
+   * Points with an x value lower than the given one are not painted but only
+   * tracked as the start of the next segment (see
+   * <code>{@link #paintTraces(Graphics, double)}</code>).
+   * <p>
+   * 
+   * @param trace
+   *          the trace to paint.
+   * 
+   * @param points
+   *          the points of the trace to paint.
+   * 
+   * @param g
+   *          the graphics context to use.
+   * 
+   * @param fromX
+   *          the x value of the first point to paint.
+   * 
+   * @param decimate
+   *          if true points that fall into the same pixel column are collapsed.
+   * 
+   * @param hasErrorBars
+   *          if true error bars are painted for the points.
+   */
+  private void paintTracePoints(final ITrace2D trace, final Iterator<ITracePoint2D> points,
+      final Graphics g, final double fromX, final boolean decimate, final boolean hasErrorBars) {
+    final int rangex = this.m_xChartEnd - this.m_xChartStart;
+    final int rangey = this.m_yChartStart - this.m_yChartEnd;
+    int tmpx = 0;
+    int oldtmpx;
+    int tmpy = 0;
+    int oldtmpy;
+    ITracePoint2D oldpoint = null;
+    ITracePoint2D newpoint = null;
+    Graphics2D g2d = null;
+    if (g instanceof Graphics2D) {
+      g2d = (Graphics2D) g;
+    }
+    Iterator<ITracePainter< ? >> itTracePainters;
+    Iterator<IErrorBarPolicy< ? >> itTraceErrorBarPolicies;
+    ITracePainter< ? > tracePainter;
+    IErrorBarPolicy< ? > errorBarPolicy;
+    if (g2d != null) {
+      g2d.setStroke(trace.getStroke());
+    }
+    g.setColor(trace.getColor());
+    itTracePainters = trace.getTracePainters().iterator();
+    tracePainter = null;
+    while (itTracePainters.hasNext()) {
+      tracePainter = itTracePainters.next();
+      tracePainter.startPaintIteration(g);
+    }
+    if (hasErrorBars) {
+      errorBarPolicy = null;
+      Set<IErrorBarPolicy< ? >> errorBarPolicies = trace.getErrorBarPolicies();
+      itTraceErrorBarPolicies = errorBarPolicies.iterator();
+      while (itTraceErrorBarPolicies.hasNext()) {
+        errorBarPolicy = itTraceErrorBarPolicies.next();
+        errorBarPolicy.startPaintIteration(g);
+      }
+    }
+    boolean newpointVisible = false;
+    boolean oldpointVisible = false;
+    while (points.hasNext()) {
+      oldpoint = newpoint;
+      oldtmpx = tmpx;
+      oldtmpy = tmpy;
+      newpoint = points.next();
+      if (newpoint.getX() < fromX) {
+        // already in the trace layer: only track the position
+        tmpx = this.m_xChartStart + (int) Math.round(newpoint.getScaledX() * rangex);
+        tmpy = this.m_yChartStart - (int) Math.round(newpoint.getScaledY() * rangey);
+        continue;
+      }
+      newpointVisible = this.isVisible(newpoint);
+      oldpointVisible = this.isVisible(oldpoint);
+
+      /*
+       * Special case: if we have NaN just don't interpolate anything or
+       * paint but just continue (and give a signal to trace painters to
+       * discontinue which is neccessary for implementations that paint
+       * polylines and must not accumulate polylines that have a
+       * discontinuation within):
+       */
+      boolean isNaNNewpoint = Double.isNaN(newpoint.getX()) || Double.isNaN(newpoint.getY());
+      boolean isNanOldpoint;
+      if (oldpoint == null) {
+        isNanOldpoint = false;
+      } else {
+        isNanOldpoint = Double.isNaN(oldpoint.getX()) || Double.isNaN(oldpoint.getY());
+      }
+      if (decimate
+          && (isNaNNewpoint || isNanOldpoint || !newpointVisible || !oldpointVisible)) {
+        // leaving the plain visible path: paint the collapsed points
+        this.m_pixelColumnDecimator.flush(trace, g);
+      }
+      if (isNaNNewpoint || isNanOldpoint) {
+        /*
+         * Only discontinue when entering NaN space as calls to it for
+         * subsequent NaN values would repeat the same polyline paint of
+         * the last valid point in TracePainterPolyline (senseless).
+         */
+        if (!(isNanOldpoint) && (isNaNNewpoint)) {
+          for (ITracePainter< ? > painter : trace.getTracePainters()) {
+            painter.discontinue(g2d);
+          }
+        }
+        if (!isNaNNewpoint) {
+          tmpx = this.m_xChartStart + (int) Math.round(newpoint.getScaledX() * rangex);
+          tmpy = this.m_yChartStart - (int) Math.round(newpoint.getScaledY() * rangey);
+
+        }
+      } else if (!newpointVisible && !oldpointVisible) {
+        // only paint the part of the connection that cuts the visible area:
+        if ((oldpoint != null)
+            && this.m_lineClipper.clip(oldpoint.getScaledX(), oldpoint.getScaledY(),
+                newpoint.getScaledX(), newpoint.getScaledY())) {
+          this.paintPoint(this.m_xChartStart
+              + (int) Math.round(this.m_lineClipper.m_x0 * rangex), this.m_yChartStart
+              - (int) Math.round(this.m_lineClipper.m_y0 * rangey), this.m_xChartStart
+              + (int) Math.round(this.m_lineClipper.m_x1 * rangex), this.m_yChartStart
+              - (int) Math.round(this.m_lineClipper.m_y1 * rangey), true, trace, g,
+              newpoint, false);
+        }
+      } else if (newpointVisible && !oldpointVisible) {
+        // entering the visible bounds: clip the old point
+        tmpx = this.m_xChartStart + (int) Math.round(newpoint.getScaledX() * rangex);
+        tmpy = this.m_yChartStart - (int) Math.round(newpoint.getScaledY() * rangey);
+        if ((oldpoint != null)
+            && this.m_lineClipper.clip(oldpoint.getScaledX(), oldpoint.getScaledY(),
+                newpoint.getScaledX(), newpoint.getScaledY())) {
+          oldtmpx = this.m_xChartStart
+              + (int) Math.round(this.m_lineClipper.m_x0 * rangex);
+          oldtmpy = this.m_yChartStart
+              - (int) Math.round(this.m_lineClipper.m_y0 * rangey);
+        } else {
+          oldtmpx = tmpx;
+          oldtmpy = tmpy;
+        }
+        // don't use error bars for clipped points!
+        this.paintPoint(oldtmpx, oldtmpy, tmpx, tmpy, true, trace, g, newpoint, false);
+      } else if (!newpointVisible && oldpointVisible) {
+        // leaving the visible bounds: clip the new point
+        this.m_lineClipper.clip(oldpoint.getScaledX(), oldpoint.getScaledY(), newpoint
+            .getScaledX(), newpoint.getScaledY());
+        tmpx = this.m_xChartStart + (int) Math.round(this.m_lineClipper.m_x1 * rangex);
+        tmpy = this.m_yChartStart - (int) Math.round(this.m_lineClipper.m_y1 * rangey);
+        // don't use error bars for clipped points!
+        this.paintPoint(oldtmpx, oldtmpy, tmpx, tmpy, true, trace, g, newpoint, false);
+      } else {
+        // staying in the visible bounds: just paint
+        tmpx = this.m_xChartStart + (int) Math.round(newpoint.getScaledX() * rangex);
+        tmpy = this.m_yChartStart - (int) Math.round(newpoint.getScaledY() * rangey);
+        if (!decimate) {
+          this.paintPoint(oldtmpx, oldtmpy, tmpx, tmpy, false, trace, g, newpoint,
+              hasErrorBars);
+        } else if (!this.m_pixelColumnDecimator.collapse(tmpx, tmpy, newpoint)) {
+          this.m_pixelColumnDecimator.flush(trace, g);
+          this.paintPoint(oldtmpx, oldtmpy, tmpx, tmpy, false, trace, g, newpoint, false);
+          this.m_pixelColumnDecimator.open(tmpx, tmpy, newpoint);
+        }
+      }
+    }
+    if (decimate) {
+      this.m_pixelColumnDecimator.flush(trace, g);
+    }
+    itTracePainters = trace.getTracePainters().iterator();
+    while (itTracePainters.hasNext()) {
+      tracePainter = itTracePainters.next();
+      tracePainter.endPaintIteration(g);
+    }
+    if (hasErrorBars) {
+      itTraceErrorBarPolicies = trace.getErrorBarPolicies().iterator();
+      while (itTraceErrorBarPolicies.hasNext()) {
+        errorBarPolicy = itTraceErrorBarPolicies.next();
+        errorBarPolicy.endPaintIteration(g);
+      }
+    }
+  }
+
   /**
    * Receives all <code>{@link PropertyChangeEvent}</code> from all instances
    * the chart registers itself as a <code>{@link PropertyChangeListener}</code>
@@ -3280,6 +4641,8 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
         System.out.println("Chart2D.propertyChange, " + evt.getPropertyName() + " ("
             + Thread.currentThread().getName() + "), 1 lock");
       }
+      // the cached background layer might be outdated:
+      this.m_backgroundModCount++;
       String property = evt.getPropertyName();
       if (property.equals(IRangePolicy.PROPERTY_RANGE)) {
         // nop
@@ -3306,7 +4669,11 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     	  * Relay the event as outsiders don't want to deal with internals (listen to axes to be informed whenever a trace was added). 
     	  * Also:  repaint definetely!
     	  */
+    	  this.invalidateTraces();
     	  this.firePropertyChange(IAxis.PROPERTY_ADD_REMOVE_TRACE, evt.getOldValue(), evt.getNewValue());
+      } else if (property.equals(ITrace2D.PROPERTY_ZINDEX)) {
+        // order of traces changed:
+        this.invalidateTraces();
       } else if (property.equals(ITrace2D.PROPERTY_POINT_HIGHLIGHTERS_CHANGED)) {
         int highlightersAddedOrRemoved = 0;
         if (evt.getOldValue() != null) {
@@ -3398,6 +4765,7 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
    */
   public boolean removeAxisXBottom(final IAxis axisX) {
     boolean result = this.m_axesXBottom.remove(axisX);
+    this.invalidateTraces();
 
     this.unlistenToAxis(axisX);
 
@@ -3420,6 +4788,7 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
    */
   public boolean removeAxisXTop(final IAxis axisX) {
     boolean result = this.m_axesXTop.remove(axisX);
+    this.invalidateTraces();
 
     this.unlistenToAxis(axisX);
 
@@ -3602,6 +4971,27 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     super.repaint(r);
   }
 
+  /**
+   * Requests a repaint like <code>{@link #setRequestedRepaint(boolean)}</code>
+   * without acquiring the lock on this chart.
+   * <p>
+   * For traces that collect points in coalescing mode (see
+   * <code>{@link ITrace2D#setCoalescingEvents(boolean)}</code>) while holding
+   * the lock on the trace only: Acquiring the lock on this chart then could
+   * deadlock with a paint operation that holds the lock on this chart and
+   * waits for the lock on the trace.
+   * <p>
+   */
+  public final void requestRepaintWithoutLock() {
+    if (!this.m_requestedRepaintWithoutLock) {
+      this.m_requestedRepaintWithoutLock = true;
+      final FrameScheduler frameScheduler = this.m_frameScheduler;
+      if (frameScheduler != null) {
+        frameScheduler.requestFrame(this);
+      }
+    }
+  }
+
   /**
    * Only intended for <code>{@link Chart2DActionPrintSingleton}</code>.
    * <p>
@@ -3611,6 +5001,33 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     this.setRequestedRepaint(true);
   }
 
+  /**
+   * Turns adapting the repaint interval to the measured paint cost on or off.
+   * <p>
+   * In adaptive mode this chart measures the duration of its paint operations
+   * and stretches the minimum interval between two repaints (see
+   * <code>{@link #getPaintLatency()}</code>) if painting becomes expensive, so
+   * that paint operations occupy about a quarter of the event dispatch thread
+   * at most. The interval shrinks again if painting becomes cheaper. It stays
+   * within <code>{@link #getMinPaintLatency()}</code> and
+   * <code>{@link #getMaxPaintLatency()}</code>.
+   * <p>
+   * If turned off the interval is <code>{@link #getMinPaintLatency()}</code>.
+   * <p>
+   * Defaults to false.
+   * <p>
+   * 
+   * @param adaptivePaintLatency
+   *          true if the repaint interval should be adapted to the measured
+   *          paint cost.
+   */
+  public synchronized void setAdaptivePaintLatency(final boolean adaptivePaintLatency) {
+    this.m_adaptivePaintLatency = adaptivePaintLatency;
+    if (!adaptivePaintLatency) {
+      this.setPaintLatency(this.m_minPaintLatency);
+    }
+  }
+
   /**
    * Sets the axis tick painter.
    * <p>
@@ -3935,6 +5352,22 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     }
   }
 
+  /**
+   * Sets the upper bound for the repaint interval in ms in adaptive paint
+   * latency mode.
+   * <p>
+   * 
+   * @param maxPaintLatency
+   *          the upper bound for the repaint interval in ms in adaptive paint
+   *          latency mode.
+   * 
+   * @see #setAdaptivePaintLatency(boolean)
+   */
+  public synchronized void setMaxPaintLatency(final int maxPaintLatency) {
+    this.m_maxPaintLatency = maxPaintLatency;
+    this.setPaintLatency(this.m_paintLatency);
+  }
+
   /**
    * Sets the ms to give a repaint operation time for collecting several repaint
    * requests into one (performance vs. update speed).
@@ -3947,7 +5380,7 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
    */
   public synchronized void setMinPaintLatency(final int minPaintLatency) {
     this.m_minPaintLatency = minPaintLatency;
-    this.m_repainter.setDelay(this.m_minPaintLatency);
+    this.setPaintLatency(this.m_paintLatency);
   }
 
   /**
@@ -3968,6 +5401,30 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     }
   }
 
+  /**
+   * Sets the effective repaint interval to the given value bounded by the
+   * configured minimum and (in adaptive mode) maximum paint latency and fires a
+   * <code>{@link #PROPERTY_PAINT_LATENCY}</code> event if it changed.
+   * <p>
+   * 
+   * @param paintLatency
+   *          the desired repaint interval in ms.
+   */
+  private synchronized void setPaintLatency(final int paintLatency) {
+    int latency = paintLatency;
+    if (this.m_adaptivePaintLatency) {
+      latency = Math.min(latency, this.m_maxPaintLatency);
+    } else {
+      latency = this.m_minPaintLatency;
+    }
+    latency = Math.max(latency, this.m_minPaintLatency);
+    final int old = this.m_paintLatency;
+    if (old != latency) {
+      this.m_paintLatency = latency;
+      this.firePropertyChange(Chart2D.PROPERTY_PAINT_LATENCY, old, latency);
+    }
+  }
+
   /**
    * Sets the point finder used to find the nearest point corresponding to a
    * mouse event.
@@ -4012,6 +5469,9 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
    *          the requestedRepaint to set.
    */
   public final synchronized void setRequestedRepaint(final boolean requestedRepaint) {
+    if (requestedRepaint && !this.m_requestedRepaint && (this.m_frameScheduler != null)) {
+      this.m_frameScheduler.requestFrame(this);
+    }
     this.m_requestedRepaint = requestedRepaint;
   }
 
@@ -4120,6 +5580,71 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     }
   }
 
+  /**
+   * Sets whether the background layer (axes, grid, scales and trace labels) is
+   * cached in an image between paint operations.
+   * <p>
+   * If turned on the labels of the axes are only computed and the background
+   * layer is only rendered again if the size of the chart, the ranges, label
+   * formatters, titles or the visual configuration of the axes or the labels of
+   * the traces changed. Else only the traces are painted on top of the cached
+   * layer. This reduces the cost of a paint operation for charts whose axes
+   * do not change with every new point (e.g. fixed viewports or many small
+   * charts in a dashboard).
+   * <p>
+   * Changes of the internal state of custom label formatters, axis tick
+   * painters or axis title painters that do not fire property changes are not
+   * detected.
+   * <p>
+   * Defaults to false.
+   * <p>
+   * 
+   * @param useLayeredRendering
+   *          true if the background layer should be cached.
+   */
+  public final void setUseLayeredRendering(final boolean useLayeredRendering) {
+    if (this.m_useLayeredRendering != useLayeredRendering) {
+      this.m_useLayeredRendering = useLayeredRendering;
+      if (!useLayeredRendering) {
+        this.m_background = null;
+      }
+      this.setRequestedRepaint(true);
+    }
+  }
+
+  /**
+   * Sets whether the traces are rendered as a strip chart: The traces are
+   * cached in an image between paint operations.
+   * <p>
+   * If the range of the x axis only moved to higher values (e.g. a
+   * <code>{@link info.monitorenter.gui.chart.traces.Trace2DLtd}</code> with a
+   * <code>{@link info.monitorenter.gui.chart.rangepolicies.RangePolicyHighestValues}</code>
+   * for the x axis) the image is shifted to the left by the pixel delta of the
+   * range and only the points that were added in between are painted. This
+   * makes the cost of painting the traces proportional to the new points.
+   * <p>
+   * The traces are painted completely again if the size of the chart or the
+   * ranges of the y axes changed, points were removed or changed or points
+   * were added left of the points already painted. Strip chart rendering is
+   * not used for more than one x axis, non linear x axes or visible traces
+   * with error bars.
+   * <p>
+   * Defaults to false.
+   * <p>
+   * 
+   * @param useStripChartRendering
+   *          true if the traces should be rendered as a strip chart.
+   */
+  public final void setUseStripChartRendering(final boolean useStripChartRendering) {
+    if (this.m_useStripChartRendering != useStripChartRendering) {
+      this.m_useStripChartRendering = useStripChartRendering;
+      if (!useStripChartRendering) {
+        this.m_traceLayer = null;
+      }
+      this.setRequestedRepaint(true);
+    }
+  }
+
   /**
    * Returns a BufferedImage with the current width and height of the chart
    * filled with the Chart2D's graphics that may be written to a file or
@@ -4287,6 +5812,10 @@ public class Chart2D extends JPanel implements PropertyChangeListener, Iterable<
     removedTrace.removePropertyChangeListener(ITrace2D.PROPERTY_POINT_HIGHLIGHTERS_CHANGED,
         this.m_pointHighlightListener);
     removedTrace.removePropertyChangeListener(ITrace2D.PROPERTY_POINT_HIGHLIGHTERS_CHANGED, this);
+    removedTrace.removePropertyChangeListener(ITrace2D.PROPERTY_ZINDEX, this);
+    for (String property : Chart2D.TRACE_LAYER_PROPERTIES) {
+      removedTrace.removePropertyChangeListener(property, this.m_traceLayerListener);
+    }
   }
 
   /**
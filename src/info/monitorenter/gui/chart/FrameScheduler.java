@@ -0,0 +1,242 @@
+/*
+ *  FrameScheduler.java, process wide repaint scheduler for charts.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.swing.Timer;
+
+/**
+ * Process wide scheduler that triggers the repaints of all
+ * <code>{@link Chart2D}</code> instances.
+ * <p>
+ * Charts that requested a repaint (see
+ * <code>{@link Chart2D#setRequestedRepaint(boolean)}</code>) are collected and
+ * repainted together in the next tick of a single timer on the event dispatch
+ * thread. This allows Swing to coalesce the paint operations of all charts of
+ * a tick.
+ * <p>
+ * Every chart is repainted at most every
+ * <code>{@link Chart2D#getPaintLatency()}</code> ms. The estimated paint
+ * durations (the durations of the previous paint operations) of the charts
+ * repainted within a tick are limited by the frame budget (see
+ * <code>{@link #setFrameBudget(int)}</code>): Remaining charts are postponed to
+ * the next tick. At least one chart is repainted per tick.
+ * <p>
+ * The timer is stopped as long as no chart requested a repaint and no chart
+ * has a trace with a staging queue (see
+ * <code>{@link ITrace2D#setStagingQueue(StagingQueue)}</code>), whose points
+ * are only noticed by polling.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ *
+ * @version $Revision: 1.1 $
+ */
+public final class FrameScheduler {
+
+  /** Result of <code>{@link Chart2D#frame(long, boolean)}</code>: no repaint required. */
+  static final long FRAME_CLEAN = -1;
+
+  /**
+   * Result of <code>{@link Chart2D#frame(long, boolean)}</code>: repaint
+   * required but postponed.
+   */
+  static final long FRAME_POSTPONED = -2;
+
+  /** The singleton instance. */
+  private static final FrameScheduler INSTANCE = new FrameScheduler();
+
+  /**
+   * Returns the singleton instance.
+   * <p>
+   *
+   * @return the singleton instance.
+   */
+  public static FrameScheduler getInstance() {
+    return FrameScheduler.INSTANCE;
+  }
+
+  /** The charts that requested a repaint or have to be polled. */
+  private final Set<Chart2D> m_charts = new LinkedHashSet<Chart2D>();
+
+  /** The charts processed in the current tick, reused. */
+  private Chart2D[] m_tickCharts = new Chart2D[16];
+
+  /** The maximum sum of estimated paint durations of a tick in ms. */
+  private int m_frameBudget = 40;
+
+  /** True while the timer is stopped. */
+  private volatile boolean m_idle = true;
+
+  /** The timer that triggers the ticks on the event dispatch thread. */
+  private final Timer m_timer;
+
+  /**
+   * Creates the singleton instance.
+   * <p>
+   */
+  private FrameScheduler() {
+    this.m_timer = new Timer(20, new ActionListener() {
+
+      /**
+       * Triggers the repaints of all charts that require it.
+       * <p>
+       *
+       * @param e
+       *          invoked by the timer to trigger the action.
+       */
+      public void actionPerformed(final ActionEvent e) {
+        FrameScheduler.this.tick();
+      }
+    });
+    this.m_timer.setRepeats(true);
+    this.m_timer.setCoalesce(true);
+  }
+
+  /**
+   * Returns the maximum sum of the estimated paint durations of the charts
+   * repainted within one tick in ms.
+   * <p>
+   *
+   * @return the maximum sum of the estimated paint durations of the charts
+   *         repainted within one tick in ms.
+   */
+  public synchronized int getFrameBudget() {
+    return this.m_frameBudget;
+  }
+
+  /**
+   * Returns the interval between two ticks in ms.
+   * <p>
+   *
+   * @return the interval between two ticks in ms.
+   */
+  public int getFrameInterval() {
+    return this.m_timer.getDelay();
+  }
+
+  /**
+   * Returns true if no chart requested a repaint or has to be polled and the
+   * internal timer is stopped.
+   * <p>
+   *
+   * @return true if the internal timer is stopped.
+   */
+  public boolean isIdle() {
+    return this.m_idle;
+  }
+
+  /**
+   * Schedules a repaint of the given chart for the next tick.
+   * <p>
+   * Invoked by <code>{@link Chart2D#setRequestedRepaint(boolean)}</code> while
+   * holding the lock of the chart or by
+   * <code>{@link Chart2D#requestRepaintWithoutLock()}</code> while holding the
+   * lock of a trace.
+   * <p>
+   *
+   * @param chart
+   *          the chart that requested a repaint.
+   */
+  synchronized void requestFrame(final Chart2D chart) {
+    this.m_charts.add(chart);
+    if (this.m_idle) {
+      this.m_idle = false;
+      this.m_timer.start();
+    }
+  }
+
+  /**
+   * Sets the maximum sum of the estimated paint durations of the charts
+   * repainted within one tick in ms.
+   * <p>
+   *
+   * @param frameBudget
+   *          the maximum sum of the estimated paint durations of the charts
+   *          repainted within one tick in ms.
+   */
+  public synchronized void setFrameBudget(final int frameBudget) {
+    this.m_frameBudget = frameBudget;
+  }
+
+  /**
+   * Sets the interval between two ticks in ms.
+   * <p>
+   *
+   * @param frameInterval
+   *          the interval between two ticks in ms.
+   */
+  public void setFrameInterval(final int frameInterval) {
+    this.m_timer.setDelay(frameInterval);
+  }
+
+  /**
+   * Triggers the repaints of all charts that require it and stops the timer if
+   * no chart requires further ticks.
+   * <p>
+   * Locks of charts are only acquired without holding the lock of this
+   * instance: Charts request frames while holding their own lock.
+   * <p>
+   */
+  void tick() {
+    int count;
+    long budget;
+    synchronized (this) {
+      count = this.m_charts.size();
+      if (this.m_tickCharts.length < count) {
+        this.m_tickCharts = new Chart2D[count * 2];
+      }
+      this.m_charts.toArray(this.m_tickCharts);
+      this.m_charts.clear();
+      budget = this.m_frameBudget * 1000000L;
+    }
+    final long now = System.nanoTime();
+    long cost;
+    boolean painted = false;
+    Chart2D chart;
+    for (int i = 0; i < count; i++) {
+      chart = this.m_tickCharts[i];
+      this.m_tickCharts[i] = null;
+      cost = chart.frame(now, !painted || (budget > 0));
+      if (cost >= 0) {
+        painted = true;
+        budget -= cost;
+      }
+      if ((cost == FrameScheduler.FRAME_POSTPONED) || chart.hasStagingQueues()) {
+        synchronized (this) {
+          this.m_charts.add(chart);
+        }
+      }
+    }
+    synchronized (this) {
+      if (this.m_charts.isEmpty()) {
+        this.m_idle = true;
+        this.m_timer.stop();
+      }
+    }
+  }
+}
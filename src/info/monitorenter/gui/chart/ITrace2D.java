@@ -117,6 +117,16 @@ import java.util.Set;
  * </tr>
  * <tr>
  * <td>
+ * <code>{@link info.monitorenter.gui.chart.ITrace2D#PROPERTY_TRACEPOINTS_ADDED}</code>
+ * </td>
+ * <td><code>{@link ITrace2D}</code> that changed</td>
+ * <td><code>null</code></td>
+ * <td>unmodifiable <code>{@link java.util.List}</code> of the
+ * <code>{@link info.monitorenter.gui.chart.ITracePoint2D}</code> instances
+ * that were added in one batch</td>
+ * </tr>
+ * <tr>
+ * <td>
  * <code>{@link info.monitorenter.gui.chart.ITrace2D#PROPERTY_VISIBLE}</code></td>
  * <td><code>{@link ITrace2D}</code> that changed</td>
  * <td><code>{@link java.lang.Boolean}</code>, the old state.</td>
@@ -124,6 +134,13 @@ import java.util.Set;
  * </tr>
  * <tr>
  * <td>
+ * <code>{@link info.monitorenter.gui.chart.ITrace2D#PROPERTY_PAINT_DECIMATION}</code></td>
+ * <td><code>{@link ITrace2D}</code> that changed</td>
+ * <td><code>{@link java.lang.Boolean}</code>, the old state.</td>
+ * <td><code>{@link java.lang.Boolean}</code>, the new state.</td>
+ * </tr>
+ * <tr>
+ * <td>
  * <code>{@link info.monitorenter.gui.chart.ITrace2D#PROPERTY_PAINTERS}</code></td>
  * <td><code>{@link ITrace2D}</code> that changed</td>
  * <td><code>null</code>, indicating that a painter was added.</td>
@@ -402,6 +419,13 @@ public interface ITrace2D extends PropertyChangeListener, Comparable<ITrace2D>,
    */
   public static final String PROPERTY_PAINTERS = "ITrace2D.PROPERTY_PAINTERS";
 
+  /**
+   * The property key defining the <code>paintDecimation</code> property. Use in
+   * combination with
+   * {@link #addPropertyChangeListener(String, PropertyChangeListener)}.
+   */
+  public static final String PROPERTY_PAINT_DECIMATION = "ITrace2D.PROPERTY_PAINT_DECIMATION";
+
   /**
    * The property key defining the <code>physicalUnits</code> property. Use in
    * combination with
@@ -447,6 +471,21 @@ public interface ITrace2D extends PropertyChangeListener, Comparable<ITrace2D>,
    */
   public static final String PROPERTY_TRACEPOINT = "ITrace2D.PROPERTY_TRACEPOINT";
 
+  /**
+   * The property key defining that a batch of <code>{@link TracePoint2D}</code>
+   * instances has been added to this trace by
+   * <code>{@link #addPoints(double[], double[])}</code>. Use in combination with
+   * {@link #addPropertyChangeListener(String, PropertyChangeListener)}.
+   * <p>
+   * No <code>{@link #PROPERTY_TRACEPOINT}</code> events are fired for the
+   * points of such a batch.
+   * <p>
+   * Also fired for the points collected in coalescing mode (see
+   * <code>{@link #setCoalescingEvents(boolean)}</code>).
+   * <p>
+   */
+  public static final String PROPERTY_TRACEPOINTS_ADDED = "ITrace2D.PROPERTY_TRACEPOINTS_ADDED";
+
   /**
    * The property key defining the <code>visible</code> property. Use in
    * combination with
@@ -566,6 +605,60 @@ public interface ITrace2D extends PropertyChangeListener, Comparable<ITrace2D>,
    */
   public boolean addPointHighlighter(IPointPainter< ? > highlighter);
 
+  /**
+   * Adds the points given by the pairs of x and y values to the internal data
+   * in one operation.
+   * <p>
+   * This has the same effect as invoking
+   * <code>{@link #addPoint(double, double)}</code> for every pair but the
+   * locks on the chart and the trace are acquired only once, the bounds are
+   * updated once and instead of one event per point only a single
+   * <code>{@link #PROPERTY_TRACEPOINTS_ADDED}</code> event (plus at most one
+   * event per changed bound) is fired for the whole batch.
+   * <p>
+   * <b>Warning</b>:<br/>
+   * Do not call this method before this trace has been added to a chart (see
+   * <code>{@link #addPoint(double, double)}</code>).
+   * <p>
+   * 
+   * @param xs
+   *          the x-values of the points to add.
+   * 
+   * @param ys
+   *          the y-values of the points to add (same length as xs).
+   * 
+   * @return the amount of points that were accepted.
+   * 
+   * @throws IllegalArgumentException
+   *           if the given arrays differ in length.
+   */
+  public int addPoints(double[] xs, double[] ys) throws IllegalArgumentException;
+
+  /**
+   * Adds the points given by the first <code>amount</code> pairs of x and y
+   * values to the internal data in one operation.
+   * <p>
+   * This allows callers to reuse their arrays for batches of varying size.
+   * Apart from that this is the same as
+   * <code>{@link #addPoints(double[], double[])}</code>.
+   * <p>
+   * 
+   * @param xs
+   *          the x-values of the points to add.
+   * 
+   * @param ys
+   *          the y-values of the points to add.
+   * 
+   * @param amount
+   *          the amount of pairs to add from the start of the arrays.
+   * 
+   * @return the amount of points that were accepted.
+   * 
+   * @throws IllegalArgumentException
+   *           if the amount is negative or one of the arrays is shorter.
+   */
+  public int addPoints(double[] xs, double[] ys, int amount) throws IllegalArgumentException;
+
   /**
    * Registers a property change listener that will be informed about changes of
    * the property identified by the given <code>propertyName</code>.
@@ -602,6 +695,40 @@ public interface ITrace2D extends PropertyChangeListener, Comparable<ITrace2D>,
    */
   public boolean containsTracePainter(final ITracePainter< ? > painter);
 
+  /**
+   * Returns a point with the values of the given point of this trace that
+   * stays valid when points are added to or removed from this trace later.
+   * <p>
+   * The chart copies the points to paint with the lock on this trace held and
+   * paints the copy after releasing it: Threads adding points only wait for
+   * the copy. Implementations that store their points as instances return the
+   * given point, implementations that return views on their storage detach
+   * them.
+   * <p>
+   * Only to be invoked with the lock on this trace held.
+   * <p>
+   * 
+   * @param point
+   *          a point returned by an iterator of this trace.
+   * @return a point with the values of the given point that does not depend
+   *         on the storage of this trace.
+   */
+  public ITracePoint2D detachPoint(final ITracePoint2D point);
+
+  /**
+   * Fires the events collected since the last invocation if this trace is in
+   * coalescing mode (see <code>{@link #setCoalescingEvents(boolean)}</code>).
+   * <p>
+   * At most one event per changed bound and a single
+   * <code>{@link #PROPERTY_TRACEPOINTS_ADDED}</code> event for all points added
+   * in the meantime are fired. Invoked by the chart at the start of every
+   * paint operation.
+   * <p>
+   * 
+   * @return true if events were pending.
+   */
+  public boolean fireCoalescedEvents();
+
   /**
    * Method to trigger by <code>{@link TracePoint2D#setLocation(double, double)}
    * </code>, <code>{@link #addPoint(ITracePoint2D)}</code>
@@ -877,6 +1004,30 @@ public interface ITrace2D extends PropertyChangeListener, Comparable<ITrace2D>,
    */
   public Chart2D getRenderer();
 
+  /**
+   * Returns the mapping of x values to normalized values that is assigned by
+   * the x axis of the chart or null if the x axis writes the normalized values
+   * into the points (<code>{@link ITracePoint2D#setScaledX(double)}</code>).
+   * <p>
+   * 
+   * @return the mapping of x values to normalized values or null.
+   * 
+   * @see #setScalingX(AffineScaling)
+   */
+  public AffineScaling getScalingX();
+
+  /**
+   * Returns the mapping of y values to normalized values that is assigned by
+   * the y axis of the chart or null if the y axis writes the normalized values
+   * into the points (<code>{@link ITracePoint2D#setScaledY(double)}</code>).
+   * <p>
+   * 
+   * @return the mapping of y values to normalized values or null.
+   * 
+   * @see #setScalingY(AffineScaling)
+   */
+  public AffineScaling getScalingY();
+
   /**
    * Returns the amount of {@link TracePoint2D} instances currently contained.
    * <p>
@@ -886,6 +1037,17 @@ public interface ITrace2D extends PropertyChangeListener, Comparable<ITrace2D>,
    */
   public int getSize();
 
+  /**
+   * Returns the queue producers may stage points in without acquiring any
+   * locks or null if no queue is assigned.
+   * <p>
+   * 
+   * @return the queue for staged points or null.
+   * 
+   * @see #setStagingQueue(StagingQueue)
+   */
+  public StagingQueue getStagingQueue();
+
   /**
    * Returns the Stroke that is used to render this instance.
    * <p>
@@ -931,6 +1093,61 @@ public interface ITrace2D extends PropertyChangeListener, Comparable<ITrace2D>,
    */
   public boolean isEmpty();
 
+  /**
+   * Returns true if the events for added points and changed bounds are
+   * collected and fired once per paint operation of the chart.
+   * <p>
+   * 
+   * @return true if the events for added points and changed bounds are
+   *         collected and fired once per paint operation of the chart.
+   * 
+   * @see #setCoalescingEvents(boolean)
+   */
+  public boolean isCoalescingEvents();
+
+  /**
+   * Returns true if this trace keeps an index of its points to speed up the
+   * search for the nearest point.
+   * <p>
+   * 
+   * @return true if this trace keeps an index of its points to speed up the
+   *         search for the nearest point.
+   * 
+   * @see #setNearestPointIndexing(boolean)
+   */
+  public boolean isNearestPointIndexing();
+
+  /**
+   * Returns true if the chart is allowed to decimate the points of this trace
+   * before they are handed to the trace painters.
+   * <p>
+   * If true, consecutive points that fall into the same pixel column are
+   * collapsed to the first, minimum, maximum and last point of that column
+   * (M4 decimation). This is lossless for line based painters (with
+   * antialiasing dense columns may get slightly lighter as less segments are
+   * blended) but would drop points for painters that render every single point
+   * (e.g. discs). Those are never decimated.
+   * <p>
+   * 
+   * @return true if the chart is allowed to decimate the points of this trace
+   *         before they are handed to the trace painters.
+   * @see #setPaintDecimation(boolean)
+   */
+  public boolean isPaintDecimation();
+
+  /**
+   * Returns true if the iterators of this trace currently return the points in
+   * ascending order of their x values.
+   * <p>
+   * This allows <code>{@link #iterator(double, double)}</code> to skip the
+   * points outside of an x range by a binary search.
+   * <p>
+   * 
+   * @return true if the iterators of this trace currently return the points in
+   *         ascending order of their x values.
+   */
+  public boolean isSortedX();
+
   /**
    * Returns true if this instance should be rendered.
    * <p>
@@ -959,6 +1176,66 @@ public interface ITrace2D extends PropertyChangeListener, Comparable<ITrace2D>,
    */
   public Iterator<ITracePoint2D> iterator();
 
+  /**
+   * Returns an <code>Iterator</code> over the internal <code>
+   * {@link TracePoint2D}</code> instances with x values within the given range
+   * in the order of <code>{@link #iterator()}</code>.
+   * <p>
+   * The last point below and the first point above the range are returned too
+   * (if they exist) as they are needed to paint the segments that cross the
+   * bounds of the range.
+   * <p>
+   * Implementations may return all points (e.g. if
+   * <code>{@link #isSortedX()}</code> is false). Only sorted implementations
+   * are able to skip the points outside of the range.
+   * <p>
+   * 
+   * @param minX
+   *          the lower bound of the x range.
+   * 
+   * @param maxX
+   *          the upper bound of the x range.
+   * 
+   * @return an <code>Iterator</code> over the internal <code>
+   *         {@link TracePoint2D}</code> instances with x values within the given
+   *         range and their neighbours.
+   */
+  public Iterator<ITracePoint2D> iterator(double minX, double maxX);
+
+  /**
+   * Returns an <code>Iterator</code> over the points of
+   * <code>{@link #iterator(double, double)}</code> that may leave out points
+   * that do not change the polyline painted into the given amount of pixel
+   * columns.
+   * <p>
+   * Implementations with a level of detail index may summarize the points
+   * that are painted into the same pixel column by their first point, the
+   * points with the minimum and the maximum y value and their last point (in
+   * the order of the trace). This is only a valid decimation for
+   * painters that connect the points by lines (see
+   * <code>{@link #isPaintDecimation()}</code>).
+   * <p>
+   * Implementations may return all points of
+   * <code>{@link #iterator(double, double)}</code>.
+   * <p>
+   * 
+   * @param minX
+   *          the lower bound of the x range.
+   * 
+   * @param maxX
+   *          the upper bound of the x range.
+   * 
+   * @param columns
+   *          the amount of pixel columns the range of the x axis (the
+   *          normalized x values, see <code>{@link #getScalingX()}</code>) is
+   *          painted to.
+   * 
+   * @return an <code>Iterator</code> over the points of
+   *         <code>{@link #iterator(double, double)}</code> that may leave out
+   *         points that do not change the painted polyline.
+   */
+  public Iterator<ITracePoint2D> iterator(double minX, double maxX, int columns);
+
   /**
    * Clears all internal point highlighters used.
    * <p>
@@ -1062,6 +1339,52 @@ public interface ITrace2D extends PropertyChangeListener, Comparable<ITrace2D>,
    */
   public boolean removeTracePainter(final ITracePainter< ? > painter);
 
+  /**
+   * Turns the coalescing of events for added points and changed bounds on or
+   * off.
+   * <p>
+   * By default every added point fires a
+   * <code>{@link #PROPERTY_TRACEPOINT}</code> event and every bound it changes
+   * fires a bound event. Each of these events makes the axes of the chart
+   * acquire locks and scale a single point. With many traces receiving
+   * thousands of points per second this costs more than the points
+   * themselves.
+   * <p>
+   * In coalescing mode the points added by
+   * <code>{@link #addPoint(ITracePoint2D)}</code> and
+   * <code>{@link #addPoints(double[], double[])}</code> are only collected and
+   * a repaint of the chart is requested. At the start of the next paint
+   * operation the chart invokes <code>{@link #fireCoalescedEvents()}</code>
+   * that fires at most one event per bound that changed in the meantime and
+   * a single <code>{@link #PROPERTY_TRACEPOINTS_ADDED}</code> event preceded
+   * by the events for points removed or modified while adding (e.g. by a trace
+   * with a limited size). Events for points removed or modified otherwise are
+   * still fired immediately.
+   * <p>
+   * Listeners of this trace therefore see added points delayed by up to one
+   * frame. Turning coalescing off fires the pending events.
+   * <p>
+   * If more points are added than the trace contains (at least 1024)
+   * before the chart is painted the collected events are bounded: The
+   * <code>{@link #PROPERTY_TRACEPOINTS_ADDED}</code> event contains all points
+   * of the trace and is only preceded by the latest event for removed
+   * respectively modified points.
+   * <p>
+   * Points are added with the lock of the trace only in both modes: Producer
+   * threads feeding different traces of a chart do not contend for the lock
+   * of the chart. Without coalescing the events are fired by the producer
+   * after it released the lock of the trace: The axes of the chart acquire
+   * the lock of the chart for them. In coalescing mode producers never wait
+   * for the lock of the chart. Code that iterates the points of a trace has to
+   * synchronize on the trace.
+   * <p>
+   * 
+   * @param coalescingEvents
+   *          true to collect the events for added points and changed bounds
+   *          until the next paint operation of the chart.
+   */
+  public void setCoalescingEvents(boolean coalescingEvents);
+
   /**
    * Set a <code>java.awt.Color</code> for this trace.
    * <p>
@@ -1106,6 +1429,42 @@ public interface ITrace2D extends PropertyChangeListener, Comparable<ITrace2D>,
    */
   public void setPhysicalUnits(final String xunit, final String yunit);
 
+  /**
+   * Turns on or off an index of the points of this trace that speeds up
+   * <code>{@link #getNearestPointEuclid(double, double)}</code> and
+   * <code>{@link #getNearestPointManhattan(double, double)}</code>.
+   * <p>
+   * These searches are triggered by every mouse movement if point highlighting
+   * or tool tips snapping to points are active. Without the index they visit
+   * every point. With the index only the points near the searched location are
+   * visited as long as the axes of the trace scale linearly. The index is
+   * updated with added and removed points and costs additional memory per
+   * point, so it is turned off by default.
+   * <p>
+   * 
+   * @param nearestPointIndexing
+   *          true to keep an index of the points of this trace.
+   * 
+   * @see #isNearestPointIndexing()
+   */
+  public void setNearestPointIndexing(boolean nearestPointIndexing);
+
+  /**
+   * Allows or forbids the chart to decimate the points of this trace before
+   * they are handed to the trace painters.
+   * <p>
+   * Decimation is turned on by default. It is only applied if the trace
+   * exclusively uses line based painters and shows no error bars. Turn it off
+   * if every point has to be handed to the painters (e.g. for pixel exact
+   * antialiased rendering).
+   * <p>
+   * 
+   * @param paintDecimation
+   *          true if the chart may collapse points that share a pixel column.
+   * @see #isPaintDecimation()
+   */
+  public void setPaintDecimation(boolean paintDecimation);
+
   /**
    * Replaces all internal point highlighters by the new one.
    * <p>
@@ -1131,6 +1490,50 @@ public interface ITrace2D extends PropertyChangeListener, Comparable<ITrace2D>,
    */
   public void setRenderer(Chart2D renderer);
 
+  /**
+   * Sets the mapping of x values to normalized values that points of this
+   * trace use to compute <code>{@link ITracePoint2D#getScaledX()}</code>.
+   * <p>
+   * This is a callback for the x axis of the chart: Axes with a linear scale
+   * assign a new mapping whenever their range changes instead of rescaling
+   * every point. Axes that have to transform every value assign null and
+   * write the normalized values into the points.
+   * <p>
+   * 
+   * @param scaling
+   *          the mapping of x values to normalized values or null.
+   */
+  public void setScalingX(AffineScaling scaling);
+
+  /**
+   * Sets the mapping of y values to normalized values that points of this
+   * trace use to compute <code>{@link ITracePoint2D#getScaledY()}</code>.
+   * <p>
+   * 
+   * @param scaling
+   *          the mapping of y values to normalized values or null.
+   * 
+   * @see #setScalingX(AffineScaling)
+   */
+  public void setScalingY(AffineScaling scaling);
+
+  /**
+   * Assigns a queue producers may stage points in without acquiring the locks
+   * on the chart and this trace.
+   * <p>
+   * At the start of every paint operation the chart moves all staged points
+   * into this trace by <code>{@link #addPoints(double[], double[])}</code>. So
+   * the latency of producers becomes independent of the time it takes to
+   * paint while the points show up with the next paint operation.
+   * <p>
+   * The queue is not serialized with this trace.
+   * <p>
+   * 
+   * @param queue
+   *          the queue for staged points or null to drop staging.
+   */
+  public void setStagingQueue(StagingQueue queue);
+
   /**
    * Allows to specify the rendering of the ITrace2D. This Stroke will be
    * assigned to the {@link java.awt.Graphics2D} by the rendering
@@ -253,6 +253,11 @@ public interface ITracePoint2D extends Comparable<ITracePoint2D>, java.io.Serial
   /**
    * Only intended for Chart2D!!!.
    * <p>
+   * The value is ignored while the listener of this point provides a mapping
+   * of x values (<code>{@link ITrace2D#getScalingX()}</code>): Then
+   * <code>{@link #getScaledX()}</code> is computed from the real x value, so
+   * synthetic points have to be created at their real coordinates.
+   * <p>
    * 
    * @param scaledX
    *          the scaledX to set
@@ -262,6 +267,11 @@ public interface ITracePoint2D extends Comparable<ITracePoint2D>, java.io.Serial
   /**
    * Only intended for Chart2D!!!.
    * <p>
+   * The value is ignored while the listener of this point provides a mapping
+   * of y values (<code>{@link ITrace2D#getScalingY()}</code>): Then
+   * <code>{@link #getScaledY()}</code> is computed from the real y value, so
+   * synthetic points have to be created at their real coordinates.
+   * <p>
    * 
    * @param scaledY
    *          the scaledY to set
@@ -0,0 +1,220 @@
+/*
+ *  StagingQueue.java, lock-free buffer for points waiting to be added to a trace.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue of x and y values that are waiting to be added to a
+ * trace.
+ * <p>
+ * <code>{@link ITrace2D#addPoint(double, double)}</code> has to acquire the
+ * locks on the chart and the trace which are also held by the chart for a whole
+ * paint operation. Producers (e.g. data collector threads) that must not be
+ * delayed by slow paint operations may instead offer their values to an
+ * instance of this class assigned to the trace (see
+ * <code>{@link ITrace2D#setStagingQueue(StagingQueue)}</code>): Offering never
+ * blocks and the chart moves all staged values into the trace at the start of
+ * every paint operation (see
+ * <code>{@link ITrace2D#addPoints(double[], double[])}</code>).
+ * <p>
+ * Any amount of threads may offer values concurrently. Only one thread at a
+ * time may drain the queue, which is the chart (under its lock) for queues
+ * assigned to a trace.
+ * <p>
+ * The queue fills up if the chart is not painted (e.g. because it is not
+ * visible). Producers that must not lose values or change their order then
+ * let the chart drain the queue (see
+ * <code>{@link Chart2D#drainStagingQueues()}</code>) and offer again instead
+ * of adding the value directly to the trace ahead of the staged ones.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ *
+ * @version $Revision: 1.1 $
+ */
+public final class StagingQueue {
+
+  /** The position of the next slot to drain, only written by the consumer. */
+  private volatile long m_head = 0;
+
+  /** Capacity - 1 for cheap modulo operations (capacity is a power of 2). */
+  private final int m_mask;
+
+  /**
+   * The sequence number of every slot: Equal to the position of the slot if it
+   * may be written, position + 1 if it has been written and may be drained.
+   */
+  private final AtomicLongArray m_sequences;
+
+  /** The position of the next slot to write. */
+  private final AtomicLong m_tail = new AtomicLong(0);
+
+  /** The staged x values. */
+  private final double[] m_xs;
+
+  /** The staged y values. */
+  private final double[] m_ys;
+
+  /**
+   * Creates a queue that stages up to the given amount of points (rounded up
+   * to the next power of 2).
+   * <p>
+   *
+   * @param capacity
+   *          the maximum amount of staged points.
+   *
+   * @throws IllegalArgumentException
+   *           if the capacity is smaller than 1 or greater than 2^30.
+   */
+  public StagingQueue(final int capacity) throws IllegalArgumentException {
+    if ((capacity < 1) || (capacity > (1 << 30))) {
+      throw new IllegalArgumentException("Capacity has to be within [1, 2^30] (is " + capacity
+          + ").");
+    }
+    int size = 1;
+    while (size < capacity) {
+      size <<= 1;
+    }
+    this.m_mask = size - 1;
+    this.m_xs = new double[size];
+    this.m_ys = new double[size];
+    this.m_sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      this.m_sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Moves the oldest staged values into the given arrays.
+   * <p>
+   * At most as many values as the arrays have room for are moved.
+   * <p>
+   * Must not be invoked by several threads concurrently.
+   * <p>
+   *
+   * @param xs
+   *          receives the x values.
+   *
+   * @param ys
+   *          receives the y values (at least as long as xs).
+   *
+   * @return the amount of moved values.
+   */
+  public int drain(final double[] xs, final double[] ys) {
+    long head = this.m_head;
+    int result = 0;
+    int index;
+    while (result < xs.length) {
+      index = (int) head & this.m_mask;
+      if (this.m_sequences.get(index) != head + 1) {
+        // not written yet:
+        break;
+      }
+      xs[result] = this.m_xs[index];
+      ys[result] = this.m_ys[index];
+      result++;
+      // release the slot for the round after the next:
+      this.m_sequences.set(index, head + this.m_mask + 1);
+      head++;
+    }
+    this.m_head = head;
+    return result;
+  }
+
+  /**
+   * Returns the maximum amount of staged points.
+   * <p>
+   *
+   * @return the maximum amount of staged points.
+   */
+  public int getCapacity() {
+    return this.m_mask + 1;
+  }
+
+  /**
+   * Returns true if no values are staged.
+   * <p>
+   *
+   * @return true if no values are staged.
+   */
+  public boolean isEmpty() {
+    return this.size() == 0;
+  }
+
+  /**
+   * Stages the given values without blocking.
+   * <p>
+   *
+   * @param x
+   *          the x value of the point to stage.
+   *
+   * @param y
+   *          the y value of the point to stage.
+   *
+   * @return false if the queue is full and the values were not staged.
+   */
+  public boolean offer(final double x, final double y) {
+    long tail = this.m_tail.get();
+    int index;
+    long sequence;
+    while (true) {
+      index = (int) tail & this.m_mask;
+      sequence = this.m_sequences.get(index);
+      if (sequence == tail) {
+        if (this.m_tail.compareAndSet(tail, tail + 1)) {
+          break;
+        }
+        tail = this.m_tail.get();
+      } else if (sequence < tail) {
+        // slot still holds a value of the previous round: full
+        return false;
+      } else {
+        // another producer claimed this slot:
+        tail = this.m_tail.get();
+      }
+    }
+    this.m_xs[index] = x;
+    this.m_ys[index] = y;
+    // publish (the volatile write makes the values visible to the consumer):
+    this.m_sequences.set(index, tail + 1);
+    return true;
+  }
+
+  /**
+   * Returns the amount of staged values.
+   * <p>
+   * This is a snapshot that may already be outdated when returned if other
+   * threads concurrently offer values. Values that are still being written by
+   * a producer are included.
+   * <p>
+   *
+   * @return the amount of staged values.
+   */
+  public int size() {
+    final long head = this.m_head;
+    final long result = this.m_tail.get() - head;
+    return (int) Math.max(0, Math.min(result, this.m_mask + 1));
+  }
+}
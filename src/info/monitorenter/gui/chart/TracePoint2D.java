@@ -62,12 +62,14 @@ public class TracePoint2D extends Point2D.Double implements ITracePoint2D {
     private ITrace2D m_listener;
 
     /**
-     * Scaled x value.
+     * Scaled x value, only used if the listener has no mapping for x values (see
+     * <code>{@link ITrace2D#getScalingX()}</code>).
      */
     private double m_scaledX;
 
     /**
-     * Scaled y value.
+     * Scaled y value, only used if the listener has no mapping for y values (see
+     * <code>{@link ITrace2D#getScalingY()}</code>).
      */
     private double m_scaledY;
 
@@ -131,8 +133,8 @@ public class TracePoint2D extends Point2D.Double implements ITracePoint2D {
         final TracePoint2D result = (TracePoint2D) super.clone();
         result.m_x = this.m_x;
         result.m_y = this.m_y;
-        result.m_scaledX = this.m_scaledX;
-        result.m_scaledY = this.m_scaledY;
+        result.m_scaledX = this.getScaledX();
+        result.m_scaledY = this.getScaledY();
         result.m_additionalPointPainters = new LinkedHashSet<IPointPainter<?>>(this.m_additionalPointPainters);
         return result;
     }
@@ -192,8 +194,8 @@ public class TracePoint2D extends Point2D.Double implements ITracePoint2D {
      */
     public double getEuclidDistance(final double xNormalized, final double yNormalized) {
         double result;
-        final double xdist = Math.abs(this.m_scaledX - xNormalized);
-        final double ydist = Math.abs(this.m_scaledY - yNormalized);
+        final double xdist = Math.abs(this.getScaledX() - xNormalized);
+        final double ydist = Math.abs(this.getScaledY() - yNormalized);
         result = Math.sqrt(Math.pow(xdist, 2) + Math.pow(ydist, 2));
         return result;
     }
@@ -210,7 +212,7 @@ public class TracePoint2D extends Point2D.Double implements ITracePoint2D {
      */
     public double getManhattanDistance(final double xNormalized, final double yNormalized) {
         double result;
-        result = Math.abs(this.m_scaledX - xNormalized) + Math.abs(this.m_scaledY - yNormalized);
+        result = Math.abs(this.getScaledX() - xNormalized) + Math.abs(this.getScaledY() - yNormalized);
         return result;
     }
 
@@ -225,14 +227,30 @@ public class TracePoint2D extends Point2D.Double implements ITracePoint2D {
      * @see info.monitorenter.gui.chart.ITracePoint2D#getScaledX()
      */
     public final double getScaledX() {
-        return this.m_scaledX;
+        double result = this.m_scaledX;
+        final ITrace2D listener = this.m_listener;
+        if (listener != null) {
+            final AffineScaling scaling = listener.getScalingX();
+            if (scaling != null) {
+                result = scaling.scale(this.m_x);
+            }
+        }
+        return result;
     }
 
     /**
      * @see info.monitorenter.gui.chart.ITracePoint2D#getScaledY()
      */
     public final double getScaledY() {
-        return this.m_scaledY;
+        double result = this.m_scaledY;
+        final ITrace2D listener = this.m_listener;
+        if (listener != null) {
+            final AffineScaling scaling = listener.getScalingY();
+            if (scaling != null) {
+                result = scaling.scale(this.m_y);
+            }
+        }
+        return result;
     }
 
     /**
@@ -305,7 +323,10 @@ public class TracePoint2D extends Point2D.Double implements ITracePoint2D {
         T result;
         if (this.m_listener != null) {
             Chart2D chart = this.m_listener.getRenderer();
-            if (chart != null) {
+            if (Thread.holdsLock(this.m_listener)) {
+                // e.g. a trace replacing points while adding with the lock on the trace only:
+                result = runSynchronized.execute();
+            } else if (chart != null) {
                 // already connected to the chart: keep full locking order
                 synchronized (chart) {
                     synchronized (this.m_listener) {
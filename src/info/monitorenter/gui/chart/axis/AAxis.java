@@ -22,6 +22,7 @@
  */
 package info.monitorenter.gui.chart.axis;
 
+import info.monitorenter.gui.chart.AffineScaling;
 import info.monitorenter.gui.chart.Chart2D;
 import info.monitorenter.gui.chart.IAxis;
 import info.monitorenter.gui.chart.IAxisLabelFormatter;
@@ -264,6 +265,10 @@ public abstract class AAxis implements IAxis, PropertyChangeListener {
     /**
      * Scales the given trace in the dimension represented by this axis.
      * <p>
+     * Implementations either assign an <code>{@link AffineScaling}</code> to
+     * the trace (constant time) or assign null and write the scaled values
+     * into every point of the trace.
+     * <p>
      * This method is not deadlock - safe and should be called by the
      * <code>{@link Chart2D}</code> only!
      * <p>
@@ -609,26 +614,16 @@ public abstract class AAxis implements IAxis, PropertyChangeListener {
     }
 
     /**
+     * Assigns the linear mapping of the given range to the trace: The points
+     * compute their scaled x values on demand, so no point has to be visited.
+     * <p>
+     * 
      * @see info.monitorenter.gui.chart.axis.AAxis.AChart2DDataAccessor#scaleTrace(info.monitorenter.gui.chart.ITrace2D,
      *      info.monitorenter.util.Range)
      */
     @Override
     protected void scaleTrace(final ITrace2D trace, final Range range) {
-      Iterator<ITracePoint2D> itPoints;
-      final double scaler = range.getExtent();
-      if (trace.isVisible()) {
-        itPoints = trace.iterator();
-        ITracePoint2D point;
-        while (itPoints.hasNext()) {
-          point = itPoints.next();
-          final double absolute = point.getX();
-          double result = (absolute - range.getMin()) / scaler;
-          if (!MathUtil.isDouble(result)) {
-            result = 0;
-          }
-          point.setScaledX(result);
-        }
-      }
+      trace.setScalingX(new AffineScaling(range, false));
     }
 
     /**
@@ -854,26 +849,16 @@ public abstract class AAxis implements IAxis, PropertyChangeListener {
     }
 
     /**
+     * Assigns the linear mapping of the given range to the trace: The points
+     * compute their scaled y values on demand, so no point has to be visited.
+     * <p>
+     * 
      * @see info.monitorenter.gui.chart.axis.AAxis.AChart2DDataAccessor#scaleTrace(info.monitorenter.gui.chart.ITrace2D,
      *      info.monitorenter.util.Range)
      */
     @Override
     protected void scaleTrace(final ITrace2D trace, final Range range) {
-      if (trace.isVisible()) {
-        final double scaler = range.getExtent();
-        final Iterator<ITracePoint2D> itPoints = trace.iterator();
-        ITracePoint2D point;
-        while (itPoints.hasNext()) {
-          point = itPoints.next();
-          final double absolute = point.getY();
-          double result = (absolute - range.getMin()) / scaler;
-          if (!MathUtil.isDouble(result)) {
-            result = 0;
-          }
-          point.setScaledY(result);
-        }
-      }
-
+      trace.setScalingY(new AffineScaling(range, false));
     }
 
     /**
@@ -967,6 +952,7 @@ public abstract class AAxis implements IAxis, PropertyChangeListener {
     AAxis.propertyReactors.put(ITrace2D.PROPERTY_ERRORBARPOLICY, repaintReactor);
     AAxis.propertyReactors.put(ITrace2D.PROPERTY_ERRORBARPOLICY_CONFIGURATION, repaintReactor);
     AAxis.propertyReactors.put(ITrace2D.PROPERTY_ZINDEX, repaintReactor);
+    AAxis.propertyReactors.put(ITrace2D.PROPERTY_PAINT_DECIMATION, repaintReactor);
     AAxis.propertyReactors.put(IAxis.PROPERTY_LABELFORMATTER, repaintReactor);
     AAxis.propertyReactors.put(IAxisLabelFormatter.PROPERTY_FORMATCHANGE, repaintReactor);
     AAxis.propertyReactors.put(IAxis.AxisTitle.PROPERTY_TITLEFONT, repaintReactor);
@@ -1122,12 +1108,38 @@ public abstract class AAxis implements IAxis, PropertyChangeListener {
         // added or removed?
         // we only care about added points (rescaling is our task)
         if (oldPt == null) {
-          receiver.scalePoint(newPt);
+          // producers add points with the lock on the trace only:
+          synchronized (changeEvent.getSource()) {
+            receiver.scalePoint(newPt);
+          }
           result = true;
         }
         return result;
       }
     });
+    AAxis.propertyReactors.put(ITrace2D.PROPERTY_TRACEPOINTS_ADDED,
+        new APropertyChangeReactorSynced() {
+
+          /**
+           * @see info.monitorenter.gui.chart.axis.AAxis.APropertyChangeReactorSynced#propertyChangeSynced(java.beans.PropertyChangeEvent,
+           *      info.monitorenter.gui.chart.axis.AAxis)
+           */
+          @Override
+          protected boolean propertyChangeSynced(final PropertyChangeEvent changeEvent,
+              final AAxis receiver) {
+            if (Chart2D.DEBUG_SCALING) {
+              System.out.println("pc-tps");
+            }
+            @SuppressWarnings("unchecked")
+            final List<ITracePoint2D> added = (List<ITracePoint2D>) changeEvent.getNewValue();
+            synchronized (changeEvent.getSource()) {
+              for (final ITracePoint2D point : added) {
+                receiver.scalePoint(point);
+              }
+            }
+            return true;
+          }
+        });
     AAxis.propertyReactors.put(ITrace2D.PROPERTY_VISIBLE, new APropertyChangeReactorSynced() {
 
       /**
@@ -1164,7 +1176,9 @@ public abstract class AAxis implements IAxis, PropertyChangeListener {
           final AAxis receiver) {
         boolean result = false;
         final ITracePoint2D changed = (ITracePoint2D) changeEvent.getNewValue();
-        receiver.scalePoint(changed);
+        synchronized (changeEvent.getSource()) {
+          receiver.scalePoint(changed);
+        }
         result = true;
         return result;
       }
@@ -2108,6 +2122,7 @@ public abstract class AAxis implements IAxis, PropertyChangeListener {
     trace.addPropertyChangeListener(ITrace2D.PROPERTY_VISIBLE, this);
     trace.addPropertyChangeListener(ITrace2D.PROPERTY_ZINDEX, this);
     trace.addPropertyChangeListener(ITrace2D.PROPERTY_PAINTERS, this);
+    trace.addPropertyChangeListener(ITrace2D.PROPERTY_PAINT_DECIMATION, this);
     trace.addPropertyChangeListener(ITrace2D.PROPERTY_ERRORBARPOLICY, this);
     trace.addPropertyChangeListener(ITrace2D.PROPERTY_ERRORBARPOLICY_CONFIGURATION, this);
     trace.addPropertyChangeListener(ITrace2D.PROPERTY_ZINDEX, this);
@@ -2116,6 +2131,7 @@ public abstract class AAxis implements IAxis, PropertyChangeListener {
     // this is needed for scaling at point level.
     // else every bound change would force to rescale all traces!
     trace.addPropertyChangeListener(ITrace2D.PROPERTY_TRACEPOINT, this);
+    trace.addPropertyChangeListener(ITrace2D.PROPERTY_TRACEPOINTS_ADDED, this);
     // listen to changed points whose location was changed:
     trace.addPropertyChangeListener(ITrace2D.PROPERTY_POINT_CHANGED, this);
   }
@@ -2599,7 +2615,9 @@ public abstract class AAxis implements IAxis, PropertyChangeListener {
    */
   public void scaleTrace(final ITrace2D trace) {
     final Range range = this.getRange();
-    this.m_accessor.scaleTrace(trace, range);
+    synchronized (trace) {
+      this.m_accessor.scaleTrace(trace, range);
+    }
   }
 
   /**
@@ -2998,11 +3016,13 @@ public abstract class AAxis implements IAxis, PropertyChangeListener {
     trace.removePropertyChangeListener(ITrace2D.PROPERTY_VISIBLE, this);
     trace.removePropertyChangeListener(ITrace2D.PROPERTY_ZINDEX, this);
     trace.removePropertyChangeListener(ITrace2D.PROPERTY_PAINTERS, this);
+    trace.removePropertyChangeListener(ITrace2D.PROPERTY_PAINT_DECIMATION, this);
     trace.removePropertyChangeListener(ITrace2D.PROPERTY_ERRORBARPOLICY, this);
     trace.removePropertyChangeListener(ITrace2D.PROPERTY_ERRORBARPOLICY_CONFIGURATION, this);
     trace.removePropertyChangeListener(ITrace2D.PROPERTY_ZINDEX, this);
     trace.removePropertyChangeListener(ITrace2D.PROPERTY_NAME, this);
     trace.removePropertyChangeListener(ITrace2D.PROPERTY_TRACEPOINT, this);
+    trace.removePropertyChangeListener(ITrace2D.PROPERTY_TRACEPOINTS_ADDED, this);
     trace.removePropertyChangeListener(ITrace2D.PROPERTY_POINT_CHANGED, this);
   }
 
@@ -28,6 +28,7 @@ import info.monitorenter.gui.chart.Chart2D;
 import info.monitorenter.gui.chart.IAxisLabelFormatter;
 import info.monitorenter.gui.chart.ITrace2D;
 import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.traces.Trace2DColumnar;
 import info.monitorenter.util.Range;
 import info.monitorenter.util.math.MathUtil;
 
@@ -74,30 +75,23 @@ public abstract class AAxisTransformation extends AAxis {
      */
     @Override
     protected void scaleTrace(final ITrace2D trace, final Range range) {
+      // transformed values cannot be mapped linearly: scale every point.
+      trace.setScalingX(null);
       if (trace.isVisible()) {
-        Iterator<ITracePoint2D> itPoints = trace.iterator();
-        ITracePoint2D point;
-        double result;
-        double scaler = range.getExtent();
-        itPoints = trace.iterator();
-        while (itPoints.hasNext()) {
-          point = itPoints.next();
-          double absolute = point.getX();
-          try {
-            result = (AAxisTransformation.this.transform(absolute) - range.getMin());
-            result = result / scaler;
-            if (!MathUtil.isDouble(result)) {
-              result = 0;
-            }
-          } catch (IllegalArgumentException e) {
-            long tstamp = System.currentTimeMillis();
-            if (tstamp - AAxisTransformation.this.m_outputErrorTstamp > AAxisTransformation.OUTPUT_ERROR_THRESHHOLD) {
-              System.out.println(e.getLocalizedMessage());
-              AAxisTransformation.this.m_outputErrorTstamp = tstamp;
-            }
-            result = 0;
+        if (trace instanceof Trace2DColumnar) {
+          // scale the columns without creating views on the points:
+          final Trace2DColumnar columnar = (Trace2DColumnar) trace;
+          for (int i = columnar.getSize() - 1; i >= 0; i--) {
+            columnar.setScaledXAt(i, AAxisTransformation.this.normalize(columnar.getXAt(i),
+                range));
+          }
+        } else {
+          Iterator<ITracePoint2D> itPoints = trace.iterator();
+          ITracePoint2D point;
+          while (itPoints.hasNext()) {
+            point = itPoints.next();
+            point.setScaledX(AAxisTransformation.this.normalize(point.getX(), range));
           }
-          point.setScaledX(result);
         }
       }
     }
@@ -171,31 +165,25 @@ public abstract class AAxisTransformation extends AAxis {
      */
     @Override
     protected void scaleTrace(final ITrace2D trace, final Range range) {
+      // transformed values cannot be mapped linearly: scale every point.
+      trace.setScalingY(null);
       if (trace.isVisible()) {
-        ITracePoint2D point;
-        double scaler = range.getExtent();
-        double result;
-        Iterator<ITracePoint2D> itPoints = trace.iterator();
-        while (itPoints.hasNext()) {
-          point = itPoints.next();
-          double absolute = point.getY();
-          try {
-            // range.getMin() is based upon the transformed minimum (see
-            // getMin() of outer class)!
-            result = (AAxisTransformation.this.transform(absolute) - range.getMin());
-            result = result / scaler;
-            if (!MathUtil.isDouble(result)) {
-              result = 0;
-            }
-          } catch (IllegalArgumentException e) {
-            long tstamp = System.currentTimeMillis();
-            if (tstamp - AAxisTransformation.this.m_outputErrorTstamp > AAxisTransformation.OUTPUT_ERROR_THRESHHOLD) {
-              System.out.println(e.getLocalizedMessage());
-              AAxisTransformation.this.m_outputErrorTstamp = tstamp;
-            }
-            result = 0;
+        // range.getMin() is based upon the transformed minimum (see getMin()
+        // of outer class)!
+        if (trace instanceof Trace2DColumnar) {
+          // scale the columns without creating views on the points:
+          final Trace2DColumnar columnar = (Trace2DColumnar) trace;
+          for (int i = columnar.getSize() - 1; i >= 0; i--) {
+            columnar.setScaledYAt(i, AAxisTransformation.this.normalize(columnar.getYAt(i),
+                range));
+          }
+        } else {
+          ITracePoint2D point;
+          Iterator<ITracePoint2D> itPoints = trace.iterator();
+          while (itPoints.hasNext()) {
+            point = itPoints.next();
+            point.setScaledY(AAxisTransformation.this.normalize(point.getY(), range));
           }
-          point.setScaledY(result);
         }
       }
     }
@@ -360,6 +348,36 @@ public abstract class AAxisTransformation extends AAxis {
     return result;
   }
 
+  /**
+   * Returns the given value transformed and normalized to the given range of
+   * transformed values (0.0 for values that cannot be transformed).
+   * <p>
+   * 
+   * @param absolute
+   *          the value to normalize.
+   * @param range
+   *          the range of transformed values to normalize to.
+   * @return the given value transformed and normalized to the given range.
+   */
+  private double normalize(final double absolute, final Range range) {
+    double result;
+    try {
+      result = (this.transform(absolute) - range.getMin());
+      result = result / range.getExtent();
+      if (!MathUtil.isDouble(result)) {
+        result = 0;
+      }
+    } catch (IllegalArgumentException e) {
+      long tstamp = System.currentTimeMillis();
+      if (tstamp - this.m_outputErrorTstamp > AAxisTransformation.OUTPUT_ERROR_THRESHHOLD) {
+        System.out.println(e.getLocalizedMessage());
+        this.m_outputErrorTstamp = tstamp;
+      }
+      result = 0;
+    }
+    return result;
+  }
+
   /**
    * Template method for performing the axis transformation.
    * <p>
@@ -24,15 +24,14 @@
  */
 package info.monitorenter.gui.chart.axis;
 
+import info.monitorenter.gui.chart.AffineScaling;
 import info.monitorenter.gui.chart.Chart2D;
 import info.monitorenter.gui.chart.IAxisLabelFormatter;
 import info.monitorenter.gui.chart.ITrace2D;
-import info.monitorenter.gui.chart.ITracePoint2D;
 import info.monitorenter.gui.chart.LabeledValue;
 import info.monitorenter.util.Range;
 import info.monitorenter.util.math.MathUtil;
 
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -81,26 +80,15 @@ public class AxisInverse extends AAxis {
     }
 
     /**
+     * Assigns the inverse linear mapping of the given range to the trace.
+     * <p>
+     * 
      * @see info.monitorenter.gui.chart.axis.AAxis.AChart2DDataAccessor#scaleTrace(info.monitorenter.gui.chart.ITrace2D,
      *      info.monitorenter.util.Range)
      */
     @Override
     protected void scaleTrace(final ITrace2D trace, final Range range) {
-      Iterator<ITracePoint2D> itPoints;
-      final double scaler = range.getExtent();
-      if (trace.isVisible()) {
-        itPoints = trace.iterator();
-        ITracePoint2D point;
-        while (itPoints.hasNext()) {
-          point = itPoints.next();
-          double absolute = point.getX();
-          double result = 1 - ((absolute - range.getMin()) / scaler);
-          if (!MathUtil.isDouble(result)) {
-            result = 0;
-          }
-          point.setScaledX(result);
-        }
-      }
+      trace.setScalingX(new AffineScaling(range, true));
     }
 
     /**
@@ -151,25 +139,15 @@ public class AxisInverse extends AAxis {
     }
 
     /**
+     * Assigns the inverse linear mapping of the given range to the trace.
+     * <p>
+     * 
      * @see info.monitorenter.gui.chart.axis.AAxis.AChart2DDataAccessor#scaleTrace(info.monitorenter.gui.chart.ITrace2D,
      *      info.monitorenter.util.Range)
      */
     @Override
     protected void scaleTrace(final ITrace2D trace, final Range range) {
-      if (trace.isVisible()) {
-        double scaler = range.getExtent();
-        Iterator<ITracePoint2D> itPoints = trace.iterator();
-        ITracePoint2D point;
-        while (itPoints.hasNext()) {
-          point = itPoints.next();
-          double absolute = point.getY();
-          double result = 1 - ((absolute - range.getMin()) / scaler);
-          if (!MathUtil.isDouble(result)) {
-            result = 0;
-          }
-          point.setScaledY(result);
-        }
-      }
+      trace.setScalingY(new AffineScaling(range, true));
     }
 
     /**
@@ -21,8 +21,10 @@
  */
 package info.monitorenter.gui.chart.io;
 
+import info.monitorenter.gui.chart.Chart2D;
 import info.monitorenter.gui.chart.ITrace2D;
 import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.StagingQueue;
 
 
 /**
@@ -30,6 +32,11 @@ import info.monitorenter.gui.chart.ITracePoint2D;
  * and adds it to the internal ITrace2D instance.
  * <p>
  * Extend from this class and override the method {@link #collectData()}.
+ * Collectors that gather several values per interval (e.g. from a buffered
+ * device) additionally override {@link #collectData(double[], double[])} and
+ * configure the maximum amount of values per interval with
+ * {@link #setBatchSize(int)}. The values of one interval are added to the
+ * trace in one batch (see {@link ITrace2D#addPoints(double[], double[], int)}).
  * <p>
  * Set it up with code like:
  * 
@@ -58,6 +65,12 @@ import info.monitorenter.gui.chart.ITracePoint2D;
  */
 public abstract class ADataCollector implements Runnable {
 
+  /** Receives the x values collected in one interval. */
+  private double[] m_batchX = new double[1];
+
+  /** Receives the y values collected in one interval. */
+  private double[] m_batchY = new double[1];
+
   /** Flag to check wether the collector is running. */
   private boolean m_isRunning = false;
 
@@ -94,11 +107,48 @@ public abstract class ADataCollector implements Runnable {
     this.m_trace = trace;
   }
 
+  /**
+   * Adds the data of one collection interval to the trace.
+   * <p>
+   * The values collected by <code>{@link #collectData(double[], double[])}
+   * </code> are added in one batch by
+   * <code>{@link ITrace2D#addPoints(double[], double[], int)}</code> to pay
+   * for locking and events only once per interval. If the trace has a staging
+   * queue (see <code>{@link ITrace2D#setStagingQueue(StagingQueue)}</code>)
+   * the values are staged there without waiting for the locks of the chart and
+   * the trace. Only if the queue is full the staged values are moved into the
+   * trace first (see <code>{@link Chart2D#drainStagingQueues()}</code>) to
+   * keep the order of the points.
+   * <p>
+   */
+  protected void addCollectedData() {
+    final int amount = this.collectData(this.m_batchX, this.m_batchY);
+    final StagingQueue queue = this.m_trace.getStagingQueue();
+    if (queue == null) {
+      if (amount > 0) {
+        this.m_trace.addPoints(this.m_batchX, this.m_batchY, amount);
+      }
+    } else {
+      for (int i = 0; i < amount; i++) {
+        while (!queue.offer(this.m_batchX[i], this.m_batchY[i])) {
+          if (this.m_trace.getStagingQueue() != queue) {
+            // staging has been turned off meanwhile:
+            this.m_trace.addPoint(this.m_batchX[i], this.m_batchY[i]);
+            break;
+          }
+          // the chart does not keep up (e.g. it is not visible):
+          this.m_trace.getRenderer().drainStagingQueues();
+        }
+      }
+    }
+  }
+
   /**
    * <p>
    * Override this method. It will be invoked in intervals of the configured
-   * latency time. The TracePoint2D that is returned will be added to the
-   * constructor given ITrace2D.
+   * latency time by <code>{@link #collectData(double[], double[])}</code>
+   * unless that is overridden. The values of the TracePoint2D that is
+   * returned will be added to the constructor given ITrace2D.
    * </p>
    * <p>
    * Keep your implementation fast. If the computations performed here take
@@ -109,6 +159,31 @@ public abstract class ADataCollector implements Runnable {
    */
   public abstract ITracePoint2D collectData();
 
+  /**
+   * Collects the values of one interval into the given arrays.
+   * <p>
+   * It will be invoked in intervals of the configured latency time. The
+   * arrays have the length of <code>{@link #getBatchSize()}</code>. This
+   * implementation stores the values of the point returned by
+   * <code>{@link #collectData()}</code>. Override it for collectors that
+   * gather several values per interval.
+   * <p>
+   * 
+   * @param xs
+   *          receives the collected x values.
+   * 
+   * @param ys
+   *          receives the collected y values.
+   * 
+   * @return the amount of collected values.
+   */
+  protected int collectData(final double[] xs, final double[] ys) {
+    final ITracePoint2D point = this.collectData();
+    xs[0] = point.getX();
+    ys[0] = point.getY();
+    return 1;
+  }
+
   /**
    * @see java.lang.Object#finalize()
    */
@@ -118,6 +193,16 @@ public abstract class ADataCollector implements Runnable {
     this.stop();
   }
 
+  /**
+   * Returns the maximum amount of values collected in one interval.
+   * <p>
+   * 
+   * @return the maximum amount of values collected in one interval.
+   */
+  public final int getBatchSize() {
+    return this.m_batchX.length;
+  }
+
   /**
    * Returns the interval in ms a point is collected.
    * <p>
@@ -159,11 +244,9 @@ public abstract class ADataCollector implements Runnable {
     this.m_isRunning = true;
     long lasttime;
     this.m_stop = false;
-    ITracePoint2D point;
     while (!this.m_stop) {
       lasttime = System.currentTimeMillis();
-      point = this.collectData();
-      this.m_trace.addPoint(point);
+      this.addCollectedData();
       try {
         Thread.sleep(Math.max(this.m_latency - System.currentTimeMillis() + lasttime, 0));
       } catch (InterruptedException e) {
@@ -176,6 +259,35 @@ public abstract class ADataCollector implements Runnable {
     this.m_isRunning = false;
   }
 
+  /**
+   * Sets the maximum amount of values collected in one interval (see
+   * <code>{@link #collectData(double[], double[])}</code>).
+   * <p>
+   * Defaults to 1.
+   * <p>
+   * 
+   * @param batchSize
+   *          the maximum amount of values collected in one interval.
+   * 
+   * @throws IllegalArgumentException
+   *           if the size is lower than 1.
+   * 
+   * @throws IllegalStateException
+   *           if this collector is running.
+   */
+  public void setBatchSize(final int batchSize) throws IllegalArgumentException,
+      IllegalStateException {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size has to be at least 1 (is " + batchSize
+          + ").");
+    }
+    if (this.m_isRunning) {
+      throw new IllegalStateException("Cannot change the batch size of a running collector.");
+    }
+    this.m_batchX = new double[batchSize];
+    this.m_batchY = new double[batchSize];
+  }
+
   /**
    * Sets the interval for collecting points in ms.
    * <p>
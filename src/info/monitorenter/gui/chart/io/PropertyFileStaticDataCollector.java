@@ -86,8 +86,14 @@ public class PropertyFileStaticDataCollector extends AStaticDataCollector {
 
     }
     Collections.sort(sortList);
+    final double[] xs = new double[sortList.size()];
+    final double[] ys = new double[xs.length];
+    int i = 0;
     for (ITracePoint2D point : sortList) {
-      this.m_trace.addPoint(point);
+      xs[i] = point.getX();
+      ys[i] = point.getY();
+      i++;
     }
+    this.m_trace.addPoints(xs, ys);
   }
 }
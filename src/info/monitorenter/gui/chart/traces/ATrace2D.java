@@ -22,6 +22,7 @@
  */
 package info.monitorenter.gui.chart.traces;
 
+import info.monitorenter.gui.chart.AffineScaling;
 import info.monitorenter.gui.chart.Chart2D;
 import info.monitorenter.gui.chart.IErrorBarPolicy;
 import info.monitorenter.gui.chart.IPointPainter;
@@ -29,6 +30,7 @@ import info.monitorenter.gui.chart.ITrace2D;
 import info.monitorenter.gui.chart.ITracePainter;
 import info.monitorenter.gui.chart.ITracePoint2D;
 import info.monitorenter.gui.chart.ITracePointProvider;
+import info.monitorenter.gui.chart.StagingQueue;
 import info.monitorenter.gui.chart.traces.painters.TracePainterPolyline;
 import info.monitorenter.util.SerializationUtility;
 import info.monitorenter.util.StringUtil;
@@ -43,6 +45,8 @@ import java.beans.PropertyChangeSupport;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -74,6 +78,13 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    */
   private static int instanceCount = 0;
 
+  /**
+   * The minimum number of added points and other events collected for a batch
+   * in coalescing mode before it is degraded to a rescale of all points (see
+   * <code>{@link #m_batchOverflow}</code>).
+   */
+  private static final int BATCH_CAPACITY_MIN = 1024;
+
   /** Generated <code>serialVersionUID</code>. * */
   private static final long serialVersionUID = -3955095612824507919L;
 
@@ -86,6 +97,51 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     return ATrace2D.instanceCount;
   }
 
+  /**
+   * The points added by the currently running
+   * <code>{@link #addPoint(ITracePoint2D)}</code> or
+   * <code>{@link #addPoints(double[], double[])}</code> or since the last
+   * <code>{@link #fireCoalescedEvents()}</code> in coalescing mode or null if
+   * no batch is processed.
+   * <p>
+   * While a batch is processed events for added points and for bounds are
+   * collected here respectively postponed instead of being fired.
+   * <p>
+   */
+  private transient List<ITracePoint2D> m_batchAdded;
+
+  /**
+   * The other events of the current batch (see
+   * <code>{@link #m_batchAdded}</code>) caused while points are added (e.g.
+   * for points removed by a trace with a limited size) in the order they
+   * happened or null if no batch is processed.
+   * <p>
+   */
+  private transient List<PropertyChangeEvent> m_batchEvents;
+
+  /** The maximum x value before the current batch. */
+  private double m_batchMaxX;
+
+  /** The maximum y value before the current batch. */
+  private double m_batchMaxY;
+
+  /** The minimum x value before the current batch. */
+  private double m_batchMinX;
+
+  /** The minimum y value before the current batch. */
+  private double m_batchMinY;
+
+  /**
+   * Flag for a batch in coalescing mode that collected more added points and
+   * other events than this trace contains points (at least
+   * <code>{@link #BATCH_CAPACITY_MIN}</code>): Added points are not collected
+   * any more and only the latest event for removed respectively modified points
+   * is kept. The batch ends with an event for all points of this trace instead
+   * as a producer might add points far faster than the chart is painted.
+   * <p>
+   */
+  private boolean m_batchOverflow;
+
   /**
    * {@link javax.swing.event.ChangeListener} instances (mainly
    * <code>Char2D</code> instances that are interested in changes of internal
@@ -93,12 +149,28 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    */
   private final List<ChangeListener> m_changeListeners = new LinkedList<ChangeListener>();
 
+  /**
+   * Flag for collecting the events for added points and bounds until the next
+   * paint operation of the chart.
+   */
+  private boolean m_coalescingEvents;
+
   /** The color property. */
   private Color m_color = Color.black;
 
   /** The list of traces that compute their values from this trace. */
   protected List<ITrace2D> m_computingTraces = new LinkedList<ITrace2D>();
 
+  /**
+   * The points to add to (new value) or remove from (old value) the computing
+   * traces (source) that have been collected while points are added or null.
+   * <p>
+   * Computing traces acquire the lock on their chart: They are informed after
+   * the lock on this trace has been released.
+   * <p>
+   */
+  private transient List<PropertyChangeEvent> m_computingUpdates;
+
   /** The internal set of the error bar policies to use. */
   private Set<IErrorBarPolicy< ? >> m_errorBarPolicies = new TreeSet<IErrorBarPolicy< ? >>();
 
@@ -108,6 +180,12 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    */
   private boolean m_firsttime = true;
 
+  /**
+   * Flag for points being added with only the lock on this trace held (see
+   * <code>{@link #isIngesting()}</code>).
+   */
+  private transient boolean m_ingesting;
+
   /**
    * Cached maximum x value for performance improvement.
    */
@@ -152,11 +230,25 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    */
   protected double m_minYErrorBar = Double.MAX_VALUE;
 
+  /**
+   * The index for nearest point searches, created with the first search if
+   * <code>{@link #m_nearestPointIndexing}</code> is true.
+   */
+  private transient NearestPointIndex m_nearestPointIndex;
+
+  /** If true an index for nearest point searches is kept. */
+  private boolean m_nearestPointIndexing = false;
+
   /**
    * The name property.
    */
   protected String m_name = "";
 
+  /**
+   * The paintDecimation property.
+   */
+  private boolean m_paintDecimation = true;
+
   /**
    * The physical unit property for x dimension.
    */
@@ -183,6 +275,30 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    */
   protected Object m_renderer = Boolean.FALSE;
 
+  /**
+   * The point whose y value is changed by
+   * <code>{@link #replaceY(ITracePoint2D, double)}</code> or null.
+   */
+  private transient ITracePoint2D m_replacedPoint;
+
+  /** The y value of <code>{@link #m_replacedPoint}</code> before the change. */
+  private double m_replacedY;
+
+  /**
+   * The mapping of x values to normalized values assigned by the x axis or
+   * null if the axis writes the normalized values into the points.
+   */
+  private AffineScaling m_scalingX;
+
+  /**
+   * The mapping of y values to normalized values assigned by the y axis or
+   * null if the axis writes the normalized values into the points.
+   */
+  private AffineScaling m_scalingY;
+
+  /** The queue producers may stage points in, see {@link #setStagingQueue(StagingQueue)}. */
+  private transient StagingQueue m_stagingQueue;
+
   /**
    * The stroke property.
    */
@@ -214,6 +330,65 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     this.m_stroke = new BasicStroke(1f);
   }
 
+  /**
+   * Performs the work of <code>{@link #addPoint(ITracePoint2D)}</code> for a
+   * point that has been accepted by <code>{@link #addPointInternal(ITracePoint2D)}
+   * </code>: Bound checks and events (see
+   * <code>{@link #firePointAdded(ITracePoint2D)}</code>), registration as
+   * listener of the point, the nearest point index and the computing traces.
+   * <p>
+   * Implementations that do not accept a point in the call that passes it but
+   * add it later (e.g. after buffering it) return false from
+   * <code>{@link #addPointInternal(ITracePoint2D)}</code> and invoke this
+   * method for every point they add.
+   * <p>
+   * Only to be invoked with the lock on this trace held and the lock on the
+   * chart held unless points are added (see <code>{@link #isIngesting()}</code>).
+   * <p>
+   * 
+   * @param p
+   *          the point that has been added to the internal points.
+   */
+  protected final void acceptPoint(final ITracePoint2D p) {
+    if (this.m_batchAdded == null) {
+      // fires property changes for max/min x/y, done by fireBatch() else:
+      this.expandErrorBarBounds();
+    }
+    // min max bounds exceeded?
+    this.firePointAdded(p);
+    p.setListener(this);
+    if (this.m_nearestPointIndex != null) {
+      this.m_nearestPointIndex.add(this.getContainedPoint(p));
+    }
+    // inform computing traces:
+    if (this.m_computingTraces.size() > 0) {
+      for (final ITrace2D trace : this.m_computingTraces) {
+        if (this.isIngesting()) {
+          this.addComputingUpdate(new PropertyChangeEvent(trace, ITrace2D.PROPERTY_TRACEPOINT,
+              null, p));
+        } else {
+          trace.addPoint(p);
+        }
+      }
+    }
+  }
+
+  /**
+   * Collects the given point for a computing trace (source of the given
+   * event) to be added (new value) or removed (old value) after the lock on
+   * this trace has been released (see <code>{@link #endIngest(boolean)}</code>).
+   * <p>
+   * 
+   * @param update
+   *          the point to add to or remove from a computing trace.
+   */
+  private void addComputingUpdate(final PropertyChangeEvent update) {
+    if (this.m_computingUpdates == null) {
+      this.m_computingUpdates = new ArrayList<PropertyChangeEvent>();
+    }
+    this.m_computingUpdates.add(update);
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#addComputingTrace(info.monitorenter.gui.chart.ITrace2D)
    */
@@ -305,6 +480,12 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    * Property change events are fired as described in method
    * <code>{@link #firePointAdded(ITracePoint2D)}</code>.
    * <p>
+   * Only the lock on this trace is acquired while the point is added: Producers
+   * of different traces do not block each other and a chart painting this
+   * trace only blocks them while it copies the points to paint. The events are
+   * fired after the lock has been released (or by the chart in coalescing
+   * mode, see <code>{@link #setCoalescingEvents(boolean)}</code>).
+   * <p>
    * 
    * @see #firePointChanged(ITracePoint2D, int)
    * @param p
@@ -314,68 +495,33 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
   public final boolean addPoint(final ITracePoint2D p) {
     if (Chart2D.DEBUG_THREADING) {
       System.out.println(Thread.currentThread().getName() + ", ATrace2D.addPoint, 0 locks");
+      if (!(this.m_renderer instanceof Chart2D)) {
+        throw new RuntimeException(
+            "Call chart.setTrace(trace) first before adding points or you might run into deadlocks!");
+      }
     }
     boolean accepted = false;
+    List<PropertyChangeEvent> events;
+    List<PropertyChangeEvent> updates;
     this.ensureInitialized();
-    synchronized (this.m_renderer) {
+    synchronized (this) {
       if (Chart2D.DEBUG_THREADING) {
-        if (!(this.m_renderer instanceof Chart2D)) {
-          throw new RuntimeException(
-              "Call chart.setTrace(trace) first before adding points or you might run into deadlocks!");
-        }
         System.out.println(Thread.currentThread().getName() + ", ATrace2D.addPoint, 1 lock");
       }
-      synchronized (this) {
-        if (Chart2D.DEBUG_THREADING) {
-          System.out.println(Thread.currentThread().getName() + ", ATrace2D.addPoint, 2 locks");
-        }
-        accepted = this.addPointInternal(p);
-        if (accepted) {
-          // fires property changes for max/min x/y:
-          this.expandErrorBarBounds();
-          // min max bounds exceeded?
-          this.firePointAdded(p);
-          p.setListener(this);
-          // inform computing traces:
-          if (this.m_computingTraces.size() > 0) {
-            final Iterator<ITrace2D> it = this.m_computingTraces.iterator();
-            ITrace2D trace;
-            while (it.hasNext()) {
-              trace = it.next();
-              trace.addPoint(p);
-            }
-          }
-        }
-        if (this.m_firsttime) {
-          // MAX events / members are done already from the
-          // firePointAdded()->firePointChanged() method,
-          // this is only the special case that a new point also marks the
-          // minimum.
-          // Don't move this code block before the firePointAdded or
-          // the minimum of the chart will be higher than the maximum
-          // which causes an infinite loop in AxisAutoUnit!
-          this.m_minX = p.getX();
-          this.m_minY = p.getY();
-          this.m_maxX = p.getX();
-          this.m_maxY = p.getY();
-          final Double zero = new Double(0);
-          this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, zero, new Double(this.m_minX));
-          this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, zero, new Double(this.m_minY));
-
-          this.m_firsttime = false;
-        }
-
-      }
-      if (Chart2D.DEBUG_THREADING) {
-        System.out.println(Thread.currentThread().getName()
-            + ", ATrace2D.addPoint, freed 1 lock,  1 lock remaining.");
+      this.startIngest();
+      try {
+        accepted = this.addPointLocked(p);
+      } finally {
+        events = this.endIngest(true);
+        updates = this.m_computingUpdates;
+        this.m_computingUpdates = null;
       }
-
     }
     if (Chart2D.DEBUG_THREADING) {
       System.out.println(Thread.currentThread().getName()
           + ", ATrace2D.addPoint, freed 1 lock,  0 locks remaining.");
     }
+    this.fireIngested(events, updates);
     return accepted;
   }
 
@@ -422,6 +568,100 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    */
   protected abstract boolean addPointInternal(ITracePoint2D p);
 
+  /**
+   * Performs <code>{@link #addPoint(ITracePoint2D)}</code> with the lock on
+   * this trace held (see <code>{@link #startIngest()}</code>).
+   * <p>
+   * 
+   * @param p
+   *          the point to add.
+   * @return true if the point was accepted.
+   */
+  private boolean addPointLocked(final ITracePoint2D p) {
+    boolean accepted;
+    accepted = this.addPointInternal(p);
+    if (accepted) {
+      this.acceptPoint(p);
+    }
+    if (this.m_firsttime) {
+      // MAX events / members are done already from the
+      // firePointAdded()->firePointChanged() method,
+      // this is only the special case that a new point also marks the
+      // minimum.
+      // Don't move this code block before the firePointAdded or
+      // the minimum of the chart will be higher than the maximum
+      // which causes an infinite loop in AxisAutoUnit!
+      this.m_minX = p.getX();
+      this.m_minY = p.getY();
+      this.m_maxX = p.getX();
+      this.m_maxY = p.getY();
+      final Double zero = new Double(0);
+      this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, zero, new Double(this.m_minX));
+      this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, zero, new Double(this.m_minY));
+
+      this.m_firsttime = false;
+    }
+    return accepted;
+  }
+
+  /**
+   * Adds the points given by the pairs of x and y values while holding the
+   * lock on this trace only once.
+   * <p>
+   * Every point is created by the <code>{@link ITracePointProvider}</code> of
+   * the chart and handled like in <code>{@link #addPoint(ITracePoint2D)}</code>
+   * with the exception that bound events and events for added points are not
+   * fired for every single point: After the batch one event is fired for every
+   * bound that differs from its value before the batch followed by a single
+   * <code>{@link ITrace2D#PROPERTY_TRACEPOINTS_ADDED}</code> event after the
+   * lock has been released. In coalescing mode these events are postponed
+   * until <code>{@link #fireCoalescedEvents()}</code>.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.ITrace2D#addPoints(double[], double[])
+   */
+  public final int addPoints(final double[] xs, final double[] ys)
+      throws IllegalArgumentException {
+    if (xs.length != ys.length) {
+      throw new IllegalArgumentException("Got " + xs.length + " x-values but " + ys.length
+          + " y-values.");
+    }
+    return this.addPoints(xs, ys, xs.length);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#addPoints(double[], double[], int)
+   */
+  public final int addPoints(final double[] xs, final double[] ys, final int amount)
+      throws IllegalArgumentException {
+    if ((amount < 0) || (xs.length < amount) || (ys.length < amount)) {
+      throw new IllegalArgumentException("Cannot add " + amount + " points from " + xs.length
+          + " x-values and " + ys.length + " y-values.");
+    }
+    int result = 0;
+    List<PropertyChangeEvent> events;
+    List<PropertyChangeEvent> updates;
+    this.ensureInitialized();
+    synchronized (this) {
+      final ITracePointProvider pointProvider = this.getRenderer().getTracePointProvider();
+      this.startIngest();
+      try {
+        for (int i = 0; i < amount; i++) {
+          // bound checks, events are collected:
+          if (this.addPointLocked(pointProvider.createTracePoint(xs[i], ys[i]))) {
+            result++;
+          }
+        }
+      } finally {
+        events = this.endIngest(false);
+        updates = this.m_computingUpdates;
+        this.m_computingUpdates = null;
+      }
+    }
+    this.fireIngested(events, updates);
+    return result;
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#addPropertyChangeListener(java.lang.String,
    *      java.beans.PropertyChangeListener)
@@ -448,6 +688,61 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     return result;
   }
 
+  /**
+   * Degrades the current batch to a rescale of all points (see
+   * <code>{@link #m_batchOverflow}</code>) if it collected more added points
+   * and other events than this trace contains points in coalescing mode.
+   * <p>
+   * Only to be invoked with the lock on this trace held.
+   * <p>
+   */
+  private void checkBatchOverflow() {
+    if (this.m_coalescingEvents
+        && !this.m_batchOverflow
+        && (this.m_batchAdded.size() + this.m_batchEvents.size() > Math.max(this.getSize(),
+            ATrace2D.BATCH_CAPACITY_MIN))) {
+      this.m_batchOverflow = true;
+      this.m_batchAdded.clear();
+      final List<PropertyChangeEvent> events = this.m_batchEvents;
+      this.m_batchEvents = new ArrayList<PropertyChangeEvent>();
+      for (final PropertyChangeEvent event : events) {
+        this.collectBatchEvent(event);
+      }
+    }
+  }
+
+  /**
+   * Collects the given event of the current batch to be fired after the lock
+   * on this trace has been released.
+   * <p>
+   * After an overflow of the batch (see <code>{@link #m_batchOverflow}</code>)
+   * an event for a removed respectively modified point replaces the previous
+   * one for the same property: All points are rescaled anyway.
+   * <p>
+   * Only to be invoked with the lock on this trace held.
+   * <p>
+   * 
+   * @param event
+   *          the event to fire after the batch.
+   */
+  private void collectBatchEvent(final PropertyChangeEvent event) {
+    final String property = event.getPropertyName();
+    if (this.m_batchOverflow
+        && (property.equals(ITrace2D.PROPERTY_TRACEPOINT) || property
+            .equals(ITrace2D.PROPERTY_POINT_CHANGED))) {
+      for (int i = this.m_batchEvents.size() - 1; i >= 0; i--) {
+        if (property.equals(this.m_batchEvents.get(i).getPropertyName())) {
+          this.m_batchEvents.remove(i);
+          break;
+        }
+      }
+      this.m_batchEvents.add(event);
+    } else {
+      this.m_batchEvents.add(event);
+      this.checkBatchOverflow();
+    }
+  }
+
   /**
    * @param o
    *          the trace to compare to.
@@ -474,6 +769,108 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     return this.m_tracePainters.contains(painter);
   }
 
+  /**
+   * Returns the given point: Points are stored as instances.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.ITrace2D#detachPoint(info.monitorenter.gui.chart.ITracePoint2D)
+   */
+  public ITracePoint2D detachPoint(final ITracePoint2D point) {
+    return point;
+  }
+
+  /**
+   * Ends the current batch (see <code>{@link #startBatch()}</code>) and
+   * returns its events in the order to fire them: The other events of the
+   * batch (e.g. for removed points) followed by one event for every bound that
+   * differs from its value before the batch followed by the events for the
+   * points added within the batch.
+   * <p>
+   * If the batch overflowed (see <code>{@link #m_batchOverflow}</code>) a
+   * single <code>{@link ITrace2D#PROPERTY_TRACEPOINTS_ADDED}</code> event for
+   * all points of this trace is returned instead: The axes rescale the whole
+   * trace.
+   * <p>
+   * Only to be invoked with the lock on this trace held and the lock on the
+   * chart held if the batch may have overflowed.
+   * <p>
+   * 
+   * @param perPoint
+   *          if true one <code>{@link ITrace2D#PROPERTY_TRACEPOINT}</code>
+   *          event is returned for every added point, else a single
+   *          <code>{@link ITrace2D#PROPERTY_TRACEPOINTS_ADDED}</code> event.
+   * 
+   * @return the events of the batch in the order to fire them.
+   */
+  private List<PropertyChangeEvent> endBatch(final boolean perPoint) {
+    List<ITracePoint2D> added = this.m_batchAdded;
+    final List<PropertyChangeEvent> result = this.m_batchEvents;
+    // bound events are still postponed:
+    this.expandErrorBarBounds();
+    this.m_batchAdded = null;
+    this.m_batchEvents = null;
+    if (this.m_batchOverflow) {
+      this.m_batchOverflow = false;
+      added = new ArrayList<ITracePoint2D>(this.getSize());
+      final Iterator<ITracePoint2D> it = this.iterator();
+      while (it.hasNext()) {
+        added.add(it.next());
+      }
+    }
+    if (this.m_maxX != this.m_batchMaxX) {
+      result.add(new PropertyChangeEvent(this, ITrace2D.PROPERTY_MAX_X, Double
+          .valueOf(this.m_batchMaxX), Double.valueOf(this.m_maxX)));
+    }
+    if (this.m_minX != this.m_batchMinX) {
+      result.add(new PropertyChangeEvent(this, ITrace2D.PROPERTY_MIN_X, Double
+          .valueOf(this.m_batchMinX), Double.valueOf(this.m_minX)));
+    }
+    if (this.m_maxY != this.m_batchMaxY) {
+      result.add(new PropertyChangeEvent(this, ITrace2D.PROPERTY_MAX_Y, Double
+          .valueOf(this.m_batchMaxY), Double.valueOf(this.m_maxY)));
+    }
+    if (this.m_minY != this.m_batchMinY) {
+      result.add(new PropertyChangeEvent(this, ITrace2D.PROPERTY_MIN_Y, Double
+          .valueOf(this.m_batchMinY), Double.valueOf(this.m_minY)));
+    }
+    if (perPoint) {
+      for (final ITracePoint2D point : added) {
+        result.add(new PropertyChangeEvent(this, ITrace2D.PROPERTY_TRACEPOINT, null, point));
+      }
+    } else if (added.size() > 0) {
+      result.add(new PropertyChangeEvent(this, ITrace2D.PROPERTY_TRACEPOINTS_ADDED, null,
+          Collections.unmodifiableList(added)));
+    }
+    return result;
+  }
+
+  /**
+   * Ends adding points started by <code>{@link #startIngest()}</code> and
+   * returns the events to fire after the lock on this trace has been released
+   * or null in coalescing mode: The batch stays open for the chart to fire its
+   * events with the next paint operation.
+   * <p>
+   * Only to be invoked with the lock on this trace held.
+   * <p>
+   * 
+   * @param perPoint
+   *          see <code>{@link #endBatch(boolean)}</code>.
+   * 
+   * @return the events to fire after the lock on this trace has been released
+   *         or null.
+   */
+  private List<PropertyChangeEvent> endIngest(final boolean perPoint) {
+    List<PropertyChangeEvent> result = null;
+    try {
+      if (!this.m_coalescingEvents) {
+        result = this.endBatch(perPoint);
+      }
+    } finally {
+      this.m_ingesting = false;
+    }
+    return result;
+  }
+
   /**
    * @see java.lang.Object#equals(java.lang.Object)
    */
@@ -610,65 +1007,124 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     return true;
   }
 
+  /**
+   * Expands the bounds for a point with the given values that has been added
+   * and fires the events for changed bounds unless a batch is processed.
+   * <p>
+   * Only to be invoked with the lock on this trace held and the lock on the
+   * chart held if no batch is processed.
+   * <p>
+   * 
+   * @param x
+   *          the x value of the added point.
+   * 
+   * @param y
+   *          the y value of the added point.
+   */
+  private void expandBounds(final double x, final double y) {
+    if (x > this.m_maxX) {
+      this.m_maxX = x;
+      this.expandMaxXErrorBarBounds();
+      if (this.m_batchAdded == null) {
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, null, new Double(this.m_maxX));
+      }
+    } else if (x < this.m_minX) {
+      this.m_minX = x;
+      this.expandMinXErrorBarBounds();
+      if (this.m_batchAdded == null) {
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, null, new Double(this.m_minX));
+      }
+    }
+    if (y > this.m_maxY) {
+      this.m_maxY = y;
+      this.expandMaxYErrorBarBounds();
+      if (this.m_batchAdded == null) {
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, null, new Double(this.m_maxY));
+      }
+    } else if (y < this.m_minY) {
+      this.m_minY = y;
+      this.expandMinYErrorBarBounds();
+      if (this.m_batchAdded == null) {
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, null, new Double(this.m_minY));
+      }
+    }
+  }
+
   /**
    * Internally expands all bounds according to potential error bars.
    */
   private void expandErrorBarBounds() {
     final boolean requiresErrorBarCalculation = !this.isEmpty();
     if (requiresErrorBarCalculation) {
-      boolean change;
-      this.ensureInitialized();
-      synchronized (this.m_renderer) {
-        synchronized (this) {
-          if (this.showsPositiveXErrorBars()) {
-            change = this.expandMaxXErrorBarBounds();
-            if (change) {
-              this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, this, new Double(this.getMaxX()));
-            }
-          } else {
-            if (this.m_maxXErrorBar != -Double.MAX_VALUE) {
-              this.m_maxXErrorBar = -Double.MAX_VALUE;
-              this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, this, new Double(this.getMaxX()));
-            }
-          }
-          if (this.showsPositiveYErrorBars()) {
-            change = this.expandMaxYErrorBarBounds();
-            if (change) {
-              this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, this, new Double(this.getMaxY()));
-            }
-          } else {
-            if (this.m_maxYErrorBar != -Double.MAX_VALUE) {
-              this.m_maxYErrorBar = -Double.MAX_VALUE;
-              this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, this, new Double(this.getMaxY()));
-            }
-          }
-          if (this.showsNegativeXErrorBars()) {
-            change = this.expandMinXErrorBarBounds();
-            if (change) {
-              this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, this, new Double(this.getMinX()));
-            }
-          } else {
-            if (this.m_minXErrorBar != Double.MAX_VALUE) {
-              this.m_minXErrorBar = Double.MAX_VALUE;
-              this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, this, new Double(this.getMinX()));
-            }
-          }
-          if (this.showsNegativeYErrorBars()) {
-            change = this.expandMinYErrorBarBounds();
-            if (change) {
-              this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, this, new Double(this.getMinY()));
-            }
-          } else {
-            if (this.m_minYErrorBar != Double.MAX_VALUE) {
-              this.m_minYErrorBar = Double.MAX_VALUE;
-              this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, this, new Double(this.getMinY()));
-            }
+      if (this.isIngesting()) {
+        // the lock on the chart must not be acquired, events are postponed:
+        this.expandErrorBarBoundsLocked();
+      } else {
+        this.ensureInitialized();
+        synchronized (this.m_renderer) {
+          synchronized (this) {
+            this.expandErrorBarBoundsLocked();
           }
         }
       }
     }
   }
 
+  /**
+   * Performs <code>{@link #expandErrorBarBounds()}</code> with the locks on
+   * the chart (unless points are added, see <code>{@link #isIngesting()}
+   * </code>) and this trace held.
+   * <p>
+   */
+  private void expandErrorBarBoundsLocked() {
+    boolean change;
+    if (this.showsPositiveXErrorBars()) {
+      change = this.expandMaxXErrorBarBounds();
+      if (change) {
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, this, new Double(this.getMaxX()));
+      }
+    } else {
+      if (this.m_maxXErrorBar != -Double.MAX_VALUE) {
+        this.m_maxXErrorBar = -Double.MAX_VALUE;
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, this, new Double(this.getMaxX()));
+      }
+    }
+    if (this.showsPositiveYErrorBars()) {
+      change = this.expandMaxYErrorBarBounds();
+      if (change) {
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, this, new Double(this.getMaxY()));
+      }
+    } else {
+      if (this.m_maxYErrorBar != -Double.MAX_VALUE) {
+        this.m_maxYErrorBar = -Double.MAX_VALUE;
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, this, new Double(this.getMaxY()));
+      }
+    }
+    if (this.showsNegativeXErrorBars()) {
+      change = this.expandMinXErrorBarBounds();
+      if (change) {
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, this, new Double(this.getMinX()));
+      }
+    } else {
+      if (this.m_minXErrorBar != Double.MAX_VALUE) {
+        this.m_minXErrorBar = Double.MAX_VALUE;
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, this, new Double(this.getMinX()));
+      }
+    }
+    if (this.showsNegativeYErrorBars()) {
+      change = this.expandMinYErrorBarBounds();
+      if (change) {
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, this, new Double(this.getMinY()));
+      }
+    } else {
+      if (this.m_minYErrorBar != Double.MAX_VALUE) {
+        this.m_minYErrorBar = Double.MAX_VALUE;
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, this, new Double(this.getMinY()));
+      }
+    }
+  }
+
+
   /**
    * Internally takes into account that in case of error bars to render the
    * maximum x value will be different.
@@ -678,7 +1134,7 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    * 
    * @return true if a change to <code>{@link #getMaxX()}</code> was done.
    */
-  private boolean expandMaxXErrorBarBounds() {
+  protected final boolean expandMaxXErrorBarBounds() {
     final Chart2D chart = this.getRenderer();
     boolean change = false;
     double errorBarMaxXCollect = -Double.MAX_VALUE;
@@ -711,7 +1167,7 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    * 
    * @return true if a change to <code>{@link #getMaxY()}</code> was done.
    */
-  private boolean expandMaxYErrorBarBounds() {
+  protected final boolean expandMaxYErrorBarBounds() {
     final Chart2D chart = this.getRenderer();
     boolean change = false;
     double errorBarMaxYCollect = -Double.MAX_VALUE;
@@ -744,7 +1200,7 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    * 
    * @return true if a change to <code>{@link #getMinX()}</code> was done.
    */
-  private boolean expandMinXErrorBarBounds() {
+  protected final boolean expandMinXErrorBarBounds() {
     final Chart2D chart = this.getRenderer();
     boolean change = false;
     double errorBarMinXCollect = -Double.MAX_VALUE;
@@ -776,7 +1232,7 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    * 
    * @return true if a change to <code>{@link #getMinY()}</code> was done.
    */
-  private boolean expandMinYErrorBarBounds() {
+  protected final boolean expandMinYErrorBarBounds() {
     final Chart2D chart = this.getRenderer();
     boolean change = false;
     double errorBarMinYCollect = -Double.MAX_VALUE;
@@ -813,6 +1269,71 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     ATrace2D.instanceCount--;
   }
 
+  /**
+   * Ends the current batch (see <code>{@link #startBatch()}</code>) by firing
+   * its events (see <code>{@link #endBatch(boolean)}</code>).
+   * <p>
+   * Only to be invoked with the locks on the chart and this trace held.
+   * <p>
+   */
+  private void fireBatch() {
+    for (final PropertyChangeEvent event : this.endBatch(false)) {
+      this.m_propertyChangeSupport.firePropertyChange(event);
+    }
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#fireCoalescedEvents()
+   */
+  public final boolean fireCoalescedEvents() {
+    boolean result = false;
+    this.ensureInitialized();
+    synchronized (this.m_renderer) {
+      synchronized (this) {
+        if (this.m_coalescingEvents && (this.m_batchAdded != null)) {
+          this.fireBatch();
+          result = true;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Fires the given events and informs the computing traces about the given
+   * updates (see <code>{@link #m_computingUpdates}</code>) collected while
+   * points have been added.
+   * <p>
+   * Only to be invoked without any locks held: Listeners like the axes of the
+   * chart acquire the lock on the chart themselves.
+   * <p>
+   * 
+   * @param events
+   *          the events to fire or null.
+   * 
+   * @param updates
+   *          the points to add to or remove from the computing traces or null.
+   */
+  private void fireIngested(final List<PropertyChangeEvent> events,
+      final List<PropertyChangeEvent> updates) {
+    if (events != null) {
+      for (final PropertyChangeEvent event : events) {
+        this.m_propertyChangeSupport.firePropertyChange(event);
+      }
+    }
+    if (updates != null) {
+      ITracePoint2D removed;
+      for (final PropertyChangeEvent update : updates) {
+        removed = (ITracePoint2D) update.getOldValue();
+        if (removed == null) {
+          ((ITrace2D) update.getSource()).addPoint((ITracePoint2D) update.getNewValue());
+        } else {
+          ((ITrace2D) update.getSource()).removePoint(removed);
+        }
+      }
+    }
+  }
+
   /**
    * Fire property change events related to an added point.
    * <p>
@@ -864,117 +1385,167 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    *          type of change.
    */
   public void firePointChanged(final ITracePoint2D changed, final int state) {
+    if (this.isIngesting()) {
+      // the lock on the chart must not be acquired, events are collected:
+      this.firePointChangedLocked(changed, state);
+    } else {
+      this.ensureInitialized();
+      synchronized (this.m_renderer) {
+        synchronized (this) {
+          this.firePointChangedLocked(changed, state);
+        }
+      }
+    }
+  }
+
+  /**
+   * Performs <code>{@link #firePointChanged(ITracePoint2D, int)}</code> with
+   * the locks on the chart (unless points are added, see
+   * <code>{@link #isIngesting()}</code>) and this trace held.
+   * <p>
+   * 
+   * @param changed
+   *          the point that has been changed.
+   * @param state
+   *          the type of change.
+   */
+  private void firePointChangedLocked(final ITracePoint2D changed, final int state) {
     double tmpx = changed.getX();
     double tmpy = changed.getY();
-    this.ensureInitialized();
-    synchronized (this.m_renderer) {
-      synchronized (this) {
-        // for a changed point all cases (new extremum as for added case, other
-        // point becomes extremum as the change point was one like in removed
-        // case) have
-        // to be tested. Additionally we have to fire a changd point event.
-        if (ITracePoint2D.STATE_ADDED == state) {
-          // add
-          if (tmpx > this.m_maxX) {
-            this.m_maxX = tmpx;
-            this.expandMaxXErrorBarBounds();
-            this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, null, new Double(this.m_maxX));
-          } else if (tmpx < this.m_minX) {
-            this.m_minX = tmpx;
-            this.expandMinXErrorBarBounds();
-            this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, null, new Double(this.m_minX));
-          }
-          if (tmpy > this.m_maxY) {
-            this.m_maxY = tmpy;
-            this.expandMaxYErrorBarBounds();
-            this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, null, new Double(this.m_maxY));
-          } else if (tmpy < this.m_minY) {
-            this.m_minY = tmpy;
-            this.expandMinYErrorBarBounds();
-            this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, null, new Double(this.m_minY));
-          }
-        }
-        if (ITracePoint2D.STATE_REMOVED == state) {
-          // removal: care for extrema (<=, >=)
-          if (tmpx >= this.m_maxX) {
-            tmpx = this.m_maxX;
-            this.maxXSearch();
-            this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, new Double(tmpx), new Double(
-                this.m_maxX));
-          } else if (tmpx <= this.m_minX) {
-            tmpx = this.m_minX;
-            this.minXSearch();
-            this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, new Double(tmpx), new Double(
-                this.m_minX));
-          }
-          if (tmpy >= this.m_maxY) {
-            tmpy = this.m_maxY;
-            this.maxYSearch();
-            this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, new Double(tmpy), new Double(
-                this.m_maxY));
-          } else if (tmpy <= this.m_minY) {
-            tmpy = this.m_minY;
-            this.minYSearch();
-            this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, new Double(tmpy), new Double(
-                this.m_minY));
-          }
-          if (this.getSize() == 0) {
-            this.m_firsttime = true;
-          }
-        }
-        if (state == ITracePoint2D.STATE_CHANGED) {
-          if (tmpx < this.m_maxX) {
-            final double oldMaxX = this.m_maxX;
-            this.maxXSearch();
-            this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, new Double(oldMaxX), new Double(
-                this.m_maxX));
-          } else if (tmpx > this.m_maxX) {
-            final double oldMaxX = this.m_maxX;
-            this.m_maxX = tmpx;
-            this.expandMaxXErrorBarBounds();
-            this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, new Double(oldMaxX), new Double(
-                this.m_maxX));
-          }
-          if (tmpx > this.m_minX) {
-            final double oldMinX = this.m_minX;
-            this.minXSearch();
-            this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, new Double(oldMinX), new Double(
-                this.m_minX));
-          } else if (tmpx < this.m_minX) {
-            final double oldMinX = this.m_minX;
-            this.m_minX = tmpx;
-            this.expandMinXErrorBarBounds();
-            this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, new Double(oldMinX), new Double(
-                this.m_minX));
-          }
-          if (tmpy < this.m_maxY) {
-            final double oldMaxY = this.m_maxY;
-            this.maxYSearch();
-            this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, new Double(oldMaxY), new Double(
-                this.m_maxY));
-          } else if (tmpy > this.m_maxY) {
-            final double oldMaxY = this.m_maxY;
-            this.m_maxY = tmpy;
-            this.expandMaxYErrorBarBounds();
-            this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, new Double(oldMaxY), new Double(
-                this.m_maxY));
-          }
-          if (tmpy > this.m_minY) {
-            final double oldMinY = this.m_minY;
-            this.minYSearch();
-            this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, new Double(oldMinY), new Double(
-                this.m_minY));
-          } else if (tmpy < this.m_minY) {
-            final double oldMinY = this.m_minY;
-            this.m_minY = tmpy;
-            this.expandMinYErrorBarBounds();
-            this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, new Double(oldMinY), new Double(
-                this.m_minY));
-          }
-          this.firePropertyChange(ITrace2D.PROPERTY_POINT_CHANGED, null, changed);
-        }
+    // for a changed point all cases (new extremum as for added case, other
+    // point becomes extremum as the change point was one like in removed
+    // case) have
+    // to be tested. Additionally we have to fire a changd point event.
+    if (ITracePoint2D.STATE_ADDED == state) {
+      this.expandBounds(tmpx, tmpy);
+    }
+    if (ITracePoint2D.STATE_REMOVED == state) {
+      // removal: care for extrema (<=, >=)
+      if (tmpx >= this.m_maxX) {
+        tmpx = this.m_maxX;
+        this.maxXSearch();
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, new Double(tmpx), new Double(
+            this.m_maxX));
+      } else if (tmpx <= this.m_minX) {
+        tmpx = this.m_minX;
+        this.minXSearch();
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, new Double(tmpx), new Double(
+            this.m_minX));
+      }
+      if (tmpy >= this.m_maxY) {
+        tmpy = this.m_maxY;
+        this.maxYSearch();
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, new Double(tmpy), new Double(
+            this.m_maxY));
+      } else if (tmpy <= this.m_minY) {
+        tmpy = this.m_minY;
+        this.minYSearch();
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, new Double(tmpy), new Double(
+            this.m_minY));
+      }
+      if (this.getSize() == 0) {
+        this.m_firsttime = true;
       }
     }
+    if ((state == ITracePoint2D.STATE_CHANGED) && (changed == this.m_replacedPoint)) {
+      this.firePointChangedY(changed, this.m_replacedY);
+    } else if (state == ITracePoint2D.STATE_CHANGED) {
+      this.invalidateNearestPointIndex();
+      if (tmpx < this.m_maxX) {
+        final double oldMaxX = this.m_maxX;
+        this.maxXSearch();
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, new Double(oldMaxX), new Double(
+            this.m_maxX));
+      } else if (tmpx > this.m_maxX) {
+        final double oldMaxX = this.m_maxX;
+        this.m_maxX = tmpx;
+        this.expandMaxXErrorBarBounds();
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, new Double(oldMaxX), new Double(
+            this.m_maxX));
+      }
+      if (tmpx > this.m_minX) {
+        final double oldMinX = this.m_minX;
+        this.minXSearch();
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, new Double(oldMinX), new Double(
+            this.m_minX));
+      } else if (tmpx < this.m_minX) {
+        final double oldMinX = this.m_minX;
+        this.m_minX = tmpx;
+        this.expandMinXErrorBarBounds();
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, new Double(oldMinX), new Double(
+            this.m_minX));
+      }
+      if (tmpy < this.m_maxY) {
+        final double oldMaxY = this.m_maxY;
+        this.maxYSearch();
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, new Double(oldMaxY), new Double(
+            this.m_maxY));
+      } else if (tmpy > this.m_maxY) {
+        final double oldMaxY = this.m_maxY;
+        this.m_maxY = tmpy;
+        this.expandMaxYErrorBarBounds();
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, new Double(oldMaxY), new Double(
+            this.m_maxY));
+      }
+      if (tmpy > this.m_minY) {
+        final double oldMinY = this.m_minY;
+        this.minYSearch();
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, new Double(oldMinY), new Double(
+            this.m_minY));
+      } else if (tmpy < this.m_minY) {
+        final double oldMinY = this.m_minY;
+        this.m_minY = tmpy;
+        this.expandMinYErrorBarBounds();
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, new Double(oldMinY), new Double(
+            this.m_minY));
+      }
+      this.firePropertyChange(ITrace2D.PROPERTY_POINT_CHANGED, null, changed);
+    }
+  }
+
+  /**
+   * Handles the change of the y value of the given point from the given old y
+   * value as <code>{@link #firePointChanged(ITracePoint2D, int)}</code> does
+   * for a changed point.
+   * <p>
+   * As the old y value is known the bounds only have to be searched if the
+   * point has been the minimum or maximum before and the x bounds remain
+   * untouched. So this is constant time for most changes.
+   * <p>
+   * 
+   * @param changed
+   *          the point whose y value has been changed.
+   * @param oldY
+   *          the y value of the point before the change.
+   */
+  private void firePointChangedY(final ITracePoint2D changed, final double oldY) {
+    final double tmpy = changed.getY();
+    this.invalidateNearestPointIndex();
+    if (tmpy > this.m_maxY) {
+      final double oldMaxY = this.m_maxY;
+      this.m_maxY = tmpy;
+      this.expandMaxYErrorBarBounds();
+      this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, new Double(oldMaxY), new Double(
+          this.m_maxY));
+    } else if ((oldY >= this.m_maxY) && (tmpy < oldY)) {
+      final double oldMaxY = this.m_maxY;
+      this.maxYSearch();
+      this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, new Double(oldMaxY), new Double(
+          this.m_maxY));
+    }
+    if (tmpy < this.m_minY) {
+      final double oldMinY = this.m_minY;
+      this.m_minY = tmpy;
+      this.expandMinYErrorBarBounds();
+      this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, new Double(oldMinY), new Double(
+          this.m_minY));
+    } else if ((oldY <= this.m_minY) && (tmpy > oldY)) {
+      final double oldMinY = this.m_minY;
+      this.minYSearch();
+      this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, new Double(oldMinY), new Double(
+          this.m_minY));
+    }
+    this.firePropertyChange(ITrace2D.PROPERTY_POINT_CHANGED, null, changed);
   }
 
   /**
@@ -1015,21 +1586,39 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     if (property.equals(ITrace2D.PROPERTY_MAX_X) || property.equals(ITrace2D.PROPERTY_MAX_Y)
         || property.equals(ITrace2D.PROPERTY_MIN_X) || property.equals(ITrace2D.PROPERTY_MIN_Y)
         || property.equals(ITrace2D.PROPERTY_TRACEPOINT)
+        || property.equals(ITrace2D.PROPERTY_TRACEPOINTS_ADDED)
         || property.equals(ITrace2D.PROPERTY_POINT_CHANGED)) {
-      if (!Thread.holdsLock(this.m_renderer)) {
-        throw new RuntimeException("Acquire a lock on the corresponding chart first!");
-      }
       if (!Thread.holdsLock(this)) {
         throw new RuntimeException("Acquire a lock on this trace first!");
       }
+      // events are collected while points are added with the lock on this
+      // trace only:
+      if (!Thread.holdsLock(this.m_renderer) && !this.isIngesting()
+          && !this.isPostponed(property, oldvalue)) {
+        throw new RuntimeException("Acquire a lock on the corresponding chart first!");
+      }
 
       if (Chart2D.DEBUG_THREADING) {
         System.out.println("trace.firePropertyChange (" + property + "), 2 locks, renderer is: "
             + this.m_renderer);
       }
     }
-
-    this.m_propertyChangeSupport.firePropertyChange(property, oldvalue, newvalue);
+    if (this.isPostponed(property, oldvalue)) {
+      // within a batch: bounds are fired after the batch, added points are
+      // fired in one event:
+      if (property.equals(ITrace2D.PROPERTY_TRACEPOINT) && !this.m_batchOverflow) {
+        final int last = this.m_batchAdded.size() - 1;
+        if ((last < 0) || (this.m_batchAdded.get(last) != newvalue)) {
+          this.m_batchAdded.add((ITracePoint2D) newvalue);
+          this.checkBatchOverflow();
+        }
+      }
+    } else if (this.isIngesting()) {
+      // fired after the lock on this trace has been released:
+      this.collectBatchEvent(new PropertyChangeEvent(this, property, oldvalue, newvalue));
+    } else {
+      this.m_propertyChangeSupport.firePropertyChange(property, oldvalue, newvalue);
+    }
   }
 
   /**
@@ -1052,6 +1641,25 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     return this.m_color;
   }
 
+  /**
+   * Returns the instance contained in this trace for the given point that has
+   * just been added.
+   * <p>
+   * This implementation returns the given point. Traces that store the values
+   * of the added points instead of the instances have to return the instance
+   * their iterators return: Otherwise points found by the nearest point search
+   * (e.g. for highlighting) are not the ones painted.
+   * <p>
+   * 
+   * @param added
+   *          the point that has just been added.
+   * 
+   * @return the instance contained in this trace for the given point.
+   */
+  protected ITracePoint2D getContainedPoint(final ITracePoint2D added) {
+    return added;
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#getErrorBarPolicies()
    */
@@ -1122,14 +1730,13 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    * @return the original maximum x- value ignoring the offsetX.
    */
   public final double getMaxX() {
-    synchronized (this.m_renderer) {
-      synchronized (this) {
-        double result = this.m_maxX;
-        if (this.m_maxXErrorBar != -Double.MAX_VALUE) {
-          result = this.m_maxXErrorBar;
-        }
-        return result;
+    // points are added with the lock on this trace only:
+    synchronized (this) {
+      double result = this.m_maxX;
+      if (this.m_maxXErrorBar != -Double.MAX_VALUE) {
+        result = this.m_maxXErrorBar;
       }
+      return result;
     }
   }
 
@@ -1142,14 +1749,12 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
 
   public final double getMaxY() {
     this.ensureInitialized();
-    synchronized (this.m_renderer) {
-      synchronized (this) {
-        double result = this.m_maxY;
-        if (this.m_maxYErrorBar != -Double.MAX_VALUE) {
-          result = this.m_maxYErrorBar;
-        }
-        return result;
+    synchronized (this) {
+      double result = this.m_maxY;
+      if (this.m_maxYErrorBar != -Double.MAX_VALUE) {
+        result = this.m_maxYErrorBar;
       }
+      return result;
     }
   }
 
@@ -1160,14 +1765,12 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    * @return the original minimum x- value ignoring the offsetX.
    */
   public final double getMinX() {
-    synchronized (this.m_renderer) {
-      synchronized (this) {
-        double result = this.m_minX;
-        if (this.m_minXErrorBar != Double.MAX_VALUE) {
-          result = this.m_minXErrorBar;
-        }
-        return result;
+    synchronized (this) {
+      double result = this.m_minX;
+      if (this.m_minXErrorBar != Double.MAX_VALUE) {
+        result = this.m_minXErrorBar;
       }
+      return result;
     }
   }
 
@@ -1179,14 +1782,12 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    */
   public final double getMinY() {
     this.ensureInitialized();
-    synchronized (this.m_renderer) {
-      synchronized (this) {
-        double result = this.m_minY;
-        if (this.m_minYErrorBar != Double.MAX_VALUE) {
-          result = this.m_minYErrorBar;
-        }
-        return result;
+    synchronized (this) {
+      double result = this.m_minY;
+      if (this.m_minYErrorBar != Double.MAX_VALUE) {
+        result = this.m_minYErrorBar;
       }
+      return result;
     }
   }
 
@@ -1203,7 +1804,8 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
   }
 
   /**
-   * Naive implementation that iterates over every point.
+   * Naive implementation that iterates over every point unless an index is
+   * used (see <code>{@link #setNearestPointIndexing(boolean)}</code>).
    * <p>
    * Subclasses that have more insight about their internal data storage could
    * override this with a faster implementation (e.g. if the points are kept in
@@ -1214,26 +1816,53 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    *      double)
    */
   public DistancePoint getNearestPointEuclid(final double x, final double y) {
+    if (this.m_nearestPointIndexing) {
+      synchronized (this) {
+        final DistancePoint indexed = this.getNearestPointIndex().getNearestPoint(x, y, true);
+        if (indexed != null) {
+          return indexed;
+        }
+      }
+    }
     final DistancePoint result = new DistancePoint();
-
-    final Iterator<ITracePoint2D> it = this.iterator();
-    ITracePoint2D point;
-    double distance;
-    double shortestDistance = Double.MAX_VALUE;
-    while (it.hasNext()) {
-      point = it.next();
-      distance = point.getEuclidDistance(x, y);
-      if (distance < shortestDistance) {
-        shortestDistance = distance;
-        result.setPoint(point);
-        result.setDistance(shortestDistance);
+    // producers may add points holding the lock on this trace only:
+    synchronized (this) {
+      final Iterator<ITracePoint2D> it = this.iterator();
+      ITracePoint2D point;
+      double distance;
+      double shortestDistance = Double.MAX_VALUE;
+      while (it.hasNext()) {
+        point = it.next();
+        distance = point.getEuclidDistance(x, y);
+        if (distance < shortestDistance) {
+          shortestDistance = distance;
+          result.setPoint(point);
+          result.setDistance(shortestDistance);
+        }
       }
     }
     return result;
   }
 
   /**
-   * Naive implementation that iterates over every point.
+   * Returns the index for nearest point searches and creates it if necessary.
+   * <p>
+   * Must only be invoked with the lock on this trace if
+   * <code>{@link #m_nearestPointIndexing}</code> is true.
+   * <p>
+   * 
+   * @return the index for nearest point searches.
+   */
+  private NearestPointIndex getNearestPointIndex() {
+    if (this.m_nearestPointIndex == null) {
+      this.m_nearestPointIndex = new NearestPointIndex(this);
+    }
+    return this.m_nearestPointIndex;
+  }
+
+  /**
+   * Naive implementation that iterates over every point unless an index is
+   * used (see <code>{@link #setNearestPointIndexing(boolean)}</code>).
    * <p>
    * Subclasses that have more insight about their internal data storage could
    * override this with a faster implementation (e.g. if the points are kept in
@@ -1244,21 +1873,30 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    *      double)
    */
   public DistancePoint getNearestPointManhattan(final double x, final double y) {
+    if (this.m_nearestPointIndexing) {
+      synchronized (this) {
+        final DistancePoint indexed = this.getNearestPointIndex().getNearestPoint(x, y, false);
+        if (indexed != null) {
+          return indexed;
+        }
+      }
+    }
     final DistancePoint result = new DistancePoint();
-
-    final Iterator<ITracePoint2D> it = this.iterator();
-    ITracePoint2D point;
-    double manhattanDistance;
-    double shortestManhattanDistance = Double.MAX_VALUE;
-    while (it.hasNext()) {
-      point = it.next();
-      manhattanDistance = point.getManhattanDistance(x, y);
-      if (manhattanDistance < shortestManhattanDistance) {
-        shortestManhattanDistance = manhattanDistance;
-        result.setPoint(point);
-        result.setDistance(shortestManhattanDistance);
+    // producers may add points holding the lock on this trace only:
+    synchronized (this) {
+      final Iterator<ITracePoint2D> it = this.iterator();
+      ITracePoint2D point;
+      double manhattanDistance;
+      double shortestManhattanDistance = Double.MAX_VALUE;
+      while (it.hasNext()) {
+        point = it.next();
+        manhattanDistance = point.getManhattanDistance(x, y);
+        if (manhattanDistance < shortestManhattanDistance) {
+          shortestManhattanDistance = manhattanDistance;
+          result.setPoint(point);
+          result.setDistance(shortestManhattanDistance);
+        }
       }
-
     }
     return result;
   }
@@ -1326,6 +1964,27 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     return result;
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#getScalingX()
+   */
+  public final AffineScaling getScalingX() {
+    return this.m_scalingX;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#getScalingY()
+   */
+  public final AffineScaling getScalingY() {
+    return this.m_scalingY;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#getStagingQueue()
+   */
+  public final StagingQueue getStagingQueue() {
+    return this.m_stagingQueue;
+  }
+
   /**
    * Get the <code>Stroke</code> object this instance will be painted with.
    * <p>
@@ -1432,6 +2091,94 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     return result;
   }
 
+  /**
+   * Drops the index for nearest point searches which will be rebuilt with the
+   * next search (see <code>{@link #setNearestPointIndexing(boolean)}</code>).
+   * <p>
+   * Subclasses have to invoke this with the lock on this trace if they modify
+   * their points in a way that is not covered by
+   * <code>{@link #removeFromNearestPointIndex(ITracePoint2D)}</code>.
+   * <p>
+   */
+  protected final void invalidateNearestPointIndex() {
+    if (this.m_nearestPointIndex != null) {
+      this.m_nearestPointIndex.invalidate();
+    }
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isCoalescingEvents()
+   */
+  public final boolean isCoalescingEvents() {
+    return this.m_coalescingEvents;
+  }
+
+  /**
+   * Returns true if the current thread adds points to this trace with only the
+   * lock on this trace held (see <code>{@link #addPoint(ITracePoint2D)}</code>).
+   * <p>
+   * The lock on the chart must not be acquired then as the chart acquires the
+   * lock on this trace while holding its own one: Events are collected to be
+   * fired after the lock on this trace has been released and bound events are
+   * postponed (see <code>{@link #startBatch()}</code>).
+   * <p>
+   * 
+   * @return true if the current thread adds points to this trace with only the
+   *         lock on this trace held.
+   */
+  protected final boolean isIngesting() {
+    return Thread.holdsLock(this) && this.m_ingesting;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isNearestPointIndexing()
+   */
+  public final boolean isNearestPointIndexing() {
+    return this.m_nearestPointIndexing;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isPaintDecimation()
+   */
+  public final boolean isPaintDecimation() {
+    return this.m_paintDecimation;
+  }
+
+  /**
+   * Returns true if the event for the given property is postponed because a
+   * batch is processed (see <code>{@link #fireBatch()}</code>): Events for
+   * bounds and added points.
+   * <p>
+   * 
+   * @param property
+   *          the property of the event.
+   * 
+   * @param oldvalue
+   *          the old value of the event.
+   * 
+   * @return true if the event is not to be fired now.
+   */
+  private boolean isPostponed(final String property, final Object oldvalue) {
+    boolean result = false;
+    if (this.m_batchAdded != null) {
+      result = property.equals(ITrace2D.PROPERTY_MAX_X) || property.equals(ITrace2D.PROPERTY_MAX_Y)
+          || property.equals(ITrace2D.PROPERTY_MIN_X) || property.equals(ITrace2D.PROPERTY_MIN_Y)
+          || (property.equals(ITrace2D.PROPERTY_TRACEPOINT) && (oldvalue == null));
+    }
+    return result;
+  }
+
+  /**
+   * Returns false: Subclasses that keep their points sorted by x values have to
+   * override this and <code>{@link #iterator(double, double)}</code>.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.ITrace2D#isSortedX()
+   */
+  public boolean isSortedX() {
+    return false;
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#isVisible()
    */
@@ -1439,6 +2186,27 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     return this.m_visible;
   }
 
+  /**
+   * Returns all points (see <code>{@link #iterator()}</code>).
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.ITrace2D#iterator(double, double)
+   */
+  public Iterator<ITracePoint2D> iterator(final double minX, final double maxX) {
+    return this.iterator();
+  }
+
+  /**
+   * Returns all points of <code>{@link #iterator(double, double)}</code>.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.ITrace2D#iterator(double, double, int)
+   */
+  public Iterator<ITracePoint2D> iterator(final double minX, final double maxX,
+      final int columns) {
+    return this.iterator(minX, maxX);
+  }
+
   /**
    * Internal search for the maximum x value that is only invoked if no cached
    * value is at hand or bounds have changed by adding new points.
@@ -1638,6 +2406,12 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
 
         this.m_firsttime = true;
         this.removeAllPointsInternal();
+        this.invalidateNearestPointIndex();
+        if (this.m_batchAdded != null) {
+          // no need to scale pending points any more:
+          this.m_batchAdded.clear();
+          this.m_batchOverflow = false;
+        }
         // property changes:
         double oldValue = this.m_maxX;
         this.m_maxX = 0;
@@ -1711,6 +2485,47 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     return result;
   }
 
+  /**
+   * Removes the given point that has been removed from this trace from the
+   * computing traces.
+   * <p>
+   * While points are added (see <code>{@link #isIngesting()}</code>) the
+   * computing traces are informed after the lock on this trace has been
+   * released.
+   * <p>
+   * 
+   * @param removed
+   *          the point that has been removed from this trace.
+   */
+  protected final void removeFromComputingTraces(final ITracePoint2D removed) {
+    for (final ITrace2D trace : this.m_computingTraces) {
+      if (this.isIngesting()) {
+        this.addComputingUpdate(new PropertyChangeEvent(trace, ITrace2D.PROPERTY_TRACEPOINT,
+            removed, null));
+      } else {
+        trace.removePoint(removed);
+      }
+    }
+  }
+
+  /**
+   * Removes the given point from the index for nearest point searches (see
+   * <code>{@link #setNearestPointIndexing(boolean)}</code>).
+   * <p>
+   * Subclasses have to invoke this with the lock on this trace for points they
+   * drop internally (e.g. evicted points of a bounded trace). Points removed
+   * by <code>{@link #removePoint(ITracePoint2D)}</code> are handled already.
+   * <p>
+   * 
+   * @param removed
+   *          the removed point or a copy of it.
+   */
+  protected final void removeFromNearestPointIndex(final ITracePoint2D removed) {
+    if (this.m_nearestPointIndex != null) {
+      this.m_nearestPointIndex.remove(removed);
+    }
+  }
+
   /**
    * Remove the given point from this <code>ITrace2D</code>.
    * <p>
@@ -1730,54 +2545,25 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    * @see #firePointChanged(ITracePoint2D, int)
    */
   public boolean removePoint(final ITracePoint2D point) {
-    this.ensureInitialized();
-    synchronized (this.m_renderer) {
-      if (Chart2D.DEBUG_THREADING) {
-        System.out.println("removePoint, 0 locks");
-      }
-      synchronized (this) {
+    boolean result;
+    if (this.isIngesting()) {
+      // e.g. a trace that replaces a point while adding:
+      result = this.removePointLocked(point);
+    } else {
+      this.ensureInitialized();
+      synchronized (this.m_renderer) {
         if (Chart2D.DEBUG_THREADING) {
-          System.out.println("removePoint, 1 lock");
+          System.out.println("removePoint, 0 locks");
         }
-        final ITracePoint2D removed = this.removePointInternal(point);
-        if (removed != null) {
-
-          double tmpx = removed.getX();
-          double tmpy = removed.getY();
-          // System.out.println("Trace2DLtd.addPoint() removed point!");
-          if (tmpx >= this.m_maxX) {
-            tmpx = this.m_maxX;
-            this.maxXSearch();
-            this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, new Double(tmpx), new Double(
-                this.m_maxX));
-          } else if (tmpx <= this.m_minX) {
-            tmpx = this.m_minX;
-            this.minXSearch();
-            this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, new Double(tmpx), new Double(
-                this.m_minX));
-          }
-          if (tmpy >= this.m_maxY) {
-            tmpy = this.m_maxY;
-            this.maxYSearch();
-            this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, new Double(tmpy), new Double(
-                this.m_maxY));
-          } else if (tmpy <= this.m_minY) {
-            tmpy = this.m_minY;
-            this.minYSearch();
-            this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, new Double(tmpy), new Double(
-                this.m_minY));
-          }
-
-          this.firePointRemoved(removed);
-          removed.setListener(null);
-          // inform computing traces:
-          for (final ITrace2D trace : this.m_computingTraces) {
-            trace.removePoint(removed);
+        synchronized (this) {
+          if (Chart2D.DEBUG_THREADING) {
+            System.out.println("removePoint, 1 lock");
           }
+          result = this.removePointLocked(point);
         }
-        return removed != null;
       }
     }
+    return result;
   }
 
   /**
@@ -1831,6 +2617,54 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
    */
   protected abstract ITracePoint2D removePointInternal(final ITracePoint2D point);
 
+  /**
+   * Performs <code>{@link #removePoint(ITracePoint2D)}</code> with the locks on
+   * the chart (unless points are added, see <code>{@link #isIngesting()}</code>)
+   * and this trace held.
+   * <p>
+   * 
+   * @param point
+   *          the point to remove.
+   * @return true if the removal succeeded.
+   */
+  private boolean removePointLocked(final ITracePoint2D point) {
+    final ITracePoint2D removed = this.removePointInternal(point);
+    if (removed != null) {
+
+      double tmpx = removed.getX();
+      double tmpy = removed.getY();
+      // System.out.println("Trace2DLtd.addPoint() removed point!");
+      if (tmpx >= this.m_maxX) {
+        tmpx = this.m_maxX;
+        this.maxXSearch();
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, new Double(tmpx), new Double(
+            this.m_maxX));
+      } else if (tmpx <= this.m_minX) {
+        tmpx = this.m_minX;
+        this.minXSearch();
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, new Double(tmpx), new Double(
+            this.m_minX));
+      }
+      if (tmpy >= this.m_maxY) {
+        tmpy = this.m_maxY;
+        this.maxYSearch();
+        this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, new Double(tmpy), new Double(
+            this.m_maxY));
+      } else if (tmpy <= this.m_minY) {
+        tmpy = this.m_minY;
+        this.minYSearch();
+        this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, new Double(tmpy), new Double(
+            this.m_minY));
+      }
+
+      this.firePointRemoved(removed);
+      removed.setListener(null);
+      this.removeFromNearestPointIndex(removed);
+      this.removeFromComputingTraces(removed);
+    }
+    return removed != null;
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#removePropertyChangeListener(java.beans.PropertyChangeListener)
    */
@@ -1865,6 +2699,76 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     return result;
   }
 
+  /**
+   * Sets the y value of the given contained point by
+   * <code>{@link ITracePoint2D#setLocation(double, double)}</code>.
+   * <p>
+   * Unlike an arbitrary move of the point the old y value is known here: The
+   * bounds of this trace are only searched if the point was the minimum or
+   * maximum in y dimension before. Used by the implementations that replace
+   * the y value of points with an x value already contained.
+   * <p>
+   * 
+   * @param point
+   *          a point contained in this trace.
+   * @param y
+   *          the new y value of the point.
+   */
+  protected final void replaceY(final ITracePoint2D point, final double y) {
+    if (this.isIngesting()) {
+      this.replaceYLocked(point, y);
+    } else {
+      this.ensureInitialized();
+      synchronized (this.m_renderer) {
+        synchronized (this) {
+          this.replaceYLocked(point, y);
+        }
+      }
+    }
+  }
+
+  /**
+   * Performs <code>{@link #replaceY(ITracePoint2D, double)}</code> with the
+   * locks on the chart (unless points are added, see
+   * <code>{@link #isIngesting()}</code>) and this trace held.
+   * <p>
+   * 
+   * @param point
+   *          a point contained in this trace.
+   * @param y
+   *          the new y value of the point.
+   */
+  private void replaceYLocked(final ITracePoint2D point, final double y) {
+    this.m_replacedPoint = point;
+    this.m_replacedY = point.getY();
+    try {
+      point.setLocation(point.getX(), y);
+    } finally {
+      this.m_replacedPoint = null;
+    }
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setCoalescingEvents(boolean)
+   */
+  public final void setCoalescingEvents(final boolean coalescingEvents) {
+    final Chart2D chart = this.getRenderer();
+    if (chart == null) {
+      // no points may have been added yet:
+      this.m_coalescingEvents = coalescingEvents;
+    } else {
+      synchronized (chart) {
+        synchronized (this) {
+          final boolean pending = this.m_coalescingEvents && (this.m_batchAdded != null);
+          this.m_coalescingEvents = coalescingEvents;
+          if (pending && !coalescingEvents) {
+            this.fireBatch();
+          }
+        }
+      }
+    }
+  }
+
   /**
    * <p>
    * Set the <code>Color</code> this trace will be painted with.
@@ -1938,6 +2842,30 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
 
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setNearestPointIndexing(boolean)
+   */
+  public final void setNearestPointIndexing(final boolean nearestPointIndexing) {
+    synchronized (this) {
+      this.m_nearestPointIndexing = nearestPointIndexing;
+      if (!nearestPointIndexing) {
+        this.m_nearestPointIndex = null;
+      }
+    }
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setPaintDecimation(boolean)
+   */
+  public final void setPaintDecimation(final boolean paintDecimation) {
+    final boolean oldValue = this.m_paintDecimation;
+    this.m_paintDecimation = paintDecimation;
+    if (oldValue != this.m_paintDecimation) {
+      this.firePropertyChange(ITrace2D.PROPERTY_PAINT_DECIMATION, Boolean.valueOf(oldValue),
+          Boolean.valueOf(this.m_paintDecimation));
+    }
+  }
+
   /**
    * @see ITrace2D#setPhysicalUnits(String, String)
    */
@@ -1998,6 +2926,32 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     }
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setScalingX(info.monitorenter.gui.chart.AffineScaling)
+   */
+  public final void setScalingX(final AffineScaling scaling) {
+    this.m_scalingX = scaling;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setScalingY(info.monitorenter.gui.chart.AffineScaling)
+   */
+  public final void setScalingY(final AffineScaling scaling) {
+    this.m_scalingY = scaling;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setStagingQueue(info.monitorenter.gui.chart.StagingQueue)
+   */
+  public final void setStagingQueue(final StagingQueue queue) {
+    this.m_stagingQueue = queue;
+    final Chart2D chart = this.getRenderer();
+    if ((queue != null) && (chart != null)) {
+      // the chart has to be polled for staged points from now on:
+      chart.setRequestedRepaint(true);
+    }
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#setStroke(java.awt.Stroke)
    */
@@ -2164,6 +3118,51 @@ public abstract class ATrace2D implements ITrace2D, Comparable<ITrace2D> {
     return result;
   }
 
+  /**
+   * Starts collecting the events for added points and bounds if no batch is
+   * processed yet (see <code>{@link #fireBatch()}</code>).
+   * <p>
+   * In coalescing mode a repaint of the chart is requested as the chart fires
+   * the collected events at the start of the paint operation.
+   * <p>
+   * Only to be invoked with the lock on this trace held: The lock on the chart
+   * is not required as no events are fired.
+   * <p>
+   */
+  private void startBatch() {
+    if (this.m_batchAdded == null) {
+      this.m_batchAdded = new ArrayList<ITracePoint2D>();
+      this.m_batchEvents = new ArrayList<PropertyChangeEvent>();
+      this.m_batchMaxX = this.m_maxX;
+      this.m_batchMinX = this.m_minX;
+      this.m_batchMaxY = this.m_maxY;
+      this.m_batchMinY = this.m_minY;
+      if (this.m_firsttime) {
+        // like addPoint(ITracePoint2D) for the first point:
+        this.m_batchMinX = 0;
+        this.m_batchMinY = 0;
+      }
+      if (this.m_coalescingEvents) {
+        // the lock on the chart may not be held:
+        this.getRenderer().requestRepaintWithoutLock();
+      }
+    }
+  }
+  /**
+   * Starts adding points with only the lock on this trace held (see
+   * <code>{@link #isIngesting()}</code>) within a batch (see
+   * <code>{@link #startBatch()}</code>) that is ended by
+   * <code>{@link #endIngest(boolean)}</code>.
+   * <p>
+   * Only to be invoked with the lock on this trace held.
+   * <p>
+   */
+  private void startIngest() {
+    this.startBatch();
+    this.m_ingesting = true;
+  }
+
+
   /**
    * Returns <code>{@link #getName()}.</code>
    * <p>
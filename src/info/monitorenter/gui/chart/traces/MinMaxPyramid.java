@@ -0,0 +1,294 @@
+/*
+ *  MinMaxPyramid, a level of detail index over the points of a trace.
+ *  Copyright (c) 2004 - 2011 Achim Westermann, Achim.Westermann@gmx.de
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ */
+package info.monitorenter.gui.chart.traces;
+
+/**
+ * Level of detail index over the points of a
+ * <code>{@link Trace2DColumnar}</code> sorted by x values.
+ * <p>
+ * The points are divided into buckets of consecutive points with power of two
+ * sizes (<code>{@link #MIN_BUCKET_SIZE}</code> points on level 0, twice as
+ * many on every further level). For every complete bucket the indices of the
+ * points with the minimum and maximum y value are kept. This allows to find the
+ * extrema of any range of points by combining the coarsest buckets that fit
+ * into the range (and visiting the few points at its ends).
+ * <p>
+ * <code>{@link PixelColumnIterator}</code> uses it to find the points of a
+ * pixel column to return without visiting all of them.
+ * <p>
+ * The index is updated incrementally when points are appended (see
+ * <code>{@link #add()}</code>). It is only valid as long as no point of the
+ * trace is removed, dropped or moved. The index costs two <code>int</code>
+ * values per <code>{@link #MIN_BUCKET_SIZE}</code> points and level which sums
+ * up to half an <code>int</code> per point.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ *
+ * @version $Revision: 1.1 $
+ */
+final class MinMaxPyramid {
+
+  /** The amount of points of the buckets on level 0. */
+  static final int MIN_BUCKET_SIZE = 8;
+
+  /** True if a point with a NaN value has been added. */
+  private boolean m_containsNaN;
+
+  /**
+   * The summaries of the levels: The indices of the points with the minimum and
+   * the maximum y value of the complete bucket b of a level are stored at
+   * positions 2b and 2b + 1.
+   */
+  private int[][] m_levels = new int[0][];
+
+  /** The amount of points of the trace that have been added. */
+  private int m_size;
+
+  /** The trace whose points are indexed. */
+  private final Trace2DColumnar m_trace;
+
+  /**
+   * Creates an empty index for the given trace.
+   * <p>
+   * Use <code>{@link #add()}</code> for every point of the trace.
+   * <p>
+   *
+   * @param trace
+   *          the trace whose points are indexed.
+   */
+  MinMaxPyramid(final Trace2DColumnar trace) {
+    this.m_trace = trace;
+  }
+
+  /**
+   * Adds the next point of the trace (the point at index
+   * <code>{@link #getSize()}</code>) to the index and summarizes all buckets
+   * completed by it.
+   * <p>
+   */
+  void add() {
+    final int index = this.m_size;
+    this.m_size++;
+    if (Double.isNaN(this.m_trace.getXAt(index)) || Double.isNaN(this.m_trace.getYAt(index))) {
+      this.m_containsNaN = true;
+    }
+    int bucketSize = MinMaxPyramid.MIN_BUCKET_SIZE;
+    int level = 0;
+    int bucket;
+    int min;
+    int max;
+    int[] summary;
+    while (this.m_size % bucketSize == 0) {
+      bucket = this.m_size / bucketSize - 1;
+      summary = this.ensureCapacity(level, bucket);
+      if (level == 0) {
+        min = index;
+        max = index;
+        for (int i = index - bucketSize + 1; i < index; i++) {
+          min = this.minY(min, i);
+          max = this.maxY(max, i);
+        }
+      } else {
+        // combine the summaries of both halves on the level below:
+        final int[] below = this.m_levels[level - 1];
+        min = this.minY(below[4 * bucket], below[4 * bucket + 2]);
+        max = this.maxY(below[4 * bucket + 1], below[4 * bucket + 3]);
+      }
+      summary[2 * bucket] = min;
+      summary[2 * bucket + 1] = max;
+      level++;
+      bucketSize <<= 1;
+    }
+  }
+
+  /**
+   * Returns the summaries of the given level with space for the given bucket.
+   * <p>
+   *
+   * @param level
+   *          the level of the bucket.
+   *
+   * @param bucket
+   *          the bucket to store.
+   *
+   * @return the summaries of the given level with space for the given bucket.
+   */
+  private int[] ensureCapacity(final int level, final int bucket) {
+    if (level == this.m_levels.length) {
+      final int[][] levels = new int[level + 1][];
+      System.arraycopy(this.m_levels, 0, levels, 0, level);
+      levels[level] = new int[32];
+      this.m_levels = levels;
+    }
+    int[] result = this.m_levels[level];
+    if (2 * bucket + 1 >= result.length) {
+      final int[] grown = new int[result.length * 2];
+      System.arraycopy(result, 0, grown, 0, result.length);
+      result = grown;
+      this.m_levels[level] = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the level of the coarsest complete bucket that starts at the given
+   * index and ends before the given end or -1 if there is none.
+   * <p>
+   *
+   * @param from
+   *          the index of the first point of the bucket.
+   *
+   * @param to
+   *          the index of the last point the bucket may contain.
+   *
+   * @return the level of the coarsest complete bucket that starts at the given
+   *         index and ends before the given end or -1.
+   */
+  private int getBucketLevel(final int from, final int to) {
+    int result = -1;
+    int bucketSize = MinMaxPyramid.MIN_BUCKET_SIZE;
+    while ((result + 1 < this.m_levels.length) && (from % bucketSize == 0)
+        && (from + bucketSize - 1 <= to) && (from + bucketSize <= this.m_size)) {
+      result++;
+      bucketSize <<= 1;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the index of a point with the maximum y value within the given
+   * range.
+   * <p>
+   *
+   * @param from
+   *          the index of the first point of the range.
+   *
+   * @param to
+   *          the index of the last point of the range.
+   *
+   * @return the index of a point with the maximum y value within the given
+   *         range.
+   */
+  int getMaxIndex(final int from, final int to) {
+    int result = from;
+    int index = from;
+    int level;
+    while (index <= to) {
+      level = this.getBucketLevel(index, to);
+      if (level < 0) {
+        result = this.maxY(result, index);
+        index++;
+      } else {
+        result = this.maxY(result,
+            this.m_levels[level][2 * (index / (MinMaxPyramid.MIN_BUCKET_SIZE << level)) + 1]);
+        index += MinMaxPyramid.MIN_BUCKET_SIZE << level;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the index of a point with the minimum y value within the given
+   * range.
+   * <p>
+   *
+   * @param from
+   *          the index of the first point of the range.
+   *
+   * @param to
+   *          the index of the last point of the range.
+   *
+   * @return the index of a point with the minimum y value within the given
+   *         range.
+   */
+  int getMinIndex(final int from, final int to) {
+    int result = from;
+    int index = from;
+    int level;
+    while (index <= to) {
+      level = this.getBucketLevel(index, to);
+      if (level < 0) {
+        result = this.minY(result, index);
+        index++;
+      } else {
+        result = this.minY(result,
+            this.m_levels[level][2 * (index / (MinMaxPyramid.MIN_BUCKET_SIZE << level))]);
+        index += MinMaxPyramid.MIN_BUCKET_SIZE << level;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the amount of points of the trace that have been added.
+   * <p>
+   *
+   * @return the amount of points of the trace that have been added.
+   */
+  int getSize() {
+    return this.m_size;
+  }
+
+  /**
+   * Returns true if the index may be used: Points with NaN values have to
+   * interrupt painting and must not be summarized.
+   * <p>
+   *
+   * @return true if the index may be used.
+   */
+  boolean isUsable() {
+    return !this.m_containsNaN;
+  }
+
+  /**
+   * Returns the index of the point with the greater y value.
+   * <p>
+   *
+   * @param index
+   *          the index of a point.
+   *
+   * @param other
+   *          the index of another point.
+   *
+   * @return the index of the point with the greater y value.
+   */
+  private int maxY(final int index, final int other) {
+    return (this.m_trace.getYAt(other) > this.m_trace.getYAt(index)) ? other : index;
+  }
+
+  /**
+   * Returns the index of the point with the lower y value.
+   * <p>
+   *
+   * @param index
+   *          the index of a point.
+   *
+   * @param other
+   *          the index of another point.
+   *
+   * @return the index of the point with the lower y value.
+   */
+  private int minY(final int index, final int other) {
+    return (this.m_trace.getYAt(other) < this.m_trace.getYAt(index)) ? other : index;
+  }
+}
@@ -0,0 +1,427 @@
+/*
+ *  NearestPointIndex.java, uniform grid for nearest point searches of a trace.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.AffineScaling;
+import info.monitorenter.gui.chart.ITrace2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.ITrace2D.DistancePoint;
+import info.monitorenter.util.math.MathUtil;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Uniform grid over the values of the points of a trace that answers nearest
+ * point searches by only visiting the grid cells around the searched location.
+ * <p>
+ * The grid is built over the unscaled values. As long as the axes of the trace
+ * map values linearly (see <code>{@link ITrace2D#getScalingX()}</code>) every
+ * cell is a rectangle in normalized coordinates too, so a change of the axis
+ * ranges does not invalidate the grid. For other axes
+ * <code>{@link #getNearestPoint(double, double, boolean)}</code> returns null
+ * and the caller has to search all points.
+ * <p>
+ * Added points are sorted into their cell. Points beyond the bounds of the grid
+ * are put into the border cells which keeps the search correct. The grid is
+ * rebuilt lazily with the next search if too many points were added since it
+ * was built or if it was invalidated (e.g. by changed points).
+ * <p>
+ * The points within a cell are kept in the order they were added so that
+ * removing a point that is only known by its values (e.g. a detached copy of
+ * an evicted point) removes the oldest matching point.
+ * <p>
+ * This class is not synchronized, callers have to hold the lock on the trace.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ *
+ * @version $Revision: 1.1 $
+ */
+final class NearestPointIndex {
+
+  /** The average amount of points per cell the grid is sized for. */
+  private static final int POINTS_PER_CELL = 8;
+
+  /** The maximum amount of cells per dimension. */
+  private static final int MAX_CELLS = 1024;
+
+  /** The minimum amount of added points that may trigger a rebuild. */
+  private static final int MIN_REBUILD = 64;
+
+  /** The points added since the grid was built. */
+  private int m_added;
+
+  /** The points of the cells, index is row * m_columns + column. */
+  private List<ITracePoint2D>[] m_cells;
+
+  /** The amount of cells in x dimension. */
+  private int m_columns;
+
+  /** If true the grid has to be rebuilt before the next search. */
+  private boolean m_dirty = true;
+
+  /** The maximum x value the grid was built for. */
+  private double m_maxX;
+
+  /** The maximum y value the grid was built for. */
+  private double m_maxY;
+
+  /** The minimum x value the grid was built for. */
+  private double m_minX;
+
+  /** The minimum y value the grid was built for. */
+  private double m_minY;
+
+  /** Points with values that are no valid doubles, searched always. */
+  private final List<ITracePoint2D> m_outliers = new ArrayList<ITracePoint2D>();
+
+  /** The amount of cells in y dimension. */
+  private int m_rows;
+
+  /** The amount of points the grid was built for. */
+  private int m_size;
+
+  /** The trace whose points are indexed. */
+  private final ITrace2D m_trace;
+
+  /**
+   * Creates an index for the given trace that will be built with the first
+   * search.
+   * <p>
+   *
+   * @param trace
+   *          the trace whose points are indexed.
+   */
+  NearestPointIndex(final ITrace2D trace) {
+    this.m_trace = trace;
+  }
+
+  /**
+   * Adds the given point that was added to the trace.
+   * <p>
+   *
+   * @param point
+   *          the point that was added to the trace.
+   */
+  void add(final ITracePoint2D point) {
+    if (!this.m_dirty) {
+      this.m_added++;
+      if (this.m_added > Math.max(NearestPointIndex.MIN_REBUILD, this.m_size)) {
+        // grid too coarse or bounds too far off:
+        this.invalidate();
+      } else {
+        this.insert(point);
+      }
+    }
+  }
+
+  /**
+   * Returns the index of the cell at the given relative position clamped to
+   * the grid.
+   * <p>
+   *
+   * @param fraction
+   *          the position of the value relative to the grid bounds (0.0 is the
+   *          minimum, 1.0 the maximum).
+   *
+   * @param cells
+   *          the amount of cells in the dimension.
+   *
+   * @return the index of the cell.
+   */
+  private int cellIndex(final double fraction, final int cells) {
+    int result = 0;
+    if (cells > 1) {
+      final double scaled = fraction * cells;
+      if (scaled >= cells) {
+        result = cells - 1;
+      } else if (scaled > 0) {
+        result = (int) scaled;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the list the given point belongs to.
+   * <p>
+   *
+   * @param point
+   *          the point to find the cell of.
+   *
+   * @return the list the given point belongs to.
+   */
+  private List<ITracePoint2D> getCell(final ITracePoint2D point) {
+    final double x = point.getX();
+    final double y = point.getY();
+    List<ITracePoint2D> result;
+    if (!MathUtil.isDouble(x) || !MathUtil.isDouble(y)) {
+      result = this.m_outliers;
+    } else {
+      final int column = this.cellIndex((x - this.m_minX) / (this.m_maxX - this.m_minX),
+          this.m_columns);
+      final int row = this.cellIndex((y - this.m_minY) / (this.m_maxY - this.m_minY), this.m_rows);
+      result = this.m_cells[row * this.m_columns + column];
+    }
+    return result;
+  }
+
+  /**
+   * Returns the nearest point to the given normalized coordinates or null if
+   * the axes of the trace do not map linearly so the index cannot be used.
+   * <p>
+   *
+   * @param x
+   *          the normalized x coordinate.
+   *
+   * @param y
+   *          the normalized y coordinate.
+   *
+   * @param euclid
+   *          if true the Euclid distance is used, else the Manhattan distance.
+   *
+   * @return the nearest point (with an empty point if the trace is empty) or
+   *         null if the index cannot be used.
+   */
+  DistancePoint getNearestPoint(final double x, final double y, final boolean euclid) {
+    final AffineScaling scalingX = this.m_trace.getScalingX();
+    final AffineScaling scalingY = this.m_trace.getScalingY();
+    if ((scalingX == null) || (scalingY == null)) {
+      return null;
+    }
+    if (this.m_dirty) {
+      this.rebuild();
+    }
+    final DistancePoint result = new DistancePoint();
+    double shortestDistance = this.searchCell(this.m_outliers, x, y, euclid, result,
+        Double.MAX_VALUE);
+    // the grid in normalized coordinates:
+    final double startX = scalingX.scale(this.m_minX);
+    final double extentX = scalingX.scale(this.m_maxX) - startX;
+    final double startY = scalingY.scale(this.m_minY);
+    final double extentY = scalingY.scale(this.m_maxY) - startY;
+    final int column = this.cellIndex((extentX == 0) ? 0 : (x - startX) / extentX,
+        this.m_columns);
+    final int row = this.cellIndex((extentY == 0) ? 0 : (y - startY) / extentY, this.m_rows);
+    // every cell at ring distance r is at least (r - 1) cell sizes away:
+    double cellSize = Double.MAX_VALUE;
+    if (this.m_columns > 1) {
+      cellSize = Math.abs(extentX) / this.m_columns;
+    }
+    if (this.m_rows > 1) {
+      cellSize = Math.min(cellSize, Math.abs(extentY) / this.m_rows);
+    }
+    final int maxRing = Math.max(Math.max(column, this.m_columns - 1 - column), Math.max(row,
+        this.m_rows - 1 - row));
+    int fromColumn;
+    int toColumn;
+    int fromRow;
+    int toRow;
+    for (int ring = 0; ring <= maxRing; ring++) {
+      if ((ring > 1) && (shortestDistance <= (ring - 1) * cellSize)) {
+        break;
+      }
+      fromColumn = Math.max(0, column - ring);
+      toColumn = Math.min(this.m_columns - 1, column + ring);
+      fromRow = Math.max(0, row - ring);
+      toRow = Math.min(this.m_rows - 1, row + ring);
+      for (int r = fromRow; r <= toRow; r++) {
+        if ((r == row - ring) || (r == row + ring)) {
+          // full row of the ring:
+          for (int c = fromColumn; c <= toColumn; c++) {
+            shortestDistance = this.searchCell(this.m_cells[r * this.m_columns + c], x, y,
+                euclid, result, shortestDistance);
+          }
+        } else {
+          // only left and right border of the ring:
+          if (column - ring >= 0) {
+            shortestDistance = this.searchCell(this.m_cells[r * this.m_columns + column - ring],
+                x, y, euclid, result, shortestDistance);
+          }
+          if ((ring > 0) && (column + ring < this.m_columns)) {
+            shortestDistance = this.searchCell(this.m_cells[r * this.m_columns + column + ring],
+                x, y, euclid, result, shortestDistance);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sorts the given point into its cell.
+   * <p>
+   *
+   * @param point
+   *          the point to insert.
+   */
+  private void insert(final ITracePoint2D point) {
+    this.getCell(point).add(point);
+  }
+
+  /**
+   * Marks the grid to be rebuilt with the next search.
+   * <p>
+   */
+  void invalidate() {
+    this.m_dirty = true;
+    this.m_cells = null;
+    this.m_outliers.clear();
+  }
+
+  /**
+   * Builds the grid for all points of the trace.
+   * <p>
+   */
+  @SuppressWarnings({"unchecked", "rawtypes" })
+  private void rebuild() {
+    this.m_outliers.clear();
+    this.m_minX = Double.MAX_VALUE;
+    this.m_minY = Double.MAX_VALUE;
+    this.m_maxX = -Double.MAX_VALUE;
+    this.m_maxY = -Double.MAX_VALUE;
+    int size = 0;
+    Iterator<ITracePoint2D> it = this.m_trace.iterator();
+    ITracePoint2D point;
+    double value;
+    while (it.hasNext()) {
+      point = it.next();
+      size++;
+      value = point.getX();
+      if (MathUtil.isDouble(value)) {
+        this.m_minX = Math.min(this.m_minX, value);
+        this.m_maxX = Math.max(this.m_maxX, value);
+      }
+      value = point.getY();
+      if (MathUtil.isDouble(value)) {
+        this.m_minY = Math.min(this.m_minY, value);
+        this.m_maxY = Math.max(this.m_maxY, value);
+      }
+    }
+    final int cells = Math.max(1, Math.min(NearestPointIndex.MAX_CELLS, (int) Math.sqrt(size
+        / NearestPointIndex.POINTS_PER_CELL)));
+    this.m_columns = (this.m_maxX > this.m_minX) ? cells : 1;
+    this.m_rows = (this.m_maxY > this.m_minY) ? cells : 1;
+    this.m_cells = new List[this.m_columns * this.m_rows];
+    for (int i = this.m_cells.length - 1; i >= 0; i--) {
+      this.m_cells[i] = new ArrayList<ITracePoint2D>();
+    }
+    it = this.m_trace.iterator();
+    while (it.hasNext()) {
+      this.insert(it.next());
+    }
+    this.m_size = size;
+    this.m_added = 0;
+    this.m_dirty = false;
+  }
+
+  /**
+   * Removes the given point that was removed from the trace.
+   * <p>
+   * If the given instance is not contained the oldest point with the same
+   * values is removed.
+   * <p>
+   *
+   * @param point
+   *          the point that was removed from the trace.
+   */
+  void remove(final ITracePoint2D point) {
+    if (!this.m_dirty) {
+      final List<ITracePoint2D> cell = this.getCell(point);
+      int index = -1;
+      final int size = cell.size();
+      for (int i = 0; i < size; i++) {
+        if (cell.get(i) == point) {
+          index = i;
+          break;
+        }
+      }
+      if (index == -1) {
+        final double x = point.getX();
+        final double y = point.getY();
+        ITracePoint2D candidate;
+        for (int i = 0; i < size; i++) {
+          candidate = cell.get(i);
+          if ((Double.compare(candidate.getX(), x) == 0)
+              && (Double.compare(candidate.getY(), y) == 0)) {
+            index = i;
+            break;
+          }
+        }
+      }
+      if (index == -1) {
+        this.invalidate();
+      } else {
+        cell.remove(index);
+      }
+    }
+  }
+
+  /**
+   * Searches the given cell for a point nearer than the given distance and
+   * stores it in the given result.
+   * <p>
+   *
+   * @param cell
+   *          the points to search.
+   *
+   * @param x
+   *          the normalized x coordinate.
+   *
+   * @param y
+   *          the normalized y coordinate.
+   *
+   * @param euclid
+   *          if true the Euclid distance is used, else the Manhattan distance.
+   *
+   * @param result
+   *          receives a nearer point.
+   *
+   * @param shortestDistance
+   *          the distance of the nearest point found so far.
+   *
+   * @return the distance of the nearest point found so far.
+   */
+  private double searchCell(final List<ITracePoint2D> cell, final double x, final double y,
+      final boolean euclid, final DistancePoint result, final double shortestDistance) {
+    double shortest = shortestDistance;
+    double distance;
+    ITracePoint2D point;
+    for (int i = cell.size() - 1; i >= 0; i--) {
+      point = cell.get(i);
+      if (euclid) {
+        distance = point.getEuclidDistance(x, y);
+      } else {
+        distance = point.getManhattanDistance(x, y);
+      }
+      if (distance < shortest) {
+        shortest = distance;
+        result.setPoint(point);
+        result.setDistance(shortest);
+      }
+    }
+    return shortest;
+  }
+}
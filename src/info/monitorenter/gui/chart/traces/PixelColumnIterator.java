@@ -0,0 +1,269 @@
+/*
+ *  PixelColumnIterator.java of project jchart2d, iterates the points of a
+ *  Trace2DColumnar summarized by pixel columns.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.AffineScaling;
+import info.monitorenter.gui.chart.ITracePoint2D;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over the first point, the points with the minimum and maximum y
+ * value and the last point of every pixel column within an index range of a
+ * <code>{@link Trace2DColumnar}</code> sorted by x values.
+ * <p>
+ * The lines between these points cover the same pixels as the lines between
+ * all points of the column. The points are found by their indices in the
+ * columns of the trace: Views are only created for the points returned.
+ * <p>
+ * The extrema of a column are taken from a <code>{@link MinMaxPyramid}</code>
+ * if one is given or found by a scan over the y column otherwise. Without a
+ * pyramid a point with a NaN y value is returned and splits its column into
+ * parts that are summarized on their own: The chart discontinues the painted
+ * line there.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ *
+ * @version $Revision: 1.1 $
+ */
+final class PixelColumnIterator implements Iterator<ITracePoint2D> {
+
+  /** The amount of pixel columns the normalized x values are mapped to. */
+  private final int m_columns;
+
+  /** The index of the last point to return. */
+  private final int m_end;
+
+  /** The index of the first point of the next pixel column. */
+  private int m_next;
+
+  /** The indices of the points to return next in ascending order. */
+  private final int[] m_pending = new int[5];
+
+  /** The amount of valid indices in <code>{@link #m_pending}</code>. */
+  private int m_pendingCount;
+
+  /** The position of the next index in <code>{@link #m_pending}</code> to return. */
+  private int m_pendingPos;
+
+  /** The level of detail index of the trace or null to scan the y column. */
+  private final MinMaxPyramid m_pyramid;
+
+  /** The mapping of x values to normalized values. */
+  private final AffineScaling m_scaling;
+
+  /** The trace whose points are returned. */
+  private final Trace2DColumnar m_trace;
+
+  /**
+   * Creates an iterator over the points from start to end summarized by pixel
+   * columns.
+   * <p>
+   *
+   * @param trace
+   *          the trace whose points are returned.
+   *
+   * @param pyramid
+   *          the level of detail index of the trace (without points containing
+   *          NaN values) or null to scan the y column.
+   *
+   * @param start
+   *          the index of the first point to return.
+   *
+   * @param end
+   *          the index of the last point to return.
+   *
+   * @param scaling
+   *          the mapping of x values to normalized values.
+   *
+   * @param columns
+   *          the amount of pixel columns the normalized values are mapped to.
+   */
+  PixelColumnIterator(final Trace2DColumnar trace, final MinMaxPyramid pyramid,
+      final int start, final int end, final AffineScaling scaling, final int columns) {
+    this.m_trace = trace;
+    this.m_pyramid = pyramid;
+    this.m_next = start;
+    this.m_end = end;
+    this.m_scaling = scaling;
+    this.m_columns = columns;
+  }
+
+  /**
+   * Appends the given index to the pending indices if it is greater than the
+   * last pending index.
+   * <p>
+   *
+   * @param index
+   *          the index of a point to return.
+   */
+  private void addPending(final int index) {
+    if ((this.m_pendingCount == 0) || (this.m_pending[this.m_pendingCount - 1] < index)) {
+      this.m_pending[this.m_pendingCount] = index;
+      this.m_pendingCount++;
+    }
+  }
+
+  /**
+   * Appends the first point, the points with the minimum and maximum y value
+   * and the last point of the given range to the pending indices.
+   * <p>
+   *
+   * @param first
+   *          the index of the first point of the range.
+   *
+   * @param last
+   *          the index of the last point of the range.
+   */
+  private void addSummary(final int first, final int last) {
+    this.addPending(first);
+    if (last - first > 2) {
+      int min = first;
+      int max = first;
+      if (this.m_pyramid != null) {
+        min = this.m_pyramid.getMinIndex(first, last);
+        max = this.m_pyramid.getMaxIndex(first, last);
+      } else {
+        double y;
+        double minY = this.m_trace.getYAt(first);
+        double maxY = minY;
+        for (int i = first + 1; i < last; i++) {
+          y = this.m_trace.getYAt(i);
+          if (y < minY) {
+            minY = y;
+            min = i;
+          }
+          if (y > maxY) {
+            maxY = y;
+            max = i;
+          }
+        }
+      }
+      this.addPending(Math.min(min, max));
+      this.addPending(Math.max(min, max));
+    } else {
+      for (int i = first + 1; i < last; i++) {
+        this.addPending(i);
+      }
+    }
+    this.addPending(last);
+  }
+
+  /**
+   * Returns the pixel column of the point at the given index.
+   * <p>
+   * This is the rounding the chart uses when painting. Points outside of the
+   * visible x range get columns of their own left and right of the visible
+   * ones: The chart clips their connections to the visible points which would
+   * change if they were summarized with them.
+   * <p>
+   *
+   * @param index
+   *          the index of the point.
+   *
+   * @return the pixel column of the point at the given index.
+   */
+  private int getColumn(final int index) {
+    final double scaled = this.m_scaling.scale(this.m_trace.getXAt(index));
+    int result;
+    if (scaled < 0.0) {
+      result = -1;
+    } else if (scaled > 1.0) {
+      result = this.m_columns + 1;
+    } else {
+      result = (int) Math.round(scaled * this.m_columns);
+    }
+    return result;
+  }
+
+  /**
+   * @see java.util.Iterator#hasNext()
+   */
+  public boolean hasNext() {
+    return (this.m_pendingPos < this.m_pendingCount) || (this.m_next <= this.m_end);
+  }
+
+  /**
+   * @see java.util.Iterator#next()
+   */
+  public ITracePoint2D next() {
+    if (!this.hasNext()) {
+      throw new NoSuchElementException();
+    }
+    if (this.m_pendingPos == this.m_pendingCount) {
+      this.m_pendingPos = 0;
+      this.m_pendingCount = 0;
+      final int first = this.m_next;
+      final int column = this.getColumn(first);
+      // search the last point of the column:
+      int low = first;
+      int high = this.m_end;
+      int mid;
+      while (low < high) {
+        mid = (low + high + 1) >>> 1;
+        if (this.getColumn(mid) > column) {
+          high = mid - 1;
+        } else {
+          low = mid;
+        }
+      }
+      if (this.m_pyramid == null) {
+        // a NaN value ends the part of the column to summarize:
+        for (int i = first; i <= low; i++) {
+          if (Double.isNaN(this.m_trace.getYAt(i))) {
+            if (i > first) {
+              this.addSummary(first, i - 1);
+            }
+            this.addPending(i);
+            low = i;
+            break;
+          }
+        }
+      }
+      if (this.m_pendingCount == 0) {
+        this.addSummary(first, low);
+      }
+      this.m_next = low + 1;
+    }
+    final int index = this.m_pending[this.m_pendingPos];
+    this.m_pendingPos++;
+    return this.m_trace.createView(index);
+  }
+
+  /**
+   * Unsupported, use
+   * <code>{@link info.monitorenter.gui.chart.ITrace2D#removePoint(ITracePoint2D)}</code>.
+   * <p>
+   *
+   * @throws UnsupportedOperationException
+   *           always.
+   * @see java.util.Iterator#remove()
+   */
+  public void remove() {
+    throw new UnsupportedOperationException(
+        "Use removePoint(ITracePoint2D) to remove points of a trace.");
+  }
+}
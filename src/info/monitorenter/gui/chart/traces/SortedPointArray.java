@@ -0,0 +1,619 @@
+/*
+ *  SortedPointArray.java of project jchart2d, a sorted set of trace points
+ *  stored in an array.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.ITracePoint2D;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * Sorted set of trace points ordered by their x values (like the natural
+ * order of <code>{@link info.monitorenter.gui.chart.TracePoint2D}</code>)
+ * that stores the points in an array.
+ * <p>
+ * Used by <code>{@link Trace2DSorted}</code> instead of a
+ * <code>{@link java.util.TreeSet}</code>: Points are added in constant time if
+ * their x value is above the x values of all contained points (the common
+ * case of points added in order). Other points are found by a binary search
+ * and inserted by moving the points on the shorter side of the insertion
+ * index, so points that arrive slightly out of order are cheap as well. The
+ * used part of the array may start at an offset which makes removals of the
+ * first points constant time.
+ * <p>
+ * Additionally the points may be accessed by their index
+ * (<code>{@link #get(int)}</code>, <code>{@link #ceilingIndex(double)}</code>,
+ * <code>{@link #iterator(int)}</code>).
+ * <p>
+ * As for a <code>{@link java.util.TreeSet}</code> the order is undefined if
+ * contained points are moved.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ *
+ * @version $Revision: 1.1 $
+ */
+final class SortedPointArray extends AbstractSet<ITracePoint2D> implements
+    SortedSet<ITracePoint2D>, Serializable {
+
+  /**
+   * Iterator over a range of indices.
+   * <p>
+   */
+  private final class Itr implements Iterator<ITracePoint2D> {
+
+    /** The index of the next point to return. */
+    private int m_cursor;
+
+    /** The index behind the last point to return. */
+    private int m_end;
+
+    /** The modification count this iterator is valid for. */
+    private int m_expectedModCount = SortedPointArray.this.m_modCount;
+
+    /** The index of the point returned last or -1. */
+    private int m_lastReturned = -1;
+
+    /**
+     * Creates an iterator over the given range of indices.
+     * <p>
+     *
+     * @param start
+     *          the index of the first point to return.
+     * @param end
+     *          the index behind the last point to return.
+     */
+    Itr(final int start, final int end) {
+      this.m_cursor = start;
+      this.m_end = end;
+    }
+
+    /**
+     * @see java.util.Iterator#hasNext()
+     */
+    public boolean hasNext() {
+      return this.m_cursor < this.m_end;
+    }
+
+    /**
+     * @see java.util.Iterator#next()
+     */
+    public ITracePoint2D next() {
+      if (SortedPointArray.this.m_modCount != this.m_expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (this.m_cursor >= this.m_end) {
+        throw new NoSuchElementException();
+      }
+      this.m_lastReturned = this.m_cursor;
+      this.m_cursor++;
+      return SortedPointArray.this.get(this.m_lastReturned);
+    }
+
+    /**
+     * @see java.util.Iterator#remove()
+     */
+    public void remove() {
+      if (this.m_lastReturned < 0) {
+        throw new IllegalStateException();
+      }
+      if (SortedPointArray.this.m_modCount != this.m_expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      SortedPointArray.this.removeAt(this.m_lastReturned);
+      this.m_cursor = this.m_lastReturned;
+      this.m_end--;
+      this.m_lastReturned = -1;
+      this.m_expectedModCount = SortedPointArray.this.m_modCount;
+    }
+  }
+
+  /**
+   * View of the points with x values within a range.
+   * <p>
+   */
+  private final class SubSet extends AbstractSet<ITracePoint2D> implements
+      SortedSet<ITracePoint2D>, Serializable {
+
+    /** Generated <code>serialVersionUID</code>. */
+    private static final long serialVersionUID = -6190838127460637717L;
+
+    /** The lower bound of the x values (inclusive) or null. */
+    private final Double m_fromX;
+
+    /** The upper bound of the x values (exclusive) or null. */
+    private final Double m_toX;
+
+    /**
+     * Creates a view of the points with x values within the given range.
+     * <p>
+     *
+     * @param fromX
+     *          the lower bound of the x values (inclusive) or null.
+     * @param toX
+     *          the upper bound of the x values (exclusive) or null.
+     */
+    SubSet(final Double fromX, final Double toX) {
+      this.m_fromX = fromX;
+      this.m_toX = toX;
+    }
+
+    /**
+     * @see java.util.AbstractCollection#add(java.lang.Object)
+     */
+    @Override
+    public boolean add(final ITracePoint2D point) {
+      if (!this.isInRange(point.getX())) {
+        throw new IllegalArgumentException("Point out of range: " + point);
+      }
+      return SortedPointArray.this.add(point);
+    }
+
+    /**
+     * @see java.util.SortedSet#comparator()
+     */
+    public Comparator< ? super ITracePoint2D> comparator() {
+      return null;
+    }
+
+    /**
+     * @see java.util.AbstractCollection#contains(java.lang.Object)
+     */
+    @Override
+    public boolean contains(final Object o) {
+      return (o instanceof ITracePoint2D) && this.isInRange(((ITracePoint2D) o).getX())
+          && SortedPointArray.this.contains(o);
+    }
+
+    /**
+     * Returns the index behind the last point of this view.
+     * <p>
+     *
+     * @return the index behind the last point of this view.
+     */
+    private int end() {
+      if (this.m_toX == null) {
+        return SortedPointArray.this.m_size;
+      }
+      return Math.max(SortedPointArray.this.ceilingIndex(this.m_toX.doubleValue()), this.start());
+    }
+
+    /**
+     * @see java.util.SortedSet#first()
+     */
+    public ITracePoint2D first() {
+      final int start = this.start();
+      if (start >= this.end()) {
+        throw new NoSuchElementException();
+      }
+      return SortedPointArray.this.get(start);
+    }
+
+    /**
+     * @see java.util.SortedSet#headSet(java.lang.Object)
+     */
+    public SortedSet<ITracePoint2D> headSet(final ITracePoint2D toElement) {
+      return this.subSet(this.m_fromX, Double.valueOf(toElement.getX()));
+    }
+
+    /**
+     * Returns true if the given x value is within the range of this view.
+     * <p>
+     *
+     * @param x
+     *          the x value to check.
+     *
+     * @return true if the given x value is within the range of this view.
+     */
+    private boolean isInRange(final double x) {
+      return ((this.m_fromX == null) || (x >= this.m_fromX.doubleValue()))
+          && ((this.m_toX == null) || (x < this.m_toX.doubleValue()));
+    }
+
+    /**
+     * @see java.util.AbstractCollection#iterator()
+     */
+    @Override
+    public Iterator<ITracePoint2D> iterator() {
+      return new Itr(this.start(), this.end());
+    }
+
+    /**
+     * @see java.util.SortedSet#last()
+     */
+    public ITracePoint2D last() {
+      final int end = this.end();
+      if (this.start() >= end) {
+        throw new NoSuchElementException();
+      }
+      return SortedPointArray.this.get(end - 1);
+    }
+
+    /**
+     * @see java.util.AbstractCollection#remove(java.lang.Object)
+     */
+    @Override
+    public boolean remove(final Object o) {
+      return (o instanceof ITracePoint2D) && this.isInRange(((ITracePoint2D) o).getX())
+          && SortedPointArray.this.remove(o);
+    }
+
+    /**
+     * @see java.util.AbstractCollection#size()
+     */
+    @Override
+    public int size() {
+      return this.end() - this.start();
+    }
+
+    /**
+     * Returns the index of the first point of this view.
+     * <p>
+     *
+     * @return the index of the first point of this view.
+     */
+    private int start() {
+      if (this.m_fromX == null) {
+        return 0;
+      }
+      return SortedPointArray.this.ceilingIndex(this.m_fromX.doubleValue());
+    }
+
+    /**
+     * Returns a view of the points within the intersection of the range of
+     * this view and the given range.
+     * <p>
+     *
+     * @param fromX
+     *          the lower bound of the x values (inclusive) or null.
+     * @param toX
+     *          the upper bound of the x values (exclusive) or null.
+     *
+     * @return a view of the points within the intersection of the ranges.
+     */
+    private SortedSet<ITracePoint2D> subSet(final Double fromX, final Double toX) {
+      Double from = fromX;
+      if ((from == null) || ((this.m_fromX != null) && (this.m_fromX.doubleValue() > from
+          .doubleValue()))) {
+        from = this.m_fromX;
+      }
+      Double to = toX;
+      if ((to == null) || ((this.m_toX != null) && (this.m_toX.doubleValue() < to.doubleValue()))) {
+        to = this.m_toX;
+      }
+      return new SubSet(from, to);
+    }
+
+    /**
+     * @see java.util.SortedSet#subSet(java.lang.Object, java.lang.Object)
+     */
+    public SortedSet<ITracePoint2D> subSet(final ITracePoint2D fromElement,
+        final ITracePoint2D toElement) {
+      return this.subSet(Double.valueOf(fromElement.getX()), Double.valueOf(toElement.getX()));
+    }
+
+    /**
+     * @see java.util.SortedSet#tailSet(java.lang.Object)
+     */
+    public SortedSet<ITracePoint2D> tailSet(final ITracePoint2D fromElement) {
+      return this.subSet(Double.valueOf(fromElement.getX()), this.m_toX);
+    }
+  }
+
+  /** Generated <code>serialVersionUID</code>. */
+  private static final long serialVersionUID = 2960384741279716327L;
+
+  /** The modification count for fail fast iterators. */
+  private transient int m_modCount;
+
+  /** The points, used from <code>{@link #m_start}</code> on. */
+  private ITracePoint2D[] m_points = new ITracePoint2D[16];
+
+  /** The amount of points. */
+  private int m_size;
+
+  /** The index of the first point in <code>{@link #m_points}</code>. */
+  private int m_start;
+
+  /**
+   * Adds the given point if no point with the same x value is contained.
+   * <p>
+   * Constant time if the x value is above the x values of all contained
+   * points.
+   * <p>
+   *
+   * @param point
+   *          the point to add.
+   *
+   * @return true if the point was added.
+   *
+   * @see java.util.AbstractCollection#add(java.lang.Object)
+   */
+  @Override
+  public boolean add(final ITracePoint2D point) {
+    final double x = point.getX();
+    if ((this.m_size == 0) || (x > this.get(this.m_size - 1).getX())) {
+      this.insert(this.m_size, point);
+      return true;
+    }
+    final int index = this.ceilingIndex(x);
+    if ((index < this.m_size) && (this.get(index).getX() == x)) {
+      return false;
+    }
+    this.insert(index, point);
+    return true;
+  }
+
+  /**
+   * Returns the index of the first point with an x value not below the given
+   * one or the size if there is none.
+   * <p>
+   *
+   * @param x
+   *          the x value to search.
+   *
+   * @return the index of the first point with an x value not below the given
+   *         one.
+   */
+  public int ceilingIndex(final double x) {
+    int low = 0;
+    int high = this.m_size;
+    int mid;
+    while (low < high) {
+      mid = (low + high) >>> 1;
+      if (this.m_points[this.m_start + mid].getX() < x) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @see java.util.AbstractCollection#clear()
+   */
+  @Override
+  public void clear() {
+    Arrays.fill(this.m_points, this.m_start, this.m_start + this.m_size, null);
+    this.m_start = 0;
+    this.m_size = 0;
+    this.m_modCount++;
+  }
+
+  /**
+   * Returns null: Points are ordered by their x values.
+   * <p>
+   *
+   * @see java.util.SortedSet#comparator()
+   */
+  public Comparator< ? super ITracePoint2D> comparator() {
+    return null;
+  }
+
+  /**
+   * Returns true if a point with the x value of the given point is contained.
+   * <p>
+   *
+   * @see java.util.AbstractCollection#contains(java.lang.Object)
+   */
+  @Override
+  public boolean contains(final Object o) {
+    return this.indexOf(o) >= 0;
+  }
+
+  /**
+   * @see java.util.SortedSet#first()
+   */
+  public ITracePoint2D first() {
+    if (this.m_size == 0) {
+      throw new NoSuchElementException();
+    }
+    return this.get(0);
+  }
+
+  /**
+   * Returns the point at the given index.
+   * <p>
+   *
+   * @param index
+   *          the index of the point in ascending order of x values.
+   *
+   * @return the point at the given index.
+   */
+  public ITracePoint2D get(final int index) {
+    if ((index < 0) || (index >= this.m_size)) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.m_size);
+    }
+    return this.m_points[this.m_start + index];
+  }
+
+  /**
+   * @see java.util.SortedSet#headSet(java.lang.Object)
+   */
+  public SortedSet<ITracePoint2D> headSet(final ITracePoint2D toElement) {
+    return new SubSet(null, Double.valueOf(toElement.getX()));
+  }
+
+  /**
+   * Returns the index of the point with the x value of the given point or -1.
+   * <p>
+   *
+   * @param o
+   *          the point to search.
+   *
+   * @return the index of the point with the x value of the given point or -1.
+   */
+  private int indexOf(final Object o) {
+    if (!(o instanceof ITracePoint2D) || (this.m_size == 0)) {
+      return -1;
+    }
+    final double x = ((ITracePoint2D) o).getX();
+    if (x > this.get(this.m_size - 1).getX()) {
+      // the common case of a new point:
+      return -1;
+    }
+    final int index = this.ceilingIndex(x);
+    if ((index < this.m_size) && (this.get(index).getX() == x)) {
+      return index;
+    }
+    return -1;
+  }
+
+  /**
+   * Inserts the given point at the given index.
+   * <p>
+   *
+   * @param index
+   *          the index of the point to insert.
+   * @param point
+   *          the point to insert.
+   */
+  private void insert(final int index, final ITracePoint2D point) {
+    if ((this.m_start > 0) && (index < this.m_size / 2)) {
+      // move the points before the index to the free space at the start:
+      System.arraycopy(this.m_points, this.m_start, this.m_points, this.m_start - 1, index);
+      this.m_start--;
+    } else {
+      if (this.m_start + this.m_size == this.m_points.length) {
+        ITracePoint2D[] points = this.m_points;
+        if (this.m_size * 2 > this.m_points.length) {
+          points = new ITracePoint2D[this.m_points.length * 2];
+        }
+        System.arraycopy(this.m_points, this.m_start, points, 0, this.m_size);
+        if (points == this.m_points) {
+          Arrays.fill(points, this.m_size, this.m_start + this.m_size, null);
+        }
+        this.m_points = points;
+        this.m_start = 0;
+      }
+      System.arraycopy(this.m_points, this.m_start + index, this.m_points, this.m_start + index
+          + 1, this.m_size - index);
+    }
+    this.m_points[this.m_start + index] = point;
+    this.m_size++;
+    this.m_modCount++;
+  }
+
+  /**
+   * @see java.util.AbstractCollection#iterator()
+   */
+  @Override
+  public Iterator<ITracePoint2D> iterator() {
+    return new Itr(0, this.m_size);
+  }
+
+  /**
+   * Returns an iterator starting at the point with the given index.
+   * <p>
+   *
+   * @param start
+   *          the index of the first point to return.
+   *
+   * @return an iterator starting at the point with the given index.
+   */
+  public Iterator<ITracePoint2D> iterator(final int start) {
+    return new Itr(start, this.m_size);
+  }
+
+  /**
+   * @see java.util.SortedSet#last()
+   */
+  public ITracePoint2D last() {
+    if (this.m_size == 0) {
+      throw new NoSuchElementException();
+    }
+    return this.get(this.m_size - 1);
+  }
+
+  /**
+   * Removes the point with the x value of the given point.
+   * <p>
+   *
+   * @see java.util.AbstractCollection#remove(java.lang.Object)
+   */
+  @Override
+  public boolean remove(final Object o) {
+    final int index = this.indexOf(o);
+    if (index < 0) {
+      return false;
+    }
+    this.removeAt(index);
+    return true;
+  }
+
+  /**
+   * Removes the point at the given index by moving the points on the shorter
+   * side of the index.
+   * <p>
+   *
+   * @param index
+   *          the index of the point to remove.
+   */
+  private void removeAt(final int index) {
+    if (index < this.m_size / 2) {
+      System.arraycopy(this.m_points, this.m_start, this.m_points, this.m_start + 1, index);
+      this.m_points[this.m_start] = null;
+      this.m_start++;
+    } else {
+      System.arraycopy(this.m_points, this.m_start + index + 1, this.m_points, this.m_start
+          + index, this.m_size - index - 1);
+      this.m_points[this.m_start + this.m_size - 1] = null;
+    }
+    this.m_size--;
+    if (this.m_size == 0) {
+      this.m_start = 0;
+    }
+    this.m_modCount++;
+  }
+
+  /**
+   * @see java.util.AbstractCollection#size()
+   */
+  @Override
+  public int size() {
+    return this.m_size;
+  }
+
+  /**
+   * @see java.util.SortedSet#subSet(java.lang.Object, java.lang.Object)
+   */
+  public SortedSet<ITracePoint2D> subSet(final ITracePoint2D fromElement,
+      final ITracePoint2D toElement) {
+    return new SubSet(Double.valueOf(fromElement.getX()), Double.valueOf(toElement.getX()));
+  }
+
+  /**
+   * @see java.util.SortedSet#tailSet(java.lang.Object)
+   */
+  public SortedSet<ITracePoint2D> tailSet(final ITracePoint2D fromElement) {
+    return new SubSet(Double.valueOf(fromElement.getX()), null);
+  }
+}
@@ -22,12 +22,14 @@
  */
 package info.monitorenter.gui.chart.traces;
 
+import info.monitorenter.gui.chart.AffineScaling;
 import info.monitorenter.gui.chart.Chart2D;
 import info.monitorenter.gui.chart.IErrorBarPolicy;
 import info.monitorenter.gui.chart.IPointPainter;
 import info.monitorenter.gui.chart.ITrace2D;
 import info.monitorenter.gui.chart.ITracePainter;
 import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.StagingQueue;
 
 import java.awt.Color;
 import java.awt.Stroke;
@@ -109,6 +111,20 @@ public class Trace2DAxisSwap implements ITrace2D, Comparable<ITrace2D> {
     return this.m_delegate.addPointHighlighter(highlighter);
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#addPoints(double[], double[])
+   */
+  public int addPoints(final double[] xs, final double[] ys) {
+    return this.m_delegate.addPoints(ys, xs);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#addPoints(double[], double[], int)
+   */
+  public int addPoints(final double[] xs, final double[] ys, final int amount) {
+    return this.m_delegate.addPoints(ys, xs, amount);
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#addPropertyChangeListener(java.lang.String,
    *      java.beans.PropertyChangeListener)
@@ -142,6 +158,20 @@ public class Trace2DAxisSwap implements ITrace2D, Comparable<ITrace2D> {
     return this.m_delegate.containsTracePainter(painter);
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#detachPoint(info.monitorenter.gui.chart.ITracePoint2D)
+   */
+  public ITracePoint2D detachPoint(final ITracePoint2D point) {
+    return this.m_delegate.detachPoint(point);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#fireCoalescedEvents()
+   */
+  public boolean fireCoalescedEvents() {
+    return this.m_delegate.fireCoalescedEvents();
+  }
+
   /**
    * @see java.lang.Object#equals(java.lang.Object)
    */
@@ -300,6 +330,20 @@ public class Trace2DAxisSwap implements ITrace2D, Comparable<ITrace2D> {
     return this.m_delegate.getRenderer();
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#getScalingX()
+   */
+  public AffineScaling getScalingX() {
+    return this.m_delegate.getScalingX();
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#getScalingY()
+   */
+  public AffineScaling getScalingY() {
+    return this.m_delegate.getScalingY();
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#getSize()
    */
@@ -307,6 +351,13 @@ public class Trace2DAxisSwap implements ITrace2D, Comparable<ITrace2D> {
     return this.m_delegate.getSize();
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#getStagingQueue()
+   */
+  public StagingQueue getStagingQueue() {
+    return this.m_delegate.getStagingQueue();
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#getStroke()
    */
@@ -339,6 +390,13 @@ public class Trace2DAxisSwap implements ITrace2D, Comparable<ITrace2D> {
     return result;
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isCoalescingEvents()
+   */
+  public boolean isCoalescingEvents() {
+    return this.m_delegate.isCoalescingEvents();
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#isEmpty()
    */
@@ -346,6 +404,27 @@ public class Trace2DAxisSwap implements ITrace2D, Comparable<ITrace2D> {
     return this.m_delegate.isEmpty();
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isNearestPointIndexing()
+   */
+  public boolean isNearestPointIndexing() {
+    return this.m_delegate.isNearestPointIndexing();
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isPaintDecimation()
+   */
+  public boolean isPaintDecimation() {
+    return this.m_delegate.isPaintDecimation();
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isSortedX()
+   */
+  public boolean isSortedX() {
+    return this.m_delegate.isSortedX();
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#isVisible()
    */
@@ -360,6 +439,21 @@ public class Trace2DAxisSwap implements ITrace2D, Comparable<ITrace2D> {
     return this.m_delegate.iterator();
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#iterator(double, double)
+   */
+  public Iterator<ITracePoint2D> iterator(final double minX, final double maxX) {
+    return this.m_delegate.iterator(minX, maxX);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#iterator(double, double, int)
+   */
+  public Iterator<ITracePoint2D> iterator(final double minX, final double maxX,
+      final int columns) {
+    return this.m_delegate.iterator(minX, maxX, columns);
+  }
+
   /**
    * @see java.beans.PropertyChangeListener#propertyChange(java.beans.PropertyChangeEvent)
    */
@@ -429,6 +523,13 @@ public class Trace2DAxisSwap implements ITrace2D, Comparable<ITrace2D> {
     return this.m_delegate.removeTracePainter(painter);
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setCoalescingEvents(boolean)
+   */
+  public void setCoalescingEvents(final boolean coalescingEvents) {
+    this.m_delegate.setCoalescingEvents(coalescingEvents);
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#setColor(java.awt.Color)
    */
@@ -450,6 +551,20 @@ public class Trace2DAxisSwap implements ITrace2D, Comparable<ITrace2D> {
     this.m_delegate.setName(name);
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setNearestPointIndexing(boolean)
+   */
+  public void setNearestPointIndexing(final boolean nearestPointIndexing) {
+    this.m_delegate.setNearestPointIndexing(nearestPointIndexing);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setPaintDecimation(boolean)
+   */
+  public void setPaintDecimation(final boolean paintDecimation) {
+    this.m_delegate.setPaintDecimation(paintDecimation);
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#setPhysicalUnits(java.lang.String,
    *      java.lang.String)
@@ -469,6 +584,27 @@ public class Trace2DAxisSwap implements ITrace2D, Comparable<ITrace2D> {
     this.m_delegate.setRenderer(renderer);
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setScalingX(info.monitorenter.gui.chart.AffineScaling)
+   */
+  public void setScalingX(final AffineScaling scaling) {
+    this.m_delegate.setScalingX(scaling);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setScalingY(info.monitorenter.gui.chart.AffineScaling)
+   */
+  public void setScalingY(final AffineScaling scaling) {
+    this.m_delegate.setScalingY(scaling);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setStagingQueue(info.monitorenter.gui.chart.StagingQueue)
+   */
+  public void setStagingQueue(final StagingQueue queue) {
+    this.m_delegate.setStagingQueue(queue);
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#setStroke(java.awt.Stroke)
    */
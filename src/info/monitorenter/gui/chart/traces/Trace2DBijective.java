@@ -25,8 +25,6 @@ package info.monitorenter.gui.chart.traces;
 
 import info.monitorenter.gui.chart.ITracePoint2D;
 
-import java.util.Iterator;
-
 /**
  * A <code> Trace2D</code> who only allows a single occurance of a tracepoint
  * with a certain x- value xi. <br>
@@ -49,6 +47,10 @@ import java.util.Iterator;
  * point used to be! </b></li>
  * </ul>
  * </p>
+ * <p>
+ * The point with the x value of an added point is found by a hash index of
+ * the x values in constant time.
+ * </p>
  * 
  * @author Achim Westermann <a
  *         href='mailto:Achim.Westermann@gmx.de'>Achim.Westermann@gmx.de </a>
@@ -61,11 +63,14 @@ public class Trace2DBijective
   /** Generated <code>serialVersionUID</code>. */
   private static final long serialVersionUID = 2913093358404794473L;
 
+  /** The points indexed by their x values, the same instance as <code>m_points</code>. */
+  private final XIndexedPointList m_pointsX = new XIndexedPointList();
+
   /**
-   * Defcon of this stateless instance.
+   * Defcon.
    */
   public Trace2DBijective() {
-    // nop
+    this.m_points = this.m_pointsX;
   }
 
   /**
@@ -73,27 +78,28 @@ public class Trace2DBijective
    */
   @Override
   protected boolean addPointInternal(final ITracePoint2D p) {
-    boolean result = false;
-    double px = p.getX();
-    synchronized (this) {
-      Iterator<ITracePoint2D> it = this.m_points.iterator();
-      ITracePoint2D tmp = null;
-      ITracePoint2D removed = null;
-      while (it.hasNext()) {
-        tmp = it.next();
-        if (tmp.getX() == px) {
-          it.remove();
-          removed = tmp;
-          break;
-        }
-      }
-      if (removed != null) {
-        this.removePoint(removed);
-        // don't use bound check routines of calling addPoint.
-        result = false;
+    final ITracePoint2D removed = this.m_pointsX.getByX(p.getX());
+    if (removed != null) {
+      // fires the events for the removed point with bound checks:
+      this.removePoint(removed);
+    }
+    return super.addPointInternal(p);
+  }
+
+  /**
+   * Keeps the index of x values valid for moved points.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#firePointChanged(info.monitorenter.gui.chart.ITracePoint2D,
+   *      int)
+   */
+  @Override
+  public void firePointChanged(final ITracePoint2D changed, final int state) {
+    if (state == ITracePoint2D.STATE_CHANGED) {
+      synchronized (this) {
+        this.m_pointsX.pointChanged(changed);
       }
-      result = super.addPointInternal(p);
     }
-    return result;
+    super.firePointChanged(changed, state);
   }
 }
@@ -0,0 +1,924 @@
+/*
+ *  Trace2DColumnar, a primitive array based implementation of a ITrace2D.
+ *  Copyright (c) 2004 - 2011 Achim Westermann, Achim.Westermann@gmx.de
+ * 
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ * 
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ * 
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.Chart2D;
+import info.monitorenter.gui.chart.IPointPainter;
+import info.monitorenter.gui.chart.ITrace2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An <code>{@link ITrace2D}</code> implementation that stores x, y and the
+ * scaled x and y values of its points in growable primitive
+ * <code>double[]</code> columns instead of keeping one
+ * <code>{@link info.monitorenter.gui.chart.TracePoint2D}</code> instance per
+ * point.
+ * <p>
+ * This class has the following behavior: <br>
+ * <ul>
+ * <li>All points that are added are appended to the end.</li>
+ * <li>If a maximum size is given the columns work as a ring: If a point is
+ * added and the maximum size has been reached the oldest point is thrown away
+ * (like <code>{@link Trace2DLtd}</code>).</li>
+ * <li>Points are only handed out as lightweight
+ * <code>{@link TracePoint2DColumnar}</code> views on the columns (e.g. by
+ * <code>{@link #iterator()}</code>). A view stays connected to its point until
+ * that point is removed from this trace or a point added before it is removed
+ * (which shifts the later points).</li>
+ * </ul>
+ * <p>
+ * Use this implementation for huge amounts of points: A point costs four
+ * <code>double</code> values instead of a full object graph. Use it together
+ * with <code>{@link TracePointProviderColumnar}</code> (see
+ * <code>{@link Chart2D#setTracePointProvider(info.monitorenter.gui.chart.ITracePointProvider)}</code>
+ * ) to also avoid the creation of heavyweight points when adding data.
+ * <p>
+ * Code that wants to avoid the views at all may use the indexed accessors
+ * like <code>{@link #getXAt(int)}</code> under the locks of the chart and this
+ * trace. Note that the scaled columns are only written by axes that transform
+ * values (see <code>{@link ITrace2D#getScalingX()}</code>): Those use
+ * <code>{@link #setScaledXAt(int, double)}</code> instead of views.
+ * <p>
+ * The trace keeps track whether its points are sorted by their x values: In
+ * that case <code>{@link #iterator(double, double)}</code> finds the first
+ * point to return by a binary search over the x column.
+ * <p>
+ * Painting uses <code>{@link #iterator(double, double, int)}</code> that
+ * summarizes the points painted into the same pixel column by their indices
+ * and only creates views on the few points that change the painted line. For
+ * huge static or growing data sets an optional level of detail index may be
+ * turned on (see <code>{@link #setLevelOfDetail(boolean)}</code>): A pyramid
+ * of the minimum and maximum y values of buckets of consecutive points allows
+ * to summarize a pixel column without visiting all of its points. The index
+ * is built on first use, updated when points are appended and dropped if
+ * points are removed, dropped (maximum size) or moved.
+ * <p>
+ * 
+ * @author <a href='mailto:Achim.Westermann@gmx.de'>Achim Westermann </a>
+ * 
+ * @version $Revision: 1.1 $
+ */
+public class Trace2DColumnar extends ATrace2D implements ITrace2D {
+
+  /**
+   * Iterator over views on the points of the outer trace from the oldest to
+   * the latest point.
+   * <p>
+   * 
+   * @author <a href='mailto:Achim.Westermann@gmx.de'>Achim Westermann </a>
+   */
+  private final class ColumnIterator implements Iterator<ITracePoint2D> {
+
+    /** The index of the next point to return. */
+    private int m_next;
+
+    /** The size of the trace at creation time of this iterator. */
+    private final int m_size;
+
+    /**
+     * Defcon.
+     * <p>
+     */
+    protected ColumnIterator() {
+      this(0);
+    }
+
+    /**
+     * Creates an iterator that starts with the point at the given index.
+     * <p>
+     * 
+     * @param start
+     *          the index of the first point to return.
+     */
+    protected ColumnIterator(final int start) {
+      this.m_size = Trace2DColumnar.this.m_size;
+      this.m_next = start;
+    }
+
+    /**
+     * @see java.util.Iterator#hasNext()
+     */
+    public boolean hasNext() {
+      return this.m_next < this.m_size;
+    }
+
+    /**
+     * @see java.util.Iterator#next()
+     */
+    public ITracePoint2D next() {
+      if (this.m_next >= this.m_size) {
+        throw new NoSuchElementException();
+      }
+      final ITracePoint2D result = Trace2DColumnar.this.createView(this.m_next);
+      this.m_next++;
+      return result;
+    }
+
+    /**
+     * Unsupported, use <code>{@link ITrace2D#removePoint(ITracePoint2D)}</code>.
+     * <p>
+     * 
+     * @throws UnsupportedOperationException
+     *           always.
+     * @see java.util.Iterator#remove()
+     */
+    public void remove() {
+      throw new UnsupportedOperationException(
+          "Use removePoint(ITracePoint2D) to remove points of a trace.");
+    }
+  }
+
+  /** The initial capacity of the columns. */
+  private static final int DEFAULT_CAPACITY = 256;
+
+  /** Generated <code>serialVersionUID</code>. */
+  private static final long serialVersionUID = 7205641459629190536L;
+
+  /**
+   * Additional point painters of the points of this trace (views are created
+   * on demand so they cannot carry them) keyed by the position of the point.
+   * <p>
+   * Usually (when not highlighting) this is empty.
+   * <p>
+   */
+  private final Map<Long, Set<IPointPainter< ? >>> m_additionalPointPainters = new HashMap<Long, Set<IPointPainter< ? >>>();
+
+  /**
+   * The absolute position of the oldest point: The amount of points that have
+   * been dropped from the head of the columns since creation.
+   */
+  private long m_firstPosition = 0;
+
+  /** If true the level of detail index is used. */
+  private boolean m_levelOfDetail = false;
+
+  /**
+   * The maximum amount of points, <code>{@link Integer#MAX_VALUE}</code> for
+   * unbounded columns.
+   */
+  private final int m_maxSize;
+
+  /** The level of detail index or null if it has not been built (again) yet. */
+  private MinMaxPyramid m_pyramid;
+
+  /** The scaled x column. */
+  private double[] m_scaledX;
+
+  /** The scaled y column. */
+  private double[] m_scaledY;
+
+  /** The amount of points contained. */
+  private int m_size = 0;
+
+  /** The index in the columns of the oldest point. */
+  private int m_start = 0;
+
+  /**
+   * The amount of the oldest points that have to be dropped until the points
+   * are sorted by their x values again, zero if they are sorted.
+   */
+  private int m_unsortedXCount = 0;
+
+  /** The x column. */
+  private double[] m_x;
+
+  /** The y column. */
+  private double[] m_y;
+
+  /**
+   * Creates an empty trace with unbounded size.
+   * <p>
+   */
+  public Trace2DColumnar() {
+    this(Trace2DColumnar.class.getName() + "-" + ATrace2D.getInstanceCount());
+  }
+
+  /**
+   * Creates an empty trace that will keep the given maximum amount of points
+   * (the oldest points are dropped).
+   * <p>
+   * 
+   * @param maxSize
+   *          the maximum amount of points to keep.
+   */
+  public Trace2DColumnar(final int maxSize) {
+    this(maxSize, Trace2DColumnar.class.getName() + "-" + ATrace2D.getInstanceCount());
+  }
+
+  /**
+   * Creates an empty trace with the given name that will keep the given maximum
+   * amount of points (the oldest points are dropped).
+   * <p>
+   * 
+   * @param maxSize
+   *          the maximum amount of points to keep.
+   * @param name
+   *          the name that will be displayed below the chart.
+   */
+  public Trace2DColumnar(final int maxSize, final String name) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Maximum size has to be positive but is " + maxSize
+          + ".");
+    }
+    this.m_maxSize = maxSize;
+    final int capacity = Math.min(maxSize, Trace2DColumnar.DEFAULT_CAPACITY);
+    this.m_x = new double[capacity];
+    this.m_y = new double[capacity];
+    this.m_scaledX = new double[capacity];
+    this.m_scaledY = new double[capacity];
+    this.setName(name);
+  }
+
+  /**
+   * Creates an empty trace with unbounded size and the given name.
+   * <p>
+   * 
+   * @param name
+   *          the name that will be displayed below the chart.
+   */
+  public Trace2DColumnar(final String name) {
+    this(Integer.MAX_VALUE, name);
+  }
+
+  /**
+   * Copies the values of the given point into the columns.
+   * <p>
+   * If the given point is a detached <code>{@link TracePoint2DColumnar}</code>
+   * (e.g. created by a <code>{@link TracePointProviderColumnar}</code>) it is
+   * connected to its new position in the columns. For any other point
+   * <code>{@link #firePointAdded(ITracePoint2D)}</code> hands out a view
+   * instead so that scaling of the new point by the axes reaches the columns.
+   * <p>
+   * 
+   * @see ATrace2D#addPointInternal(info.monitorenter.gui.chart.ITracePoint2D)
+   */
+  @Override
+  protected boolean addPointInternal(final ITracePoint2D p) {
+    // NaN values are unsorted:
+    if ((this.m_size > 0) && !(p.getX() >= this.getXAt(this.m_size - 1))) {
+      this.m_unsortedXCount = this.m_size;
+    }
+    if (this.m_size == this.m_maxSize) {
+      this.removeOldest();
+    } else if (this.m_size == this.m_x.length) {
+      this.grow();
+    }
+    final int index = this.toColumnIndex(this.m_size);
+    this.m_x[index] = p.getX();
+    this.m_y[index] = p.getY();
+    this.m_scaledX[index] = p.getScaledX();
+    this.m_scaledY[index] = p.getScaledY();
+    this.m_size++;
+    if (this.m_pyramid != null) {
+      this.m_pyramid.add();
+    }
+    if (p instanceof TracePoint2DColumnar) {
+      final TracePoint2DColumnar columnar = (TracePoint2DColumnar) p;
+      if (columnar.getTrace() == null) {
+        final Set<IPointPainter< ? >> painters = columnar.getAdditionalPointPainters();
+        columnar.attach(this, this.m_firstPosition + this.m_size - 1);
+        if (!painters.isEmpty()) {
+          this.m_additionalPointPainters.put(Long.valueOf(columnar.getPosition()), painters);
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns a view on the point at the given index (0 is the oldest point).
+   * <p>
+   * 
+   * @param index
+   *          the index of the point.
+   * @return a view on the point at the given index.
+   */
+  final TracePoint2DColumnar createView(final int index) {
+    if ((index < 0) || (index >= this.m_size)) {
+      throw new IndexOutOfBoundsException("Index " + index + " for size " + this.m_size);
+    }
+    return new TracePoint2DColumnar(this, this.m_firstPosition + index);
+  }
+
+  /**
+   * Detaches the given view on a point of this trace: The values are copied
+   * into the view as the columns may be modified by adding points.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#detachPoint(info.monitorenter.gui.chart.ITracePoint2D)
+   */
+  @Override
+  public ITracePoint2D detachPoint(final ITracePoint2D point) {
+    ITracePoint2D result = point;
+    if ((point instanceof TracePoint2DColumnar)
+        && (((TracePoint2DColumnar) point).getTrace() == this)) {
+      result = ((TracePoint2DColumnar) point).detach();
+    }
+    return result;
+  }
+
+  /**
+   * Makes sure that the axes scale the column entry of the point that was just
+   * added: If a foreign point implementation was added a view on the new
+   * column entry is used for the events.
+   * <p>
+   * 
+   * @see ATrace2D#firePointAdded(info.monitorenter.gui.chart.ITracePoint2D)
+   */
+  @Override
+  protected void firePointAdded(final ITracePoint2D added) {
+    super.firePointAdded(this.getContainedPoint(added));
+  }
+
+  /**
+   * Returns a view on the column entry of the point that was just added unless
+   * the given point already is that view.
+   * <p>
+   * 
+   * @see ATrace2D#getContainedPoint(info.monitorenter.gui.chart.ITracePoint2D)
+   */
+  @Override
+  protected ITracePoint2D getContainedPoint(final ITracePoint2D added) {
+    ITracePoint2D result = added;
+    final long latest = this.m_firstPosition + this.m_size - 1;
+    if (!(added instanceof TracePoint2DColumnar)
+        || (((TracePoint2DColumnar) added).getTrace() != this)
+        || (((TracePoint2DColumnar) added).getPosition() != latest)) {
+      result = this.createView(this.m_size - 1);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the set of additional point painters of the point at the given
+   * position or null if none have been registered.
+   * <p>
+   * 
+   * @param position
+   *          the absolute position of the point.
+   * @return the set of additional point painters of the point at the given
+   *         position or null.
+   */
+  final Set<IPointPainter< ? >> getAdditionalPointPainters(final long position) {
+    return this.m_additionalPointPainters.get(Long.valueOf(position));
+  }
+
+  /**
+   * Returns the capacity of the columns that is currently allocated.
+   * <p>
+   * 
+   * @return the capacity of the columns that is currently allocated.
+   */
+  public final int getCapacity() {
+    return this.m_x.length;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#getMaxSize()
+   */
+  public final int getMaxSize() {
+    return this.m_maxSize;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#getSize()
+   */
+  public final int getSize() {
+    return this.m_size;
+  }
+
+  /**
+   * Returns the scaled x value of the point at the given index (0 is the
+   * oldest point).
+   * <p>
+   * 
+   * @param index
+   *          the index of the point.
+   * @return the scaled x value of the point at the given index.
+   */
+  public final double getScaledXAt(final int index) {
+    return this.m_scaledX[this.toColumnIndex(index)];
+  }
+
+  /**
+   * Returns the scaled y value of the point at the given index (0 is the
+   * oldest point).
+   * <p>
+   * 
+   * @param index
+   *          the index of the point.
+   * @return the scaled y value of the point at the given index.
+   */
+  public final double getScaledYAt(final int index) {
+    return this.m_scaledY[this.toColumnIndex(index)];
+  }
+
+  /**
+   * Returns the x value of the point at the given index (0 is the oldest
+   * point).
+   * <p>
+   * 
+   * @param index
+   *          the index of the point.
+   * @return the x value of the point at the given index.
+   */
+  public final double getXAt(final int index) {
+    return this.m_x[this.toColumnIndex(index)];
+  }
+
+  /**
+   * Returns the y value of the point at the given index (0 is the oldest
+   * point).
+   * <p>
+   * 
+   * @param index
+   *          the index of the point.
+   * @return the y value of the point at the given index.
+   */
+  public final double getYAt(final int index) {
+    return this.m_y[this.toColumnIndex(index)];
+  }
+
+  /**
+   * Doubles the capacity of the columns (limited by the maximum size) and
+   * moves the oldest point to index 0.
+   * <p>
+   */
+  private void grow() {
+    final int capacity = this.m_x.length;
+    final int newCapacity = (int) Math.min(this.m_maxSize, Math.max(capacity * 2L, 1L));
+    this.m_x = this.grow(this.m_x, newCapacity);
+    this.m_y = this.grow(this.m_y, newCapacity);
+    this.m_scaledX = this.grow(this.m_scaledX, newCapacity);
+    this.m_scaledY = this.grow(this.m_scaledY, newCapacity);
+    this.m_start = 0;
+  }
+
+  /**
+   * Returns a copy of the given column with the given capacity that starts
+   * with the oldest point.
+   * <p>
+   * 
+   * @param column
+   *          the column to copy.
+   * @param newCapacity
+   *          the capacity of the new column.
+   * @return a copy of the given column with the given capacity that starts with
+   *         the oldest point.
+   */
+  private double[] grow(final double[] column, final int newCapacity) {
+    final double[] result = new double[newCapacity];
+    final int firstPart = Math.min(this.m_size, column.length - this.m_start);
+    System.arraycopy(column, this.m_start, result, 0, firstPart);
+    System.arraycopy(column, 0, result, firstPart, this.m_size - firstPart);
+    return result;
+  }
+
+  /**
+   * Returns the index of the point with the given absolute position or -1 if
+   * it is not contained any more.
+   * <p>
+   * 
+   * @param position
+   *          the absolute position of a point.
+   * @return the index of the point with the given absolute position or -1.
+   */
+  final int indexOf(final long position) {
+    final long index = position - this.m_firstPosition;
+    int result = -1;
+    if ((index >= 0) && (index < this.m_size)) {
+      result = (int) index;
+    }
+    return result;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isEmpty()
+   */
+  public boolean isEmpty() {
+    return this.m_size == 0;
+  }
+
+  /**
+   * Returns true if the level of detail index is used.
+   * <p>
+   * 
+   * @return true if the level of detail index is used.
+   * 
+   * @see #setLevelOfDetail(boolean)
+   */
+  public final boolean isLevelOfDetail() {
+    return this.m_levelOfDetail;
+  }
+
+  /**
+   * Returns true if the points are sorted by their x values.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#isSortedX()
+   */
+  @Override
+  public boolean isSortedX() {
+    return this.m_unsortedXCount == 0;
+  }
+
+  /**
+   * Returns an iterator over views on the points from the oldest to the latest
+   * point.
+   * <p>
+   * Every call to <code>{@link Iterator#next()}</code> creates a new
+   * <code>{@link TracePoint2DColumnar}</code> view (two fields) on the columns.
+   * <p>
+   * The lock on the chart is not acquired if the lock on this trace is held
+   * already: The bounds are searched with it while points are added with the
+   * lock on this trace only.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.ITrace2D#iterator()
+   */
+  public Iterator<ITracePoint2D> iterator() {
+    if (Chart2D.DEBUG_THREADING) {
+      System.out.println("Trace2DColumnar.iterator, 0 locks");
+    }
+    if (Thread.holdsLock(this)) {
+      // acquiring the lock on the chart now could deadlock with the painter:
+      return new ColumnIterator();
+    }
+    this.ensureInitialized();
+    synchronized (this.m_renderer) {
+      synchronized (this) {
+        return new ColumnIterator();
+      }
+    }
+  }
+
+  /**
+   * Finds the last point below the given range by a binary search over the x
+   * column if the points are sorted by their x values.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#iterator(double, double)
+   */
+  @Override
+  public Iterator<ITracePoint2D> iterator(final double minX, final double maxX) {
+    this.ensureInitialized();
+    synchronized (this.m_renderer) {
+      synchronized (this) {
+        if (this.m_unsortedXCount > 0) {
+          return new ColumnIterator();
+        }
+        final int start = Math.max(0, this.searchX(minX, false) - 1);
+        return new XRangeIterator(new ColumnIterator(start), maxX);
+      }
+    }
+  }
+
+  /**
+   * Summarizes the points if they are sorted and the x axis maps values
+   * linearly (see <code>{@link ITrace2D#getScalingX()}</code>): Only the
+   * first, the lowest, the highest and the last point of every pixel column
+   * are returned. This paints the same pixels as all points of the columns
+   * but only creates views on the returned points.
+   * <p>
+   * The extrema of the columns are found by the level of detail index if it
+   * is turned on and no point contains a NaN value. Otherwise the y column is
+   * scanned.
+   * <p>
+   * All points are returned if the pixel columns contain less than a few
+   * points on average or a point has additional point painters: Those have to
+   * be painted.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#iterator(double, double,
+   *      int)
+   */
+  @Override
+  public Iterator<ITracePoint2D> iterator(final double minX, final double maxX,
+      final int columns) {
+    this.ensureInitialized();
+    synchronized (this.m_renderer) {
+      synchronized (this) {
+        if ((this.m_unsortedXCount > 0) || (this.getScalingX() == null) || (columns <= 0)
+            || !this.m_additionalPointPainters.isEmpty()) {
+          return this.iterator(minX, maxX);
+        }
+        final int start = Math.max(0, this.searchX(minX, false) - 1);
+        final int end = Math.min(this.m_size - 1, this.searchX(maxX, true));
+        if ((end - start + 1) / columns < MinMaxPyramid.MIN_BUCKET_SIZE) {
+          return new XRangeIterator(new ColumnIterator(start), maxX);
+        }
+        MinMaxPyramid pyramid = null;
+        if (this.m_levelOfDetail) {
+          if (this.m_pyramid == null) {
+            this.m_pyramid = new MinMaxPyramid(this);
+            for (int i = 0; i < this.m_size; i++) {
+              this.m_pyramid.add();
+            }
+          }
+          if (this.m_pyramid.isUsable()) {
+            pyramid = this.m_pyramid;
+          }
+        }
+        return new PixelColumnIterator(this, pyramid, start, end, this.getScalingX(), columns);
+      }
+    }
+  }
+
+  /**
+   * Registers the given set of additional point painters for the point at the
+   * given position.
+   * <p>
+   * 
+   * @param position
+   *          the absolute position of the point.
+   * @param painters
+   *          the live set of additional point painters of the point.
+   */
+  final void putAdditionalPointPainters(final long position,
+      final Set<IPointPainter< ? >> painters) {
+    this.m_additionalPointPainters.put(Long.valueOf(position), painters);
+  }
+
+  /**
+   * @see ATrace2D#removeAllPointsInternal()
+   */
+  @Override
+  protected void removeAllPointsInternal() {
+    this.m_firstPosition += this.m_size;
+    this.m_size = 0;
+    this.m_start = 0;
+    this.m_unsortedXCount = 0;
+    this.m_pyramid = null;
+    this.m_additionalPointPainters.clear();
+  }
+
+  /**
+   * Drops the oldest point to make room for a new one and informs computing
+   * traces and bound properties.
+   * <p>
+   */
+  private void removeOldest() {
+    final TracePoint2DColumnar removed = this.createView(0).detach();
+    this.m_additionalPointPainters.remove(Long.valueOf(this.m_firstPosition));
+    this.m_start = this.toColumnIndex(1);
+    this.m_size--;
+    this.m_firstPosition++;
+    this.m_pyramid = null;
+    if (this.m_unsortedXCount > 0) {
+      this.m_unsortedXCount--;
+    }
+    double tmpx = removed.getX();
+    double tmpy = removed.getY();
+    if (tmpx >= this.m_maxX) {
+      tmpx = this.m_maxX;
+      this.maxXSearch();
+      this.firePropertyChange(ITrace2D.PROPERTY_MAX_X, Double.valueOf(tmpx),
+          Double.valueOf(this.m_maxX));
+    } else if (tmpx <= this.m_minX) {
+      tmpx = this.m_minX;
+      this.minXSearch();
+      this.firePropertyChange(ITrace2D.PROPERTY_MIN_X, Double.valueOf(tmpx),
+          Double.valueOf(this.m_minX));
+    }
+    if (tmpy >= this.m_maxY) {
+      tmpy = this.m_maxY;
+      this.maxYSearch();
+      this.firePropertyChange(ITrace2D.PROPERTY_MAX_Y, Double.valueOf(tmpy),
+          Double.valueOf(this.m_maxY));
+    } else if (tmpy <= this.m_minY) {
+      tmpy = this.m_minY;
+      this.minYSearch();
+      this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, Double.valueOf(tmpy),
+          Double.valueOf(this.m_minY));
+    }
+    this.removeFromNearestPointIndex(removed);
+    this.removeFromComputingTraces(removed);
+  }
+
+  /**
+   * Removes the given point which is either a view on a point of this trace or
+   * a point with equal x and y values.
+   * <p>
+   * Later points are shifted which causes existing views on them to refer to
+   * their successors.
+   * <p>
+   * 
+   * @return a detached copy of the removed point or null if the given point was
+   *         not contained.
+   * @see ATrace2D#removePointInternal(info.monitorenter.gui.chart.ITracePoint2D)
+   */
+  @Override
+  protected ITracePoint2D removePointInternal(final ITracePoint2D point) {
+    int index = -1;
+    if ((point instanceof TracePoint2DColumnar)
+        && (((TracePoint2DColumnar) point).getTrace() == this)) {
+      index = this.indexOf(((TracePoint2DColumnar) point).getPosition());
+    } else {
+      final double x = point.getX();
+      final double y = point.getY();
+      for (int i = 0; i < this.m_size; i++) {
+        if ((this.getXAt(i) == x) && (this.getYAt(i) == y)) {
+          index = i;
+          break;
+        }
+      }
+    }
+    TracePoint2DColumnar result = null;
+    if (index >= 0) {
+      result = this.createView(index).detach();
+      final long position = this.m_firstPosition + index;
+      this.m_additionalPointPainters.remove(Long.valueOf(position));
+      if (index == 0) {
+        this.m_start = this.toColumnIndex(1);
+        this.m_firstPosition++;
+      } else {
+        int to;
+        int from;
+        for (int i = index; i < this.m_size - 1; i++) {
+          to = this.toColumnIndex(i);
+          from = this.toColumnIndex(i + 1);
+          this.m_x[to] = this.m_x[from];
+          this.m_y[to] = this.m_y[from];
+          this.m_scaledX[to] = this.m_scaledX[from];
+          this.m_scaledY[to] = this.m_scaledY[from];
+        }
+        // shift the additional point painters of the later points:
+        if (!this.m_additionalPointPainters.isEmpty()) {
+          final Map<Long, Set<IPointPainter< ? >>> shifted = new HashMap<Long, Set<IPointPainter< ? >>>();
+          for (final Map.Entry<Long, Set<IPointPainter< ? >>> entry : this.m_additionalPointPainters
+              .entrySet()) {
+            final long entryPosition = entry.getKey().longValue();
+            if (entryPosition > position) {
+              shifted.put(Long.valueOf(entryPosition - 1), entry.getValue());
+            } else {
+              shifted.put(entry.getKey(), entry.getValue());
+            }
+          }
+          this.m_additionalPointPainters.clear();
+          this.m_additionalPointPainters.putAll(shifted);
+        }
+      }
+      this.m_size--;
+      this.m_pyramid = null;
+      if (index < this.m_unsortedXCount) {
+        this.m_unsortedXCount--;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the index of the first point with an x value not below (or above
+   * if requested) the given value by a binary search.
+   * <p>
+   * The points have to be sorted by their x values.
+   * <p>
+   * 
+   * @param x
+   *          the value to search.
+   * @param above
+   *          if true the first point with an x value above the given value is
+   *          searched.
+   * @return the index of the first point with an x value not below (or above)
+   *         the given value, the size of this trace if there is none.
+   */
+  private int searchX(final double x, final boolean above) {
+    int low = 0;
+    int high = this.m_size;
+    int mid;
+    double midX;
+    while (low < high) {
+      mid = (low + high) >>> 1;
+      midX = this.getXAt(mid);
+      if ((midX < x) || (above && (midX == x))) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Turns the level of detail index on or off.
+   * <p>
+   * The index costs half an <code>int</code> per point and is built on first
+   * use by <code>{@link #iterator(double, double, int)}</code>. It is meant for
+   * huge data sets that are only appended to: It is dropped if points are
+   * removed, dropped (because the maximum size is reached) or moved.
+   * <p>
+   * 
+   * @param levelOfDetail
+   *          if true the level of detail index is used.
+   */
+  public final void setLevelOfDetail(final boolean levelOfDetail) {
+    synchronized (this) {
+      this.m_levelOfDetail = levelOfDetail;
+      if (!levelOfDetail) {
+        this.m_pyramid = null;
+      }
+    }
+  }
+
+  /**
+   * Sets the location of the point at the given absolute position.
+   * <p>
+   * Does nothing if the point is not contained any more.
+   * <p>
+   * 
+   * @param position
+   *          the absolute position of the point.
+   * @param x
+   *          the new x value.
+   * @param y
+   *          the new y value.
+   * @return true if the point was contained.
+   */
+  final boolean setLocation(final long position, final double x, final double y) {
+    final int index = this.indexOf(position);
+    final boolean result = index >= 0;
+    if (result) {
+      final int columnIndex = this.toColumnIndex(index);
+      this.m_x[columnIndex] = x;
+      this.m_y[columnIndex] = y;
+      this.m_pyramid = null;
+      // NaN values are unsorted:
+      if ((index + 1 < this.m_size) && !(this.getXAt(index + 1) >= x)) {
+        this.m_unsortedXCount = Math.max(this.m_unsortedXCount, index + 1);
+      } else if ((index > 0) && !(x >= this.getXAt(index - 1))) {
+        this.m_unsortedXCount = Math.max(this.m_unsortedXCount, index);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sets the scaled x value of the point at the given index (0 is the oldest
+   * point).
+   * <p>
+   * 
+   * @param index
+   *          the index of the point.
+   * @param scaledX
+   *          the scaled x value to set.
+   */
+  public final void setScaledXAt(final int index, final double scaledX) {
+    this.m_scaledX[this.toColumnIndex(index)] = scaledX;
+  }
+
+  /**
+   * Sets the scaled y value of the point at the given index (0 is the oldest
+   * point).
+   * <p>
+   * 
+   * @param index
+   *          the index of the point.
+   * @param scaledY
+   *          the scaled y value to set.
+   */
+  public final void setScaledYAt(final int index, final double scaledY) {
+    this.m_scaledY[this.toColumnIndex(index)] = scaledY;
+  }
+
+  /**
+   * Translates the given index of a point (0 is the oldest point) to the index
+   * within the columns.
+   * <p>
+   * 
+   * @param index
+   *          the index of a point.
+   * @return the index within the columns.
+   */
+  private int toColumnIndex(final int index) {
+    int result = this.m_start + index;
+    if (result >= this.m_x.length) {
+      result -= this.m_x.length;
+    }
+    return result;
+  }
+}
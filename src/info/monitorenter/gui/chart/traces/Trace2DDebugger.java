@@ -22,12 +22,14 @@
  */
 package info.monitorenter.gui.chart.traces;
 
+import info.monitorenter.gui.chart.AffineScaling;
 import info.monitorenter.gui.chart.Chart2D;
 import info.monitorenter.gui.chart.IErrorBarPolicy;
 import info.monitorenter.gui.chart.IPointPainter;
 import info.monitorenter.gui.chart.ITrace2D;
 import info.monitorenter.gui.chart.ITracePainter;
 import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.StagingQueue;
 import info.monitorenter.util.Range;
 
 import java.awt.Color;
@@ -142,6 +144,38 @@ public class Trace2DDebugger implements ITrace2D {
     return this.m_delegate.addPointHighlighter(highlighter);
   }
 
+  /**
+   * @see ITrace2D#addPoints(double[], double[])
+   */
+  public int addPoints(final double[] xs, final double[] ys) {
+    if (xs.length != ys.length) {
+      throw new IllegalArgumentException("Got " + xs.length + " x-values but " + ys.length
+          + " y-values.");
+    }
+    return this.addPoints(xs, ys, xs.length);
+  }
+
+  /**
+   * @see ITrace2D#addPoints(double[], double[], int)
+   */
+  public int addPoints(final double[] xs, final double[] ys, final int amount) {
+    if ((amount < 0) || (xs.length < amount) || (ys.length < amount)) {
+      throw new IllegalArgumentException("Cannot add " + amount + " points from " + xs.length
+          + " x-values and " + ys.length + " y-values.");
+    }
+    for (int i = 0; i < amount; i++) {
+      if (!this.m_xRange.isContained(xs[i])) {
+        throw new IllegalArgumentException("x-value " + xs[i] + " is not within the valid x-range "
+            + this.m_xRange.toString());
+      }
+      if (!this.m_yRange.isContained(ys[i])) {
+        throw new IllegalArgumentException("y-value " + ys[i] + " is not within the valid y-range "
+            + this.m_yRange.toString());
+      }
+    }
+    return this.m_delegate.addPoints(xs, ys, amount);
+  }
+
   /**
    * @see ITrace2D#addPropertyChangeListener(String, PropertyChangeListener)
    */
@@ -182,6 +216,20 @@ public class Trace2DDebugger implements ITrace2D {
     return this.m_delegate.containsTracePainter(painter);
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#detachPoint(info.monitorenter.gui.chart.ITracePoint2D)
+   */
+  public ITracePoint2D detachPoint(final ITracePoint2D point) {
+    return this.m_delegate.detachPoint(point);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#fireCoalescedEvents()
+   */
+  public boolean fireCoalescedEvents() {
+    return this.m_delegate.fireCoalescedEvents();
+  }
+
   /**
    * @see java.lang.Object#equals(java.lang.Object)
    */
@@ -354,6 +402,20 @@ public class Trace2DDebugger implements ITrace2D {
     return this.m_delegate.getRenderer();
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#getScalingX()
+   */
+  public AffineScaling getScalingX() {
+    return this.m_delegate.getScalingX();
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#getScalingY()
+   */
+  public AffineScaling getScalingY() {
+    return this.m_delegate.getScalingY();
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#getSize()
    */
@@ -361,6 +423,13 @@ public class Trace2DDebugger implements ITrace2D {
     return this.m_delegate.getSize();
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#getStagingQueue()
+   */
+  public StagingQueue getStagingQueue() {
+    return this.m_delegate.getStagingQueue();
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#getStroke()
    */
@@ -415,6 +484,13 @@ public class Trace2DDebugger implements ITrace2D {
     return result;
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isCoalescingEvents()
+   */
+  public boolean isCoalescingEvents() {
+    return this.m_delegate.isCoalescingEvents();
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#isEmpty()
    */
@@ -422,6 +498,27 @@ public class Trace2DDebugger implements ITrace2D {
     return this.m_delegate.isEmpty();
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isNearestPointIndexing()
+   */
+  public boolean isNearestPointIndexing() {
+    return this.m_delegate.isNearestPointIndexing();
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isPaintDecimation()
+   */
+  public boolean isPaintDecimation() {
+    return this.m_delegate.isPaintDecimation();
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isSortedX()
+   */
+  public boolean isSortedX() {
+    return this.m_delegate.isSortedX();
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#isVisible()
    */
@@ -436,6 +533,21 @@ public class Trace2DDebugger implements ITrace2D {
     return this.m_delegate.iterator();
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#iterator(double, double)
+   */
+  public Iterator<ITracePoint2D> iterator(final double minX, final double maxX) {
+    return this.m_delegate.iterator(minX, maxX);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#iterator(double, double, int)
+   */
+  public Iterator<ITracePoint2D> iterator(final double minX, final double maxX,
+      final int columns) {
+    return this.m_delegate.iterator(minX, maxX, columns);
+  }
+
   /**
    * @see java.beans.PropertyChangeListener#propertyChange(java.beans.PropertyChangeEvent)
    */
@@ -505,6 +617,13 @@ public class Trace2DDebugger implements ITrace2D {
     return this.m_delegate.removeTracePainter(painter);
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setCoalescingEvents(boolean)
+   */
+  public void setCoalescingEvents(final boolean coalescingEvents) {
+    this.m_delegate.setCoalescingEvents(coalescingEvents);
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#setColor(java.awt.Color)
    */
@@ -526,6 +645,20 @@ public class Trace2DDebugger implements ITrace2D {
     this.m_delegate.setName(name);
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setNearestPointIndexing(boolean)
+   */
+  public void setNearestPointIndexing(final boolean nearestPointIndexing) {
+    this.m_delegate.setNearestPointIndexing(nearestPointIndexing);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setPaintDecimation(boolean)
+   */
+  public void setPaintDecimation(final boolean paintDecimation) {
+    this.m_delegate.setPaintDecimation(paintDecimation);
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#setPhysicalUnits(java.lang.String,
    *      java.lang.String)
@@ -545,6 +678,27 @@ public class Trace2DDebugger implements ITrace2D {
     this.m_delegate.setRenderer(renderer);
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setScalingX(info.monitorenter.gui.chart.AffineScaling)
+   */
+  public void setScalingX(final AffineScaling scaling) {
+    this.m_delegate.setScalingX(scaling);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setScalingY(info.monitorenter.gui.chart.AffineScaling)
+   */
+  public void setScalingY(final AffineScaling scaling) {
+    this.m_delegate.setScalingY(scaling);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#setStagingQueue(info.monitorenter.gui.chart.StagingQueue)
+   */
+  public void setStagingQueue(final StagingQueue queue) {
+    this.m_delegate.setStagingQueue(queue);
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#setStroke(java.awt.Stroke)
    */
@@ -26,6 +26,7 @@ import info.monitorenter.gui.chart.ITrace2D;
 import info.monitorenter.gui.chart.ITracePoint2D;
 import info.monitorenter.util.collections.IRingBuffer;
 import info.monitorenter.util.collections.RingBufferArrayFast;
+import info.monitorenter.util.collections.SlidingWindowMinMax;
 
 import java.util.Iterator;
 
@@ -44,6 +45,20 @@ import java.util.Iterator;
  * would increase the time for scaling and painting until system hangs or
  * java.lang.OutOfMemoryError is thrown.
  * <p>
+ * The bounds of the points in the buffer are tracked incrementally while
+ * adding (see <code>{@link SlidingWindowMinMax}</code>): Dropping the point
+ * with the highest or lowest value does not require a search over all points.
+ * Only modifications of points that are contained already (
+ * <code>{@link ITracePoint2D#setLocation(double, double)}</code>) or changes of
+ * the maximum size cost a full iteration. For modifications this iteration is
+ * postponed until the bounds have to be searched: Changing the y value of a
+ * point that is no extremum does not search at all.
+ * <p>
+ * The trace keeps track whether the points in the buffer are sorted by their x
+ * values (which is the case for time series): In that case
+ * <code>{@link #iterator(double, double)}</code> finds the first point to
+ * return by a binary search.
+ * <p>
  * 
  * @author <a href='mailto:Achim.Westermann@gmx.de'>Achim Westermann </a>
  * 
@@ -60,6 +75,24 @@ public class Trace2DLtd extends ATrace2D implements ITrace2D {
    */
   protected IRingBuffer<ITracePoint2D> m_buffer;
 
+  /** The extrema of the x values of the points in the buffer. */
+  private final SlidingWindowMinMax m_extremaX;
+
+  /** The extrema of the y values of the points in the buffer. */
+  private final SlidingWindowMinMax m_extremaY;
+
+  /**
+   * True if a contained point has been modified after the extrema and the sort
+   * state have been computed: They are rebuilt before the next use.
+   */
+  private boolean m_extremaStale;
+
+  /**
+   * The amount of the oldest points that have to be dropped until the points
+   * in the buffer are sorted by their x values again, zero if they are sorted.
+   */
+  private int m_unsortedXCount;
+
   /**
    * Constructs an instance with a default buffer size of 100.
    * <p>
@@ -93,6 +126,8 @@ public class Trace2DLtd extends ATrace2D implements ITrace2D {
    */
   public Trace2DLtd(final int maxsize, final String name) {
     this.m_buffer = new RingBufferArrayFast<ITracePoint2D>(maxsize);
+    this.m_extremaX = new SlidingWindowMinMax(maxsize);
+    this.m_extremaY = new SlidingWindowMinMax(maxsize);
     this.setName(name);
   }
 
@@ -113,7 +148,17 @@ public class Trace2DLtd extends ATrace2D implements ITrace2D {
   @Override
   protected boolean addPointInternal(final ITracePoint2D p) {
 
+    final int sizeBefore = this.m_buffer.size();
+    // NaN values are unsorted:
+    if ((sizeBefore > 0) && !(p.getX() >= this.m_buffer.getYoungest().getX())) {
+      this.m_unsortedXCount = sizeBefore;
+    }
     final ITracePoint2D removed = this.m_buffer.add(p);
+    if ((removed != null) && (this.m_unsortedXCount > 0)) {
+      this.m_unsortedXCount--;
+    }
+    this.m_extremaX.add(p.getX());
+    this.m_extremaY.add(p.getY());
     double tmpx;
     double tmpy;
     if (removed != null) {
@@ -137,18 +182,29 @@ public class Trace2DLtd extends ATrace2D implements ITrace2D {
         this.minYSearch();
         this.firePropertyChange(ITrace2D.PROPERTY_MIN_Y, new Double(tmpy), new Double(this.m_minY));
       }
+      this.removeFromNearestPointIndex(removed);
       // scale the new point, check for new bounds!
       this.firePointAdded(p);
-      // inform computing traces of removal:
-      if (this.m_computingTraces.size() > 0) {
-        for (final ITrace2D trace : this.m_computingTraces) {
-          trace.removePoint(removed);
-        }
-      }
+      this.removeFromComputingTraces(removed);
     }
     return true;
   }
 
+  /**
+   * Invoked by <code>{@link #setMaxSize(int)}</code> after the size of the
+   * buffer has been changed (and the oldest points possibly have been
+   * dropped).
+   * <p>
+   * Subclasses that keep data about the contained points have to update it
+   * here. This implementation does nothing.
+   * <p>
+   * Only invoked with the locks on the chart and this trace held.
+   * <p>
+   */
+  protected void bufferResized() {
+    // nop
+  }
+
   /**
    * @see java.lang.Object#equals(java.lang.Object)
    */
@@ -174,6 +230,46 @@ public class Trace2DLtd extends ATrace2D implements ITrace2D {
     return true;
   }
 
+  /**
+   * Rebuilds the tracked bounds and the sort state if a contained point has
+   * been modified since they have been computed.
+   * <p>
+   */
+  private void ensureExtrema() {
+    synchronized (this) {
+      if (this.m_extremaStale) {
+        this.rebuildExtrema();
+      }
+    }
+  }
+
+  /**
+   * Marks the tracked bounds as stale if a contained point has been modified:
+   * They are rebuilt when the bounds are searched.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#firePointChanged(info.monitorenter.gui.chart.ITracePoint2D,
+   *      int)
+   */
+  @Override
+  public void firePointChanged(final ITracePoint2D changed, final int state) {
+    if (state == ITracePoint2D.STATE_CHANGED) {
+      if (Thread.holdsLock(this)) {
+        // e.g. a replacing trace adding points with the lock on this trace only:
+        // acquiring the lock on the chart now could deadlock with the painter
+        this.m_extremaStale = true;
+      } else {
+        this.ensureInitialized();
+        synchronized (this.m_renderer) {
+          synchronized (this) {
+            this.m_extremaStale = true;
+          }
+        }
+      }
+    }
+    super.firePointChanged(changed, state);
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#getMaxSize()
    */
@@ -211,6 +307,18 @@ public class Trace2DLtd extends ATrace2D implements ITrace2D {
     return this.m_buffer.isEmpty();
   }
 
+  /**
+   * Returns true if the points in the buffer are sorted by their x values.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#isSortedX()
+   */
+  @Override
+  public boolean isSortedX() {
+    this.ensureExtrema();
+    return this.m_unsortedXCount == 0;
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#iterator()
    */
@@ -232,12 +340,151 @@ public class Trace2DLtd extends ATrace2D implements ITrace2D {
     }
   }
 
+  /**
+   * Finds the last point below the given range by a binary search if the
+   * points are sorted by their x values.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#iterator(double, double)
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public Iterator<ITracePoint2D> iterator(final double minX, final double maxX) {
+    this.ensureInitialized();
+    synchronized (this.m_renderer) {
+      synchronized (this) {
+        this.ensureExtrema();
+        if ((this.m_unsortedXCount > 0) || !(this.m_buffer instanceof RingBufferArrayFast< ? >)) {
+          return this.m_buffer.iteratorL2F();
+        }
+        final RingBufferArrayFast<ITracePoint2D> buffer = (RingBufferArrayFast<ITracePoint2D>) this.m_buffer;
+        // search the first point not below the range:
+        int low = 0;
+        int high = buffer.size();
+        int mid;
+        while (low < high) {
+          mid = (low + high) >>> 1;
+          if (buffer.get(mid).getX() < minX) {
+            low = mid + 1;
+          } else {
+            high = mid;
+          }
+        }
+        return new XRangeIterator(buffer.iteratorL2F(Math.max(0, low - 1)), maxX);
+      }
+    }
+  }
+
+  /**
+   * Takes the maximum x value from the tracked bounds instead of searching all
+   * points.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#maxXSearch()
+   */
+  @Override
+  protected void maxXSearch() {
+    synchronized (this) {
+      this.ensureExtrema();
+      this.m_maxX = this.m_extremaX.getMax();
+    }
+    // compute the extra amount in case of error bar painters:
+    this.expandMaxXErrorBarBounds();
+  }
+
+  /**
+   * Takes the maximum y value from the tracked bounds instead of searching all
+   * points.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#maxYSearch()
+   */
+  @Override
+  protected void maxYSearch() {
+    synchronized (this) {
+      this.ensureExtrema();
+      this.m_maxY = this.m_extremaY.getMax();
+    }
+    // compute the extra amount in case of error bar painters:
+    this.expandMaxYErrorBarBounds();
+  }
+
+  /**
+   * Takes the minimum x value from the tracked bounds instead of searching all
+   * points.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#minXSearch()
+   */
+  @Override
+  protected void minXSearch() {
+    synchronized (this) {
+      this.ensureExtrema();
+      this.m_minX = this.m_extremaX.getMin();
+    }
+    // compute the extra amount in case of error bar painters:
+    this.expandMinXErrorBarBounds();
+  }
+
+  /**
+   * Takes the minimum y value from the tracked bounds instead of searching all
+   * points.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#minYSearch()
+   */
+  @Override
+  protected void minYSearch() {
+    synchronized (this) {
+      this.ensureExtrema();
+      this.m_minY = this.m_extremaY.getMin();
+    }
+    // compute the extra amount in case of error bar painters:
+    this.expandMinYErrorBarBounds();
+  }
+
+  /**
+   * Recomputes the tracked bounds and the sort state of the x values from all
+   * points in the buffer.
+   * <p>
+   * This has to be invoked by subclasses that modify the buffer directly or
+   * modify the location of contained points.
+   * <p>
+   */
+  protected final void rebuildExtrema() {
+    final int windowSize = this.m_buffer.getBufferSize();
+    this.m_extremaX.setWindowSize(windowSize);
+    this.m_extremaY.setWindowSize(windowSize);
+    this.m_extremaX.clear();
+    this.m_extremaY.clear();
+    this.m_unsortedXCount = 0;
+    this.m_extremaStale = false;
+    final Iterator<ITracePoint2D> it = this.m_buffer.iteratorL2F();
+    ITracePoint2D point;
+    double previousX = Double.NEGATIVE_INFINITY;
+    int index = 0;
+    while (it.hasNext()) {
+      point = it.next();
+      if (!(point.getX() >= previousX)) {
+        this.m_unsortedXCount = index;
+      }
+      previousX = point.getX();
+      index++;
+      this.m_extremaX.add(point.getX());
+      this.m_extremaY.add(point.getY());
+    }
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#removeAllPoints()
    */
   @Override
   public void removeAllPointsInternal() {
     this.m_buffer.clear();
+    this.m_extremaX.clear();
+    this.m_extremaY.clear();
+    this.m_unsortedXCount = 0;
+    this.m_extremaStale = false;
   }
 
   /**
@@ -288,6 +535,9 @@ public class Trace2DLtd extends ATrace2D implements ITrace2D {
           System.out.println("Trace2DLtd.setMaxSize, 2 locks");
         }
         this.m_buffer.setBufferSize(amount);
+        this.rebuildExtrema();
+        this.bufferResized();
+        this.invalidateNearestPointIndex();
 
         final double xmin = this.m_minX;
         this.minXSearch();
@@ -0,0 +1,374 @@
+/*
+ *  Trace2DLtdReordering, a ring buffer based implementation of an ITrace2D
+ *  that puts points arriving slightly out of order back in order.
+ *  Copyright (c) 2004 - 2011  Achim Westermann, Achim.Westermann@gmx.de
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.Chart2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
+
+/**
+ * A <code>{@link Trace2DLtd}</code> for time series whose points may arrive
+ * slightly out of order (e.g. from several collectors with some jitter).
+ * <p>
+ * Added points are held back in a small heap (the reorder buffer) and
+ * released to the ring buffer in ascending order of their x values: A point
+ * is released as soon as a point with an x value higher by at least the
+ * reorder window in x units (<code>{@link #setReorderWindowX(double)}</code>)
+ * has been added or when more points than the reorder window in points (
+ * <code>{@link #setReorderWindowPoints(int)}</code>) are buffered. So the
+ * storage stays a cheap ring buffer whose points are sorted by their x values
+ * (see <code>{@link #isSortedX()}</code>) instead of the sorted structures
+ * of <code>{@link Trace2DLtdSorted}</code>.
+ * <p>
+ * Points that arrive later than the reorder window allows (their x value is
+ * lower than the one of a point released already) are dropped and counted (
+ * <code>{@link #getLatePointCount()}</code>).
+ * <p>
+ * Buffered points are not contained in this trace yet: They are neither
+ * painted nor counted by <code>{@link #getSize()}</code>. Use
+ * <code>{@link #flush()}</code> to release them at the end of a series.
+ * Because points are added later than in the call that passes them
+ * <code>{@link #addPoint(ITracePoint2D)}</code> returns false.
+ * <p>
+ *
+ * @author <a href='mailto:Achim.Westermann@gmx.de'>Achim Westermann </a>
+ *
+ * @version $Revision: 1.1 $
+ */
+public class Trace2DLtdReordering extends Trace2DLtd {
+
+  /** Generated <code>serialVersionUID</code>. */
+  private static final long serialVersionUID = 3218529081562730381L;
+
+  /** The buffered points as a binary min heap by their x values. */
+  private ITracePoint2D[] m_heap = new ITracePoint2D[16];
+
+  /** The amount of buffered points. */
+  private int m_heapSize;
+
+  /** The x value of the latest released point. */
+  private double m_lastReleasedX = Double.NEGATIVE_INFINITY;
+
+  /** The amount of points dropped because they arrived too late. */
+  private int m_latePointCount;
+
+  /** The highest x value of all points added since the last clear. */
+  private double m_maxAddedX = Double.NEGATIVE_INFINITY;
+
+  /** The maximum amount of buffered points. */
+  private int m_reorderWindowPoints = Integer.MAX_VALUE;
+
+  /** The maximum distance in x of a buffered point to the highest x value. */
+  private double m_reorderWindowX;
+
+  /**
+   * Constructs an instance with a default buffer size of 100 and a reorder
+   * window of zero x units.
+   * <p>
+   */
+  public Trace2DLtdReordering() {
+    this(100);
+  }
+
+  /**
+   * Constructs an instance with a buffer size of maxsize and a reorder window
+   * of zero x units.
+   * <p>
+   *
+   * @param maxsize
+   *          the buffer size for the maximum amount of points that will be
+   *          shown.
+   */
+  public Trace2DLtdReordering(final int maxsize) {
+    this(maxsize, 0);
+  }
+
+  /**
+   * Constructs an instance with a buffer size of maxsize and the given reorder
+   * window in x units.
+   * <p>
+   *
+   * @param maxsize
+   *          the buffer size for the maximum amount of points that will be
+   *          shown.
+   *
+   * @param reorderWindowX
+   *          the maximum amount of x units a point may arrive late.
+   *
+   * @throws IllegalArgumentException
+   *           if the reorder window is negative or not a number.
+   */
+  public Trace2DLtdReordering(final int maxsize, final double reorderWindowX)
+      throws IllegalArgumentException {
+    super(maxsize, Trace2DLtdReordering.class.getName() + "-" + ATrace2D.getInstanceCount());
+    this.checkReorderWindowX(reorderWindowX);
+    this.m_reorderWindowX = reorderWindowX;
+  }
+
+  /**
+   * Buffers the given point and releases the buffered points that are out of
+   * the reorder window afterwards.
+   * <p>
+   *
+   * @return false always as points are added to the ring buffer by
+   *         <code>{@link #release(boolean)}</code>.
+   *
+   * @see info.monitorenter.gui.chart.traces.Trace2DLtd#addPointInternal(info.monitorenter.gui.chart.ITracePoint2D)
+   */
+  @Override
+  protected boolean addPointInternal(final ITracePoint2D p) {
+    final double x = p.getX();
+    // NaN values are late:
+    if (!(x >= this.m_lastReleasedX)) {
+      this.m_latePointCount++;
+    } else {
+      if (this.m_heapSize == this.m_heap.length) {
+        final ITracePoint2D[] grown = new ITracePoint2D[this.m_heapSize * 2];
+        System.arraycopy(this.m_heap, 0, grown, 0, this.m_heapSize);
+        this.m_heap = grown;
+      }
+      // sift up:
+      int index = this.m_heapSize;
+      int parent;
+      while (index > 0) {
+        parent = (index - 1) >>> 1;
+        if (this.m_heap[parent].getX() <= x) {
+          break;
+        }
+        this.m_heap[index] = this.m_heap[parent];
+        index = parent;
+      }
+      this.m_heap[index] = p;
+      this.m_heapSize++;
+      if (x > this.m_maxAddedX) {
+        this.m_maxAddedX = x;
+      }
+      this.release(false);
+    }
+    return false;
+  }
+
+  /**
+   * Throws an exception if the given reorder window in x units is invalid.
+   * <p>
+   *
+   * @param reorderWindowX
+   *          the reorder window to check.
+   *
+   * @throws IllegalArgumentException
+   *           if the reorder window is negative or not a number.
+   */
+  private void checkReorderWindowX(final double reorderWindowX)
+      throws IllegalArgumentException {
+    if (!(reorderWindowX >= 0)) {
+      throw new IllegalArgumentException("Reorder window has to be positive, was: "
+          + reorderWindowX);
+    }
+  }
+
+  /**
+   * Releases all buffered points to this trace in ascending order of their x
+   * values.
+   * <p>
+   * Use this at the end of a series: Points added later are dropped if their
+   * x value is lower than the highest one released.
+   * <p>
+   */
+  public void flush() {
+    if (Chart2D.DEBUG_THREADING) {
+      System.out.println("Trace2DLtdReordering.flush, 0 locks");
+    }
+    this.ensureInitialized();
+    synchronized (this.m_renderer) {
+      synchronized (this) {
+        if (Chart2D.DEBUG_THREADING) {
+          System.out.println("Trace2DLtdReordering.flush, 2 locks");
+        }
+        this.release(true);
+      }
+    }
+  }
+
+  /**
+   * Returns the amount of points held in the reorder buffer that are not
+   * contained in this trace yet.
+   * <p>
+   *
+   * @return the amount of points held in the reorder buffer.
+   */
+  public final int getBufferedSize() {
+    return this.m_heapSize;
+  }
+
+  /**
+   * Returns the amount of points that have been dropped because they arrived
+   * later than the reorder window allows.
+   * <p>
+   *
+   * @return the amount of points that have been dropped because they arrived
+   *         later than the reorder window allows.
+   */
+  public final int getLatePointCount() {
+    return this.m_latePointCount;
+  }
+
+  /**
+   * Returns the maximum amount of points held in the reorder buffer.
+   * <p>
+   *
+   * @return the maximum amount of points held in the reorder buffer.
+   */
+  public final int getReorderWindowPoints() {
+    return this.m_reorderWindowPoints;
+  }
+
+  /**
+   * Returns the maximum amount of x units a point may arrive late.
+   * <p>
+   *
+   * @return the maximum amount of x units a point may arrive late.
+   */
+  public final double getReorderWindowX() {
+    return this.m_reorderWindowX;
+  }
+
+  /**
+   * Adds the buffered points that are out of the reorder window (or all) to
+   * the ring buffer in ascending order of their x values.
+   * <p>
+   * Only to be invoked with the lock on this trace held and the lock on the
+   * chart held unless points are added (see <code>{@link #isIngesting()}</code>).
+   * <p>
+   *
+   * @param all
+   *          if true all buffered points are released.
+   */
+  private void release(final boolean all) {
+    final double releaseX = this.m_maxAddedX - this.m_reorderWindowX;
+    ITracePoint2D point;
+    ITracePoint2D last;
+    int index;
+    int child;
+    while ((this.m_heapSize > 0)
+        && (all || (this.m_heapSize > this.m_reorderWindowPoints)
+            || (this.m_heap[0].getX() <= releaseX))) {
+      point = this.m_heap[0];
+      this.m_heapSize--;
+      last = this.m_heap[this.m_heapSize];
+      this.m_heap[this.m_heapSize] = null;
+      if (this.m_heapSize > 0) {
+        // sift down:
+        index = 0;
+        child = 1;
+        while (child < this.m_heapSize) {
+          if ((child + 1 < this.m_heapSize)
+              && (this.m_heap[child + 1].getX() < this.m_heap[child].getX())) {
+            child++;
+          }
+          if (last.getX() <= this.m_heap[child].getX()) {
+            break;
+          }
+          this.m_heap[index] = this.m_heap[child];
+          index = child;
+          child = 2 * index + 1;
+        }
+        this.m_heap[index] = last;
+      }
+      this.m_lastReleasedX = point.getX();
+      if (super.addPointInternal(point)) {
+        this.acceptPoint(point);
+      }
+    }
+  }
+
+  /**
+   * Also clears the reorder buffer and the x value of the latest released
+   * point.
+   * <p>
+   *
+   * @see info.monitorenter.gui.chart.traces.Trace2DLtd#removeAllPointsInternal()
+   */
+  @Override
+  public void removeAllPointsInternal() {
+    super.removeAllPointsInternal();
+    for (int i = 0; i < this.m_heapSize; i++) {
+      this.m_heap[i] = null;
+    }
+    this.m_heapSize = 0;
+    this.m_lastReleasedX = Double.NEGATIVE_INFINITY;
+    this.m_maxAddedX = Double.NEGATIVE_INFINITY;
+  }
+
+  /**
+   * Sets the maximum amount of points held in the reorder buffer.
+   * <p>
+   * If more points are buffered the ones with the lowest x values are
+   * released regardless of the reorder window in x units. Defaults to
+   * <code>{@link Integer#MAX_VALUE}</code>.
+   * <p>
+   *
+   * @param reorderWindowPoints
+   *          the maximum amount of points held in the reorder buffer.
+   *
+   * @throws IllegalArgumentException
+   *           if the amount is negative.
+   */
+  public void setReorderWindowPoints(final int reorderWindowPoints)
+      throws IllegalArgumentException {
+    if (reorderWindowPoints < 0) {
+      throw new IllegalArgumentException("Reorder window has to be positive, was: "
+          + reorderWindowPoints);
+    }
+    this.ensureInitialized();
+    synchronized (this.m_renderer) {
+      synchronized (this) {
+        this.m_reorderWindowPoints = reorderWindowPoints;
+        this.release(false);
+      }
+    }
+  }
+
+  /**
+   * Sets the maximum amount of x units a point may arrive late.
+   * <p>
+   * A point is buffered until a point with an x value higher by at least this
+   * amount has been added. Defaults to zero: Only points in order are
+   * accepted.
+   * <p>
+   *
+   * @param reorderWindowX
+   *          the maximum amount of x units a point may arrive late.
+   *
+   * @throws IllegalArgumentException
+   *           if the reorder window is negative or not a number.
+   */
+  public void setReorderWindowX(final double reorderWindowX) throws IllegalArgumentException {
+    this.checkReorderWindowX(reorderWindowX);
+    this.ensureInitialized();
+    synchronized (this.m_renderer) {
+      synchronized (this) {
+        this.m_reorderWindowX = reorderWindowX;
+        this.release(false);
+      }
+    }
+  }
+}
@@ -23,6 +23,7 @@
 package info.monitorenter.gui.chart.traces;
 
 import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.util.collections.DoubleHashMap;
 
 import java.util.Iterator;
 
@@ -31,8 +32,10 @@ import java.util.Iterator;
  * single tracepoint with a certain x- value. If a new tracepoint is added whose x- value is already
  * contained, the new tracepoints values will get assigned to the certain old tracepoint respecting
  * the fact that only an additional changed y- value occurs. <br>
- * The <code>add</code> methods increase complexity to factor n but some event - handling may be
- * saved (no change of x and y). <br>
+ * The contained point with a certain x- value is found by a hash index of the x- values that is
+ * maintained when points are dropped from the ring buffer: The <code>add</code> methods take
+ * constant time and only replacing the y- value of the minimum or maximum causes a search of the
+ * bounds. <br>
  * Tracepoints with x- values not contained before will be appended to the end of the internal data-
  * structure. <br>
  * 
@@ -45,6 +48,15 @@ public class Trace2DLtdReplacing
   /** Generated <code>serialVersionUID</code>. */
   private static final long serialVersionUID = -6048361222161598032L;
 
+  /** The contained points by their x values. */
+  private final DoubleHashMap<ITracePoint2D> m_index = new DoubleHashMap<ITracePoint2D>();
+
+  /**
+   * True if the index has to be rebuilt because a point has been moved or the
+   * buffer has been resized.
+   */
+  private boolean m_indexInvalid;
+
   /**
    * Constructs a <code>Trace2DLtdReplacing</code> with a default buffer size of 100.
    */
@@ -69,29 +81,91 @@ public class Trace2DLtdReplacing
   @Override
   protected boolean addPointInternal(final ITracePoint2D p) {
     boolean result = false;
-    boolean located = false;
-    ITracePoint2D tmp;
-    double tmpx;
-    double tmpy;
-    Iterator<ITracePoint2D> it = this.m_buffer.iteratorF2L();
-    while (it.hasNext()) {
-      
-      tmp = it.next();
-      tmpx = tmp.getX();
-      if (tmpx == p.getX()) {
-        tmpy = p.getY();
-        if (tmpy == tmp.getY()) {
-          // performs bound checks and fires property changes
-          tmp.setLocation(tmpx, tmpy);
-          // don't need bound checks of calling addPoint.
-          located = true;
+    if (this.m_indexInvalid) {
+      // points have been moved or dropped by a resize of the buffer:
+      this.reindex();
+    }
+    final double x = p.getX();
+    final ITracePoint2D located = this.m_index.get(x);
+    if (located != null) {
+      if (located.getY() != p.getY()) {
+        // performs bound checks and fires property changes
+        this.replaceY(located, p.getY());
+      }
+      // don't need bound checks of calling addPoint.
+    } else {
+      if (this.m_buffer.isFull()) {
+        // the oldest point is dropped:
+        final ITracePoint2D oldest = this.m_buffer.getOldest();
+        if (this.m_index.get(oldest.getX()) == oldest) {
+          this.m_index.remove(oldest.getX());
         }
       }
-    }
-    if (!located) {
       // no matching point was found and shifted:
       result = super.addPointInternal(p);
+      this.m_index.put(x, p);
     }
     return result;
   }
+
+  /**
+   * Invalidates the index of the x values as points may have been dropped.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.Trace2DLtd#bufferResized()
+   */
+  @Override
+  protected void bufferResized() {
+    this.m_indexInvalid = true;
+  }
+
+  /**
+   * Keeps the index of the x values valid if a contained point has been moved.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.Trace2DLtd#firePointChanged(info.monitorenter.gui.chart.ITracePoint2D,
+   *      int)
+   */
+  @Override
+  public void firePointChanged(final ITracePoint2D changed, final int state) {
+    if (state == ITracePoint2D.STATE_CHANGED) {
+      synchronized (this) {
+        if (this.m_index.get(changed.getX()) != changed) {
+          this.m_indexInvalid = true;
+        }
+      }
+    }
+    super.firePointChanged(changed, state);
+  }
+
+  /**
+   * Rebuilds the index from the points in the buffer.
+   * <p>
+   * If several points share an x value (because points have been moved) the
+   * youngest one is indexed.
+   * <p>
+   */
+  private void reindex() {
+    this.m_index.clear();
+    final Iterator<ITracePoint2D> it = this.m_buffer.iteratorL2F();
+    ITracePoint2D point;
+    while (it.hasNext()) {
+      point = it.next();
+      this.m_index.put(point.getX(), point);
+    }
+    this.m_indexInvalid = false;
+  }
+
+  /**
+   * Also clears the index of the x values.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.Trace2DLtd#removeAllPointsInternal()
+   */
+  @Override
+  public void removeAllPointsInternal() {
+    super.removeAllPointsInternal();
+    this.m_index.clear();
+    this.m_indexInvalid = false;
+  }
 }
@@ -30,9 +30,10 @@ import info.monitorenter.gui.chart.ITracePoint2D;
  * Additional to the <code>Trace2DLtdReplacing</code> all tracepoints will be
  * sorted by their x- value.
  * <p>
- * Performance is slower compared to the class named above. Internally a
- * <code>TreeSet </code> is used (instead of <code>RingBufferArrayFast</code>)
- * to keep the comparable <code>TracePoint2D</code>- instances sorted.
+ * Performance is slower compared to the class named above. Internally the
+ * sorted set of <code>{@link Trace2DSorted}</code> is used (instead of
+ * <code>RingBufferArrayFast</code>) to keep the comparable
+ * <code>TracePoint2D</code>- instances sorted.
  * Internally all tracepoints are <code>TracePoint2D</code> -instances.
  * <p>
  * 
@@ -39,6 +39,10 @@ import info.monitorenter.gui.chart.ITracePoint2D;
  * </li>
  * </ul>
  * <p>
+ * The point with the x value of an added point is found by a hash index of
+ * the x values in constant time. Bounds are only searched if the replaced y
+ * value was an extremum.
+ * <p>
  * 
  * @see Trace2DBijective
  * 
@@ -51,11 +55,14 @@ public class Trace2DReplacing extends Trace2DSimple {
   /** Generated <code>serialVersionUID</code>. */
   private static final long serialVersionUID = 858570477289251003L;
 
+  /** The points indexed by their x values, the same instance as <code>m_points</code>. */
+  private final XIndexedPointList m_pointsX = new XIndexedPointList();
+
   /**
    * Defcon.
    */
   public Trace2DReplacing() {
-    // nop
+    this.m_points = this.m_pointsX;
   }
 
   /**
@@ -74,14 +81,10 @@ public class Trace2DReplacing extends Trace2DSimple {
   @Override
   public boolean addPointInternal(final ITracePoint2D p) {
     boolean result = true;
-    int index = -1;
-    ITracePoint2D old;
-    index = this.m_points.indexOf(p);
-    if (index != -1) {
-      // already contained.
-      old = this.m_points.get(index);
+    final ITracePoint2D old = this.m_pointsX.getByX(p.getX());
+    if (old != null) {
       // fires property changes with bound checks
-      old.setLocation(old.getX(), p.getY());
+      this.replaceY(old, p.getY());
       // we don't need further bound checks and property change events from
       // calling
       // addPoint method.
@@ -92,4 +95,21 @@ public class Trace2DReplacing extends Trace2DSimple {
     }
     return result;
   }
+
+  /**
+   * Keeps the index of x values valid for moved points.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#firePointChanged(info.monitorenter.gui.chart.ITracePoint2D,
+   *      int)
+   */
+  @Override
+  public void firePointChanged(final ITracePoint2D changed, final int state) {
+    if (state == ITracePoint2D.STATE_CHANGED) {
+      synchronized (this) {
+        this.m_pointsX.pointChanged(changed);
+      }
+    }
+    super.firePointChanged(changed, state);
+  }
 }
@@ -25,10 +25,10 @@ package info.monitorenter.gui.chart.traces;
 
 import info.monitorenter.gui.chart.ITrace2D;
 import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.TracePoint2D;
 
 import java.util.Iterator;
 import java.util.SortedSet;
-import java.util.TreeSet;
 
 /**
  * Has the behavior of <code>Trace2DReplacing</code> and additional features.
@@ -43,8 +43,18 @@ import java.util.TreeSet;
  * 
  * Because sorted insertion of a List causes n! index- operations (
  * <code>get(int i)</code>) additional to the comparisons this class does not
- * extend <code>Trace2DSimple</code> which uses a List. Instead a
- * <code>TreeSet </code> is used.
+ * extend <code>Trace2DSimple</code> which uses a List. Instead a sorted set
+ * stored in an array is used: Points added in ascending order of x values are
+ * appended in constant time, points that arrive out of order are inserted
+ * after a binary search. Subclasses may assign a <code>TreeSet</code> to
+ * <code>{@link #m_points}</code> instead.
+ * <p>
+ * 
+ * The sorted set allows <code>{@link #iterator(double, double)}</code> to
+ * skip the points outside of the x range as long as no contained point has been
+ * moved (<code>{@link ITracePoint2D#setLocation(double, double)}</code>) which
+ * breaks the order of the set. For the same reason the nearest point searches
+ * only visit the points close to the x value searched.
  * <p>
  * 
  * @author <a href='mailto:Achim.Westermann@gmx.de'>Achim Westermann </a>
@@ -57,7 +67,10 @@ public class Trace2DSorted extends ATrace2D implements ITrace2D {
   private static final long serialVersionUID = -3518797764292132652L;
 
   /** The sorted set of points. */
-  protected SortedSet<ITracePoint2D> m_points = new TreeSet<ITracePoint2D>();
+  protected SortedSet<ITracePoint2D> m_points = new SortedPointArray();
+
+  /** False if a contained point has been moved since the last removal of all points. */
+  private boolean m_sortedX = true;
 
   /**
    * Defcon.
@@ -118,6 +131,105 @@ public class Trace2DSorted extends ATrace2D implements ITrace2D {
     return Integer.MAX_VALUE;
   }
 
+  /**
+   * Searches the points with normalized x values close to the given one
+   * outwards from the given one as long as closer points are possible.
+   * <p>
+   * 
+   * @param points
+   *          the points of this trace.
+   * @param x
+   *          the normalized x value to search.
+   * @param y
+   *          the normalized y value to search.
+   * @param euclid
+   *          true for the euclid distance, false for the manhattan distance.
+   * @return the nearest point.
+   */
+  private DistancePoint getNearestPoint(final SortedPointArray points, final double x,
+      final double y, final boolean euclid) {
+    final DistancePoint result = new DistancePoint();
+    // normalized x values are in the same order as the x values:
+    int low = 0;
+    int high = points.size();
+    int mid;
+    while (low < high) {
+      mid = (low + high) >>> 1;
+      if (points.get(mid).getScaledX() < x) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    double shortestDistance = Double.MAX_VALUE;
+    double distance;
+    ITracePoint2D point;
+    // no point with a greater x distance may be closer:
+    for (int i = low; i < points.size(); i++) {
+      point = points.get(i);
+      if (point.getScaledX() - x >= shortestDistance) {
+        break;
+      }
+      distance = euclid ? point.getEuclidDistance(x, y) : point.getManhattanDistance(x, y);
+      if (distance < shortestDistance) {
+        shortestDistance = distance;
+        result.setPoint(point);
+        result.setDistance(shortestDistance);
+      }
+    }
+    for (int i = low - 1; i >= 0; i--) {
+      point = points.get(i);
+      if (x - point.getScaledX() >= shortestDistance) {
+        break;
+      }
+      distance = euclid ? point.getEuclidDistance(x, y) : point.getManhattanDistance(x, y);
+      if (distance < shortestDistance) {
+        shortestDistance = distance;
+        result.setPoint(point);
+        result.setDistance(shortestDistance);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Only visits the points close to the given x value if the points are
+   * sorted.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#getNearestPointEuclid(double,
+   *      double)
+   */
+  @Override
+  public DistancePoint getNearestPointEuclid(final double x, final double y) {
+    synchronized (this) {
+      if (this.m_sortedX && !this.isNearestPointIndexing()
+          && (this.m_points instanceof SortedPointArray)) {
+        return this.getNearestPoint((SortedPointArray) this.m_points, x, y, true);
+      }
+    }
+    return super.getNearestPointEuclid(x, y);
+  }
+
+  /**
+   * Only visits the points close to the given x value if the points are
+   * sorted.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#getNearestPointManhattan(double,
+   *      double)
+   */
+  @Override
+  public DistancePoint getNearestPointManhattan(final double x, final double y) {
+    synchronized (this) {
+      if (this.m_sortedX && !this.isNearestPointIndexing()
+          && (this.m_points instanceof SortedPointArray)) {
+        return this.getNearestPoint((SortedPointArray) this.m_points, x, y, false);
+      }
+    }
+    return super.getNearestPointManhattan(x, y);
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#getSize()
    */
@@ -125,6 +237,23 @@ public class Trace2DSorted extends ATrace2D implements ITrace2D {
     return this.m_points.size();
   }
 
+  /**
+   * Marks the points as unsorted if a contained point has been moved.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#firePointChanged(info.monitorenter.gui.chart.ITracePoint2D,
+   *      int)
+   */
+  @Override
+  public void firePointChanged(final ITracePoint2D changed, final int state) {
+    if (state == ITracePoint2D.STATE_CHANGED) {
+      synchronized (this) {
+        this.m_sortedX = false;
+      }
+    }
+    super.firePointChanged(changed, state);
+  }
+
   /**
    * @see java.lang.Object#hashCode()
    */
@@ -143,6 +272,14 @@ public class Trace2DSorted extends ATrace2D implements ITrace2D {
     return this.m_points.size() == 0;
   }
 
+  /**
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#isSortedX()
+   */
+  @Override
+  public boolean isSortedX() {
+    return this.m_sortedX;
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#iterator()
    */
@@ -150,12 +287,40 @@ public class Trace2DSorted extends ATrace2D implements ITrace2D {
     return this.m_points.iterator();
   }
 
+  /**
+   * Starts at the last point below the given range which is found by the
+   * sorted set.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#iterator(double, double)
+   */
+  @Override
+  public Iterator<ITracePoint2D> iterator(final double minX, final double maxX) {
+    if (!this.m_sortedX) {
+      return this.iterator();
+    }
+    if (this.m_points instanceof SortedPointArray) {
+      final SortedPointArray points = (SortedPointArray) this.m_points;
+      // the last point below the range:
+      final int start = Math.max(points.ceilingIndex(minX) - 1, 0);
+      return new XRangeIterator(points.iterator(start), maxX);
+    }
+    // points are compared by their x values only:
+    final SortedSet<ITracePoint2D> below = this.m_points.headSet(new TracePoint2D(minX, 0));
+    SortedSet<ITracePoint2D> points = this.m_points;
+    if (!below.isEmpty()) {
+      points = this.m_points.tailSet(below.last());
+    }
+    return new XRangeIterator(points.iterator(), maxX);
+  }
+
   /**
    * @see ATrace2D#addPointInternal(info.monitorenter.gui.chart.ITracePoint2D)
    */
   @Override
   protected void removeAllPointsInternal() {
     this.m_points.clear();
+    this.m_sortedX = true;
   }
 
   /**
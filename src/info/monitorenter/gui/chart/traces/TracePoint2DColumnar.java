@@ -0,0 +1,564 @@
+/*
+ *  TracePoint2DColumnar, a lightweight trace point that may be a view on a
+ *  Trace2DColumnar.
+ *  Copyright (c) 2004 - 2011 Achim Westermann, Achim.Westermann@gmx.de
+ * 
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ * 
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ * 
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.AffineScaling;
+import info.monitorenter.gui.chart.Chart2D;
+import info.monitorenter.gui.chart.IPointPainter;
+import info.monitorenter.gui.chart.ITrace2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A lightweight <code>{@link ITracePoint2D}</code> that either holds its own
+ * values (detached) or is a view on a point of a
+ * <code>{@link Trace2DColumnar}</code> (attached).
+ * <p>
+ * Detached instances are created by
+ * <code>{@link TracePointProviderColumnar}</code> and behave like a
+ * <code>{@link info.monitorenter.gui.chart.TracePoint2D}</code> without
+ * allocating a set of additional point painters up front. When added to a
+ * <code>{@link Trace2DColumnar}</code> they are attached to the column entry
+ * their values are copied to.
+ * <p>
+ * Attached instances read and write the columns of their trace. If their
+ * point is dropped from the trace they fall back to the values they were
+ * created with or the location they were set to last.
+ * <p>
+ * 
+ * @author <a href='mailto:Achim.Westermann@gmx.de'>Achim Westermann </a>
+ * 
+ * @version $Revision: 1.1 $
+ */
+public class TracePoint2DColumnar implements ITracePoint2D {
+
+  /** Generated <code>serialVersionUID</code>. */
+  private static final long serialVersionUID = 2609487663145748246L;
+
+  /**
+   * The additional point painters of a detached instance, lazily created.
+   */
+  private Set<IPointPainter< ? >> m_additionalPointPainters;
+
+  /**
+   * The listener of a detached instance. An attached instance reports its trace.
+   */
+  private ITrace2D m_listener;
+
+  /** The absolute position of the point within the attached trace. */
+  private long m_position;
+
+  /** Scaled x value of a detached instance. */
+  private double m_scaledX;
+
+  /** Scaled y value of a detached instance. */
+  private double m_scaledY;
+
+  /** The trace this instance is a view on or null if detached. */
+  private Trace2DColumnar m_trace;
+
+  /** The x value of a detached instance. */
+  private double m_x;
+
+  /** The y value of a detached instance. */
+  private double m_y;
+
+  /**
+   * Creates a detached instance with the given values.
+   * <p>
+   * 
+   * @param xValue
+   *          the x value to use.
+   * @param yValue
+   *          the y value to use.
+   */
+  public TracePoint2DColumnar(final double xValue, final double yValue) {
+    this.m_x = xValue;
+    this.m_y = yValue;
+  }
+
+  /**
+   * Creates a view on the point at the given position of the given trace.
+   * <p>
+   * The current values of the point are copied as a fallback in case the point
+   * is dropped from the trace later.
+   * <p>
+   * 
+   * @param trace
+   *          the trace to view.
+   * @param position
+   *          the absolute position of the point in the trace.
+   */
+  TracePoint2DColumnar(final Trace2DColumnar trace, final long position) {
+    this.m_trace = trace;
+    this.m_position = position;
+    final int index = trace.indexOf(position);
+    this.m_x = trace.getXAt(index);
+    this.m_y = trace.getYAt(index);
+    this.m_scaledX = trace.getScaledXAt(index);
+    this.m_scaledY = trace.getScaledYAt(index);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#addAdditionalPointPainter(info.monitorenter.gui.chart.IPointPainter)
+   */
+  public boolean addAdditionalPointPainter(final IPointPainter< ? > pointPainter) {
+    boolean result;
+    final int index = this.getIndex();
+    Set<IPointPainter< ? >> painters = null;
+    if (index >= 0) {
+      painters = this.m_trace.getAdditionalPointPainters(this.m_position);
+    }
+    if (painters == null) {
+      if (this.m_additionalPointPainters == null) {
+        this.m_additionalPointPainters = new LinkedHashSet<IPointPainter< ? >>();
+      }
+      painters = this.m_additionalPointPainters;
+      if (index >= 0) {
+        this.m_trace.putAdditionalPointPainters(this.m_position, painters);
+      }
+    }
+    result = painters.add(pointPainter);
+    if (result) {
+      this.firePointChanged();
+    }
+    return result;
+  }
+
+  /**
+   * Connects this detached instance to the given position of the given trace.
+   * <p>
+   * 
+   * @param trace
+   *          the trace the values of this instance have been copied to.
+   * @param position
+   *          the absolute position within the trace.
+   */
+  final void attach(final Trace2DColumnar trace, final long position) {
+    this.m_trace = trace;
+    this.m_position = position;
+  }
+
+  /**
+   * Returns a detached copy of this instance.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.ITracePoint2D#clone()
+   */
+  @Override
+  public Object clone() {
+    final TracePoint2DColumnar result = new TracePoint2DColumnar(this.getX(), this.getY());
+    result.m_scaledX = this.getScaledX();
+    result.m_scaledY = this.getScaledY();
+    final Set<IPointPainter< ? >> painters = this.getAdditionalPointPainters();
+    if (!painters.isEmpty()) {
+      result.m_additionalPointPainters = new LinkedHashSet<IPointPainter< ? >>(painters);
+    }
+    return result;
+  }
+
+  /**
+   * @see java.lang.Comparable#compareTo(java.lang.Object)
+   */
+  public int compareTo(final ITracePoint2D obj) {
+    int result;
+    final double x = this.getX();
+    final double othx = obj.getX();
+    if (x < othx) {
+      result = -1;
+    } else if (x == othx) {
+      result = 0;
+    } else {
+      result = 1;
+    }
+    return result;
+  }
+
+  /**
+   * Detaches this view from its trace: The current values are copied and the
+   * instance stays valid after its point has been dropped from the trace.
+   * <p>
+   * 
+   * @return this instance for chaining.
+   */
+  final TracePoint2DColumnar detach() {
+    final int index = this.getIndex();
+    if (index >= 0) {
+      this.m_x = this.m_trace.getXAt(index);
+      this.m_y = this.m_trace.getYAt(index);
+      this.m_scaledX = this.m_trace.getScaledXAt(index);
+      this.m_scaledY = this.m_trace.getScaledYAt(index);
+      final Set<IPointPainter< ? >> painters = this.m_trace
+          .getAdditionalPointPainters(this.m_position);
+      if (painters != null) {
+        this.m_additionalPointPainters = new LinkedHashSet<IPointPainter< ? >>(painters);
+      }
+      this.m_listener = this.m_trace;
+    }
+    this.m_trace = null;
+    return this;
+  }
+
+  /**
+   * Points are equal if their x and y values are equal.
+   * <p>
+   * 
+   * @see java.lang.Object#equals(java.lang.Object)
+   */
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (this.getClass() != obj.getClass()) {
+      return false;
+    }
+    final TracePoint2DColumnar other = (TracePoint2DColumnar) obj;
+    if (Double.doubleToLongBits(this.getX()) != Double.doubleToLongBits(other.getX())) {
+      return false;
+    }
+    if (Double.doubleToLongBits(this.getY()) != Double.doubleToLongBits(other.getY())) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Informs the listener (if any) that this point has changed.
+   * <p>
+   * Synchronization follows the idiom of <code>{@link Chart2D}</code>.
+   * <p>
+   */
+  private void firePointChanged() {
+    final ITrace2D listener = this.getListener();
+    if (listener != null) {
+      final Chart2D chart = listener.getRenderer();
+      if (chart != null) {
+        synchronized (chart) {
+          synchronized (listener) {
+            listener.firePointChanged(this, ITracePoint2D.STATE_CHANGED);
+          }
+        }
+      } else {
+        synchronized (listener) {
+          listener.firePointChanged(this, ITracePoint2D.STATE_CHANGED);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the live set of additional point painters.
+   * <p>
+   * If no painters have been added an immutable empty set is returned: Use
+   * <code>{@link #addAdditionalPointPainter(IPointPainter)}</code> to add
+   * painters.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.ITracePoint2D#getAdditionalPointPainters()
+   */
+  public Set<IPointPainter< ? >> getAdditionalPointPainters() {
+    Set<IPointPainter< ? >> result;
+    final int index = this.getIndex();
+    if (index >= 0) {
+      result = this.m_trace.getAdditionalPointPainters(this.m_position);
+    } else {
+      result = this.m_additionalPointPainters;
+    }
+    if (result == null) {
+      result = Collections.emptySet();
+    }
+    return result;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#getEuclidDistance(double,
+   *      double)
+   */
+  public double getEuclidDistance(final double xNormalized, final double yNormalized) {
+    final double xdist = this.getScaledX() - xNormalized;
+    final double ydist = this.getScaledY() - yNormalized;
+    return Math.sqrt(xdist * xdist + ydist * ydist);
+  }
+
+  /**
+   * Returns the index of the point within the attached trace or -1 if detached
+   * or dropped from the trace.
+   * <p>
+   * 
+   * @return the index of the point within the attached trace or -1.
+   */
+  private int getIndex() {
+    int result = -1;
+    if (this.m_trace != null) {
+      result = this.m_trace.indexOf(this.m_position);
+    }
+    return result;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#getListener()
+   */
+  public ITrace2D getListener() {
+    ITrace2D result;
+    if (this.m_trace != null) {
+      result = this.m_trace;
+    } else {
+      result = this.m_listener;
+    }
+    return result;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#getManhattanDistance(double,
+   *      double)
+   */
+  public double getManhattanDistance(final double xNormalized, final double yNormalized) {
+    return Math.abs(this.getScaledX() - xNormalized) + Math.abs(this.getScaledY() - yNormalized);
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#getManhattanDistance(info.monitorenter.gui.chart.ITracePoint2D)
+   */
+  public double getManhattanDistance(final ITracePoint2D point) {
+    return this.getManhattanDistance(point.getX(), point.getY());
+  }
+
+  /**
+   * Returns the absolute position of the point within the attached trace.
+   * <p>
+   * 
+   * @return the absolute position of the point within the attached trace.
+   */
+  final long getPosition() {
+    return this.m_position;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#getScaledX()
+   */
+  public double getScaledX() {
+    double result;
+    final ITrace2D listener = this.getListener();
+    final AffineScaling scaling = (listener == null) ? null : listener.getScalingX();
+    final int index = this.getIndex();
+    if (scaling != null) {
+      result = scaling.scale(this.getX());
+    } else if (index >= 0) {
+      result = this.m_trace.getScaledXAt(index);
+    } else {
+      result = this.m_scaledX;
+    }
+    return result;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#getScaledY()
+   */
+  public double getScaledY() {
+    double result;
+    final ITrace2D listener = this.getListener();
+    final AffineScaling scaling = (listener == null) ? null : listener.getScalingY();
+    final int index = this.getIndex();
+    if (scaling != null) {
+      result = scaling.scale(this.getY());
+    } else if (index >= 0) {
+      result = this.m_trace.getScaledYAt(index);
+    } else {
+      result = this.m_scaledY;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the trace this instance is a view on or null if detached.
+   * <p>
+   * 
+   * @return the trace this instance is a view on or null if detached.
+   */
+  final Trace2DColumnar getTrace() {
+    return this.m_trace;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#getX()
+   */
+  public double getX() {
+    double result;
+    final int index = this.getIndex();
+    if (index >= 0) {
+      result = this.m_trace.getXAt(index);
+    } else {
+      result = this.m_x;
+    }
+    return result;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#getY()
+   */
+  public double getY() {
+    double result;
+    final int index = this.getIndex();
+    if (index >= 0) {
+      result = this.m_trace.getYAt(index);
+    } else {
+      result = this.m_y;
+    }
+    return result;
+  }
+
+  /**
+   * @see java.lang.Object#hashCode()
+   */
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    long temp;
+    temp = Double.doubleToLongBits(this.getX());
+    result = prime * result + (int) (temp ^ (temp >>> 32));
+    temp = Double.doubleToLongBits(this.getY());
+    result = prime * result + (int) (temp ^ (temp >>> 32));
+    return result;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#removeAdditionalPointPainter(info.monitorenter.gui.chart.IPointPainter)
+   */
+  public boolean removeAdditionalPointPainter(final IPointPainter< ? > pointPainter) {
+    final boolean result = this.getAdditionalPointPainters().remove(pointPainter);
+    if (result) {
+      this.firePointChanged();
+    }
+    return result;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#removeAllAdditionalPointPainters()
+   */
+  public Set<IPointPainter< ? >> removeAllAdditionalPointPainters() {
+    final Set<IPointPainter< ? >> result = new LinkedHashSet<IPointPainter< ? >>(this
+        .getAdditionalPointPainters());
+    if (!result.isEmpty()) {
+      this.getAdditionalPointPainters().clear();
+      this.firePointChanged();
+    }
+    return result;
+  }
+
+  /**
+   * Sets the listener of a detached instance, ignored for attached instances as
+   * they always report their trace.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.ITracePoint2D#setListener(info.monitorenter.gui.chart.ITrace2D)
+   */
+  public void setListener(final ITrace2D listener) {
+    this.m_listener = listener;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#setLocation(double, double)
+   */
+  public void setLocation(final double xValue, final double yValue) {
+    final ITrace2D listener = this.getListener();
+    if (listener != null) {
+      final Chart2D chart = listener.getRenderer();
+      if (chart != null) {
+        synchronized (chart) {
+          synchronized (listener) {
+            this.setLocationInternal(xValue, yValue);
+          }
+        }
+      } else {
+        synchronized (listener) {
+          this.setLocationInternal(xValue, yValue);
+        }
+      }
+    } else {
+      this.setLocationInternal(xValue, yValue);
+    }
+  }
+
+  /**
+   * Sets the location and informs the listener (if any) without
+   * synchronization.
+   * <p>
+   * 
+   * @param xValue
+   *          the new x value.
+   * @param yValue
+   *          the new y value.
+   */
+  private void setLocationInternal(final double xValue, final double yValue) {
+    if (this.m_trace != null) {
+      this.m_trace.setLocation(this.m_position, xValue, yValue);
+    }
+    // also kept for attached instances as fallback after being dropped:
+    this.m_x = xValue;
+    this.m_y = yValue;
+    final ITrace2D listener = this.getListener();
+    if (listener != null) {
+      listener.firePointChanged(this, ITracePoint2D.STATE_CHANGED);
+    }
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#setScaledX(double)
+   */
+  public void setScaledX(final double scaledX) {
+    final int index = this.getIndex();
+    if (index >= 0) {
+      this.m_trace.setScaledXAt(index, scaledX);
+    } else {
+      this.m_scaledX = scaledX;
+    }
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePoint2D#setScaledY(double)
+   */
+  public void setScaledY(final double scaledY) {
+    final int index = this.getIndex();
+    if (index >= 0) {
+      this.m_trace.setScaledYAt(index, scaledY);
+    } else {
+      this.m_scaledY = scaledY;
+    }
+  }
+
+  /**
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return "TracePoint2DColumnar[" + this.getX() + ", " + this.getY() + "]";
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ *  TracePointProviderColumnar.java of project jchart2d, creator for 
+ *  lightweight trace points suited for Trace2DColumnar. 
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA*
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.ITracePointProvider;
+
+/**
+ * Creator of <code>{@link ITracePoint2D}</code> instances that returns
+ * implementation <code>{@link TracePoint2DColumnar}</code>.
+ * <p>
+ * Use this provider for charts that contain
+ * <code>{@link Trace2DColumnar}</code> instances: Points created by it are
+ * attached to the trace they are added to instead of being kept as separate
+ * objects.
+ * <p>
+ * 
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ * @version $Revision: 1.1 $
+ */
+public class TracePointProviderColumnar implements ITracePointProvider {
+
+  /**
+   * Defcon.
+   * <p>
+   */
+  public TracePointProviderColumnar() {
+    // nop
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITracePointProvider#createTracePoint(double,
+   *      double)
+   */
+  public ITracePoint2D createTracePoint(final double x, final double y) {
+    return new TracePoint2DColumnar(x, y);
+  }
+
+}
@@ -0,0 +1,455 @@
+/*
+ *  XIndexedPointList.java of project jchart2d, a list of trace points in
+ *  insertion order with a hash index of their x values.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.util.collections.DoubleHashMap;
+
+import java.io.Serializable;
+import java.util.AbstractSequentialList;
+import java.util.ConcurrentModificationException;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Doubly linked list of trace points in insertion order with a hash index of
+ * the x values of the points.
+ * <p>
+ * Used by the traces that allow only a single point per x value
+ * (<code>{@link Trace2DReplacing}</code>,
+ * <code>{@link Trace2DBijective}</code>): The point with a given x value is
+ * found (<code>{@link #getByX(double)}</code>) and removed
+ * (<code>{@link #remove(Object)}</code>) in constant time instead of walking
+ * the list.
+ * <p>
+ * If several points with the same x value are contained the index refers to
+ * the latest added one. The index is kept valid for points that are moved by
+ * <code>{@link ITracePoint2D#setLocation(double, double)}</code> as long as
+ * <code>{@link #pointChanged(ITracePoint2D)}</code> is invoked afterwards.
+ * <p>
+ * Iterators do not support <code>add</code> and <code>set</code>.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ *
+ * @version $Revision: 1.1 $
+ */
+final class XIndexedPointList extends AbstractSequentialList<ITracePoint2D> implements
+    Serializable {
+
+  /**
+   * A node of the list.
+   * <p>
+   */
+  private static final class Node implements Serializable {
+
+    /** Generated <code>serialVersionUID</code>. */
+    private static final long serialVersionUID = -1542378043305513472L;
+
+    /** The next node or null for the last one. */
+    private Node m_next;
+
+    /** The point, null after the node has been removed. */
+    private ITracePoint2D m_point;
+
+    /** The previous node or null for the first one. */
+    private Node m_previous;
+
+    /**
+     * Creates a node for the given point.
+     * <p>
+     *
+     * @param point
+     *          the point.
+     */
+    Node(final ITracePoint2D point) {
+      this.m_point = point;
+    }
+  }
+
+  /**
+   * List iterator over the nodes.
+   * <p>
+   */
+  private final class Itr implements ListIterator<ITracePoint2D> {
+
+    /** The modification count this iterator is valid for. */
+    private int m_expectedModCount = XIndexedPointList.this.modCount;
+
+    /** The node returned by the latest call to next or previous or null. */
+    private Node m_lastReturned;
+
+    /** The node returned by the next call to next or null at the end. */
+    private Node m_next;
+
+    /** The index of <code>{@link #m_next}</code>. */
+    private int m_nextIndex;
+
+    /**
+     * Creates an iterator starting at the given index.
+     * <p>
+     *
+     * @param index
+     *          the index of the first point returned by next.
+     */
+    Itr(final int index) {
+      this.m_nextIndex = index;
+      if (index == XIndexedPointList.this.m_size) {
+        this.m_next = null;
+      } else {
+        this.m_next = XIndexedPointList.this.m_first;
+        for (int i = 0; i < index; i++) {
+          this.m_next = this.m_next.m_next;
+        }
+      }
+    }
+
+    /**
+     * Unsupported.
+     * <p>
+     *
+     * @param point
+     *          ignored.
+     *
+     * @see java.util.ListIterator#add(java.lang.Object)
+     */
+    public void add(final ITracePoint2D point) {
+      throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Throws an exception if the list has been modified by other means than
+     * this iterator.
+     * <p>
+     */
+    private void checkModCount() {
+      if (XIndexedPointList.this.modCount != this.m_expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    /**
+     * @see java.util.ListIterator#hasNext()
+     */
+    public boolean hasNext() {
+      return this.m_nextIndex < XIndexedPointList.this.m_size;
+    }
+
+    /**
+     * @see java.util.ListIterator#hasPrevious()
+     */
+    public boolean hasPrevious() {
+      return this.m_nextIndex > 0;
+    }
+
+    /**
+     * @see java.util.ListIterator#next()
+     */
+    public ITracePoint2D next() {
+      this.checkModCount();
+      if (this.m_next == null) {
+        throw new NoSuchElementException();
+      }
+      this.m_lastReturned = this.m_next;
+      this.m_next = this.m_next.m_next;
+      this.m_nextIndex++;
+      return this.m_lastReturned.m_point;
+    }
+
+    /**
+     * @see java.util.ListIterator#nextIndex()
+     */
+    public int nextIndex() {
+      return this.m_nextIndex;
+    }
+
+    /**
+     * @see java.util.ListIterator#previous()
+     */
+    public ITracePoint2D previous() {
+      this.checkModCount();
+      if (this.m_nextIndex == 0) {
+        throw new NoSuchElementException();
+      }
+      if (this.m_next == null) {
+        this.m_next = XIndexedPointList.this.m_last;
+      } else {
+        this.m_next = this.m_next.m_previous;
+      }
+      this.m_lastReturned = this.m_next;
+      this.m_nextIndex--;
+      return this.m_lastReturned.m_point;
+    }
+
+    /**
+     * @see java.util.ListIterator#previousIndex()
+     */
+    public int previousIndex() {
+      return this.m_nextIndex - 1;
+    }
+
+    /**
+     * @see java.util.ListIterator#remove()
+     */
+    public void remove() {
+      this.checkModCount();
+      if (this.m_lastReturned == null) {
+        throw new IllegalStateException();
+      }
+      if (this.m_next == this.m_lastReturned) {
+        // removal after previous:
+        this.m_next = this.m_lastReturned.m_next;
+      } else {
+        this.m_nextIndex--;
+      }
+      XIndexedPointList.this.unlink(this.m_lastReturned);
+      this.m_lastReturned = null;
+      this.m_expectedModCount = XIndexedPointList.this.modCount;
+    }
+
+    /**
+     * Unsupported.
+     * <p>
+     *
+     * @param point
+     *          ignored.
+     *
+     * @see java.util.ListIterator#set(java.lang.Object)
+     */
+    public void set(final ITracePoint2D point) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /** Generated <code>serialVersionUID</code>. */
+  private static final long serialVersionUID = 4426839207596287541L;
+
+  /** The first node or null if empty. */
+  private Node m_first;
+
+  /** The nodes by the x values of their points. */
+  private final DoubleHashMap<Node> m_index = new DoubleHashMap<Node>();
+
+  /** True if the index has to be rebuilt because a point has been moved. */
+  private boolean m_indexInvalid;
+
+  /** The last node or null if empty. */
+  private Node m_last;
+
+  /** The amount of points. */
+  private int m_size;
+
+  /**
+   * Appends the given point.
+   * <p>
+   *
+   * @param point
+   *          the point to append.
+   *
+   * @return true.
+   *
+   * @see java.util.AbstractList#add(java.lang.Object)
+   */
+  @Override
+  public boolean add(final ITracePoint2D point) {
+    final Node node = new Node(point);
+    if (this.m_last == null) {
+      this.m_first = node;
+    } else {
+      this.m_last.m_next = node;
+      node.m_previous = this.m_last;
+    }
+    this.m_last = node;
+    this.m_size++;
+    this.modCount++;
+    if (!this.m_indexInvalid) {
+      this.m_index.put(point.getX(), node);
+    }
+    return true;
+  }
+
+  /**
+   * @see java.util.AbstractList#clear()
+   */
+  @Override
+  public void clear() {
+    for (Node node = this.m_first; node != null; node = node.m_next) {
+      node.m_point = null;
+    }
+    this.m_first = null;
+    this.m_last = null;
+    this.m_size = 0;
+    this.modCount++;
+    this.m_index.clear();
+    this.m_indexInvalid = false;
+  }
+
+  /**
+   * Returns the node of the point with the given x value or null.
+   * <p>
+   *
+   * @param x
+   *          the x value to look up.
+   *
+   * @return the node of the point with the given x value or null.
+   */
+  private Node findNode(final double x) {
+    if (this.m_indexInvalid) {
+      this.reindex();
+    }
+    return this.m_index.get(x);
+  }
+
+  /**
+   * Returns the point with the given x value or null if none is contained.
+   * <p>
+   *
+   * @param x
+   *          the x value to look up.
+   *
+   * @return the point with the given x value or null if none is contained.
+   */
+  public ITracePoint2D getByX(final double x) {
+    final Node node = this.findNode(x);
+    if (node == null) {
+      return null;
+    }
+    return node.m_point;
+  }
+
+  /**
+   * @see java.util.AbstractSequentialList#listIterator(int)
+   */
+  @Override
+  public ListIterator<ITracePoint2D> listIterator(final int index) {
+    if ((index < 0) || (index > this.m_size)) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.m_size);
+    }
+    return new Itr(index);
+  }
+
+  /**
+   * Keeps the index valid after the given contained point has been moved.
+   * <p>
+   * Constant time if the x value of the point did not change: Otherwise the
+   * index is rebuilt by the next lookup.
+   * <p>
+   *
+   * @param point
+   *          the point that has been moved.
+   */
+  public void pointChanged(final ITracePoint2D point) {
+    if (!this.m_indexInvalid) {
+      final Node node = this.m_index.get(point.getX());
+      if ((node == null) || (node.m_point != point)) {
+        this.m_indexInvalid = true;
+      }
+    }
+  }
+
+  /**
+   * Rebuilds the index from the points in the list.
+   * <p>
+   */
+  private void reindex() {
+    this.m_index.clear();
+    for (Node node = this.m_first; node != null; node = node.m_next) {
+      this.m_index.put(node.m_point.getX(), node);
+    }
+    this.m_indexInvalid = false;
+  }
+
+  /**
+   * Removes the given point in constant time if it is the point indexed for
+   * its x value (by identity or equality), else by a walk of the list.
+   * <p>
+   *
+   * @param o
+   *          the point to remove.
+   *
+   * @return true if the point was contained.
+   *
+   * @see java.util.AbstractCollection#remove(java.lang.Object)
+   */
+  @Override
+  public boolean remove(final Object o) {
+    if (!(o instanceof ITracePoint2D)) {
+      return false;
+    }
+    Node node = this.findNode(((ITracePoint2D) o).getX());
+    if ((node == null) || !o.equals(node.m_point)) {
+      for (node = this.m_first; node != null; node = node.m_next) {
+        if (o.equals(node.m_point)) {
+          break;
+        }
+      }
+    }
+    if (node == null) {
+      return false;
+    }
+    this.unlink(node);
+    return true;
+  }
+
+  /**
+   * @see java.util.AbstractCollection#size()
+   */
+  @Override
+  public int size() {
+    return this.m_size;
+  }
+
+  /**
+   * Removes the given node from the list and the index.
+   * <p>
+   *
+   * @param node
+   *          the node to remove.
+   */
+  private void unlink(final Node node) {
+    if (node.m_previous == null) {
+      this.m_first = node.m_next;
+    } else {
+      node.m_previous.m_next = node.m_next;
+    }
+    if (node.m_next == null) {
+      this.m_last = node.m_previous;
+    } else {
+      node.m_next.m_previous = node.m_previous;
+    }
+    if (!this.m_indexInvalid) {
+      final double x = node.m_point.getX();
+      if (this.m_index.get(x) == node) {
+        this.m_index.remove(x);
+        // an older point with the same x value is not indexed anymore:
+        this.m_indexInvalid = this.m_index.size() != this.m_size - 1;
+      }
+    }
+    node.m_point = null;
+    node.m_next = null;
+    node.m_previous = null;
+    this.m_size--;
+    this.modCount++;
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ *  XRangeIterator.java of project jchart2d, iterates the points of a sorted
+ *  trace up to an x value.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.ITracePoint2D;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over the points of a trace sorted by x values that ends after the
+ * first point with an x value above a given bound.
+ * <p>
+ * Used by the implementations of
+ * <code>{@link info.monitorenter.gui.chart.ITrace2D#iterator(double, double)}</code>
+ * that position the given iterator on the last point below the lower bound
+ * (e.g. by a binary search).
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ *
+ * @version $Revision: 1.1 $
+ */
+final class XRangeIterator implements Iterator<ITracePoint2D> {
+
+  /** The iterator over the sorted points starting with the first to return. */
+  private final Iterator<ITracePoint2D> m_delegate;
+
+  /** The upper bound of the x range. */
+  private final double m_maxX;
+
+  /** The next point to return or null if there is none. */
+  private ITracePoint2D m_next;
+
+  /**
+   * Creates an iterator that returns the points of the given iterator up to
+   * and including the first point with an x value above the given bound.
+   * <p>
+   *
+   * @param delegate
+   *          the iterator over the sorted points starting with the first to
+   *          return.
+   *
+   * @param maxX
+   *          the upper bound of the x range.
+   */
+  XRangeIterator(final Iterator<ITracePoint2D> delegate, final double maxX) {
+    this.m_delegate = delegate;
+    this.m_maxX = maxX;
+    if (delegate.hasNext()) {
+      this.m_next = delegate.next();
+    }
+  }
+
+  /**
+   * @see java.util.Iterator#hasNext()
+   */
+  public boolean hasNext() {
+    return this.m_next != null;
+  }
+
+  /**
+   * @see java.util.Iterator#next()
+   */
+  public ITracePoint2D next() {
+    final ITracePoint2D result = this.m_next;
+    if (result == null) {
+      throw new NoSuchElementException();
+    }
+    if ((result.getX() <= this.m_maxX) && this.m_delegate.hasNext()) {
+      this.m_next = this.m_delegate.next();
+    } else {
+      this.m_next = null;
+    }
+    return result;
+  }
+
+  /**
+   * Unsupported, use
+   * <code>{@link info.monitorenter.gui.chart.ITrace2D#removePoint(ITracePoint2D)}</code>.
+   * <p>
+   *
+   * @throws UnsupportedOperationException
+   *           always.
+   * @see java.util.Iterator#remove()
+   */
+  public void remove() {
+    throw new UnsupportedOperationException(
+        "Use removePoint(ITracePoint2D) to remove points of a trace.");
+  }
+}
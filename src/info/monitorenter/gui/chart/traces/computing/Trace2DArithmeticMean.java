@@ -23,14 +23,16 @@
  */
 package info.monitorenter.gui.chart.traces.computing;
 
+import info.monitorenter.gui.chart.Chart2D;
+import info.monitorenter.gui.chart.ITrace2D;
 import info.monitorenter.gui.chart.ITracePoint2D;
 import info.monitorenter.gui.chart.traces.ATrace2D;
-import info.monitorenter.util.collections.IRingBuffer;
-import info.monitorenter.util.collections.RingBufferArrayFast;
+import info.monitorenter.util.collections.SlidingWindowMinMax;
+import info.monitorenter.util.math.CompensatedSum;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.List;
 
 /**
  * A trace that accumulates the latest n points added to a single point with the
@@ -51,6 +53,13 @@ import java.util.List;
  * computing trace as well.</li>
  * </ol>
  * <p>
+ * The mean is computed from running sums over the latest n values (see
+ * <code>{@link CompensatedSum}</code>) in constant time per added point. The
+ * amount of computed points is unlimited unless a maximum size is given (see
+ * <code>{@link #setMaxSize(int)}</code>): Then the oldest computed point is
+ * dropped like in <code>{@link info.monitorenter.gui.chart.traces.Trace2DLtd}
+ * </code>.
+ * <p>
  * 
  * @author Achim Westermann
  * 
@@ -64,14 +73,46 @@ public class Trace2DArithmeticMean extends ATrace2D {
   /** Generated <code>serialVersionUID</code>. */
   private static final long serialVersionUID = -4365986306182830082L;
 
-  /** The buffer for the points about to be merged. */
-  private final IRingBuffer<ITracePoint2D> m_pointBuffer;
+  /**
+   * The extrema of the x values of the computed points if their amount is
+   * limited, else null.
+   */
+  private SlidingWindowMinMax m_extremaX;
+
+  /**
+   * The extrema of the y values of the computed points if their amount is
+   * limited, else null.
+   */
+  private SlidingWindowMinMax m_extremaY;
+
+  /** The maximum amount of computed points. */
+  private int m_maxSize = Integer.MAX_VALUE;
 
   /** The internal list of points to render. */
-  private final List<ITracePoint2D> m_points = new LinkedList<ITracePoint2D>();
+  private final LinkedList<ITracePoint2D> m_points = new LinkedList<ITracePoint2D>();
+
+  /** The sum of the x values in the window. */
+  private final CompensatedSum m_sumX = new CompensatedSum();
+
+  /** The sum of the y values in the window. */
+  private final CompensatedSum m_sumY = new CompensatedSum();
+
+  /** The amount of values in the window. */
+  private int m_windowSize;
+
+  /** The index of the oldest value in the window. */
+  private int m_windowStart;
+
+  /**
+   * The x values of the latest added points to merge (a ring buffer of the
+   * values instead of the points as those may be modified later).
+   */
+  private final double[] m_windowX;
+
+  /** The y values of the latest added points to merge. */
+  private final double[] m_windowY;
 
   /**
-   * The amount of n recent points to buffer. private int m_pointBufferSize; /**
    * Constructor with the given amount of points to merge into one point with
    * their arithmetic mean.
    * <p>
@@ -82,19 +123,121 @@ public class Trace2DArithmeticMean extends ATrace2D {
    */
   public Trace2DArithmeticMean(final int arithmenticMeanSpan) {
     super();
-    this.m_pointBuffer = new RingBufferArrayFast<ITracePoint2D>(arithmenticMeanSpan);
+    if (arithmenticMeanSpan < 1) {
+      throw new IllegalArgumentException("Arithmetic mean span has to be at least 1 (is "
+          + arithmenticMeanSpan + ").");
+    }
+    this.m_windowX = new double[arithmenticMeanSpan];
+    this.m_windowY = new double[arithmenticMeanSpan];
   }
 
   /**
+   * Constructor with the given amount of points to merge into one point with
+   * their arithmetic mean and the maximum amount of computed points to keep.
+   * <p>
+   * 
+   * @param arithmenticMeanSpan
+   *          the amount of points to merge into one point with their arithmetic
+   *          mean.
+   * @param maxSize
+   *          the maximum amount of computed points to keep.
+   */
+  public Trace2DArithmeticMean(final int arithmenticMeanSpan, final int maxSize) {
+    this(arithmenticMeanSpan);
+    this.checkMaxSize(maxSize);
+    this.m_maxSize = maxSize;
+    this.m_extremaX = new SlidingWindowMinMax(maxSize);
+    this.m_extremaY = new SlidingWindowMinMax(maxSize);
+  }
+
+  /**
+   * Adds the values of the given point to the window and adds a point with the
+   * mean values instead of the given point.
+   * <p>
+   * 
+   * @return false as the added point is not the given one.
+   * 
    * @see info.monitorenter.gui.chart.traces.ATrace2D#addPointInternal(info.monitorenter.gui.chart.ITracePoint2D)
    */
   @Override
   protected boolean addPointInternal(final ITracePoint2D p) {
-    this.m_pointBuffer.add(p);
-    final ITracePoint2D cumulate = this.getArithmeticMean();
-    final boolean result = this.m_points.add(cumulate);
-    this.firePointAdded(cumulate);
-    return result;
+    final int span = this.m_windowX.length;
+    final double x = p.getX();
+    final double y = p.getY();
+    int index = this.m_windowStart + this.m_windowSize;
+    if (index >= span) {
+      index -= span;
+    }
+    if (this.m_windowSize == span) {
+      // the oldest value leaves the window:
+      this.m_sumX.add(-this.m_windowX[index]);
+      this.m_sumY.add(-this.m_windowY[index]);
+      this.m_windowStart = (index + 1 == span) ? 0 : index + 1;
+    } else {
+      this.m_windowSize++;
+    }
+    this.m_windowX[index] = x;
+    this.m_windowY[index] = y;
+    this.m_sumX.add(x);
+    this.m_sumY.add(y);
+    if (Double.isNaN(this.m_sumX.getSum() + this.m_sumY.getSum())) {
+      // infinite or NaN values cannot be subtracted:
+      this.resum();
+    }
+    final ITracePoint2D cumulate = this.createMeanPoint(this.m_sumX.getSum() / this.m_windowSize,
+        this.m_sumY.getSum() / this.m_windowSize, x, y);
+    this.m_points.add(cumulate);
+    if (this.m_extremaX != null) {
+      this.m_extremaX.add(cumulate.getX());
+      this.m_extremaY.add(cumulate.getY());
+    }
+    if (this.m_points.size() > this.m_maxSize) {
+      this.removeOldest();
+    }
+    this.acceptPoint(cumulate);
+    return false;
+  }
+
+  /**
+   * Throws an exception if the given maximum amount of computed points is
+   * invalid.
+   * <p>
+   * 
+   * @param maxSize
+   *          the maximum amount of computed points to check.
+   * 
+   * @throws IllegalArgumentException
+   *           if the amount is smaller than 1.
+   */
+  private void checkMaxSize(final int maxSize) throws IllegalArgumentException {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Maximum size has to be at least 1 (is " + maxSize
+          + ").");
+    }
+  }
+
+  /**
+   * Creates the point to add for the given mean values and the values of the
+   * latest added point.
+   * <p>
+   * This implementation takes both mean values: Subclasses may take the latest
+   * value for one dimension.
+   * <p>
+   * 
+   * @param meanX
+   *          the arithmetic mean of the x values in the window.
+   * @param meanY
+   *          the arithmetic mean of the y values in the window.
+   * @param latestX
+   *          the x value of the latest added point.
+   * @param latestY
+   *          the y value of the latest added point.
+   * 
+   * @return the point to add.
+   */
+  protected ITracePoint2D createMeanPoint(final double meanX, final double meanY,
+      final double latestX, final double latestY) {
+    return this.getRenderer().getTracePointProvider().createTracePoint(meanX, meanY);
   }
 
   /**
@@ -112,11 +255,13 @@ public class Trace2DArithmeticMean extends ATrace2D {
       return false;
     }
     final Trace2DArithmeticMean other = (Trace2DArithmeticMean) obj;
-    if (this.m_pointBuffer == null) {
-      if (other.m_pointBuffer != null) {
-        return false;
-      }
-    } else if (!this.m_pointBuffer.equals(other.m_pointBuffer)) {
+    if (this.m_maxSize != other.m_maxSize) {
+      return false;
+    }
+    if (!Arrays.equals(this.m_windowX, other.m_windowX)) {
+      return false;
+    }
+    if (!Arrays.equals(this.m_windowY, other.m_windowY)) {
       return false;
     }
     if (this.m_points == null) {
@@ -129,39 +274,11 @@ public class Trace2DArithmeticMean extends ATrace2D {
     return true;
   }
 
-  /**
-   * Returns a point with the arithmetic mean values for x and y computed of the
-   * last n added points (n was constructor - given).
-   * <p>
-   * 
-   * @return a point with the arithmetic mean values for x and y computed of the
-   *         last n added points (n was constructor - given).
-   */
-  private ITracePoint2D getArithmeticMean() {
-    double x = 0;
-    double y = 0;
-    ITracePoint2D result;
-    for (final ITracePoint2D point : this.m_pointBuffer) {
-      result = point;
-      x += result.getX();
-      y += result.getY();
-    }
-    int divisor = this.m_pointBuffer.size();
-    if (divisor == 0) {
-      divisor = 1;
-    }
-    y /= divisor;
-    x /= divisor;
-    result = this.getRenderer().getTracePointProvider().createTracePoint(x, y);
-    return result;
-
-  }
-
   /**
    * @see info.monitorenter.gui.chart.ITrace2D#getMaxSize()
    */
   public int getMaxSize() {
-    return Integer.MAX_VALUE;
+    return this.m_maxSize;
   }
 
   /**
@@ -179,7 +296,9 @@ public class Trace2DArithmeticMean extends ATrace2D {
   public int hashCode() {
     final int prime = 31;
     int result = super.hashCode();
-    result = prime * result + ((this.m_pointBuffer == null) ? 0 : this.m_pointBuffer.hashCode());
+    result = prime * result + this.m_maxSize;
+    result = prime * result + Arrays.hashCode(this.m_windowX);
+    result = prime * result + Arrays.hashCode(this.m_windowY);
     result = prime * result + ((this.m_points == null) ? 0 : this.m_points.hashCode());
     return result;
   }
@@ -198,14 +317,131 @@ public class Trace2DArithmeticMean extends ATrace2D {
     return this.m_points.iterator();
   }
 
+  /**
+   * Takes the maximum x value from the tracked bounds if the amount of points
+   * is limited.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#maxXSearch()
+   */
+  @Override
+  protected void maxXSearch() {
+    if (this.m_extremaX == null) {
+      super.maxXSearch();
+    } else {
+      synchronized (this) {
+        this.m_maxX = this.m_extremaX.getMax();
+      }
+      // compute the extra amount in case of error bar painters:
+      this.expandMaxXErrorBarBounds();
+    }
+  }
+
+  /**
+   * Takes the maximum y value from the tracked bounds if the amount of points
+   * is limited.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#maxYSearch()
+   */
+  @Override
+  protected void maxYSearch() {
+    if (this.m_extremaY == null) {
+      super.maxYSearch();
+    } else {
+      synchronized (this) {
+        this.m_maxY = this.m_extremaY.getMax();
+      }
+      // compute the extra amount in case of error bar painters:
+      this.expandMaxYErrorBarBounds();
+    }
+  }
+
+  /**
+   * Takes the minimum x value from the tracked bounds if the amount of points
+   * is limited.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#minXSearch()
+   */
+  @Override
+  protected void minXSearch() {
+    if (this.m_extremaX == null) {
+      super.minXSearch();
+    } else {
+      synchronized (this) {
+        this.m_minX = this.m_extremaX.getMin();
+      }
+      // compute the extra amount in case of error bar painters:
+      this.expandMinXErrorBarBounds();
+    }
+  }
+
+  /**
+   * Takes the minimum y value from the tracked bounds if the amount of points
+   * is limited.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#minYSearch()
+   */
+  @Override
+  protected void minYSearch() {
+    if (this.m_extremaY == null) {
+      super.minYSearch();
+    } else {
+      synchronized (this) {
+        this.m_minY = this.m_extremaY.getMin();
+      }
+      // compute the extra amount in case of error bar painters:
+      this.expandMinYErrorBarBounds();
+    }
+  }
+
+  /**
+   * Rebuilds the tracked bounds from the computed points if their amount is
+   * limited.
+   * <p>
+   */
+  private void rebuildExtrema() {
+    if (this.m_maxSize == Integer.MAX_VALUE) {
+      this.m_extremaX = null;
+      this.m_extremaY = null;
+    } else {
+      this.m_extremaX = new SlidingWindowMinMax(this.m_maxSize);
+      this.m_extremaY = new SlidingWindowMinMax(this.m_maxSize);
+      for (final ITracePoint2D point : this.m_points) {
+        this.m_extremaX.add(point.getX());
+        this.m_extremaY.add(point.getY());
+      }
+    }
+  }
+
   /**
    * @see info.monitorenter.gui.chart.traces.ATrace2D#removeAllPointsInternal()
    */
   @Override
   protected void removeAllPointsInternal() {
-    this.m_pointBuffer.clear();
+    this.m_windowSize = 0;
+    this.m_windowStart = 0;
+    this.m_sumX.clear();
+    this.m_sumY.clear();
     this.m_points.clear();
+    if (this.m_extremaX != null) {
+      this.m_extremaX.clear();
+      this.m_extremaY.clear();
+    }
+  }
 
+  /**
+   * Drops the oldest computed point and fires the events for the removal.
+   * <p>
+   */
+  private void removeOldest() {
+    final ITracePoint2D removed = this.m_points.removeFirst();
+    this.removeFromNearestPointIndex(removed);
+    this.firePointRemoved(removed);
+    removed.setListener(null);
+    this.removeFromComputingTraces(removed);
   }
 
   /**
@@ -214,7 +450,60 @@ public class Trace2DArithmeticMean extends ATrace2D {
   @Override
   protected ITracePoint2D removePointInternal(final ITracePoint2D point) {
     final ITracePoint2D result = this.m_points.remove(0);
+    if (this.m_extremaX != null) {
+      this.rebuildExtrema();
+    }
     return result;
   }
 
+  /**
+   * Recomputes the sums from the values in the window.
+   * <p>
+   */
+  private void resum() {
+    this.m_sumX.clear();
+    this.m_sumY.clear();
+    int index = this.m_windowStart;
+    for (int i = 0; i < this.m_windowSize; i++) {
+      this.m_sumX.add(this.m_windowX[index]);
+      this.m_sumY.add(this.m_windowY[index]);
+      index++;
+      if (index == this.m_windowX.length) {
+        index = 0;
+      }
+    }
+  }
+
+  /**
+   * Sets the maximum amount of computed points to keep.
+   * <p>
+   * If more points are contained the oldest ones are dropped.
+   * <code>{@link Integer#MAX_VALUE}</code> (the default) keeps all points.
+   * <p>
+   * 
+   * @param maxSize
+   *          the maximum amount of computed points to keep.
+   * 
+   * @throws IllegalArgumentException
+   *           if the amount is smaller than 1.
+   */
+  public final void setMaxSize(final int maxSize) throws IllegalArgumentException {
+    this.checkMaxSize(maxSize);
+    if (Chart2D.DEBUG_THREADING) {
+      System.out.println("Trace2DArithmeticMean.setMaxSize, 0 locks");
+    }
+    this.ensureInitialized();
+    synchronized (this.m_renderer) {
+      synchronized (this) {
+        if (Chart2D.DEBUG_THREADING) {
+          System.out.println("Trace2DArithmeticMean.setMaxSize, 2 locks");
+        }
+        this.m_maxSize = maxSize;
+        this.rebuildExtrema();
+        while (this.m_points.size() > maxSize) {
+          this.removeOldest();
+        }
+      }
+    }
+  }
 }
@@ -24,13 +24,6 @@
 package info.monitorenter.gui.chart.traces.computing;
 
 import info.monitorenter.gui.chart.ITracePoint2D;
-import info.monitorenter.gui.chart.traces.ATrace2D;
-import info.monitorenter.util.collections.IRingBuffer;
-import info.monitorenter.util.collections.RingBufferArrayFast;
-
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 
 /**
  * A trace that accumulates the latest n x values added to a single point with
@@ -51,6 +44,10 @@ import java.util.List;
  * computing trace as well.</li>
  * </ol>
  * <p>
+ * The mean is computed in constant time per added point and the amount of
+ * computed points may be limited as described in
+ * <code>{@link Trace2DArithmeticMean}</code>.
+ * <p>
  * 
  * @author Achim Westermann
  * 
@@ -59,19 +56,12 @@ import java.util.List;
  * @since 7.0.0
  * 
  */
-public class Trace2DArithmeticMeanX extends ATrace2D {
+public class Trace2DArithmeticMeanX extends Trace2DArithmeticMean {
 
   /** Generated <code>serialVersionUID</code>. */
   private static final long serialVersionUID = -4365986306182830082L;
 
-  /** The buffer for the points about to be merged. */
-  private final IRingBuffer<ITracePoint2D> m_pointBuffer;
-
-  /** The internal list of points to render. */
-  private final List<ITracePoint2D> m_points = new LinkedList<ITracePoint2D>();
-
   /**
-   * The amount of n recent points to buffer. private int m_pointBufferSize; /**
    * Constructor with the given amount of points to merge into one point with
    * their arithmetic mean.
    * <p>
@@ -81,139 +71,34 @@ public class Trace2DArithmeticMeanX extends ATrace2D {
    *          mean.
    */
   public Trace2DArithmeticMeanX(final int arithmenticMeanSpan) {
-    super();
-    this.m_pointBuffer = new RingBufferArrayFast<ITracePoint2D>(arithmenticMeanSpan);
+    super(arithmenticMeanSpan);
   }
 
   /**
-   * @see info.monitorenter.gui.chart.traces.ATrace2D#addPointInternal(info.monitorenter.gui.chart.ITracePoint2D)
-   */
-  @Override
-  protected boolean addPointInternal(final ITracePoint2D p) {
-    this.m_pointBuffer.add(p);
-    final ITracePoint2D cumulate = this.getArithmeticMean();
-    final boolean result = this.m_points.add(cumulate);
-    this.firePointAdded(cumulate);
-    return result;
-  }
-
-  /**
-   * @see java.lang.Object#equals(java.lang.Object)
-   */
-  @Override
-  public boolean equals(final Object obj) {
-    if (this == obj) {
-      return true;
-    }
-    if (!super.equals(obj)) {
-      return false;
-    }
-    if (this.getClass() != obj.getClass()) {
-      return false;
-    }
-    final Trace2DArithmeticMeanX other = (Trace2DArithmeticMeanX) obj;
-    if (this.m_pointBuffer == null) {
-      if (other.m_pointBuffer != null) {
-        return false;
-      }
-    } else if (!this.m_pointBuffer.equals(other.m_pointBuffer)) {
-      return false;
-    }
-    if (this.m_points == null) {
-      if (other.m_points != null) {
-        return false;
-      }
-    } else if (!this.m_points.equals(other.m_points)) {
-      return false;
-    }
-    return true;
-  }
-
-  /**
-   * Returns a point with the arithmetic mean values for x and y computed of the
-   * last n added points (n was constructor - given).
+   * Constructor with the given amount of points to merge into one point with
+   * their arithmetic mean and the maximum amount of computed points to keep.
    * <p>
    * 
-   * @return a point with the arithmetic mean values for x and y computed of the
-   *         last n added points (n was constructor - given).
-   */
-  private ITracePoint2D getArithmeticMean() {
-    double x = 0;
-    double y = 0;
-    ITracePoint2D result;
-    for (final ITracePoint2D point : this.m_pointBuffer) {
-      result = point;
-      x += result.getX();
-      y = result.getY();
-    }
-    int divisor = this.m_pointBuffer.size();
-    if (divisor == 0) {
-      divisor = 1;
-    }
-    x /= divisor;
-    result = this.getRenderer().getTracePointProvider().createTracePoint(x, y);
-    return result;
-
-  }
-
-  /**
-   * @see info.monitorenter.gui.chart.ITrace2D#getMaxSize()
-   */
-  public int getMaxSize() {
-    return Integer.MAX_VALUE;
-  }
-
-  /**
-   * @see info.monitorenter.gui.chart.ITrace2D#getSize()
-   */
-  public int getSize() {
-
-    return this.m_points.size();
-  }
-
-  /**
-   * @see java.lang.Object#hashCode()
-   */
-  @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = super.hashCode();
-    result = prime * result + ((this.m_pointBuffer == null) ? 0 : this.m_pointBuffer.hashCode());
-    result = prime * result + ((this.m_points == null) ? 0 : this.m_points.hashCode());
-    return result;
-  }
-
-  /**
-   * @see info.monitorenter.gui.chart.ITrace2D#isEmpty()
-   */
-  public boolean isEmpty() {
-    return this.m_points.isEmpty();
-  }
-
-  /**
-   * @see info.monitorenter.gui.chart.ITrace2D#iterator()
-   */
-  public Iterator<ITracePoint2D> iterator() {
-    return this.m_points.iterator();
-  }
-
-  /**
-   * @see info.monitorenter.gui.chart.traces.ATrace2D#removeAllPointsInternal()
+   * @param arithmenticMeanSpan
+   *          the amount of points to merge into one point with their arithmetic
+   *          mean.
+   * @param maxSize
+   *          the maximum amount of computed points to keep.
    */
-  @Override
-  protected void removeAllPointsInternal() {
-    this.m_pointBuffer.clear();
-    this.m_points.clear();
-
+  public Trace2DArithmeticMeanX(final int arithmenticMeanSpan, final int maxSize) {
+    super(arithmenticMeanSpan, maxSize);
   }
 
   /**
-   * @see info.monitorenter.gui.chart.traces.ATrace2D#removePointInternal(info.monitorenter.gui.chart.ITracePoint2D)
+   * Creates a point with the arithmetic mean of the x values and the latest y value.
+   * <p>
+   * 
+   * @see info.monitorenter.gui.chart.traces.computing.Trace2DArithmeticMean#createMeanPoint(double,
+   *      double, double, double)
    */
   @Override
-  protected ITracePoint2D removePointInternal(final ITracePoint2D point) {
-    final ITracePoint2D result = this.m_points.remove(0);
-    return result;
+  protected ITracePoint2D createMeanPoint(final double meanX, final double meanY,
+      final double latestX, final double latestY) {
+    return this.getRenderer().getTracePointProvider().createTracePoint(meanX, latestY);
   }
-
 }
@@ -0,0 +1,520 @@
+/*
+ *  Trace2DLargestTriangleThreeBuckets.java of project jchart2d, a trace
+ *  that keeps a downsampled view of the points added with the largest
+ *  triangle three buckets algorithm.
+ *  Copyright 2004 - 2011 (C) Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA*
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces.computing;
+
+import info.monitorenter.gui.chart.ITrace2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.traces.ATrace2D;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A trace that keeps a downsampled view of the points added with the largest
+ * triangle three buckets (LTTB) algorithm.
+ * <p>
+ * The points added are divided into buckets of consecutive points. Of every
+ * bucket only the point is kept that forms the largest triangle with the point
+ * kept for the previous bucket and the average of the following bucket. Unlike
+ * the arithmetic mean (see <code>{@link Trace2DArithmeticMean}</code>) this
+ * keeps the visual shape of the data including its peaks. The first point and
+ * the latest point added are always part of the view.
+ * <p>
+ * The view is computed incrementally: Whenever it reaches the configured
+ * maximum size its points are downsampled again with buckets of two points
+ * and the size of the buckets for following points is doubled. So every point
+ * added costs constant time on average and the memory used only depends on
+ * the maximum size and the size of the buckets.
+ * <p>
+ * The points added should be sorted by their x values. Removing a point only
+ * removes it from the view if it is part of it.
+ * <p>
+ * Please note that this trace can be used in two modes:
+ * <ol>
+ * <li>Stand alone: <br/>
+ * Add the <code>ITrace2D</code> implementation to a chart and add data points
+ * to it as normal.</li>
+ * <li>Computing trace: <br/>
+ * Add the <code>ITrace2D</code> implementation as a computing trace to an
+ * existing trace via
+ * <code>{@link info.monitorenter.gui.chart.ITrace2D#addComputingTrace(info.monitorenter.gui.chart.ITrace2D)}</code>
+ * and only add data points to the original trace. Add the computing trace to
+ * the same chart (instead of the original trace for huge data sets) and
+ * updates of the original trace will be reflected on the computing trace as
+ * well.</li>
+ * </ol>
+ * <p>
+ *
+ * @author Achim Westermann
+ *
+ * @version $Revision: 1.1 $
+ *
+ * @since 7.0.0
+ *
+ */
+public class Trace2DLargestTriangleThreeBuckets extends ATrace2D {
+
+  /**
+   * Iterator over the points kept followed by the latest point added.
+   * <p>
+   *
+   * @author Achim Westermann
+   */
+  private final class ViewIterator implements Iterator<ITracePoint2D> {
+
+    /** The position of the next point to return. */
+    private int m_position;
+
+    /**
+     * @see java.util.Iterator#hasNext()
+     */
+    public boolean hasNext() {
+      return this.m_position < Trace2DLargestTriangleThreeBuckets.this.getSize();
+    }
+
+    /**
+     * @see java.util.Iterator#next()
+     */
+    public ITracePoint2D next() {
+      final List<ITracePoint2D> points = Trace2DLargestTriangleThreeBuckets.this.m_points;
+      ITracePoint2D result;
+      if (this.m_position < points.size()) {
+        result = points.get(this.m_position);
+      } else if ((this.m_position == points.size())
+          && (Trace2DLargestTriangleThreeBuckets.this.m_latest != null)) {
+        result = Trace2DLargestTriangleThreeBuckets.this.m_latest;
+      } else {
+        throw new NoSuchElementException();
+      }
+      this.m_position++;
+      return result;
+    }
+
+    /**
+     * Unsupported, use
+     * <code>{@link ITrace2D#removePoint(ITracePoint2D)}</code>.
+     * <p>
+     *
+     * @throws UnsupportedOperationException
+     *           always.
+     * @see java.util.Iterator#remove()
+     */
+    public void remove() {
+      throw new UnsupportedOperationException(
+          "Use removePoint(ITracePoint2D) to remove points of a trace.");
+    }
+  }
+
+  /** Generated <code>serialVersionUID</code>. */
+  private static final long serialVersionUID = -2130880417484005467L;
+
+  /**
+   * Returns the doubled area of the triangle of the given points.
+   * <p>
+   *
+   * @param ax
+   *          the x value of the first point.
+   * @param ay
+   *          the y value of the first point.
+   * @param bx
+   *          the x value of the second point.
+   * @param by
+   *          the y value of the second point.
+   * @param cx
+   *          the x value of the third point.
+   * @param cy
+   *          the y value of the third point.
+   * @return the doubled area of the triangle of the given points.
+   */
+  private static double getArea(final double ax, final double ay, final double bx,
+      final double by, final double cx, final double cy) {
+    return Math.abs((ax - cx) * (by - ay) - (ax - bx) * (cy - ay));
+  }
+
+  /** The amount of points added in the current bucket. */
+  private int m_bucketCount;
+
+  /** The amount of points of a bucket. */
+  private int m_bucketSize = 1;
+
+  /** The x values of the points of the current bucket. */
+  private double[] m_bucketX = new double[1];
+
+  /** The y values of the points of the current bucket. */
+  private double[] m_bucketY = new double[1];
+
+  /** The latest point added or null if it has been removed. */
+  private ITracePoint2D m_latest;
+
+  /** The maximum amount of points of the view. */
+  private final int m_maxSize;
+
+  /** The points chosen, sorted in the order they were added. */
+  private final List<ITracePoint2D> m_points = new ArrayList<ITracePoint2D>();
+
+  /** The amount of points in the previous bucket. */
+  private int m_previousCount;
+
+  /**
+   * The x values of the points of the previous (complete) bucket of which no
+   * point has been chosen yet.
+   */
+  private double[] m_previousX = new double[1];
+
+  /**
+   * The y values of the points of the previous (complete) bucket of which no
+   * point has been chosen yet.
+   */
+  private double[] m_previousY = new double[1];
+
+  /**
+   * Constructor with the maximum amount of points of the downsampled view.
+   * <p>
+   *
+   * @param maxSize
+   *          the maximum amount of points of the downsampled view, at least 3.
+   *
+   * @throws IllegalArgumentException
+   *           if the given size is lower than 3.
+   */
+  public Trace2DLargestTriangleThreeBuckets(final int maxSize) throws IllegalArgumentException {
+    super();
+    if (maxSize < 3) {
+      throw new IllegalArgumentException("The maximum size has to be at least 3 but was "
+          + maxSize + ".");
+    }
+    this.m_maxSize = maxSize;
+  }
+
+  /**
+   * Collects the given point in the current bucket and chooses the point of the
+   * previous bucket once the current one is complete.
+   * <p>
+   * The view consists of copies: The given point may be contained in another
+   * trace (when this is a computing trace) which has to stay its listener.
+   * <p>
+   *
+   * @return false always as the copy of the given point is added by this
+   *         method.
+   *
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#addPointInternal(info.monitorenter.gui.chart.ITracePoint2D)
+   */
+  @Override
+  protected boolean addPointInternal(final ITracePoint2D p) {
+    if (this.m_latest != null) {
+      // the former latest point leaves the view (unless chosen later):
+      this.removeFromNearestPointIndex(this.m_latest);
+      this.m_latest.setListener(null);
+      this.firePropertyChange(ITrace2D.PROPERTY_TRACEPOINT, this.m_latest, null);
+    }
+    final ITracePoint2D copy = this.createPoint(p.getX(), p.getY());
+    if (this.m_points.isEmpty()) {
+      // the first point is always kept:
+      this.m_points.add(copy);
+      this.m_latest = null;
+      this.acceptPoint(copy);
+      return false;
+    }
+    this.m_latest = copy;
+    this.m_bucketX[this.m_bucketCount] = p.getX();
+    this.m_bucketY[this.m_bucketCount] = p.getY();
+    this.m_bucketCount++;
+    if (this.m_bucketCount == this.m_bucketSize) {
+      if (this.m_previousCount > 0) {
+        this.chooseFromPreviousBucket();
+      }
+      // the current bucket becomes the previous one:
+      double[] swap = this.m_previousX;
+      this.m_previousX = this.m_bucketX;
+      this.m_bucketX = swap;
+      swap = this.m_previousY;
+      this.m_previousY = this.m_bucketY;
+      this.m_bucketY = swap;
+      this.m_previousCount = this.m_bucketCount;
+      this.m_bucketCount = 0;
+      if (this.m_points.size() >= this.m_maxSize) {
+        this.downsample();
+      }
+    }
+    this.acceptPoint(copy);
+    return false;
+  }
+
+  /**
+   * Adds a point with the given values to the view.
+   * <p>
+   *
+   * @param x
+   *          the x value of the point.
+   * @param y
+   *          the y value of the point.
+   */
+  private void choose(final double x, final double y) {
+    final ITracePoint2D chosen = this.createPoint(x, y);
+    this.m_points.add(chosen);
+    this.acceptPoint(chosen);
+  }
+
+  /**
+   * Chooses the point of the previous bucket that forms the largest triangle
+   * with the last point chosen and the average of the current bucket.
+   * <p>
+   */
+  private void chooseFromPreviousBucket() {
+    final ITracePoint2D anchor = this.m_points.get(this.m_points.size() - 1);
+    final double ax = anchor.getX();
+    final double ay = anchor.getY();
+    double cx = 0;
+    double cy = 0;
+    for (int i = 0; i < this.m_bucketCount; i++) {
+      cx += this.m_bucketX[i];
+      cy += this.m_bucketY[i];
+    }
+    cx /= this.m_bucketCount;
+    cy /= this.m_bucketCount;
+    int chosen = 0;
+    double maxArea = -1;
+    double area;
+    for (int i = 0; i < this.m_previousCount; i++) {
+      area = Trace2DLargestTriangleThreeBuckets.getArea(ax, ay, this.m_previousX[i],
+          this.m_previousY[i], cx, cy);
+      if (area > maxArea) {
+        maxArea = area;
+        chosen = i;
+      }
+    }
+    this.choose(this.m_previousX[chosen], this.m_previousY[chosen]);
+  }
+
+  /**
+   * Creates a point with the given values with the trace point provider of the
+   * chart.
+   * <p>
+   *
+   * @param x
+   *          the x value of the point.
+   * @param y
+   *          the y value of the point.
+   * @return a point with the given values.
+   */
+  private ITracePoint2D createPoint(final double x, final double y) {
+    return this.getRenderer().getTracePointProvider().createTracePoint(x, y);
+  }
+
+  /**
+   * Downsamples the points of the view to the half with buckets of two points
+   * and doubles the size of the buckets for the following points.
+   * <p>
+   */
+  private void downsample() {
+    final int size = this.m_points.size();
+    final ITracePoint2D removed = this.m_points.get(size - 1);
+    int kept = 1;
+    ITracePoint2D anchor = this.m_points.get(0);
+    ITracePoint2D candidate;
+    ITracePoint2D best;
+    double cx;
+    double cy;
+    int next;
+    double maxArea;
+    double area;
+    for (int i = 1; i < size; i += 2) {
+      next = i + 2;
+      if (next < size) {
+        cx = this.m_points.get(next).getX();
+        cy = this.m_points.get(next).getY();
+        if (next + 1 < size) {
+          cx = (cx + this.m_points.get(next + 1).getX()) / 2;
+          cy = (cy + this.m_points.get(next + 1).getY()) / 2;
+        }
+      } else {
+        // last bucket: the latest point follows
+        cx = this.m_latest.getX();
+        cy = this.m_latest.getY();
+      }
+      best = null;
+      maxArea = -1;
+      for (int j = i; j < Math.min(next, size); j++) {
+        candidate = this.m_points.get(j);
+        area = Trace2DLargestTriangleThreeBuckets.getArea(anchor.getX(), anchor.getY(),
+            candidate.getX(), candidate.getY(), cx, cy);
+        if (area > maxArea) {
+          maxArea = area;
+          best = candidate;
+        }
+      }
+      this.m_points.set(kept, best);
+      kept++;
+      anchor = best;
+    }
+    this.m_points.subList(kept, size).clear();
+    this.m_bucketSize *= 2;
+    this.m_bucketX = this.grow(this.m_bucketX);
+    this.m_bucketY = this.grow(this.m_bucketY);
+    this.m_previousX = this.grow(this.m_previousX);
+    this.m_previousY = this.grow(this.m_previousY);
+    this.invalidateNearestPointIndex();
+    // one event for all points dropped:
+    this.firePropertyChange(ITrace2D.PROPERTY_TRACEPOINT, removed, null);
+  }
+
+  /**
+   * @see java.lang.Object#equals(java.lang.Object)
+   */
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!super.equals(obj)) {
+      return false;
+    }
+    if (this.getClass() != obj.getClass()) {
+      return false;
+    }
+    final Trace2DLargestTriangleThreeBuckets other = (Trace2DLargestTriangleThreeBuckets) obj;
+    if (this.m_maxSize != other.m_maxSize) {
+      return false;
+    }
+    if (!this.m_points.equals(other.m_points)) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the amount of points of a bucket that are summarized by one point
+   * of the view.
+   * <p>
+   *
+   * @return the amount of points of a bucket that are summarized by one point
+   *         of the view.
+   */
+  public final int getBucketSize() {
+    return this.m_bucketSize;
+  }
+
+  /**
+   * Returns the maximum amount of points of the downsampled view.
+   * <p>
+   *
+   * @see info.monitorenter.gui.chart.ITrace2D#getMaxSize()
+   */
+  public int getMaxSize() {
+    return this.m_maxSize;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#getSize()
+   */
+  public int getSize() {
+    return (this.m_latest == null) ? this.m_points.size() : this.m_points.size() + 1;
+  }
+
+  /**
+   * Returns an array with the length of the current bucket size that contains
+   * the values of the given array.
+   * <p>
+   *
+   * @param values
+   *          the array to enlarge.
+   * @return an array with the length of the current bucket size that contains
+   *         the values of the given array.
+   */
+  private double[] grow(final double[] values) {
+    final double[] result = new double[this.m_bucketSize];
+    System.arraycopy(values, 0, result, 0, values.length);
+    return result;
+  }
+
+  /**
+   * @see java.lang.Object#hashCode()
+   */
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = super.hashCode();
+    result = prime * result + this.m_maxSize;
+    result = prime * result + this.m_points.hashCode();
+    return result;
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.ITrace2D#isEmpty()
+   */
+  public boolean isEmpty() {
+    return this.getSize() == 0;
+  }
+
+  /**
+   * Returns an iterator over the downsampled view followed by the latest
+   * point added.
+   * <p>
+   *
+   * @see info.monitorenter.gui.chart.ITrace2D#iterator()
+   */
+  public Iterator<ITracePoint2D> iterator() {
+    return new ViewIterator();
+  }
+
+  /**
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#removeAllPointsInternal()
+   */
+  @Override
+  protected void removeAllPointsInternal() {
+    this.m_points.clear();
+    this.m_latest = null;
+    this.m_bucketCount = 0;
+    this.m_previousCount = 0;
+    this.m_bucketSize = 1;
+    this.m_bucketX = new double[1];
+    this.m_bucketY = new double[1];
+    this.m_previousX = new double[1];
+    this.m_previousY = new double[1];
+  }
+
+  /**
+   * Removes the given point from the view if it is the latest point added or
+   * a point equal to it has been chosen for the view.
+   * <p>
+   *
+   * @see info.monitorenter.gui.chart.traces.ATrace2D#removePointInternal(info.monitorenter.gui.chart.ITracePoint2D)
+   */
+  @Override
+  protected ITracePoint2D removePointInternal(final ITracePoint2D point) {
+    ITracePoint2D result = null;
+    if ((this.m_latest != null) && this.m_latest.equals(point)) {
+      result = this.m_latest;
+      this.m_latest = null;
+    } else {
+      final int index = this.m_points.indexOf(point);
+      if (index >= 0) {
+        result = this.m_points.remove(index);
+      }
+    }
+    return result;
+  }
+}
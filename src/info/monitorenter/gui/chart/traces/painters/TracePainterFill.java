@@ -26,8 +26,6 @@ import info.monitorenter.gui.chart.Chart2D;
 import info.monitorenter.gui.chart.ITracePoint2D;
 
 import java.awt.Graphics;
-import java.util.LinkedList;
-import java.util.List;
 
 /**
  * A trace painter that fills the area between trace to render and the x axis
@@ -42,6 +40,10 @@ import java.util.List;
  * paint for a paint call of the corresponding
  * {@link info.monitorenter.gui.chart.Chart2D}.
  * <p>
+ * The pixel coordinates are collected in primitive arrays that only grow and
+ * are reused for the following paint iterations. Consecutive identical pixels
+ * are collapsed into one.
+ * <p>
  * 
  * 
  * 
@@ -61,11 +63,25 @@ public class TracePainterFill extends ATracePainter {
    */
   private final Chart2D m_chart;
 
-  /** The list of x coordinates collected in one paint iteration. */
-  private List<Integer> m_xPoints;
+  /**
+   * The amount of coordinates of the polygon to fill collected in the current
+   * paint iteration including the leading root of the chart.
+   */
+  private int m_pointCount = 1;
 
-  /** The list of y coordinates collected in one paint iteration. */
-  private List<Integer> m_yPoints;
+  /**
+   * The x coordinates of the polygon to fill, only the first
+   * <code>{@link #m_pointCount}</code> entries are valid. The first entry is
+   * reserved for the root of the chart.
+   */
+  private int[] m_xPoints = new int[0];
+
+  /**
+   * The y coordinates of the polygon to fill, only the first
+   * <code>{@link #m_pointCount}</code> entries are valid. The first entry is
+   * reserved for the root of the chart.
+   */
+  private int[] m_yPoints = new int[0];
 
   /**
    * Constructor with the corresponding chart.
@@ -78,6 +94,45 @@ public class TracePainterFill extends ATracePainter {
     this.m_chart = chart;
   }
 
+  /**
+   * Appends the given pixel coordinates to the collected ones unless they are
+   * equal to the last collected coordinates.
+   * <p>
+   * The arrays are enlarged if necessary but never shrink.
+   * <p>
+   * 
+   * @param x
+   *          the x pixel coordinate.
+   * 
+   * @param y
+   *          the y pixel coordinate.
+   * 
+   * @param collapse
+   *          if false the coordinates are appended even if they are equal to
+   *          the last collected coordinates.
+   */
+  private void appendPixel(final int x, final int y, final boolean collapse) {
+    final int count = this.m_pointCount;
+    // the root in the first entry is not written before the end of the paint
+    // iteration:
+    if (collapse && (count > 1) && (this.m_xPoints[count - 1] == x)
+        && (this.m_yPoints[count - 1] == y)) {
+      return;
+    }
+    if (count >= this.m_xPoints.length) {
+      final int capacity = Math.max(64, count * 2);
+      int[] grown = new int[capacity];
+      System.arraycopy(this.m_xPoints, 0, grown, 0, this.m_xPoints.length);
+      this.m_xPoints = grown;
+      grown = new int[capacity];
+      System.arraycopy(this.m_yPoints, 0, grown, 0, this.m_yPoints.length);
+      this.m_yPoints = grown;
+    }
+    this.m_xPoints[count] = x;
+    this.m_yPoints[count] = y;
+    this.m_pointCount = count + 1;
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITracePainter#discontinue(java.awt.Graphics)
    */
@@ -93,34 +148,18 @@ public class TracePainterFill extends ATracePainter {
   @Override
   public void endPaintIteration(final Graphics g2d) {
     if (g2d != null) {
-
-      final int[] x = new int[this.m_xPoints.size() + 4];
-      x[0] = this.m_chart.getXChartStart();
-      int count = 1;
-      for (final Integer xpoint : this.m_xPoints) {
-        x[count] = xpoint.intValue();
-        count++;
-      }
-      x[count] = this.getPreviousX();
+      final int xStart = this.m_chart.getXChartStart();
+      final int yStart = this.m_chart.getYChartStart();
+      final int previousX = this.getPreviousX();
+      this.appendPixel(previousX, this.getPreviousY(), true);
       // step down (or up) to the y=0 for the last value (in y)
-      x[count + 1] = x[count];
+      this.appendPixel(previousX, yStart, false);
       // step back to startx,starty (root)
-      x[count + 2] = this.m_chart.getXChartStart();
-
-      final int[] y = new int[this.m_yPoints.size() + 4];
-      y[0] = this.m_chart.getYChartStart();
-      count = 1;
-      for (final Integer ypoint : this.m_yPoints) {
-        y[count] = ypoint.intValue();
-        count++;
-      }
-      y[count] = this.getPreviousY();
-      // step down (or up) to the y=0 for the last value (in y)
-      y[count + 1] = this.m_chart.getYChartStart();
-      // step back to startx,starty (root)
-      y[count + 2] = this.m_chart.getYChartStart();
+      this.appendPixel(xStart, yStart, false);
+      this.m_xPoints[0] = xStart;
+      this.m_yPoints[0] = yStart;
 
-      g2d.fillPolygon(x, y, x.length);
+      g2d.fillPolygon(this.m_xPoints, this.m_yPoints, this.m_pointCount);
     }
   }
 
@@ -146,19 +185,14 @@ public class TracePainterFill extends ATracePainter {
     } else if (!this.m_chart.equals(other.m_chart)) {
       return false;
     }
-    if (this.m_xPoints == null) {
-      if (other.m_xPoints != null) {
-        return false;
-      }
-    } else if (!this.m_xPoints.equals(other.m_xPoints)) {
+    if (this.m_pointCount != other.m_pointCount) {
       return false;
     }
-    if (this.m_yPoints == null) {
-      if (other.m_yPoints != null) {
+    // the root in the first entry may not have been written yet:
+    for (int i = 1; i < this.m_pointCount; i++) {
+      if (this.m_xPoints[i] != other.m_xPoints[i] || this.m_yPoints[i] != other.m_yPoints[i]) {
         return false;
       }
-    } else if (!this.m_yPoints.equals(other.m_yPoints)) {
-      return false;
     }
     return true;
   }
@@ -171,8 +205,10 @@ public class TracePainterFill extends ATracePainter {
     final int prime = 31;
     int result = super.hashCode();
     result = prime * result + ((this.m_chart == null) ? 0 : this.m_chart.hashCode());
-    result = prime * result + ((this.m_xPoints == null) ? 0 : this.m_xPoints.hashCode());
-    result = prime * result + ((this.m_yPoints == null) ? 0 : this.m_yPoints.hashCode());
+    for (int i = 1; i < this.m_pointCount; i++) {
+      result = prime * result + this.m_xPoints[i];
+      result = prime * result + this.m_yPoints[i];
+    }
     return result;
   }
 
@@ -185,8 +221,7 @@ public class TracePainterFill extends ATracePainter {
   public void paintPoint(final int absoluteX, final int absoluteY, final int nextX,
       final int nextY, final Graphics g, final ITracePoint2D original) {
 
-    this.m_xPoints.add(Integer.valueOf(absoluteX));
-    this.m_yPoints.add(Integer.valueOf(absoluteY));
+    this.appendPixel(absoluteX, absoluteY, true);
     super.paintPoint(absoluteX, absoluteY, nextX, nextY, g, original);
   }
 
@@ -195,8 +230,8 @@ public class TracePainterFill extends ATracePainter {
    */
   @Override
   public void startPaintIteration(final Graphics g2d) {
-    this.m_xPoints = new LinkedList<Integer>();
-    this.m_yPoints = new LinkedList<Integer>();
+    // keep the first entry for the root of the chart:
+    this.m_pointCount = 1;
   }
 
 }
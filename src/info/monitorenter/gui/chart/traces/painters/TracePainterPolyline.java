@@ -24,8 +24,6 @@ package info.monitorenter.gui.chart.traces.painters;
 import info.monitorenter.gui.chart.ITracePoint2D;
 
 import java.awt.Graphics;
-import java.util.LinkedList;
-import java.util.List;
 
 /**
  * A trace painter that increases performance by summing up all points to render
@@ -36,6 +34,11 @@ import java.util.List;
  * paint for a paint call of the corresponding
  * {@link info.monitorenter.gui.chart.Chart2D}.
  * <p>
+ * The pixel coordinates are collected in primitive arrays that only grow and
+ * are reused for the following paint iterations. Consecutive identical pixels
+ * are collapsed into one. So repaints of traces that do not grow do not
+ * allocate any memory.
+ * <p>
  * 
  * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
  * @version $Revision: 1.22 $
@@ -45,11 +48,20 @@ public class TracePainterPolyline extends ATracePainter {
   /** Generated <code>serialVersionUID</code>. */
   private static final long serialVersionUID = 142122979535173974L;
 
-  /** The list of x coordinates collected in one paint iteration. */
-  private List<Integer> m_xPoints;
+  /** The amount of coordinates collected in the current paint iteration. */
+  private int m_pointCount;
 
-  /** The list of y coordinates collected in one paint iteration. */
-  private List<Integer> m_yPoints;
+  /**
+   * The x coordinates collected in one paint iteration, only the first
+   * <code>{@link #m_pointCount}</code> entries are valid.
+   */
+  private int[] m_xPoints = new int[0];
+
+  /**
+   * The y coordinates collected in one paint iteration, only the first
+   * <code>{@link #m_pointCount}</code> entries are valid.
+   */
+  private int[] m_yPoints = new int[0];
 
   /**
    * Default Constructor.
@@ -59,30 +71,52 @@ public class TracePainterPolyline extends ATracePainter {
     // nop
   }
 
+  /**
+   * Appends the given pixel coordinates to the collected ones unless they are
+   * equal to the last collected coordinates.
+   * <p>
+   * The arrays are enlarged if necessary but never shrink.
+   * <p>
+   * 
+   * @param x
+   *          the x pixel coordinate.
+   * 
+   * @param y
+   *          the y pixel coordinate.
+   * 
+   * @param collapse
+   *          if false the coordinates are appended even if they are equal to
+   *          the last collected coordinates.
+   */
+  private void appendPixel(final int x, final int y, final boolean collapse) {
+    final int count = this.m_pointCount;
+    if (collapse && (count > 0) && (this.m_xPoints[count - 1] == x)
+        && (this.m_yPoints[count - 1] == y)) {
+      return;
+    }
+    if (count == this.m_xPoints.length) {
+      final int capacity = Math.max(64, count * 2);
+      int[] grown = new int[capacity];
+      System.arraycopy(this.m_xPoints, 0, grown, 0, count);
+      this.m_xPoints = grown;
+      grown = new int[capacity];
+      System.arraycopy(this.m_yPoints, 0, grown, 0, count);
+      this.m_yPoints = grown;
+    }
+    this.m_xPoints[count] = x;
+    this.m_yPoints[count] = y;
+    this.m_pointCount = count + 1;
+  }
+
   /**
    * @see info.monitorenter.gui.chart.ITracePainter#endPaintIteration(java.awt.Graphics)
    */
   @Override
   public void endPaintIteration(final Graphics g2d) {
     if (g2d != null) {
-
-      final int[] x = new int[this.m_xPoints.size() + 1];
-      int count = 0;
-      for (final Integer xpoint : this.m_xPoints) {
-        x[count] = xpoint.intValue();
-        count++;
-      }
-      x[count] = this.getPreviousX();
-
-      final int[] y = new int[this.m_yPoints.size() + 1];
-      count = 0;
-      for (final Integer ypoint : this.m_yPoints) {
-        y[count] = ypoint.intValue();
-        count++;
-      }
-      y[count] = this.getPreviousY();
-
-      g2d.drawPolyline(x, y, x.length);
+      // keep a degenerated segment if all points share the same pixel:
+      this.appendPixel(this.getPreviousX(), this.getPreviousY(), this.m_pointCount > 1);
+      g2d.drawPolyline(this.m_xPoints, this.m_yPoints, this.m_pointCount);
     }
   }
 
@@ -101,19 +135,13 @@ public class TracePainterPolyline extends ATracePainter {
       return false;
     }
     final TracePainterPolyline other = (TracePainterPolyline) obj;
-    if (this.m_xPoints == null) {
-      if (other.m_xPoints != null) {
-        return false;
-      }
-    } else if (!this.m_xPoints.equals(other.m_xPoints)) {
+    if (this.m_pointCount != other.m_pointCount) {
       return false;
     }
-    if (this.m_yPoints == null) {
-      if (other.m_yPoints != null) {
+    for (int i = 0; i < this.m_pointCount; i++) {
+      if (this.m_xPoints[i] != other.m_xPoints[i] || this.m_yPoints[i] != other.m_yPoints[i]) {
         return false;
       }
-    } else if (!this.m_yPoints.equals(other.m_yPoints)) {
-      return false;
     }
     return true;
   }
@@ -125,8 +153,10 @@ public class TracePainterPolyline extends ATracePainter {
   public int hashCode() {
     final int prime = 31;
     int result = super.hashCode();
-    result = prime * result + ((this.m_xPoints == null) ? 0 : this.m_xPoints.hashCode());
-    result = prime * result + ((this.m_yPoints == null) ? 0 : this.m_yPoints.hashCode());
+    for (int i = 0; i < this.m_pointCount; i++) {
+      result = prime * result + this.m_xPoints[i];
+      result = prime * result + this.m_yPoints[i];
+    }
     return result;
   }
 
@@ -139,9 +169,7 @@ public class TracePainterPolyline extends ATracePainter {
   public void paintPoint(final int absoluteX, final int absoluteY, final int nextX,
       final int nextY, final Graphics g, final ITracePoint2D original) {
     super.paintPoint(absoluteX, absoluteY, nextX, nextY, g, original);
-    this.m_xPoints.add(new Integer(absoluteX));
-    this.m_yPoints.add(new Integer(absoluteY));
-
+    this.appendPixel(absoluteX, absoluteY, true);
   }
 
   /**
@@ -150,16 +178,7 @@ public class TracePainterPolyline extends ATracePainter {
   @Override
   public void startPaintIteration(final Graphics g2d) {
     super.startPaintIteration(g2d);
-    if (this.m_xPoints == null) {
-      this.m_xPoints = new LinkedList<Integer>();
-    } else {
-      this.m_xPoints.clear();
-    }
-    if (this.m_yPoints == null) {
-      this.m_yPoints = new LinkedList<Integer>();
-    } else {
-      this.m_yPoints.clear();
-    }
+    this.m_pointCount = 0;
   }
 
 }
@@ -0,0 +1,308 @@
+/*
+ * DoubleHashMap, a hash map with primitive double keys.
+ * Copyright (c) 2004 - 2011  Achim Westermann, Achim.Westermann@gmx.de
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * If you modify or optimize the code in a useful way please let me know.
+ * Achim.Westermann@gmx.de
+ */
+package info.monitorenter.util.collections;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive <code>double</code> keys to non-null values.
+ * <p>
+ * Used as an index of trace points by their x values: Unlike a
+ * <code>{@link java.util.HashMap}</code> no <code>{@link Double}</code> key
+ * and no entry is allocated per mapping.
+ * <p>
+ * Keys are stored in an array of their bits, values in a parallel array (open
+ * addressing with linear probing). Removals shift the following entries of the
+ * probe sequence back, so no tombstones accumulate for maps that are updated
+ * forever.
+ * <p>
+ * Keys are considered equal if they are equal by <code>==</code> (so
+ * <code>0.0</code> and <code>-0.0</code> are the same key) or if both are
+ * <code>{@link Double#NaN}</code>.
+ * <p>
+ * This implementation is not synchronized.
+ * <p>
+ *
+ * @param <V>
+ *          the type of the values.
+ *
+ * @author <a href='mailto:Achim.Westermann@gmx.de'>Achim Westermann </a>
+ */
+public class DoubleHashMap<V> implements Serializable {
+
+  /** Generated <code>serialVersionUID</code>. */
+  private static final long serialVersionUID = 6640591206744007123L;
+
+  /**
+   * Returns the bits of the given key with <code>-0.0</code> mapped to
+   * <code>0.0</code> and all <code>NaN</code> values mapped to the canonical
+   * one.
+   * <p>
+   *
+   * @param key
+   *          the key.
+   *
+   * @return the bits of the given key.
+   */
+  private static long bits(final double key) {
+    if (key == 0.0) {
+      return 0L;
+    }
+    return Double.doubleToLongBits(key);
+  }
+
+  /** The bits of the keys, valid where the value is not null. */
+  private long[] m_keys;
+
+  /** The amount of mappings. */
+  private int m_size;
+
+  /** The values, null for free slots. */
+  private Object[] m_values;
+
+  /**
+   * Creates an empty map.
+   * <p>
+   */
+  public DoubleHashMap() {
+    this(16);
+  }
+
+  /**
+   * Creates an empty map that does not grow before the given amount of
+   * mappings is reached.
+   * <p>
+   *
+   * @param expectedSize
+   *          the amount of mappings expected.
+   */
+  public DoubleHashMap(final int expectedSize) {
+    int capacity = 16;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    this.m_keys = new long[capacity];
+    this.m_values = new Object[capacity];
+  }
+
+  /**
+   * Removes all mappings.
+   * <p>
+   */
+  public void clear() {
+    if (this.m_size > 0) {
+      Arrays.fill(this.m_values, null);
+      this.m_size = 0;
+    }
+  }
+
+  /**
+   * Returns true if a value is mapped to the given key.
+   * <p>
+   *
+   * @param key
+   *          the key to look up.
+   *
+   * @return true if a value is mapped to the given key.
+   */
+  public boolean containsKey(final double key) {
+    return this.slot(DoubleHashMap.bits(key)) >= 0;
+  }
+
+  /**
+   * Returns the value mapped to the given key or null.
+   * <p>
+   *
+   * @param key
+   *          the key to look up.
+   *
+   * @return the value mapped to the given key or null.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(final double key) {
+    final int slot = this.slot(DoubleHashMap.bits(key));
+    if (slot < 0) {
+      return null;
+    }
+    return (V) this.m_values[slot];
+  }
+
+  /**
+   * Returns the first slot of the probe sequence of the given key bits.
+   * <p>
+   *
+   * @param bits
+   *          the bits of the key.
+   *
+   * @return the first slot of the probe sequence of the given key bits.
+   */
+  private int home(final long bits) {
+    // spread the high bits of exponent and mantissa:
+    long hash = bits * 0x9E3779B97F4A7C15L;
+    hash ^= hash >>> 32;
+    return (int) hash & (this.m_keys.length - 1);
+  }
+
+  /**
+   * Returns true if no value is mapped.
+   * <p>
+   *
+   * @return true if no value is mapped.
+   */
+  public boolean isEmpty() {
+    return this.m_size == 0;
+  }
+
+  /**
+   * Maps the given value to the given key.
+   * <p>
+   *
+   * @param key
+   *          the key.
+   *
+   * @param value
+   *          the value, not null.
+   *
+   * @return the value previously mapped to the key or null.
+   *
+   * @throws IllegalArgumentException
+   *           if the value is null.
+   */
+  @SuppressWarnings("unchecked")
+  public V put(final double key, final V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Null values are not supported.");
+    }
+    final long bits = DoubleHashMap.bits(key);
+    final int mask = this.m_keys.length - 1;
+    int slot = this.home(bits);
+    while (this.m_values[slot] != null) {
+      if (this.m_keys[slot] == bits) {
+        final V result = (V) this.m_values[slot];
+        this.m_values[slot] = value;
+        return result;
+      }
+      slot = (slot + 1) & mask;
+    }
+    this.m_keys[slot] = bits;
+    this.m_values[slot] = value;
+    this.m_size++;
+    if (this.m_size * 2 > this.m_keys.length) {
+      this.rehash(this.m_keys.length * 2);
+    }
+    return null;
+  }
+
+  /**
+   * Moves all mappings to arrays of the given capacity.
+   * <p>
+   *
+   * @param capacity
+   *          the new capacity, a power of two.
+   */
+  private void rehash(final int capacity) {
+    final long[] keys = this.m_keys;
+    final Object[] values = this.m_values;
+    this.m_keys = new long[capacity];
+    this.m_values = new Object[capacity];
+    final int mask = capacity - 1;
+    int slot;
+    for (int i = keys.length - 1; i >= 0; i--) {
+      if (values[i] != null) {
+        slot = this.home(keys[i]);
+        while (this.m_values[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        this.m_keys[slot] = keys[i];
+        this.m_values[slot] = values[i];
+      }
+    }
+  }
+
+  /**
+   * Removes the mapping of the given key.
+   * <p>
+   *
+   * @param key
+   *          the key of the mapping to remove.
+   *
+   * @return the value that was mapped to the key or null.
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(final double key) {
+    int slot = this.slot(DoubleHashMap.bits(key));
+    if (slot < 0) {
+      return null;
+    }
+    final V result = (V) this.m_values[slot];
+    // shift back the entries of the probe sequence that may not be found
+    // anymore after freeing the slot:
+    final int mask = this.m_keys.length - 1;
+    int next = (slot + 1) & mask;
+    int home;
+    while (this.m_values[next] != null) {
+      home = this.home(this.m_keys[next]);
+      // move if home is not cyclically within (slot, next]:
+      if (((next - home) & mask) >= ((next - slot) & mask)) {
+        this.m_keys[slot] = this.m_keys[next];
+        this.m_values[slot] = this.m_values[next];
+        slot = next;
+      }
+      next = (next + 1) & mask;
+    }
+    this.m_values[slot] = null;
+    this.m_size--;
+    return result;
+  }
+
+  /**
+   * Returns the amount of mappings.
+   * <p>
+   *
+   * @return the amount of mappings.
+   */
+  public int size() {
+    return this.m_size;
+  }
+
+  /**
+   * Returns the slot of the given key bits or -1 if not contained.
+   * <p>
+   *
+   * @param bits
+   *          the bits of the key.
+   *
+   * @return the slot of the given key bits or -1 if not contained.
+   */
+  private int slot(final long bits) {
+    final int mask = this.m_keys.length - 1;
+    int slot = this.home(bits);
+    while (this.m_values[slot] != null) {
+      if (this.m_keys[slot] == bits) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+}
@@ -229,6 +229,24 @@ public class RingBufferArray<T> extends RingBufferArrayFast<T> {
     return result;
   }
 
+  /**
+   * Returns the pending removed elements first as they are the oldest.
+   * <p>
+   * 
+   * @see info.monitorenter.util.collections.RingBufferArrayFast#get(int)
+   */
+  @Override
+  public T get(final int index) throws IndexOutOfBoundsException {
+    final int pending = this.m_pendingremove.size();
+    T result;
+    if ((index >= 0) && (index < pending)) {
+      result = this.m_pendingremove.get(index);
+    } else {
+      result = super.get(index - pending);
+    }
+    return result;
+  }
+
   /**
    * @see info.monitorenter.util.collections.IRingBuffer#isEmpty()
    */
@@ -289,6 +307,26 @@ public class RingBufferArray<T> extends RingBufferArrayFast<T> {
     };
   }
 
+  /**
+   * Skips the elements before the given position of an iterator returned by
+   * <code>{@link #iteratorL2F()}</code> because the pending removed elements
+   * are not indexed.
+   * <p>
+   * 
+   * @see info.monitorenter.util.collections.RingBufferArrayFast#iteratorL2F(int)
+   */
+  @Override
+  public java.util.Iterator<T> iteratorL2F(final int start) throws IndexOutOfBoundsException {
+    if ((start < 0) || (start > this.size())) {
+      throw new IndexOutOfBoundsException("Index: " + start + ", size: " + this.size());
+    }
+    final Iterator<T> result = this.iteratorL2F();
+    for (int i = 0; (i < start) && result.hasNext(); i++) {
+      result.next();
+    }
+    return result;
+  }
+
   /**
    * @see info.monitorenter.util.collections.IRingBuffer#remove()
    */
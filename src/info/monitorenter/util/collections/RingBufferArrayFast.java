@@ -330,6 +330,48 @@ public class RingBufferArrayFast<T> implements Cloneable, IRingBuffer<T> {
     return true;
   }
 
+  /**
+   * Returns the element at the given position counted from the oldest element
+   * (index 0) to the youngest element (index <code>size() - 1</code>). This
+   * method does not remove the element.
+   * <p>
+   * 
+   * @param index
+   *          the position of the element counted from the oldest element.
+   * 
+   * @return the element at the given position.
+   * 
+   * @throws IndexOutOfBoundsException
+   *           if the index is negative or not smaller than the amount of
+   *           elements in the buffer.
+   */
+  @SuppressWarnings("unchecked")
+  public T get(final int index) throws IndexOutOfBoundsException {
+    if ((index < 0) || (index >= this.size())) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + this.size());
+    }
+    return (T) this.m_buffer[this.getArrayIndex(index)];
+  }
+
+  /**
+   * Returns the index into the internal array of the element at the given
+   * position counted from the oldest element.
+   * <p>
+   * 
+   * @param index
+   *          the position of the element counted from the oldest element.
+   * 
+   * @return the index into the internal array of the element at the given
+   *         position.
+   */
+  private int getArrayIndex(final int index) {
+    int result = this.m_tailpointer + index;
+    if (result > this.m_size) {
+      result -= this.m_size + 1;
+    }
+    return result;
+  }
+
   /**
    * @see info.monitorenter.util.collections.IRingBuffer#getBufferSize()
    */
@@ -491,9 +533,39 @@ public class RingBufferArrayFast<T> implements Cloneable, IRingBuffer<T> {
    *         the order the subsequent call to <code>remove()</code> would do.
    */
   public java.util.Iterator<T> iteratorL2F() {
+    return this.iteratorL2F(0);
+  }
+
+  /**
+   * Returns an <code>Iterator</code> that will return the elements in exactly
+   * the order the subsequent call to <code>remove()</code> would do starting
+   * with the element at the given position (see <code>{@link #get(int)}</code>
+   * ).
+   * <p>
+   * This allows to iterate over a part of the buffer after a binary search over
+   * <code>{@link #get(int)}</code> in case the elements are sorted. <b>The
+   * <code>Iterator</code> returned is not thread- safe! </b>
+   * <p>
+   * 
+   * @param start
+   *          the position of the first element to return counted from the
+   *          oldest element.
+   * 
+   * @return an <code>Iterator</code> that will return the elements from the
+   *         given position to the youngest element.
+   * 
+   * @throws IndexOutOfBoundsException
+   *           if the position is negative or greater than the amount of
+   *           elements in the buffer.
+   */
+  public java.util.Iterator<T> iteratorL2F(final int start) throws IndexOutOfBoundsException {
+    if ((start < 0) || (start > this.size())) {
+      throw new IndexOutOfBoundsException("Index: " + start + ", size: " + this.size());
+    }
     return new ARingBufferIterator() {
       {
-        this.m_pos = RingBufferArrayFast.this.m_tailpointer;
+        this.m_pos = RingBufferArrayFast.this.getArrayIndex(start);
+        this.m_count = start;
       }
 
       /**
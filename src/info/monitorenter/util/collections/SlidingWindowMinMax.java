@@ -0,0 +1,333 @@
+/*
+ * SlidingWindowMinMax, tracks minimum and maximum of the latest values.
+ * Copyright (c) 2004 - 2011  Achim Westermann, Achim.Westermann@gmx.de
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * If you modify or optimize the code in a useful way please let me know.
+ * Achim.Westermann@gmx.de
+ */
+package info.monitorenter.util.collections;
+
+import java.io.Serializable;
+
+/**
+ * Tracks the minimum and the maximum of the latest added values (a sliding
+ * window of a fixed size) in amortized constant time per added value.
+ * <p>
+ * This is the companion of an <code>{@link IRingBuffer}</code>: If every value
+ * added to the ring buffer is also added to an instance of this class with the
+ * same window size, <code>{@link #getMin()}</code> and
+ * <code>{@link #getMax()}</code> return the extrema of the values in the ring
+ * buffer without iterating it.
+ * <p>
+ * Internally two monotonic deques are kept: Every value that can never become
+ * the extremum again (because a newer value is more extreme) is dropped when
+ * added, the oldest value is dropped when it leaves the window. So the head of
+ * each deque is the current extremum.
+ * <p>
+ * <code>{@link Double#NaN}</code> values are counted for the window but
+ * ignored for the extrema (like comparison based searches do).
+ * <p>
+ * This implementation is not synchronized.
+ * <p>
+ *
+ * @author <a href='mailto:Achim.Westermann@gmx.de'>Achim Westermann </a>
+ */
+public class SlidingWindowMinMax implements Serializable {
+
+  /**
+   * A deque of (position, value) pairs with monotonic values stored in
+   * circular primitive arrays.
+   * <p>
+   * 
+   * @author <a href='mailto:Achim.Westermann@gmx.de'>Achim Westermann </a>
+   */
+  private static final class MonotonicDeque implements Serializable {
+
+    /** Generated <code>serialVersionUID</code>. */
+    private static final long serialVersionUID = -2425617745458185536L;
+
+    /** The index of the head (oldest entry, the extremum). */
+    private int m_head = 0;
+
+    /** If true values decrease from head to tail (maximum deque). */
+    private final boolean m_max;
+
+    /** The positions of the entries. */
+    private long[] m_positions;
+
+    /** The amount of entries. */
+    private int m_size = 0;
+
+    /** The values of the entries. */
+    private double[] m_values;
+
+    /**
+     * Creates an empty deque.
+     * <p>
+     * 
+     * @param max
+     *          true for a deque that tracks the maximum, false for the minimum.
+     * 
+     * @param capacity
+     *          the initial capacity.
+     */
+    protected MonotonicDeque(final boolean max, final int capacity) {
+      this.m_max = max;
+      this.m_positions = new long[capacity];
+      this.m_values = new double[capacity];
+    }
+
+    /**
+     * Appends the given value and drops all entries that are dominated by it.
+     * <p>
+     * 
+     * @param position
+     *          the position of the value.
+     * 
+     * @param value
+     *          the value to add.
+     * 
+     * @param maxCapacity
+     *          the capacity the internal arrays may grow to.
+     */
+    protected void add(final long position, final double value, final int maxCapacity) {
+      int tail;
+      double last;
+      while (this.m_size > 0) {
+        tail = this.toIndex(this.m_size - 1);
+        last = this.m_values[tail];
+        if ((this.m_max && (last <= value)) || (!this.m_max && (last >= value))) {
+          this.m_size--;
+        } else {
+          break;
+        }
+      }
+      if (this.m_size == this.m_values.length) {
+        this.grow(maxCapacity);
+      }
+      tail = this.toIndex(this.m_size);
+      this.m_positions[tail] = position;
+      this.m_values[tail] = value;
+      this.m_size++;
+    }
+
+    /**
+     * Removes all entries.
+     * <p>
+     */
+    protected void clear() {
+      this.m_head = 0;
+      this.m_size = 0;
+    }
+
+    /**
+     * Drops all entries with a position smaller than the given one.
+     * <p>
+     * 
+     * @param oldestPosition
+     *          the position of the oldest value within the window.
+     */
+    protected void expire(final long oldestPosition) {
+      while ((this.m_size > 0) && (this.m_positions[this.m_head] < oldestPosition)) {
+        this.m_head = this.toIndex(1);
+        this.m_size--;
+      }
+    }
+
+    /**
+     * Returns the extremum or the given default value if empty.
+     * <p>
+     * 
+     * @param empty
+     *          the value to return if no value is contained.
+     * 
+     * @return the extremum or the given default value if empty.
+     */
+    protected double getExtremum(final double empty) {
+      double result = empty;
+      if (this.m_size > 0) {
+        result = this.m_values[this.m_head];
+      }
+      return result;
+    }
+
+    /**
+     * Doubles the capacity (limited by the given maximum capacity) and moves the
+     * head to index 0.
+     * <p>
+     * 
+     * @param maxCapacity
+     *          the capacity the internal arrays may grow to.
+     */
+    private void grow(final int maxCapacity) {
+      final int capacity = this.m_values.length;
+      final int newCapacity = Math.max(this.m_size + 1, Math.min(maxCapacity, capacity * 2));
+      final long[] positions = new long[newCapacity];
+      final double[] values = new double[newCapacity];
+      final int firstPart = Math.min(this.m_size, capacity - this.m_head);
+      System.arraycopy(this.m_positions, this.m_head, positions, 0, firstPart);
+      System.arraycopy(this.m_positions, 0, positions, firstPart, this.m_size - firstPart);
+      System.arraycopy(this.m_values, this.m_head, values, 0, firstPart);
+      System.arraycopy(this.m_values, 0, values, firstPart, this.m_size - firstPart);
+      this.m_positions = positions;
+      this.m_values = values;
+      this.m_head = 0;
+    }
+
+    /**
+     * Translates the given offset from the head to the index within the arrays.
+     * <p>
+     * 
+     * @param offset
+     *          an offset from the head.
+     * 
+     * @return the index within the arrays.
+     */
+    private int toIndex(final int offset) {
+      int result = this.m_head + offset;
+      if (result >= this.m_values.length) {
+        result -= this.m_values.length;
+      }
+      return result;
+    }
+  }
+
+  /** The initial capacity of the deques. */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** Generated <code>serialVersionUID</code>. */
+  private static final long serialVersionUID = 5286011457339470725L;
+
+  /** The amount of values added since creation (position of the next value). */
+  private long m_added = 0;
+
+  /** The deque for the maximum. */
+  private final MonotonicDeque m_max;
+
+  /** The deque for the minimum. */
+  private final MonotonicDeque m_min;
+
+  /** The amount of latest values to respect. */
+  private int m_windowSize;
+
+  /**
+   * Creates an instance that respects the given amount of latest values.
+   * <p>
+   * 
+   * @param windowSize
+   *          the amount of latest values to respect.
+   * 
+   * @throws IllegalArgumentException
+   *           if the window size is smaller than 1.
+   */
+  public SlidingWindowMinMax(final int windowSize) throws IllegalArgumentException {
+    if (windowSize < 1) {
+      throw new IllegalArgumentException("Window size has to be at least 1 (is " + windowSize
+          + ").");
+    }
+    this.m_windowSize = windowSize;
+    final int capacity = Math.min(windowSize, SlidingWindowMinMax.INITIAL_CAPACITY);
+    this.m_max = new MonotonicDeque(true, capacity);
+    this.m_min = new MonotonicDeque(false, capacity);
+  }
+
+  /**
+   * Adds the given value as the latest value and drops the oldest value if the
+   * window is full.
+   * <p>
+   * 
+   * @param value
+   *          the value to add.
+   */
+  public void add(final double value) {
+    final long position = this.m_added;
+    this.m_added++;
+    final long oldestPosition = this.m_added - this.m_windowSize;
+    this.m_max.expire(oldestPosition);
+    this.m_min.expire(oldestPosition);
+    if (!Double.isNaN(value)) {
+      this.m_max.add(position, value, this.m_windowSize);
+      this.m_min.add(position, value, this.m_windowSize);
+    }
+  }
+
+  /**
+   * Removes all values.
+   * <p>
+   */
+  public void clear() {
+    this.m_max.clear();
+    this.m_min.clear();
+  }
+
+  /**
+   * Returns the maximum of the values within the window or
+   * <code>-{@link Double#MAX_VALUE}</code> if there are none.
+   * <p>
+   * 
+   * @return the maximum of the values within the window or
+   *         <code>-{@link Double#MAX_VALUE}</code> if there are none.
+   */
+  public double getMax() {
+    return this.m_max.getExtremum(-Double.MAX_VALUE);
+  }
+
+  /**
+   * Returns the minimum of the values within the window or
+   * <code>{@link Double#MAX_VALUE}</code> if there are none.
+   * <p>
+   * 
+   * @return the minimum of the values within the window or
+   *         <code>{@link Double#MAX_VALUE}</code> if there are none.
+   */
+  public double getMin() {
+    return this.m_min.getExtremum(Double.MAX_VALUE);
+  }
+
+  /**
+   * Returns the amount of latest values to respect.
+   * <p>
+   * 
+   * @return the amount of latest values to respect.
+   */
+  public int getWindowSize() {
+    return this.m_windowSize;
+  }
+
+  /**
+   * Sets the amount of latest values to respect.
+   * <p>
+   * If the window is decreased the oldest values are dropped.
+   * <p>
+   * 
+   * @param windowSize
+   *          the amount of latest values to respect.
+   * 
+   * @throws IllegalArgumentException
+   *           if the window size is smaller than 1.
+   */
+  public void setWindowSize(final int windowSize) throws IllegalArgumentException {
+    if (windowSize < 1) {
+      throw new IllegalArgumentException("Window size has to be at least 1 (is " + windowSize
+          + ").");
+    }
+    this.m_windowSize = windowSize;
+    final long oldestPosition = this.m_added - this.m_windowSize;
+    this.m_max.expire(oldestPosition);
+    this.m_min.expire(oldestPosition);
+  }
+}
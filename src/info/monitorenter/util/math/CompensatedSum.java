@@ -0,0 +1,90 @@
+/*
+ *  CompensatedSum.java of project jchart2d, a running sum of doubles with
+ *  compensation of the rounding errors.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.util.math;
+
+import java.io.Serializable;
+
+/**
+ * A running sum of double values that compensates the rounding errors of the
+ * single additions (Kahan - Babuska - Neumaier summation).
+ * <p>
+ * Useful for sums over a sliding window that are updated by adding the newest
+ * and subtracting the oldest value: A plain running sum drifts away from the
+ * sum of the values in the window with every update, the compensated sum stays
+ * exact up to the rounding of the result.
+ * <p>
+ * This implementation is not synchronized.
+ * <p>
+ *
+ * @author <a href='mailto:Achim.Westermann@gmx.de'>Achim Westermann </a>
+ *
+ * @version $Revision: 1.1 $
+ */
+public class CompensatedSum implements Serializable {
+
+  /** Generated <code>serialVersionUID</code>. */
+  private static final long serialVersionUID = 6120474419532780519L;
+
+  /** The accumulated rounding errors of the additions. */
+  private double m_compensation;
+
+  /** The sum without the compensation. */
+  private double m_sum;
+
+  /**
+   * Adds the given value to the sum.
+   * <p>
+   *
+   * @param value
+   *          the value to add (negative to subtract).
+   */
+  public void add(final double value) {
+    final double sum = this.m_sum + value;
+    if (Math.abs(this.m_sum) >= Math.abs(value)) {
+      this.m_compensation += (this.m_sum - sum) + value;
+    } else {
+      this.m_compensation += (value - sum) + this.m_sum;
+    }
+    this.m_sum = sum;
+  }
+
+  /**
+   * Resets the sum to zero.
+   * <p>
+   */
+  public void clear() {
+    this.m_sum = 0;
+    this.m_compensation = 0;
+  }
+
+  /**
+   * Returns the sum of all added values.
+   * <p>
+   *
+   * @return the sum of all added values.
+   */
+  public double getSum() {
+    return this.m_sum + this.m_compensation;
+  }
+}
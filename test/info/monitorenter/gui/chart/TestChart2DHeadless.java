@@ -22,13 +22,33 @@
  */
 package info.monitorenter.gui.chart;
 
+import info.monitorenter.gui.chart.axis.AAxis;
+import info.monitorenter.gui.chart.axis.AxisInverse;
+import info.monitorenter.gui.chart.axis.AxisLinear;
+import info.monitorenter.gui.chart.axis.AxisLog10;
 import info.monitorenter.gui.chart.events.Chart2DActionSaveImageSingleton;
+import info.monitorenter.gui.chart.rangepolicies.RangePolicyFixedViewport;
+import info.monitorenter.gui.chart.rangepolicies.RangePolicyHighestValues;
+import info.monitorenter.gui.chart.traces.Trace2DColumnar;
 import info.monitorenter.gui.chart.traces.Trace2DLtd;
 import info.monitorenter.gui.chart.traces.Trace2DSimple;
+import info.monitorenter.gui.chart.traces.painters.ATracePainter;
+import info.monitorenter.gui.chart.traces.painters.TracePainterFill;
+import info.monitorenter.gui.chart.traces.painters.TracePainterLine;
+import info.monitorenter.gui.chart.traces.painters.TracePainterPolyline;
+import info.monitorenter.util.Range;
 
+import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
 import java.util.WeakHashMap;
 
 import javax.swing.JFrame;
@@ -53,6 +73,153 @@ import junit.textui.TestRunner;
 public class TestChart2DHeadless
     extends TestCase {
 
+  /**
+   * The fill painter as it was before it collected its pixels in reusable
+   * arrays: Every pixel is kept and the polygon is created at the end of the
+   * paint iteration.
+   * <p>
+   */
+  private static final class ListFillPainter extends ATracePainter {
+
+    /** Generated <code>serialVersionUID</code>. */
+    private static final long serialVersionUID = 1935285462717353826L;
+
+    /** The chart to paint to. */
+    private final Chart2D m_chart;
+
+    /** The x coordinates collected in one paint iteration. */
+    private List<Integer> m_xPoints;
+
+    /** The y coordinates collected in one paint iteration. */
+    private List<Integer> m_yPoints;
+
+    /**
+     * Creates a painter for the given chart.
+     * <p>
+     * 
+     * @param chart
+     *          the chart to paint to.
+     */
+    ListFillPainter(final Chart2D chart) {
+      this.m_chart = chart;
+    }
+
+    /**
+     * @see info.monitorenter.gui.chart.traces.painters.ATracePainter#endPaintIteration(java.awt.Graphics)
+     */
+    @Override
+    public void endPaintIteration(final Graphics g2d) {
+      if (g2d != null) {
+        int[] x = new int[this.m_xPoints.size() + 4];
+        int[] y = new int[x.length];
+        x[0] = this.m_chart.getXChartStart();
+        y[0] = this.m_chart.getYChartStart();
+        int count = 1;
+        for (int i = 0; i < this.m_xPoints.size(); i++) {
+          x[count] = this.m_xPoints.get(i).intValue();
+          y[count] = this.m_yPoints.get(i).intValue();
+          count++;
+        }
+        x[count] = this.getPreviousX();
+        y[count] = this.getPreviousY();
+        x[count + 1] = x[count];
+        y[count + 1] = this.m_chart.getYChartStart();
+        x[count + 2] = this.m_chart.getXChartStart();
+        y[count + 2] = this.m_chart.getYChartStart();
+        g2d.fillPolygon(x, y, x.length);
+      }
+    }
+
+    /**
+     * @see info.monitorenter.gui.chart.traces.painters.ATracePainter#paintPoint(int,
+     *      int, int, int, java.awt.Graphics,
+     *      info.monitorenter.gui.chart.ITracePoint2D)
+     */
+    @Override
+    public void paintPoint(final int absoluteX, final int absoluteY, final int nextX,
+        final int nextY, final Graphics g, final ITracePoint2D original) {
+      this.m_xPoints.add(Integer.valueOf(absoluteX));
+      this.m_yPoints.add(Integer.valueOf(absoluteY));
+      super.paintPoint(absoluteX, absoluteY, nextX, nextY, g, original);
+    }
+
+    /**
+     * @see info.monitorenter.gui.chart.traces.painters.ATracePainter#startPaintIteration(java.awt.Graphics)
+     */
+    @Override
+    public void startPaintIteration(final Graphics g2d) {
+      this.m_xPoints = new LinkedList<Integer>();
+      this.m_yPoints = new LinkedList<Integer>();
+    }
+  }
+
+  /**
+   * The polyline painter as it was before it collected its pixels in reusable
+   * arrays: Every pixel is kept and the polyline is created at the end of the
+   * paint iteration.
+   * <p>
+   */
+  private static final class ListPolylinePainter extends ATracePainter {
+
+    /** Generated <code>serialVersionUID</code>. */
+    private static final long serialVersionUID = -2836447431375180916L;
+
+    /** The x coordinates collected in one paint iteration. */
+    private List<Integer> m_xPoints;
+
+    /** The y coordinates collected in one paint iteration. */
+    private List<Integer> m_yPoints;
+
+    /**
+     * Defcon.
+     * <p>
+     */
+    ListPolylinePainter() {
+      // nop
+    }
+
+    /**
+     * @see info.monitorenter.gui.chart.traces.painters.ATracePainter#endPaintIteration(java.awt.Graphics)
+     */
+    @Override
+    public void endPaintIteration(final Graphics g2d) {
+      if (g2d != null) {
+        int[] x = new int[this.m_xPoints.size() + 1];
+        int[] y = new int[x.length];
+        for (int i = 0; i < this.m_xPoints.size(); i++) {
+          x[i] = this.m_xPoints.get(i).intValue();
+          y[i] = this.m_yPoints.get(i).intValue();
+        }
+        x[x.length - 1] = this.getPreviousX();
+        y[y.length - 1] = this.getPreviousY();
+        g2d.drawPolyline(x, y, x.length);
+      }
+    }
+
+    /**
+     * @see info.monitorenter.gui.chart.traces.painters.ATracePainter#paintPoint(int,
+     *      int, int, int, java.awt.Graphics,
+     *      info.monitorenter.gui.chart.ITracePoint2D)
+     */
+    @Override
+    public void paintPoint(final int absoluteX, final int absoluteY, final int nextX,
+        final int nextY, final Graphics g, final ITracePoint2D original) {
+      super.paintPoint(absoluteX, absoluteY, nextX, nextY, g, original);
+      this.m_xPoints.add(Integer.valueOf(absoluteX));
+      this.m_yPoints.add(Integer.valueOf(absoluteY));
+    }
+
+    /**
+     * @see info.monitorenter.gui.chart.traces.painters.ATracePainter#startPaintIteration(java.awt.Graphics)
+     */
+    @Override
+    public void startPaintIteration(final Graphics g2d) {
+      super.startPaintIteration(g2d);
+      this.m_xPoints = new LinkedList<Integer>();
+      this.m_yPoints = new LinkedList<Integer>();
+    }
+  }
+
   /**
    * Junit test ui runner.
    * <p>
@@ -75,8 +242,20 @@ public class TestChart2DHeadless
     TestSuite suite = new TestSuite();
     suite.setName(TestChart2DHeadless.class.getName());
 
+    suite.addTest(new TestChart2DHeadless("testAdaptivePaintLatency"));
+    suite.addTest(new TestChart2DHeadless("testClipping"));
+    suite.addTest(new TestChart2DHeadless("testCulling"));
+    suite.addTest(new TestChart2DHeadless("testGetTraces"));
+    suite.addTest(new TestChart2DHeadless("testLayeredRendering"));
+    suite.addTest(new TestChart2DHeadless("testLevelOfDetail"));
     // suite.addTest(new TestChart2DHeadless("testMemoryLeak"));
     suite.addTest(new TestChart2DHeadless("testSnapshot"));
+    suite.addTest(new TestChart2DHeadless("testPaintClipped"));
+    suite.addTest(new TestChart2DHeadless("testPaintDecimation"));
+    suite.addTest(new TestChart2DHeadless("testPaintPolylineAndFill"));
+    suite.addTest(new TestChart2DHeadless("testRangeIteration"));
+    suite.addTest(new TestChart2DHeadless("testScaling"));
+    suite.addTest(new TestChart2DHeadless("testStripChartRendering"));
 
     return suite;
   }
@@ -92,6 +271,288 @@ public class TestChart2DHeadless
     super(testName);
   }
 
+  /**
+   * Paints a chart with a trace painter that becomes expensive and cheap again
+   * in adaptive paint latency mode and asserts that the repaint interval is
+   * stretched and shrunk within the configured bounds.
+   * <p>
+   */
+  public void testAdaptivePaintLatency() {
+    Chart2D chart = new Chart2D();
+    chart.setMinPaintLatency(10);
+    chart.setMaxPaintLatency(150);
+    chart.setAdaptivePaintLatency(true);
+    final long[] sleep = new long[] {0 };
+    ITrace2D trace = new Trace2DSimple();
+    chart.addTrace(trace);
+    trace.setTracePainter(new TracePainterPolyline() {
+      /** Generated <code>serialVersionUID</code>. */
+      private static final long serialVersionUID = -1809429719745386398L;
+
+      /**
+       * @see info.monitorenter.gui.chart.traces.painters.TracePainterPolyline#endPaintIteration(java.awt.Graphics)
+       */
+      @Override
+      public void endPaintIteration(final Graphics g2d) {
+        super.endPaintIteration(g2d);
+        try {
+          Thread.sleep(sleep[0]);
+        } catch (InterruptedException e) {
+          e.printStackTrace();
+        }
+      }
+    });
+    for (int i = 0; i < 100; i++) {
+      trace.addPoint(i, i % 7);
+    }
+    final List<Integer> latencies = new LinkedList<Integer>();
+    chart.addPropertyChangeListener(Chart2D.PROPERTY_PAINT_LATENCY, new PropertyChangeListener() {
+      public void propertyChange(final PropertyChangeEvent evt) {
+        latencies.add((Integer) evt.getNewValue());
+      }
+    });
+    final List<Double> costs = new LinkedList<Double>();
+    chart.addPropertyChangeListener(Chart2D.PROPERTY_PAINT_COST, new PropertyChangeListener() {
+      public void propertyChange(final PropertyChangeEvent evt) {
+        costs.add((Double) evt.getNewValue());
+      }
+    });
+    // not painted yet:
+    Assert.assertEquals(10, chart.getPaintLatency());
+
+    // expensive:
+    sleep[0] = 30;
+    for (int i = 0; i < 5; i++) {
+      this.paint(chart);
+    }
+    Assert.assertTrue(chart.getPaintCost() >= 20);
+    Assert.assertEquals(Double.valueOf(chart.getPaintCost()), costs.get(costs.size() - 1));
+    Assert.assertEquals(150, chart.getPaintLatency());
+    Assert.assertEquals(Integer.valueOf(150), latencies.get(latencies.size() - 1));
+
+    // cheap again:
+    sleep[0] = 0;
+    for (int i = 0; i < 30; i++) {
+      this.paint(chart);
+    }
+    Assert.assertTrue(chart.getPaintLatency() < 50);
+
+    chart.setAdaptivePaintLatency(false);
+    Assert.assertEquals(10, chart.getPaintLatency());
+    chart.destroy();
+  }
+
+  /**
+   * Paints a trace whose connections leave, enter and cross the visible area
+   * and asserts that clipping them does neither create nor clone points and
+   * that a connection of two invisible points that crosses the visible area is
+   * painted.
+   * <p>
+   */
+  public void testClipping() {
+    Chart2D chart = new Chart2D();
+    final int[] created = new int[1];
+    final int[] cloned = new int[1];
+    chart.setTracePointProvider(new TracePointProviderDefault() {
+      /**
+       * @see info.monitorenter.gui.chart.TracePointProviderDefault#createTracePoint(double,
+       *      double)
+       */
+      @Override
+      public ITracePoint2D createTracePoint(final double x, final double y) {
+        created[0]++;
+        return super.createTracePoint(x, y);
+      }
+    });
+    ITrace2D trace = new Trace2DSimple();
+    trace.setColor(Color.RED);
+    chart.addTrace(trace);
+    chart.getAxisY().setRangePolicy(new RangePolicyFixedViewport(new Range(-10, 10)));
+    for (int i = 0; i < 1000; i++) {
+      trace.addPoint(new TracePoint2D(i, ((i % 2 == 0) ? -100 : 100) * ((i % 7 == 0) ? 0 : 1)) {
+        /** Generated <code>serialVersionUID</code>. */
+        private static final long serialVersionUID = -7383349419082592937L;
+
+        /**
+         * @see info.monitorenter.gui.chart.TracePoint2D#clone()
+         */
+        @Override
+        public Object clone() {
+          cloned[0]++;
+          return super.clone();
+        }
+      });
+    }
+    created[0] = 0;
+    this.paint(chart);
+    Assert.assertEquals(0, created[0]);
+    Assert.assertEquals(0, cloned[0]);
+
+    // a connection of two invisible points through the center:
+    trace.removeAllPoints();
+    trace.addPoint(0, -100);
+    trace.addPoint(1000, 100);
+    chart.getAxisX().setRangePolicy(new RangePolicyFixedViewport(new Range(400, 600)));
+    BufferedImage image = this.paint(chart);
+    int x = (chart.getXChartStart() + chart.getXChartEnd()) / 2;
+    int y = (chart.getYChartStart() + chart.getYChartEnd()) / 2;
+    boolean painted = false;
+    for (int i = y - 2; i <= y + 2; i++) {
+      painted |= image.getRGB(x, i) == Color.RED.getRGB();
+    }
+    Assert.assertTrue("Crossing connection not painted.", painted);
+    chart.destroy();
+  }
+
+  /**
+   * Asserts that traces with bounds outside of the ranges of their axes are
+   * counted as culled and that skipping them does not change the image.
+   * <p>
+   */
+  public void testCulling() {
+    Chart2D chart = new Chart2D();
+    chart.setPaintLabels(false);
+    ITrace2D visible = new Trace2DSimple();
+    visible.setColor(Color.RED);
+    ITrace2D outside = new Trace2DSimple();
+    outside.setColor(Color.BLUE);
+    chart.addTrace(visible);
+    chart.addTrace(outside);
+    for (int i = 0; i <= 100; i++) {
+      visible.addPoint(i, i % 10);
+      outside.addPoint(i + 200, i % 10);
+    }
+    chart.getAxisX().setRangePolicy(new RangePolicyFixedViewport(new Range(0, 100)));
+    chart.getAxisY().setRangePolicy(new RangePolicyFixedViewport(new Range(-10, 10)));
+    BufferedImage culled = this.paint(chart);
+    Assert.assertEquals(1, chart.getCulledTraceCount());
+    outside.setVisible(false);
+    BufferedImage plain = this.paint(chart);
+    Assert.assertEquals(0, chart.getCulledTraceCount());
+    for (int x = 0; x < 400; x++) {
+      for (int y = 0; y < 300; y++) {
+        Assert.assertEquals("Pixel (" + x + "," + y + ") differs", plain.getRGB(x, y), culled
+            .getRGB(x, y));
+      }
+    }
+
+    // bounds overlapping the viewport in both dimensions:
+    outside.setVisible(true);
+    outside.addPoint(50, 100);
+    this.paint(chart);
+    Assert.assertEquals(0, chart.getCulledTraceCount());
+    // bounds overlapping in x but not in y:
+    chart.getAxisY().setRangePolicy(new RangePolicyFixedViewport(new Range(200, 300)));
+    this.paint(chart);
+    Assert.assertEquals(2, chart.getCulledTraceCount());
+    chart.destroy();
+  }
+
+  /**
+   * Asserts that <code>{@link Chart2D#getTraces()}</code> returns the same
+   * cached set until traces are added or removed, an x axis is replaced or the
+   * z-index of a trace changes.
+   * <p>
+   */
+  public void testGetTraces() {
+    Chart2D chart = new Chart2D();
+    ITrace2D back = new Trace2DSimple();
+    ITrace2D front = new Trace2DSimple();
+    chart.addTrace(back);
+    SortedSet<ITrace2D> traces = chart.getTraces();
+    Assert.assertSame(traces, chart.getTraces());
+    Assert.assertEquals(1, traces.size());
+    try {
+      traces.clear();
+      Assert.fail("Set of traces of a chart has to be unmodifiable.");
+    } catch (UnsupportedOperationException expected) {
+      // nop
+    }
+    chart.addTrace(front);
+    Assert.assertNotSame(traces, chart.getTraces());
+    traces = chart.getTraces();
+    Assert.assertEquals(2, traces.size());
+
+    // trace added to the axes directly:
+    ITrace2D direct = new Trace2DSimple();
+    chart.getAxisX().addTrace(direct);
+    chart.getAxisY().addTrace(direct);
+    Assert.assertEquals(3, chart.getTraces().size());
+
+    chart.removeTrace(front);
+    traces = chart.getTraces();
+    Assert.assertEquals(2, traces.size());
+    Assert.assertFalse(traces.contains(front));
+
+    // replacing the x axis transfers the traces:
+    chart.setAxisXBottom(new AxisLinear(), 0);
+    Assert.assertNotSame(traces, chart.getTraces());
+    Assert.assertEquals(2, chart.getTraces().size());
+
+    // reorder:
+    traces = chart.getTraces();
+    back.setZIndex(Integer.valueOf(ITrace2D.ZINDEX_MAX));
+    Assert.assertNotSame(traces, chart.getTraces());
+    Assert.assertSame(back, chart.getTraces().last());
+    back.setZIndex(Integer.valueOf(ITrace2D.Z_INDEX_MIN));
+    Assert.assertSame(back, chart.getTraces().first());
+    chart.destroy();
+  }
+
+  /**
+   * Asserts that a chart with <code>{@link Chart2D#isUseLayeredRendering()}
+   * </code> looks the same as a chart without it after data and configuration
+   * changes: The layered chart keeps its cached layers from paint to paint.
+   * <p>
+   */
+  public void testLayeredRendering() {
+    Chart2D layered = new Chart2D();
+    layered.setUseLayeredRendering(true);
+    Chart2D plain = new Chart2D();
+    plain.setUseLayeredRendering(false);
+    Chart2D[] charts = new Chart2D[] {layered, plain };
+    ITrace2D[] traces = new ITrace2D[charts.length];
+    for (int i = 0; i < charts.length; i++) {
+      traces[i] = new Trace2DLtd(500);
+      traces[i].setName("first");
+      charts[i].addTrace(traces[i]);
+      charts[i].getAxisX().setRangePolicy(new RangePolicyFixedViewport(new Range(0, 200)));
+    }
+    for (ITrace2D trace : traces) {
+      for (int i = 0; i < 100; i++) {
+        trace.addPoint(i, Math.sin(i / 10.0));
+      }
+    }
+    this.assertLayeredRendering(layered, plain, "after the initial paint");
+    this.assertLayeredRendering(layered, plain, "when painting the cached layers");
+    for (ITrace2D trace : traces) {
+      for (int i = 100; i < 150; i++) {
+        trace.addPoint(i, Math.sin(i / 10.0));
+      }
+    }
+    this.assertLayeredRendering(layered, plain, "after adding points within the ranges");
+    for (ITrace2D trace : traces) {
+      for (int i = 150; i < 300; i++) {
+        trace.addPoint(i, 2 * Math.sin(i / 10.0));
+      }
+    }
+    this.assertLayeredRendering(layered, plain, "after adding points beyond the ranges");
+    for (Chart2D chart : charts) {
+      chart.getAxisY().getAxisTitle().setTitle("volts");
+    }
+    this.assertLayeredRendering(layered, plain, "after changing a title");
+    for (ITrace2D trace : traces) {
+      trace.setName("second");
+    }
+    this.assertLayeredRendering(layered, plain, "after changing a trace label");
+    for (Chart2D chart : charts) {
+      chart.getAxisY().setPaintGrid(true);
+    }
+    this.assertLayeredRendering(layered, plain, "after turning on the grid");
+    layered.destroy();
+    plain.destroy();
+  }
+
   /**
    * Creates several charts, adds a trace to each of them, destroys the chart
    * and checks, if a memory leak occurs.
@@ -136,6 +597,415 @@ public class TestChart2DHeadless
     Assert.assertEquals(0, chartMap.size());
   }
 
+  /**
+   * Returns the distance of the given pixel to the segment between the given
+   * pixel coordinates.
+   * <p>
+   * 
+   * @param x
+   *          the x coordinate of the pixel.
+   * 
+   * @param y
+   *          the y coordinate of the pixel.
+   * 
+   * @param segment
+   *          the start x, start y, end x and end y coordinate of the segment.
+   * 
+   * @return the distance of the given pixel to the segment.
+   */
+  private double distance(final double x, final double y, final double[] segment) {
+    double dx = segment[2] - segment[0];
+    double dy = segment[3] - segment[1];
+    double ratio = ((x - segment[0]) * dx + (y - segment[1]) * dy) / (dx * dx + dy * dy);
+    ratio = Math.max(0, Math.min(1, ratio));
+    return Math.hypot(segment[0] + ratio * dx - x, segment[1] + ratio * dy - y);
+  }
+
+  /**
+   * Paints a trace with a level of detail index and a trace that summarizes
+   * pixel columns by a scan (the latter with NaN values) for different zoom
+   * levels and asserts that the images are identical to the ones of traces
+   * with the same points that are not summarized.
+   * <p>
+   */
+  public void testLevelOfDetail() {
+    Trace2DColumnar lod = new Trace2DColumnar();
+    lod.setLevelOfDetail(true);
+    Trace2DColumnar scanned = new Trace2DColumnar();
+    ITrace2D[] traces = new ITrace2D[] {lod, new Trace2DSimple(), scanned, new Trace2DSimple() };
+    Chart2D[] charts = new Chart2D[traces.length];
+    for (int i = 0; i < traces.length; i++) {
+      charts[i] = new Chart2D();
+      traces[i].setName("trace");
+      charts[i].addTrace(traces[i]);
+      charts[i].getAxisY().setRangePolicy(
+          new RangePolicyFixedViewport(new Range(-150, 150)));
+    }
+    double value;
+    for (int i = 0; i < 200000; i++) {
+      value = Math.sin(i / 3000.0) * 100 + Math.random() * 40 - 20;
+      traces[0].addPoint(i, value);
+      traces[1].addPoint(i, value);
+      if (i % 7919 == 0) {
+        value = Double.NaN;
+      }
+      traces[2].addPoint(i, value);
+      traces[3].addPoint(i, value);
+    }
+    BufferedImage summarizedImage;
+    BufferedImage plainImage;
+    for (Range range : new Range[] {new Range(0, 200000), new Range(10000.5, 90000.5),
+        new Range(50000.5, 51000.5) }) {
+      for (int i = 0; i < charts.length; i++) {
+        charts[i].getAxisX().setRangePolicy(new RangePolicyFixedViewport(range));
+      }
+      for (int i = 0; i < charts.length; i += 2) {
+        summarizedImage = this.paint(charts[i]);
+        plainImage = this.paint(charts[i + 1]);
+        for (int x = 0; x < 400; x++) {
+          for (int y = 0; y < 300; y++) {
+            Assert.assertEquals("Pixel (" + x + "," + y + ") of " + traces[i].getClass()
+                + " differs for " + range, plainImage.getRGB(x, y), summarizedImage.getRGB(x, y));
+          }
+        }
+      }
+    }
+    for (int i = 0; i < charts.length; i++) {
+      charts[i].destroy();
+    }
+  }
+
+  /**
+   * Paints a zigzag trace into a fixed viewport that cuts every segment at the
+   * lower and upper bound and asserts that the clipped segments are painted
+   * where they belong.
+   * <p>
+   * The linear axes assign a mapping to the trace (see
+   * <code>{@link ITrace2D#getScalingX()}</code>), so the interpolated bound
+   * points have to be created at their real coordinates.
+   * <p>
+   */
+  public void testPaintClipped() {
+    Chart2D chart = new Chart2D();
+    ITrace2D trace = new Trace2DSimple();
+    trace.setColor(Color.RED);
+    chart.addTrace(trace);
+    for (int i = 0; i < 100; i++) {
+      trace.addPoint(i, (i % 2) * 10);
+    }
+    chart.getAxisX().setRangePolicy(new RangePolicyFixedViewport(new Range(10, 20)));
+    chart.getAxisY().setRangePolicy(new RangePolicyFixedViewport(new Range(2, 8)));
+    BufferedImage image = this.paint(chart);
+    Assert.assertNotNull(trace.getScalingX());
+    double xStart = chart.getXChartStart();
+    double rangeX = chart.getXChartEnd() - xStart;
+    double yStart = chart.getYChartStart();
+    double rangeY = yStart - chart.getYChartEnd();
+    // every segment from x = i to i + 1 is visible from i + 0.2 to i + 0.8:
+    double[][] segments = new double[10][];
+    double fromY;
+    double toY;
+    for (int i = 0; i < segments.length; i++) {
+      fromY = (i % 2 == 0) ? 0 : 1;
+      toY = 1 - fromY;
+      segments[i] = new double[] {xStart + (i + 0.2) / 10 * rangeX,
+          yStart - fromY * rangeY, xStart + (i + 0.8) / 10 * rangeX, yStart - toY * rangeY };
+    }
+    int red = Color.RED.getRGB();
+    int[] hits = new int[segments.length];
+    double nearest;
+    int nearestIndex;
+    for (int x = (int) xStart; x <= xStart + rangeX; x++) {
+      for (int y = (int) (yStart - rangeY); y <= yStart; y++) {
+        if (image.getRGB(x, y) == red) {
+          nearest = Double.MAX_VALUE;
+          nearestIndex = 0;
+          for (int i = 0; i < segments.length; i++) {
+            if (this.distance(x, y, segments[i]) < nearest) {
+              nearest = this.distance(x, y, segments[i]);
+              nearestIndex = i;
+            }
+          }
+          Assert.assertTrue("Pixel (" + x + "," + y + ") is off the clipped segments.",
+              nearest <= 1.5);
+          hits[nearestIndex]++;
+        }
+      }
+    }
+    for (int i = 0; i < segments.length; i++) {
+      Assert.assertTrue("Segment " + i + " is not painted.", hits[i] >= rangeY * 0.9);
+    }
+    chart.destroy();
+  }
+
+  /**
+   * Paints a trace with many more points than pixel columns with and without
+   * <code>{@link ITrace2D#isPaintDecimation()}</code> and asserts that both
+   * images are identical.
+   * <p>
+   */
+  public void testPaintDecimation() {
+    Chart2D chart = new Chart2D();
+    ITrace2D trace = new Trace2DSimple();
+    chart.addTrace(trace);
+    for (int i = 0; i < 20000; i++) {
+      trace.addPoint(i, Math.sin(i / 300.0) * 100 + Math.random() * 20);
+    }
+    for (ITracePainter< ? > painter : new ITracePainter< ? >[] {new TracePainterPolyline(),
+        new TracePainterLine() }) {
+      trace.setTracePainter(painter);
+      trace.setPaintDecimation(false);
+      BufferedImage full = this.paint(chart);
+      trace.setPaintDecimation(true);
+      BufferedImage decimated = this.paint(chart);
+      for (int x = 0; x < 400; x++) {
+        for (int y = 0; y < 300; y++) {
+          Assert.assertEquals("Pixel (" + x + "," + y + ") differs for " + painter.getClass(),
+              full.getRGB(x, y), decimated.getRGB(x, y));
+        }
+      }
+    }
+    chart.destroy();
+  }
+
+  /**
+   * Paints a polyline and a filled trace with many points per pixel (that are
+   * collapsed by the painters), flat runs and NaN values (that discontinue the
+   * painters, also around parts painted into a single pixel) and asserts that the images are identical to the ones of the
+   * painters that kept every pixel.
+   * <p>
+   */
+  public void testPaintPolylineAndFill() {
+    Random random = new Random(4711);
+    Chart2D chart = new Chart2D();
+    ITrace2D polyline = new Trace2DSimple();
+    ITrace2D fill = new Trace2DSimple();
+    fill.setColor(Color.BLUE);
+    chart.addTrace(fill);
+    chart.addTrace(polyline);
+    double y;
+    int phase;
+    for (int i = 0; i < 20000; i++) {
+      phase = i % 4000;
+      if ((phase == 2000) || (phase == 2003)) {
+        y = Double.NaN;
+      } else if ((phase == 2001) || (phase == 2002) || ((i > 6000) && (i < 8000))) {
+        // the part between the NaN values is painted into a single pixel:
+        y = 10;
+      } else {
+        y = Math.sin(i / 300.0) * 100 + random.nextDouble() * 20;
+      }
+      polyline.addPoint(i, y);
+      fill.addPoint(i, y / 2 - 60);
+    }
+    polyline.setPaintDecimation(false);
+    fill.setPaintDecimation(false);
+    polyline.setTracePainter(new TracePainterPolyline());
+    fill.setTracePainter(new TracePainterFill(chart));
+    BufferedImage collapsed = this.paint(chart);
+    // repaint with the arrays grown before:
+    BufferedImage repainted = this.paint(chart);
+    polyline.setTracePainter(new ListPolylinePainter());
+    fill.setTracePainter(new ListFillPainter(chart));
+    BufferedImage full = this.paint(chart);
+    for (int x = 0; x < 400; x++) {
+      for (int j = 0; j < 300; j++) {
+        Assert.assertEquals("Pixel (" + x + "," + j + ") differs", full.getRGB(x, j),
+            collapsed.getRGB(x, j));
+        Assert.assertEquals("Pixel (" + x + "," + j + ") differs when repainted", full.getRGB(
+            x, j), repainted.getRGB(x, j));
+      }
+    }
+    chart.destroy();
+  }
+
+  /**
+   * Paints the given chart into an image of 400 x 300 px.
+   * <p>
+   * Unlike <code>{@link Chart2D#snapShot(int, int)}</code> this does not turn on
+   * antialiasing which would blend overlapping line segments.
+   * <p>
+   * 
+   * @param chart
+   *          the chart to paint.
+   * @return the image the chart was painted to.
+   */
+  private BufferedImage paint(final Chart2D chart) {
+    BufferedImage result = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+    chart.setSize(400, 300);
+    Graphics g = result.getGraphics();
+    chart.paint(g);
+    g.dispose();
+    return result;
+  }
+
+  /**
+   * Paints the given chart with the cached layers (that may have been rendered
+   * for a previous state) and the given chart in the same state without
+   * layered rendering and asserts that both images are identical.
+   * <p>
+   * 
+   * @param layered
+   *          the chart to paint with layered rendering turned on.
+   * @param plain
+   *          the chart in the same state with layered rendering turned off.
+   * @param state
+   *          describes the state of the charts for failure messages.
+   */
+  private void assertLayeredRendering(final Chart2D layered, final Chart2D plain,
+      final String state) {
+    BufferedImage layeredImage = this.paint(layered);
+    BufferedImage plainImage = this.paint(plain);
+    for (int x = 0; x < 400; x++) {
+      for (int y = 0; y < 300; y++) {
+        Assert.assertEquals("Pixel (" + x + "," + y + ") differs " + state, plainImage.getRGB(
+            x, y), layeredImage.getRGB(x, y));
+      }
+    }
+  }
+
+  /**
+   * Asserts that the scaled values of all points of the given trace are the
+   * values the axes of the chart compute for them.
+   * <p>
+   * 
+   * @param chart
+   *          the chart the trace is contained in.
+   * 
+   * @param trace
+   *          the trace to check.
+   */
+  private void assertScaled(final Chart2D chart, final ITrace2D trace) {
+    IAxis axisX = chart.getAxisX();
+    IAxis axisY = chart.getAxisY();
+    ITracePoint2D point;
+    for (Iterator<ITracePoint2D> it = trace.iterator(); it.hasNext();) {
+      point = it.next();
+      Assert.assertEquals(axisX.getScaledValue(point.getX()), point.getScaledX(), 1e-12);
+      Assert.assertEquals(axisY.getScaledValue(point.getY()), point.getScaledY(), 1e-12);
+    }
+  }
+
+  /**
+   * Paints both charts and asserts that the images are identical or (if not
+   * exact) that every pixel of the strip chart is found in the same row of
+   * the other image at most one pixel apart: Shifted pixels may be off by one
+   * pixel due to rounding. Pixels left of the chart area and close to the y
+   * axis are only compared if exact: Shifted traces are cut there while
+   * complete paint operations interpolate the segment entering the chart.
+   * <p>
+   * 
+   * @param strip
+   *          the chart with strip chart rendering turned on.
+   * @param plain
+   *          the chart with strip chart rendering turned off.
+   * @param exact
+   *          if true the images have to be identical.
+   * @param state
+   *          describes the state of the charts for failure messages.
+   */
+  private void assertStripChartRendering(final Chart2D strip, final Chart2D plain,
+      final boolean exact, final String state) {
+    BufferedImage stripImage = this.paint(strip);
+    BufferedImage plainImage = this.paint(plain);
+    int rgb;
+    boolean found;
+    for (int x = 0; x < 400; x++) {
+      for (int y = 0; y < 300; y++) {
+        rgb = stripImage.getRGB(x, y);
+        if (exact) {
+          Assert.assertEquals("Pixel (" + x + "," + y + ") differs " + state,
+              plainImage.getRGB(x, y), rgb);
+        } else if (x > strip.getXChartStart() + 2) {
+          found = false;
+          for (int i = Math.max(0, x - 1); i <= Math.min(399, x + 1); i++) {
+            found |= plainImage.getRGB(i, y) == rgb;
+          }
+          Assert.assertTrue("Pixel (" + x + "," + y + ") not found " + state, found);
+        }
+      }
+    }
+  }
+
+  /**
+   * Paints a zoomed trace sorted by x values (whose points outside of the
+   * visible range are skipped) and an unsorted trace with the same points and
+   * asserts that both images are identical.
+   * <p>
+   */
+  public void testRangeIteration() {
+    Chart2D sortedChart = new Chart2D();
+    Chart2D plainChart = new Chart2D();
+    ITrace2D sorted = new Trace2DLtd(5000);
+    ITrace2D plain = new Trace2DSimple();
+    Chart2D[] charts = new Chart2D[] {sortedChart, plainChart };
+    ITrace2D[] traces = new ITrace2D[] {sorted, plain };
+    for (int i = 0; i < 2; i++) {
+      traces[i].setName("trace");
+      charts[i].addTrace(traces[i]);
+      charts[i].getAxisX().setRangePolicy(
+          new RangePolicyFixedViewport(new Range(2000.5, 2100.5)));
+      charts[i].getAxisY().setRangePolicy(
+          new RangePolicyFixedViewport(new Range(-150, 150)));
+    }
+    double y;
+    for (int i = 0; i < 5000; i++) {
+      y = Math.sin(i / 30.0) * 100 + Math.random() * 20;
+      sorted.addPoint(i, y);
+      plain.addPoint(i, y);
+    }
+    Assert.assertTrue(sorted.isSortedX());
+    Assert.assertFalse(plain.isSortedX());
+    for (ITracePainter< ? > painter : new ITracePainter< ? >[] {new TracePainterPolyline(),
+        new TracePainterLine() }) {
+      sorted.setTracePainter(painter);
+      plain.setTracePainter(painter);
+      BufferedImage sortedImage = this.paint(sortedChart);
+      BufferedImage plainImage = this.paint(plainChart);
+      for (int x = 0; x < 400; x++) {
+        for (int j = 0; j < 300; j++) {
+          Assert.assertEquals("Pixel (" + x + "," + j + ") differs for " + painter.getClass(),
+              plainImage.getRGB(x, j), sortedImage.getRGB(x, j));
+        }
+      }
+    }
+    sortedChart.destroy();
+    plainChart.destroy();
+  }
+
+  /**
+   * Paints a streaming trace with linear, inverse and logarithmic x axes and
+   * asserts that the scaled values of the points follow the range changes.
+   * Linear axes have to assign a mapping to the trace instead of scaling every
+   * point.
+   * <p>
+   */
+  public void testScaling() {
+    for (AAxis axisX : new AAxis[] {new AxisLinear(), new AxisInverse(), new AxisLog10() }) {
+      Chart2D chart = new Chart2D();
+      chart.setAxisXBottom(axisX, 0);
+      // the columnar trace is scaled by its indices:
+      for (ITrace2D trace : new ITrace2D[] {new Trace2DLtd(100), new Trace2DColumnar(100) }) {
+        chart.addTrace(trace);
+        for (int i = 1; i <= 200; i++) {
+          trace.addPoint(i, i % 17);
+        }
+        this.paint(chart);
+        this.assertScaled(chart, trace);
+        Assert.assertNotNull(trace.getScalingY());
+        Assert.assertEquals(axisX instanceof AxisLog10, trace.getScalingX() == null);
+        // shift the range:
+        for (int i = 201; i <= 250; i++) {
+          trace.addPoint(i, i % 31);
+        }
+        this.paint(chart);
+        this.assertScaled(chart, trace);
+        chart.removeTrace(trace);
+      }
+      chart.destroy();
+    }
+  }
+
   /**
    * Tests the method {@link Chart2D#snapShot()} method in non-UI mode by
    * creating an image of a chart that has not been painted (in UI) before.
@@ -189,4 +1059,56 @@ public class TestChart2DHeadless
     }
   }
 
+  /**
+   * Paints a scrolling chart with strip chart rendering and compares it to the
+   * same chart painted completely.
+   * <p>
+   */
+  public void testStripChartRendering() {
+    Chart2D strip = new Chart2D();
+    strip.setUseStripChartRendering(true);
+    Chart2D plain = new Chart2D();
+    ITrace2D stripTrace = new Trace2DLtd(300);
+    ITrace2D plainTrace = new Trace2DLtd(300);
+    Chart2D[] charts = new Chart2D[] {strip, plain };
+    ITrace2D[] traces = new ITrace2D[] {stripTrace, plainTrace };
+    for (int i = 0; i < 2; i++) {
+      traces[i].setName("trace");
+      charts[i].addTrace(traces[i]);
+      charts[i].getAxisX().setRangePolicy(new RangePolicyHighestValues(100));
+      charts[i].getAxisY().setRangePolicy(
+          new RangePolicyFixedViewport(new Range(-1.5, 1.5)));
+    }
+    double y;
+    for (int i = 0; i < 600; i++) {
+      y = Math.sin(i / 7.0);
+      stripTrace.addPoint(i * 0.5, y);
+      plainTrace.addPoint(i * 0.5, y);
+      if (i % 3 == 0) {
+        this.assertStripChartRendering(strip, plain, false, "after adding point " + i);
+      }
+    }
+    for (int i = 0; i < 2; i++) {
+      charts[i].getAxisY().setRangePolicy(new RangePolicyFixedViewport(new Range(-2, 2)));
+    }
+    this.assertStripChartRendering(strip, plain, true, "after changing the y range");
+    stripTrace.addPoint(300, 0);
+    plainTrace.addPoint(300, 0);
+    this.assertStripChartRendering(strip, plain, false, "after adding a point");
+    Iterator<ITracePoint2D> stripIt = stripTrace.iterator();
+    Iterator<ITracePoint2D> plainIt = plainTrace.iterator();
+    for (int i = 0; i < 250; i++) {
+      stripIt.next();
+      plainIt.next();
+    }
+    stripIt.next().setLocation(280, 1.8);
+    plainIt.next().setLocation(280, 1.8);
+    this.assertStripChartRendering(strip, plain, true, "after moving a point");
+    stripTrace.setColor(Color.RED);
+    plainTrace.setColor(Color.RED);
+    this.assertStripChartRendering(strip, plain, true, "after changing the color");
+    strip.destroy();
+    plain.destroy();
+  }
+
 }
@@ -0,0 +1,134 @@
+/*
+ *  TestFrameScheduler.java of project jchart2d, junit tests for FrameScheduler.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart;
+
+import info.monitorenter.gui.chart.traces.Trace2DSimple;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Junit tests for <code>{@link FrameScheduler}</code>.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann</a>
+ */
+public class TestFrameScheduler extends TestCase {
+
+  /**
+   * Test suite for this test class.
+   * <p>
+   *
+   * @return the test suite
+   */
+  public static Test suite() {
+
+    TestSuite suite = new TestSuite();
+    suite.setName(TestFrameScheduler.class.getName());
+
+    suite.addTest(new TestFrameScheduler("testIdle"));
+    suite.addTest(new TestFrameScheduler("testStagingQueuePolling"));
+
+    return suite;
+  }
+
+  /**
+   * Creates a test case with the given name.
+   * <p>
+   *
+   * @param testName
+   *          the name of the test.
+   */
+  public TestFrameScheduler(final String testName) {
+    super(testName);
+  }
+
+  /**
+   * Waits up to 5 seconds for the scheduler to become idle.
+   * <p>
+   *
+   * @return true if the scheduler became idle.
+   *
+   * @throws InterruptedException
+   *           if interrupted while waiting.
+   */
+  private boolean waitForIdle() throws InterruptedException {
+    FrameScheduler scheduler = FrameScheduler.getInstance();
+    for (int i = 0; (i < 500) && !scheduler.isIdle(); i++) {
+      Thread.sleep(10);
+    }
+    return scheduler.isIdle();
+  }
+
+  /**
+   * Asserts that the scheduler stops ticking when no chart requests a repaint
+   * and starts again on a repaint request.
+   * <p>
+   *
+   * @throws InterruptedException
+   *           if interrupted while waiting.
+   */
+  public void testIdle() throws InterruptedException {
+    FrameScheduler scheduler = FrameScheduler.getInstance();
+    Chart2D[] charts = new Chart2D[50];
+    for (int i = 0; i < charts.length; i++) {
+      charts[i] = new Chart2D();
+      ITrace2D trace = new Trace2DSimple();
+      charts[i].addTrace(trace);
+      for (int j = 0; j < 10; j++) {
+        trace.addPoint(j, j * i);
+      }
+    }
+    Assert.assertTrue("Scheduler did not become idle.", this.waitForIdle());
+    charts[7].setRequestedRepaint(true);
+    Assert.assertFalse(scheduler.isIdle());
+    Assert.assertTrue("Scheduler did not become idle.", this.waitForIdle());
+    for (int i = 0; i < charts.length; i++) {
+      charts[i].destroy();
+    }
+  }
+
+  /**
+   * Asserts that the scheduler keeps polling charts whose traces have a
+   * staging queue.
+   * <p>
+   *
+   * @throws InterruptedException
+   *           if interrupted while waiting.
+   */
+  public void testStagingQueuePolling() throws InterruptedException {
+    FrameScheduler scheduler = FrameScheduler.getInstance();
+    Chart2D chart = new Chart2D();
+    ITrace2D trace = new Trace2DSimple();
+    chart.addTrace(trace);
+    Assert.assertTrue("Scheduler did not become idle.", this.waitForIdle());
+    trace.setStagingQueue(new StagingQueue(16));
+    Thread.sleep(300);
+    Assert.assertFalse(scheduler.isIdle());
+    trace.setStagingQueue(null);
+    Assert.assertTrue("Scheduler did not become idle.", this.waitForIdle());
+    chart.destroy();
+  }
+}
@@ -0,0 +1,293 @@
+/*
+ *  TestMultithreadingThroughput.java of project jchart2d - a Junit
+ *  Test that measures the throughput of many concurrent Threads adding
+ *  points to their own traces of the same chart.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart;
+
+import info.monitorenter.gui.chart.traces.Trace2DLtd;
+import info.monitorenter.gui.chart.traces.Trace2DSimple;
+import info.monitorenter.gui.chart.traces.computing.Trace2DArithmeticMean;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.WeakHashMap;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Multiple <code>Producers</code> concurrently add points without breaks to
+ * their own <code>ITrace2D</code> instance of a shared chart with or without
+ * coalescing events (see
+ * <code>{@link ITrace2D#setCoalescingEvents(boolean)}</code>).
+ * <p>
+ * One <code>Consumer</code> paints the chart continuously. The throughput in
+ * points per second is written to <code>{@link System#out}</code>.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ *
+ */
+public class TestMultithreadingThroughput extends TestMultithreading {
+
+  /**
+   * Runnable that paints the chart without breaks until it is stopped.
+   * <p>
+   *
+   * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann</a>
+   */
+  class Consumer extends TestMultithreading.Consumer {
+
+    /** Flag to stop this Thread after the current paint operation. */
+    private volatile boolean m_stop = false;
+
+    /**
+     * Creates an instance that paints the chart without breaks.
+     * <p>
+     */
+    Consumer() {
+      super(0);
+    }
+
+    /**
+     * @see info.monitorenter.gui.chart.TestMultithreading.Consumer#run()
+     */
+    @Override
+    public void run() {
+      Graphics2D graphics = TestMultithreadingThroughput.this.m_image.createGraphics();
+      while (!this.m_stop) {
+        TestMultithreadingThroughput.this.m_chart.paint(graphics);
+      }
+      graphics.dispose();
+    }
+  }
+
+  /**
+   * Producer implementation that adds <code>{@link #PRODUCER_ADD_POINT_AMOUNT}
+   * </code> points to its own trace without breaks.
+   * <p>
+   */
+  class Producer extends TestMultithreading.Producer {
+
+    /** The amount to add. */
+    private final long m_toAdd;
+
+    /** The trace to add the points to. */
+    private final ITrace2D m_target;
+
+    /**
+     * Constructs a producer that will add <code>toAdd</code> points to the
+     * given trace.
+     * <p>
+     *
+     * @param toAdd
+     *          the amount of points to add.
+     *
+     * @param target
+     *          the trace to add the points to.
+     */
+    Producer(final long toAdd, final ITrace2D target) {
+      super(toAdd, 0);
+      this.m_toAdd = toAdd;
+      this.m_target = target;
+    }
+
+    /**
+     * @see info.monitorenter.gui.chart.TestMultithreading.Producer#run()
+     */
+    @Override
+    public void run() {
+      for (long i = 0; i < this.m_toAdd; i++) {
+        this.m_target.addPoint(i, i);
+      }
+    }
+  }
+
+  /** Amount of <code>{@link TracePoint2D}</code> to create per producer. */
+  protected static final int PRODUCER_ADD_POINT_AMOUNT = 50000;
+
+  /**
+   * Test suite for this test class.
+   * <p>
+   *
+   * @return the test suite
+   */
+  public static Test suite() {
+
+    TestSuite suite = new TestSuite();
+    suite.setName(TestMultithreadingThroughput.class.getName());
+
+    suite.addTest(new TestMultithreadingThroughput("testThroughput"));
+    suite.addTest(new TestMultithreadingThroughput("testThroughputImmediateEvents"));
+
+    return suite;
+  }
+
+  /** The image the chart is painted to. */
+  protected BufferedImage m_image;
+
+  /** The traces of the concurrent threads to test, one per producer. */
+  protected List<ITrace2D> m_traces;
+
+  /**
+   * Creates a test case with the given name.
+   * <p>
+   *
+   * @param testName
+   *          the name of the test case.
+   */
+  public TestMultithreadingThroughput(final String testName) {
+    super(testName);
+  }
+
+  /**
+   * Does nothing: The points of this test are not tracked in the weak map.
+   * <p>
+   *
+   * @see info.monitorenter.gui.chart.TestMultithreading#report()
+   */
+  @Override
+  void report() {
+    // nop
+  }
+
+  /**
+   * Starts the producers and a consumer, waits for the producers and asserts
+   * that all points have been added and scaled by the axes.
+   * <p>
+   *
+   * @throws InterruptedException
+   *           if interrupted while waiting for the threads.
+   */
+  private void runProducers() throws InterruptedException {
+    Consumer consumer = new Consumer();
+    long start = System.nanoTime();
+    consumer.start();
+    for (Thread producer : this.m_producers) {
+      producer.start();
+    }
+    for (Thread producer : this.m_producers) {
+      producer.join();
+    }
+    long duration = System.nanoTime() - start;
+    consumer.m_stop = true;
+    consumer.join();
+    Graphics2D graphics = this.m_image.createGraphics();
+    this.m_chart.paint(graphics);
+    graphics.dispose();
+
+    long points = (long) PRODUCER_AMOUNT * TestMultithreadingThroughput.PRODUCER_ADD_POINT_AMOUNT;
+    System.out.println('[' + this.getClass().getName() + "] " + points + " points in "
+        + (duration / 1000000) + " ms: " + (points * 1000000000L / Math.max(duration, 1))
+        + " points/s.");
+    for (ITrace2D trace : this.m_traces) {
+      Assert.assertEquals(TestMultithreadingThroughput.PRODUCER_ADD_POINT_AMOUNT, trace.getSize());
+      Assert.assertFalse(trace.isCoalescingEvents() && trace.fireCoalescedEvents());
+    }
+    Assert.assertEquals(TestMultithreadingThroughput.PRODUCER_ADD_POINT_AMOUNT - 1, this.m_chart
+        .getAxisX().getMax(), 0.0);
+    Assert.assertEquals(TestMultithreadingThroughput.PRODUCER_ADD_POINT_AMOUNT - 1, this.m_chart
+        .getAxisY().getMax(), 0.0);
+  }
+
+  /**
+   * Creates one coalescing trace and one producer per trace.
+   * <p>
+   *
+   * @see info.monitorenter.gui.chart.TestMultithreading#setUp()
+   *
+   * @throws Exception
+   *           if something goes wrong.
+   */
+  @Override
+  public void setUp() throws Exception {
+    this.m_chart = new Chart2D();
+    this.m_chart.setSize(400, 300);
+    this.m_image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+    this.m_weakMap = new WeakHashMap<ITracePoint2D, String>();
+    this.m_producers = new LinkedList<TestMultithreading.Producer>();
+    this.m_traces = new LinkedList<ITrace2D>();
+    ITrace2D tmpTrace;
+    for (int add = PRODUCER_AMOUNT; add > 0; add--) {
+      if (add % 2 == 0) {
+        tmpTrace = new Trace2DSimple("Trace-" + add);
+      } else {
+        tmpTrace = new Trace2DLtd(TestMultithreadingThroughput.PRODUCER_ADD_POINT_AMOUNT,
+            "Trace-" + add);
+      }
+      tmpTrace.setCoalescingEvents(true);
+      this.m_chart.addTrace(tmpTrace);
+      this.m_traces.add(tmpTrace);
+      this.m_producers.add(new Producer(TestMultithreadingThroughput.PRODUCER_ADD_POINT_AMOUNT,
+          tmpTrace));
+    }
+    this.m_trace = this.m_traces.get(0);
+  }
+
+  /**
+   * Cleans up / frees handles.
+   * <p>
+   *
+   * @see info.monitorenter.gui.chart.TestMultithreading#tearDown()
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    this.m_chart.destroy();
+    super.tearDown();
+    this.m_traces = null;
+    this.m_image = null;
+  }
+
+  /**
+   * Runs the producers on coalescing traces.
+   * <p>
+   *
+   * @throws InterruptedException
+   *           if interrupted while waiting for the threads.
+   */
+  public void testThroughput() throws InterruptedException {
+    this.runProducers();
+  }
+
+  /**
+   * Runs the producers on traces that fire their events immediately, one of
+   * them feeding a computing trace.
+   * <p>
+   *
+   * @throws InterruptedException
+   *           if interrupted while waiting for the threads.
+   */
+  public void testThroughputImmediateEvents() throws InterruptedException {
+    for (ITrace2D trace : this.m_traces) {
+      trace.setCoalescingEvents(false);
+    }
+    ITrace2D mean = new Trace2DArithmeticMean(10);
+    this.m_chart.addTrace(mean);
+    this.m_trace.addComputingTrace(mean);
+    this.runProducers();
+    Assert.assertEquals(TestMultithreadingThroughput.PRODUCER_ADD_POINT_AMOUNT, mean.getSize());
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ *  TestStagingQueue.java of project jchart2d, junit tests for StagingQueue.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart;
+
+import info.monitorenter.gui.chart.io.ADataCollector;
+import info.monitorenter.gui.chart.traces.Trace2DSimple;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Junit tests for <code>{@link StagingQueue}</code>.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann</a>
+ */
+public class TestStagingQueue extends TestCase {
+
+  /**
+   * Collector that delivers batches of ascending x values on demand.
+   * <p>
+   *
+   * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann</a>
+   */
+  private static final class BatchCollector extends ADataCollector {
+
+    /** The x value of the next point. */
+    private int m_next;
+
+    /**
+     * Creates a collector for the given trace.
+     * <p>
+     *
+     * @param trace
+     *          the trace to add points to.
+     */
+    BatchCollector(final ITrace2D trace) {
+      super(trace, 0);
+    }
+
+    /**
+     * Adds one batch to the trace.
+     * <p>
+     */
+    void collect() {
+      this.addCollectedData();
+    }
+
+    /**
+     * @see info.monitorenter.gui.chart.io.ADataCollector#collectData()
+     */
+    @Override
+    public ITracePoint2D collectData() {
+      final ITracePoint2D result = new TracePoint2D(this.m_next, -this.m_next);
+      this.m_next++;
+      return result;
+    }
+
+    /**
+     * @see info.monitorenter.gui.chart.io.ADataCollector#collectData(double[],
+     *      double[])
+     */
+    @Override
+    protected int collectData(final double[] xs, final double[] ys) {
+      for (int i = 0; i < xs.length; i++) {
+        xs[i] = this.m_next;
+        ys[i] = -this.m_next;
+        this.m_next++;
+      }
+      return xs.length;
+    }
+  }
+
+  /**
+   * Test suite for this test class.
+   * <p>
+   *
+   * @return the test suite
+   */
+  public static Test suite() {
+
+    TestSuite suite = new TestSuite();
+    suite.setName(TestStagingQueue.class.getName());
+
+    suite.addTest(new TestStagingQueue("testCollectorQueueFull"));
+    suite.addTest(new TestStagingQueue("testDrainOnPaint"));
+    suite.addTest(new TestStagingQueue("testMultipleProducers"));
+    suite.addTest(new TestStagingQueue("testOfferDrain"));
+
+    return suite;
+  }
+
+  /**
+   * Creates a test case with the given name.
+   * <p>
+   *
+   * @param testName
+   *          the name of the test.
+   */
+  public TestStagingQueue(final String testName) {
+    super(testName);
+  }
+
+  /**
+   * Lets a collector stage batches for a trace of a chart that is never
+   * painted and asserts that the points reach the trace in order once the
+   * queue is full.
+   * <p>
+   */
+  public void testCollectorQueueFull() {
+    Chart2D chart = new Chart2D();
+    ITrace2D trace = new Trace2DSimple();
+    chart.addTrace(trace);
+    StagingQueue queue = new StagingQueue(16);
+    trace.setStagingQueue(queue);
+    BatchCollector collector = new BatchCollector(trace);
+    collector.setBatchSize(10);
+    for (int i = 0; i < 10; i++) {
+      collector.collect();
+    }
+    Assert.assertEquals(100, trace.getSize() + queue.size());
+    Assert.assertTrue(trace.getSize() > 0);
+    chart.drainStagingQueues();
+    Assert.assertEquals(100, trace.getSize());
+    Iterator<ITracePoint2D> it = trace.iterator();
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(i, it.next().getX(), 0);
+    }
+    chart.destroy();
+  }
+
+  /**
+   * Stages points for a trace and asserts that they are contained in the
+   * trace in the staged order after the chart was painted.
+   * <p>
+   */
+  public void testDrainOnPaint() {
+    Chart2D chart = new Chart2D();
+    ITrace2D trace = new Trace2DSimple();
+    chart.addTrace(trace);
+    StagingQueue queue = new StagingQueue(64);
+    trace.setStagingQueue(queue);
+    for (int i = 0; i < 50; i++) {
+      Assert.assertTrue(queue.offer(i, i * 2));
+    }
+    Assert.assertEquals(0, trace.getSize());
+
+    BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+    chart.setSize(400, 300);
+    Graphics g = image.getGraphics();
+    chart.paint(g);
+    g.dispose();
+
+    Assert.assertTrue(queue.isEmpty());
+    Assert.assertEquals(50, trace.getSize());
+    Assert.assertEquals(49, trace.getMaxX(), 0);
+    Assert.assertEquals(98, trace.getMaxY(), 0);
+    Iterator<ITracePoint2D> it = trace.iterator();
+    ITracePoint2D point;
+    for (int i = 0; i < 50; i++) {
+      point = it.next();
+      Assert.assertEquals(i, point.getX(), 0);
+      Assert.assertEquals(i * 2, point.getY(), 0);
+    }
+    chart.destroy();
+  }
+
+  /**
+   * Lets several threads offer values while the current thread drains and
+   * asserts that no value is lost and the values of every producer keep their
+   * order.
+   * <p>
+   *
+   * @throws InterruptedException
+   *           if interrupted while waiting for the producers.
+   */
+  public void testMultipleProducers() throws InterruptedException {
+    final int producers = 4;
+    final int amount = 100000;
+    final StagingQueue queue = new StagingQueue(256);
+    Thread[] threads = new Thread[producers];
+    for (int i = 0; i < producers; i++) {
+      final int producer = i;
+      threads[i] = new Thread(new Runnable() {
+        public void run() {
+          for (int j = 0; j < amount; j++) {
+            while (!queue.offer(producer, j)) {
+              Thread.yield();
+            }
+          }
+        }
+      });
+      threads[i].start();
+    }
+    double[] xs = new double[100];
+    double[] ys = new double[100];
+    int[] expected = new int[producers];
+    int received = 0;
+    int drained;
+    int producer;
+    while (received < producers * amount) {
+      drained = queue.drain(xs, ys);
+      for (int i = 0; i < drained; i++) {
+        producer = (int) xs[i];
+        Assert.assertEquals("Values of producer " + producer + " out of order.",
+            expected[producer], (int) ys[i]);
+        expected[producer]++;
+      }
+      received += drained;
+      if (drained == 0) {
+        Thread.yield();
+      }
+    }
+    for (int i = 0; i < producers; i++) {
+      threads[i].join();
+      Assert.assertEquals(amount, expected[i]);
+    }
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  /**
+   * Tests the first in first out order, the capacity limit and the reuse of
+   * slots with a single thread.
+   * <p>
+   */
+  public void testOfferDrain() {
+    StagingQueue queue = new StagingQueue(3);
+    Assert.assertEquals(4, queue.getCapacity());
+    Assert.assertTrue(queue.isEmpty());
+    double[] xs = new double[3];
+    double[] ys = new double[3];
+    int next = 0;
+    int expected = 0;
+    for (int round = 0; round < 10; round++) {
+      while (queue.offer(next, -next)) {
+        next++;
+      }
+      Assert.assertEquals(4, queue.size());
+      // partial drain:
+      Assert.assertEquals(3, queue.drain(xs, ys));
+      for (int i = 0; i < 3; i++) {
+        Assert.assertEquals(expected, xs[i], 0);
+        Assert.assertEquals(-expected, ys[i], 0);
+        expected++;
+      }
+      Assert.assertEquals(1, queue.drain(xs, ys));
+      Assert.assertEquals(expected, xs[0], 0);
+      expected++;
+      Assert.assertEquals(0, queue.drain(xs, ys));
+      Assert.assertTrue(queue.isEmpty());
+    }
+  }
+}
@@ -46,8 +46,13 @@ public final class AllTests {
     TestSuite suite = new TestSuite("Tests for package " + AllTests.class.getPackage().getName());
     //$JUnit-BEGIN$
     suite.addTest(TestTrace2D.suite());
+    suite.addTest(TestNearestPointIndex.suite());
+    suite.addTest(TestTrace2DColumnar.suite());
     suite.addTest(TestTrace2DLtd.suite());
+    suite.addTest(TestTrace2DLtdReordering.suite());
   suite.addTest(TestTrace2DSimple.suite());
+    suite.addTest(TestTrace2DReplacing.suite());
+    suite.addTest(TestTrace2DSorted.suite());
     //$JUnit-END$
     return suite;
   }
@@ -0,0 +1,256 @@
+/*
+ *  TestNearestPointIndex.java of project jchart2d, junit tests for NearestPointIndex.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.Chart2D;
+import info.monitorenter.gui.chart.ITrace2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.axis.AxisInverse;
+import info.monitorenter.gui.chart.axis.AxisLog10;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Junit tests for <code>{@link NearestPointIndex}</code> that compare the
+ * results of indexed nearest point searches with a search over all points.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann</a>
+ */
+public class TestNearestPointIndex extends TestCase {
+
+  /**
+   * Test suite for this test class.
+   * <p>
+   *
+   * @return the test suite
+   */
+  public static Test suite() {
+
+    TestSuite suite = new TestSuite();
+    suite.setName(TestNearestPointIndex.class.getName());
+
+    suite.addTest(new TestNearestPointIndex("testNearestPoint"));
+    suite.addTest(new TestNearestPointIndex("testNearestPointAxes"));
+
+    return suite;
+  }
+
+  /** Random generator with a fixed seed for reproducible tests. */
+  private final Random m_random = new Random(4711);
+
+  /**
+   * Creates a test case with the given name.
+   * <p>
+   *
+   * @param testName
+   *          the name of the test.
+   */
+  public TestNearestPointIndex(final String testName) {
+    super(testName);
+  }
+
+  /**
+   * Adds random points to the given trace.
+   * <p>
+   *
+   * @param trace
+   *          the trace to add points to.
+   *
+   * @param amount
+   *          the amount of points to add.
+   *
+   * @param scale
+   *          the maximum absolute value of the points.
+   */
+  private void addRandomPoints(final ITrace2D trace, final int amount, final double scale) {
+    for (int i = 0; i < amount; i++) {
+      trace.addPoint((this.m_random.nextDouble() - 0.5) * scale,
+          (this.m_random.nextDouble() - 0.5) * scale);
+    }
+  }
+
+  /**
+   * Paints the chart and compares indexed and naive nearest point searches for
+   * random locations.
+   * <p>
+   *
+   * @param chart
+   *          the chart of the trace.
+   *
+   * @param trace
+   *          the trace to search.
+   */
+  private void assertNearestPoints(final Chart2D chart, final ITrace2D trace) {
+    BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+    chart.setSize(400, 300);
+    Graphics g = image.getGraphics();
+    chart.paint(g);
+    g.dispose();
+    double x;
+    double y;
+    for (int i = 0; i < 200; i++) {
+      // also search outside the visible range:
+      x = this.m_random.nextDouble() * 1.4 - 0.2;
+      y = this.m_random.nextDouble() * 1.4 - 0.2;
+      Assert.assertEquals("Euclid distance for (" + x + "," + y + ")", this.nearest(trace, x, y,
+          true), trace.getNearestPointEuclid(x, y).getDistance(), 0);
+      Assert.assertEquals("Manhattan distance for (" + x + "," + y + ")", this.nearest(trace, x,
+          y, false), trace.getNearestPointManhattan(x, y).getDistance(), 0);
+    }
+    this.assertContained(trace, trace.getNearestPointEuclid(0.5, 0.5).getPoint());
+  }
+
+  /**
+   * Asserts that the given point is the instance contained in the given trace
+   * (or a view on the same entry for columnar traces) so that it may be
+   * highlighted.
+   * <p>
+   *
+   * @param trace
+   *          the trace that has to contain the point.
+   *
+   * @param point
+   *          the point to find.
+   */
+  private void assertContained(final ITrace2D trace, final ITracePoint2D point) {
+    boolean contained = false;
+    ITracePoint2D candidate;
+    for (Iterator<ITracePoint2D> it = trace.iterator(); it.hasNext() && !contained;) {
+      candidate = it.next();
+      if (candidate instanceof TracePoint2DColumnar) {
+        contained = (point instanceof TracePoint2DColumnar)
+            && (((TracePoint2DColumnar) point).getTrace() == trace)
+            && (((TracePoint2DColumnar) point).getPosition() == ((TracePoint2DColumnar) candidate)
+                .getPosition());
+      } else {
+        contained = candidate == point;
+      }
+    }
+    Assert.assertTrue("Found point " + point + " is not contained.", contained);
+  }
+
+  /**
+   * Returns the distance of the nearest point found by visiting every point.
+   * <p>
+   *
+   * @param trace
+   *          the trace to search.
+   *
+   * @param x
+   *          the normalized x coordinate.
+   *
+   * @param y
+   *          the normalized y coordinate.
+   *
+   * @param euclid
+   *          if true the Euclid distance is used, else the Manhattan distance.
+   *
+   * @return the distance of the nearest point.
+   */
+  private double nearest(final ITrace2D trace, final double x, final double y,
+      final boolean euclid) {
+    double result = Double.MAX_VALUE;
+    Iterator<ITracePoint2D> it = trace.iterator();
+    ITracePoint2D point;
+    while (it.hasNext()) {
+      point = it.next();
+      if (euclid) {
+        result = Math.min(result, point.getEuclidDistance(x, y));
+      } else {
+        result = Math.min(result, point.getManhattanDistance(x, y));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Compares indexed and naive searches for traces of different types while
+   * points are added, evicted, removed and moved and the ranges of the axes
+   * change.
+   * <p>
+   */
+  public void testNearestPoint() {
+    ITrace2D[] traces = new ITrace2D[] {new Trace2DSimple(), new Trace2DLtd(1500),
+        new Trace2DColumnar(1500) };
+    for (int t = 0; t < traces.length; t++) {
+      Chart2D chart = new Chart2D();
+      ITrace2D trace = traces[t];
+      chart.addTrace(trace);
+      trace.setNearestPointIndexing(true);
+      this.addRandomPoints(trace, 1000, 100);
+      this.assertNearestPoints(chart, trace);
+      // incremental adds within the grid bounds (and evictions):
+      this.addRandomPoints(trace, 700, 100);
+      this.assertNearestPoints(chart, trace);
+      // incremental adds beyond the grid bounds (new axis ranges):
+      this.addRandomPoints(trace, 300, 300);
+      this.assertNearestPoints(chart, trace);
+      // moved point:
+      ITracePoint2D point = trace.iterator().next();
+      point.setLocation(point.getX() + 50, point.getY() - 50);
+      this.assertNearestPoints(chart, trace);
+      if (trace instanceof Trace2DSimple) {
+        // removed points:
+        Iterator<ITracePoint2D> it = trace.iterator();
+        for (int i = 0; i < 100; i++) {
+          point = it.next();
+        }
+        trace.removePoint(point);
+        trace.removePoint(trace.iterator().next());
+        this.assertNearestPoints(chart, trace);
+      }
+      trace.removeAllPoints();
+      this.addRandomPoints(trace, 10, 100);
+      this.assertNearestPoints(chart, trace);
+      chart.destroy();
+    }
+  }
+
+  /**
+   * Compares indexed and naive searches for an inverse and a logarithmic axis
+   * (where the index is not used).
+   * <p>
+   */
+  public void testNearestPointAxes() {
+    Chart2D chart = new Chart2D();
+    chart.setAxisXBottom(new AxisInverse(), 0);
+    chart.setAxisYLeft(new AxisLog10(), 0);
+    ITrace2D trace = new Trace2DSimple();
+    chart.addTrace(trace);
+    trace.setNearestPointIndexing(true);
+    for (int i = 0; i < 1000; i++) {
+      trace.addPoint(this.m_random.nextDouble() * 100, 1 + this.m_random.nextDouble() * 1000);
+    }
+    this.assertNearestPoints(chart, trace);
+    chart.destroy();
+  }
+}
@@ -0,0 +1,439 @@
+/*
+ *  TestTrace2DColumnar.java of project jchart2d - a Junit test case 
+ *  for class Trace2DColumnar. 
+ *  Copyright (C) Achim Westermann
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ * 
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ * 
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.AffineScaling;
+import info.monitorenter.gui.chart.Chart2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.TracePoint2D;
+import info.monitorenter.gui.chart.pointpainters.PointPainterDisc;
+import info.monitorenter.util.Range;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * A Junit test case for class <code>{@link Trace2DColumnar}</code>.
+ * <p>
+ * 
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann</a>
+ */
+public class TestTrace2DColumnar
+    extends TestCase {
+  /**
+   * Test suite for this test class.
+   * <p>
+   * 
+   * @return the test suite
+   */
+  public static Test suite() {
+
+    TestSuite suite = new TestSuite();
+    suite.setName(TestTrace2DColumnar.class.getName());
+
+    suite.addTest(new TestTrace2DColumnar("testAddAndIterate"));
+    suite.addTest(new TestTrace2DColumnar("testAttachProvidedPoints"));
+    suite.addTest(new TestTrace2DColumnar("testConcurrentPaint"));
+    suite.addTest(new TestTrace2DColumnar("testLevelOfDetail"));
+    suite.addTest(new TestTrace2DColumnar("testRemovePoint"));
+    suite.addTest(new TestTrace2DColumnar("testRingBuffer"));
+    suite.addTest(new TestTrace2DColumnar("testSummarizeNaN"));
+
+    return suite;
+  }
+
+  /**
+   * Creates a test case with the given name.
+   * <p>
+   * 
+   * @param testName
+   *            the name of the test.
+   */
+  public TestTrace2DColumnar(final String testName) {
+    super(testName);
+  }
+
+  /**
+   * Returns the pixel column the given point of the given trace is painted to.
+   * <p>
+   * 
+   * @param trace
+   *          the trace of the point.
+   * @param point
+   *          the point.
+   * @param columns
+   *          the amount of pixel columns of the range of the x axis.
+   * @return the pixel column the given point is painted to.
+   */
+  private int getColumn(final Trace2DColumnar trace, final ITracePoint2D point,
+      final int columns) {
+    return (int) Math.round(trace.getScalingX().scale(point.getX()) * columns);
+  }
+
+  /**
+   * Adds more points than the initial capacity to an unbounded trace and
+   * asserts that all of them are iterated in insertion order with the correct
+   * bounds.
+   * <p>
+   */
+  public void testAddAndIterate() {
+    Chart2D chart = new Chart2D();
+    Trace2DColumnar trace = new Trace2DColumnar();
+    chart.addTrace(trace);
+    int count = 1000;
+    for (int i = 0; i < count; i++) {
+      trace.addPoint(i, -i);
+    }
+    Assert.assertEquals(count, trace.getSize());
+    Assert.assertTrue(trace.getCapacity() >= count);
+    Assert.assertEquals(0.0, trace.getMinX(), 0.0);
+    Assert.assertEquals(count - 1, trace.getMaxX(), 0.0);
+    Assert.assertEquals(-(count - 1), trace.getMinY(), 0.0);
+    Assert.assertEquals(0.0, trace.getMaxY(), 0.0);
+    Iterator<ITracePoint2D> it = trace.iterator();
+    int i = 0;
+    ITracePoint2D point;
+    while (it.hasNext()) {
+      point = it.next();
+      Assert.assertEquals(i, point.getX(), 0.0);
+      Assert.assertEquals(-i, point.getY(), 0.0);
+      Assert.assertSame(trace, point.getListener());
+      i++;
+    }
+    Assert.assertEquals(count, i);
+  }
+
+  /**
+   * Asserts that the summarized points of the given trace are a subset of the
+   * points in the given range in ascending order that contains the first point,
+   * the last point and the minimum and maximum y value of every pixel column.
+   * <p>
+   * 
+   * @param trace
+   *          the trace to check.
+   * @param minX
+   *          the lower bound of the x range.
+   * @param maxX
+   *          the upper bound of the x range.
+   * @param columns
+   *          the amount of pixel columns of the range of the x axis.
+   * @return the x values of the summarized points.
+   */
+  private List<Double> assertLevelOfDetail(final Trace2DColumnar trace, final double minX,
+      final double maxX, final int columns) {
+    List<ITracePoint2D> all = new ArrayList<ITracePoint2D>();
+    for (Iterator<ITracePoint2D> it = trace.iterator(minX, maxX); it.hasNext();) {
+      all.add(it.next());
+    }
+    List<ITracePoint2D> summarized = new ArrayList<ITracePoint2D>();
+    List<Double> result = new ArrayList<Double>();
+    ITracePoint2D point;
+    for (Iterator<ITracePoint2D> it = trace.iterator(minX, maxX, columns); it.hasNext();) {
+      point = it.next();
+      if (!result.isEmpty()) {
+        Assert.assertTrue("Not ascending: " + point.getX(),
+            point.getX() > result.get(result.size() - 1).doubleValue());
+      }
+      summarized.add(point);
+      result.add(Double.valueOf(point.getX()));
+    }
+    int pos = 0;
+    int summarizedPos = 0;
+    int column;
+    double minY;
+    double maxY;
+    boolean minFound;
+    boolean maxFound;
+    while (pos < all.size()) {
+      column = this.getColumn(trace, all.get(pos), columns);
+      Assert.assertEquals("First point of column " + column, all.get(pos).getX(), summarized.get(
+          summarizedPos).getX(), 0.0);
+      minY = Double.POSITIVE_INFINITY;
+      maxY = Double.NEGATIVE_INFINITY;
+      while ((pos < all.size()) && (this.getColumn(trace, all.get(pos), columns) == column)) {
+        point = all.get(pos);
+        minY = Math.min(minY, point.getY());
+        maxY = Math.max(maxY, point.getY());
+        pos++;
+      }
+      point = null;
+      minFound = false;
+      maxFound = false;
+      while ((summarizedPos < summarized.size())
+          && (this.getColumn(trace, summarized.get(summarizedPos), columns) == column)) {
+        point = summarized.get(summarizedPos);
+        minFound |= point.getY() == minY;
+        maxFound |= point.getY() == maxY;
+        summarizedPos++;
+      }
+      Assert.assertEquals("Last point of column " + column, all.get(pos - 1).getX(), point
+          .getX(), 0.0);
+      Assert.assertTrue("Minimum of column " + column, minFound);
+      Assert.assertTrue("Maximum of column " + column, maxFound);
+    }
+    Assert.assertEquals(summarized.size(), summarizedPos);
+    return result;
+  }
+
+  /**
+   * Asserts that points created by <code>{@link TracePointProviderColumnar}</code>
+   * are attached to the trace and keep their additional point painters and
+   * values when dropped again.
+   * <p>
+   */
+  public void testAttachProvidedPoints() {
+    Chart2D chart = new Chart2D();
+    chart.setTracePointProvider(new TracePointProviderColumnar());
+    Trace2DColumnar trace = new Trace2DColumnar(2);
+    chart.addTrace(trace);
+    ITracePoint2D first = chart.getTracePointProvider().createTracePoint(1, 10);
+    PointPainterDisc painter = new PointPainterDisc();
+    first.addAdditionalPointPainter(painter);
+    trace.addPoint(first);
+    Assert.assertSame(trace, ((TracePoint2DColumnar) first).getTrace());
+    ITracePoint2D view = trace.iterator().next();
+    Assert.assertTrue(view.getAdditionalPointPainters().contains(painter));
+    first.setLocation(2, 20);
+    Assert.assertEquals(2.0, view.getX(), 0.0);
+    Assert.assertEquals(20.0, trace.getMaxY(), 0.0);
+    trace.addPoint(chart.getTracePointProvider().createTracePoint(3, 30));
+    trace.addPoint(chart.getTracePointProvider().createTracePoint(4, 40));
+    // first has been evicted and keeps its last values:
+    Assert.assertEquals(2.0, first.getX(), 0.0);
+    Assert.assertEquals(20.0, first.getY(), 0.0);
+    Assert.assertTrue(first.getAdditionalPointPainters().contains(painter));
+    Assert.assertEquals(30.0, trace.getMinY(), 0.0);
+  }
+
+  /**
+   * Adds unsorted points to a limited trace in one thread while another thread
+   * paints the chart and asserts that no monitor deadlock occurs: Searching the
+   * bounds after removing the oldest point holds the lock on the trace only
+   * and must not acquire the lock on the chart.
+   * <p>
+   * 
+   * @throws InterruptedException
+   *           if interrupted while waiting for the threads.
+   */
+  public void testConcurrentPaint() throws InterruptedException {
+    final Chart2D chart = new Chart2D();
+    chart.setSize(400, 300);
+    final Trace2DColumnar trace = new Trace2DColumnar(50);
+    chart.addTrace(trace);
+    final AtomicBoolean stop = new AtomicBoolean();
+    Thread producer = new Thread("producer") {
+      @Override
+      public void run() {
+        for (int i = 0; (i < 20000) && !stop.get(); i++) {
+          trace.addPoint(i % 20, i);
+        }
+      }
+    };
+    Thread painter = new Thread("painter") {
+      @Override
+      public void run() {
+        final BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = image.createGraphics();
+        while (!stop.get()) {
+          chart.paint(graphics);
+        }
+        graphics.dispose();
+      }
+    };
+    // a deadlocked test must not keep the vm alive:
+    producer.setDaemon(true);
+    painter.setDaemon(true);
+    producer.start();
+    painter.start();
+    producer.join(5000);
+    stop.set(true);
+    painter.join(1000);
+    Assert.assertNull("Monitor deadlock.", ManagementFactory.getThreadMXBean()
+        .findMonitorDeadlockedThreads());
+    Assert.assertFalse(producer.isAlive());
+    Assert.assertFalse(painter.isAlive());
+    Assert.assertEquals(50, trace.getSize());
+    Assert.assertEquals(0.0, trace.getMinX(), 0.0);
+    Assert.assertEquals(19.0, trace.getMaxX(), 0.0);
+    Assert.assertEquals(19950.0, trace.getMinY(), 0.0);
+    Assert.assertEquals(19999.0, trace.getMaxY(), 0.0);
+    chart.destroy();
+  }
+
+  /**
+   * Summarizes random points by the level of detail index for different zoom
+   * levels and asserts that the index follows appended and dropped points.
+   * <p>
+   */
+  public void testLevelOfDetail() {
+    Random random = new Random(4711);
+    Chart2D chart = new Chart2D();
+    Trace2DColumnar trace = new Trace2DColumnar();
+    chart.addTrace(trace);
+    trace.setLevelOfDetail(true);
+    for (int i = 0; i < 100000; i++) {
+      trace.addPoint(i, random.nextGaussian());
+    }
+    // scaling is assigned by a linear axis while painting:
+    trace.setScalingX(new AffineScaling(new Range(0, 100000), false));
+    Assert.assertTrue(this.assertLevelOfDetail(trace, 0, 100000, 400).size() <= 4 * 401);
+    Assert.assertTrue(this.assertLevelOfDetail(trace, 20000.5, 30000.5, 400).size() < 500);
+    // zoomed in (few points per column):
+    Assert.assertEquals(102, this.assertLevelOfDetail(trace, 20000.5, 20100.5, 400).size());
+    this.assertLevelOfDetail(trace, 50013, 51017, 10000);
+    // appended points:
+    for (int i = 100000; i < 100333; i++) {
+      trace.addPoint(i, random.nextGaussian());
+    }
+    List<Double> appended = this.assertLevelOfDetail(trace, 90000.5, 100332, 100);
+    // summarized by a scan without the index:
+    trace.setLevelOfDetail(false);
+    Assert.assertEquals(appended, this.assertLevelOfDetail(trace, 90000.5, 100332, 100));
+    trace.setLevelOfDetail(true);
+    Assert.assertEquals(appended, this.assertLevelOfDetail(trace, 90000.5, 100332, 100));
+    chart.destroy();
+
+    // dropped points:
+    chart = new Chart2D();
+    trace = new Trace2DColumnar(5000);
+    chart.addTrace(trace);
+    trace.setLevelOfDetail(true);
+    trace.setScalingX(new AffineScaling(new Range(0, 8000), false));
+    for (int i = 0; i < 8000; i++) {
+      trace.addPoint(i, random.nextGaussian());
+      if (i % 2000 == 0) {
+        this.assertLevelOfDetail(trace, 0, 8000, 20);
+      }
+    }
+    Assert.assertTrue(this.assertLevelOfDetail(trace, 0, 8000, 20).size() <= 4 * 21);
+    chart.destroy();
+  }
+
+  /**
+   * Removes points from the head, the middle and the tail of the trace and
+   * asserts the remaining sequence.
+   * <p>
+   */
+  public void testRemovePoint() {
+    Chart2D chart = new Chart2D();
+    Trace2DColumnar trace = new Trace2DColumnar();
+    chart.addTrace(trace);
+    for (int i = 0; i < 10; i++) {
+      trace.addPoint(i, i);
+    }
+    Assert.assertTrue(trace.removePoint(new TracePoint2D(0, 0)));
+    Assert.assertTrue(trace.removePoint(new TracePoint2D(5, 5)));
+    Assert.assertTrue(trace.removePoint(new TracePoint2D(9, 9)));
+    Assert.assertFalse(trace.removePoint(new TracePoint2D(5, 5)));
+    Assert.assertEquals(7, trace.getSize());
+    double[] expected = new double[] {1, 2, 3, 4, 6, 7, 8 };
+    Iterator<ITracePoint2D> it = trace.iterator();
+    for (int i = 0; i < expected.length; i++) {
+      Assert.assertEquals(expected[i], it.next().getX(), 0.0);
+    }
+    Assert.assertFalse(it.hasNext());
+    Assert.assertEquals(1.0, trace.getMinX(), 0.0);
+    Assert.assertEquals(8.0, trace.getMaxX(), 0.0);
+  }
+
+  /**
+   * Adds many points to a bounded trace and asserts that only the latest
+   * points remain and the bounds follow the window.
+   * <p>
+   */
+  public void testRingBuffer() {
+    Chart2D chart = new Chart2D();
+    int traceSize = 100;
+    Trace2DColumnar trace = new Trace2DColumnar(traceSize);
+    chart.addTrace(trace);
+    int count = 10000;
+    for (int i = 0; i < count; i++) {
+      trace.addPoint(i, Math.sin(i));
+    }
+    Assert.assertEquals(traceSize, trace.getSize());
+    Assert.assertEquals(count - traceSize, trace.getMinX(), 0.0);
+    Assert.assertEquals(count - 1, trace.getMaxX(), 0.0);
+    double minY = Double.MAX_VALUE;
+    double maxY = -Double.MAX_VALUE;
+    int expectedX = count - traceSize;
+    ITracePoint2D point;
+    for (Iterator<ITracePoint2D> it = trace.iterator(); it.hasNext();) {
+      point = it.next();
+      Assert.assertEquals(expectedX, point.getX(), 0.0);
+      minY = Math.min(minY, point.getY());
+      maxY = Math.max(maxY, point.getY());
+      expectedX++;
+    }
+    Assert.assertEquals(minY, trace.getMinY(), 0.0);
+    Assert.assertEquals(maxY, trace.getMaxY(), 0.0);
+  }
+
+  /**
+   * Summarizes points with NaN y values and points with additional point
+   * painters and asserts that those are returned.
+   * <p>
+   */
+  public void testSummarizeNaN() {
+    Chart2D chart = new Chart2D();
+    Trace2DColumnar trace = new Trace2DColumnar();
+    chart.addTrace(trace);
+    for (int i = 0; i < 1000; i++) {
+      trace.addPoint(i, ((i % 100 == 55) || (i == 57)) ? Double.NaN : Math.sin(i));
+    }
+    trace.setScalingX(new AffineScaling(new Range(0, 1000), false));
+    List<Double> xs = new ArrayList<Double>();
+    for (Iterator<ITracePoint2D> it = trace.iterator(0, 1000, 10); it.hasNext();) {
+      xs.add(Double.valueOf(it.next().getX()));
+    }
+    Assert.assertTrue(xs.size() < 100);
+    // the points around a NaN value end and start the summarized parts:
+    for (int i = 0; i < 1000; i += 100) {
+      Assert.assertTrue(xs.contains(Double.valueOf(i + 54)));
+      Assert.assertTrue(xs.contains(Double.valueOf(i + 55)));
+      Assert.assertTrue(xs.contains(Double.valueOf(i + 56)));
+    }
+    Assert.assertTrue(xs.contains(Double.valueOf(57)));
+    Assert.assertTrue(xs.contains(Double.valueOf(58)));
+    // points with additional point painters have to be painted:
+    trace.iterator(500, 500).next().addAdditionalPointPainter(new PointPainterDisc());
+    int count = 0;
+    for (Iterator<ITracePoint2D> it = trace.iterator(0, 1000, 10); it.hasNext();) {
+      it.next();
+      count++;
+    }
+    Assert.assertEquals(1000, count);
+    chart.destroy();
+  }
+}
@@ -27,7 +27,11 @@ import info.monitorenter.gui.chart.ITrace2D;
 import info.monitorenter.gui.chart.ITracePoint2D;
 import info.monitorenter.gui.chart.TracePoint2D;
 
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.WeakHashMap;
 
 import junit.framework.Assert;
@@ -55,6 +59,9 @@ public class TestTrace2DLtd extends TestCase {
 		suite.setName(TestTrace2DLtd.class.getName());
 
 		suite.addTest(new TestTrace2DLtd("testMemoryLeak"));
+		suite.addTest(new TestTrace2DLtd("testExtrema"));
+		suite.addTest(new TestTrace2DLtd("testIteratorRange"));
+		suite.addTest(new TestTrace2DLtd("testReplacing"));
 
 		return suite;
 	}
@@ -70,6 +77,182 @@ public class TestTrace2DLtd extends TestCase {
 		super(testName);
 	}
 
+	/**
+	 * Asserts that the bounds of the given trace are equal to the bounds
+	 * found by iterating all of its points.
+	 * <p>
+	 * 
+	 * @param trace
+	 *            the trace to check.
+	 */
+	private static void assertExtrema(final ITrace2D trace) {
+		double minX = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		ITracePoint2D point;
+		for (Iterator<ITracePoint2D> it = trace.iterator(); it.hasNext();) {
+			point = it.next();
+			minX = Math.min(minX, point.getX());
+			maxX = Math.max(maxX, point.getX());
+			minY = Math.min(minY, point.getY());
+			maxY = Math.max(maxY, point.getY());
+		}
+		Assert.assertEquals(minX, trace.getMinX(), 0.0);
+		Assert.assertEquals(maxX, trace.getMaxX(), 0.0);
+		Assert.assertEquals(minY, trace.getMinY(), 0.0);
+		Assert.assertEquals(maxY, trace.getMaxY(), 0.0);
+	}
+
+	/**
+	 * Asserts that <code>{@link ITrace2D#iterator(double, double)}</code> of
+	 * the given trace returns the points in the given range and their
+	 * neighbours if the trace is sorted by x values or all points else.
+	 * <p>
+	 * 
+	 * @param trace
+	 *            the trace to check.
+	 * 
+	 * @param minX
+	 *            the lower bound of the x range.
+	 * 
+	 * @param maxX
+	 *            the upper bound of the x range.
+	 */
+	private static void assertIteratorRange(final ITrace2D trace,
+			final double minX, final double maxX) {
+		List<ITracePoint2D> expected = new LinkedList<ITracePoint2D>();
+		ITracePoint2D point;
+		ITracePoint2D below = null;
+		boolean above = false;
+		for (Iterator<ITracePoint2D> it = trace.iterator(); it.hasNext()
+				&& !above;) {
+			point = it.next();
+			if (!trace.isSortedX()) {
+				expected.add(point);
+			} else if (point.getX() < minX) {
+				below = point;
+			} else {
+				if (below != null) {
+					expected.add(below);
+					below = null;
+				}
+				expected.add(point);
+				above = point.getX() > maxX;
+			}
+		}
+		if (below != null) {
+			expected.add(below);
+		}
+		Iterator<ITracePoint2D> it = trace.iterator(minX, maxX);
+		for (ITracePoint2D expectedPoint : expected) {
+			Assert.assertTrue("Missing points in [" + minX + "," + maxX + "]",
+					it.hasNext());
+			point = it.next();
+			Assert.assertEquals(expectedPoint.getX(), point.getX(), 0.0);
+			Assert.assertEquals(expectedPoint.getY(), point.getY(), 0.0);
+		}
+		Assert.assertFalse("Too many points in [" + minX + "," + maxX + "]",
+				it.hasNext());
+	}
+
+	/**
+	 * Adds monotonic and random points to a <code>{@link Trace2DLtd}</code>
+	 * and a <code>{@link Trace2DLtdReplacing}</code> and asserts after every
+	 * step that the incrementally tracked bounds are equal to the bounds found
+	 * by a search over all points. Modification of contained points and
+	 * changes of the maximum size are covered too.
+	 * <p>
+	 */
+	public void testExtrema() {
+		Random random = new Random(4711);
+		ITrace2D[] traces = new ITrace2D[] {new Trace2DLtd(50),
+				new Trace2DLtdReplacing(50) };
+		for (ITrace2D trace : traces) {
+			Chart2D dummyChart = new Chart2D();
+			dummyChart.addTrace(trace);
+			// increasing x: every eviction drops the minimum:
+			for (int i = 0; i < 500; i++) {
+				trace.addPoint(i, -i);
+				TestTrace2DLtd.assertExtrema(trace);
+			}
+			// random values with duplicates:
+			for (int i = 0; i < 2000; i++) {
+				trace.addPoint(random.nextInt(100), random.nextInt(20));
+				TestTrace2DLtd.assertExtrema(trace);
+			}
+			// modify a contained point:
+			ITracePoint2D point = trace.iterator().next();
+			point.setLocation(1000, -1000);
+			TestTrace2DLtd.assertExtrema(trace);
+			point.setLocation(1, 1);
+			TestTrace2DLtd.assertExtrema(trace);
+			// decrease and increase the maximum size:
+			((Trace2DLtd) trace).setMaxSize(10);
+			TestTrace2DLtd.assertExtrema(trace);
+			((Trace2DLtd) trace).setMaxSize(100);
+			for (int i = 0; i < 300; i++) {
+				trace.addPoint(random.nextGaussian(), random.nextGaussian());
+				TestTrace2DLtd.assertExtrema(trace);
+			}
+			trace.removeAllPoints();
+			trace.addPoint(3, 4);
+			TestTrace2DLtd.assertExtrema(trace);
+		}
+	}
+
+	/**
+	 * Asserts that traces sorted by x values only return the points within a
+	 * range (and their neighbours) and that the sort state follows added,
+	 * evicted, moved and removed points.
+	 * <p>
+	 */
+	public void testIteratorRange() {
+		Random random = new Random(4711);
+		ITrace2D[] traces = new ITrace2D[] {new Trace2DLtd(50),
+				new Trace2DColumnar(50), new Trace2DSorted() };
+		for (ITrace2D trace : traces) {
+			Chart2D dummyChart = new Chart2D();
+			dummyChart.addTrace(trace);
+			for (int i = 0; i < 200; i++) {
+				trace.addPoint(i, random.nextDouble());
+			}
+			Assert.assertTrue(trace.isSortedX());
+			TestTrace2DLtd.assertIteratorRange(trace, 160.5, 170.2);
+			TestTrace2DLtd.assertIteratorRange(trace, 170, 180);
+			TestTrace2DLtd.assertIteratorRange(trace, -10, 0);
+			TestTrace2DLtd.assertIteratorRange(trace, 300, 400);
+			TestTrace2DLtd.assertIteratorRange(trace,
+					Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+			if (trace instanceof Trace2DSorted) {
+				// inserted in order:
+				trace.addPoint(100.5, 0);
+				Assert.assertTrue(trace.isSortedX());
+			} else {
+				// unsorted until the older x value is evicted:
+				trace.addPoint(100, 0);
+				for (int i = 200; i < 249; i++) {
+					Assert.assertFalse(trace.isSortedX());
+					TestTrace2DLtd.assertIteratorRange(trace, 210, 220);
+					trace.addPoint(i, random.nextDouble());
+				}
+				Assert.assertTrue(trace.isSortedX());
+				TestTrace2DLtd.assertIteratorRange(trace, 210, 220);
+			}
+			// moved point:
+			ITracePoint2D point = trace.iterator().next();
+			point.setLocation(1000, 0);
+			Assert.assertFalse(trace.isSortedX());
+			TestTrace2DLtd.assertIteratorRange(trace, 210, 220);
+			trace.removeAllPoints();
+			Assert.assertTrue(trace.isSortedX());
+			trace.addPoint(1, 1);
+			TestTrace2DLtd.assertIteratorRange(trace, 0, 2);
+			TestTrace2DLtd.assertIteratorRange(trace, 2, 3);
+			dummyChart.destroy();
+		}
+	}
+
 	/**
 	 * Adds 1000000 <code>{@link TracePoint2D}</code> instances to a
 	 * <code>{@link Trace2DLtd}</code> and asserts that not more points than
@@ -115,4 +298,75 @@ public class TestTrace2DLtd extends TestCase {
 				+ " TracePoint2D instances not deleted from the WeakHashMap.",
 				keys > traceSize);
 	}
+
+	/**
+	 * Asserts that a <code>{@link Trace2DLtdReplacing}</code> replaces the y
+	 * value of a contained point with the same x value and appends points
+	 * whose x value has been dropped from the buffer or is new.
+	 * <p>
+	 */
+	public void testReplacing() {
+		Random random = new Random(4711);
+		Trace2DLtdReplacing trace = new Trace2DLtdReplacing(50);
+		Chart2D dummyChart = new Chart2D();
+		dummyChart.addTrace(trace);
+		double[] ys = new double[100];
+		for (int i = 0; i < 100; i++) {
+			ys[i] = random.nextDouble();
+			trace.addPoint(i, ys[i]);
+		}
+		// replacements keep the order and the size:
+		for (int i = 0; i < 1000; i++) {
+			int x = 50 + random.nextInt(50);
+			ys[x] = random.nextDouble() * 2 - 0.5;
+			trace.addPoint(x, ys[x]);
+			TestTrace2DLtd.assertExtrema(trace);
+		}
+		Assert.assertEquals(50, trace.getSize());
+		Iterator<ITracePoint2D> it = trace.iterator();
+		for (int i = 50; i < 100; i++) {
+			ITracePoint2D point = it.next();
+			Assert.assertEquals(i, point.getX(), 0.0);
+			Assert.assertEquals(ys[i], point.getY(), 0.0);
+		}
+		// x values dropped from the buffer are appended:
+		trace.addPoint(10, 1);
+		trace.addPoint(50, 2);
+		Assert.assertEquals(50, trace.getSize());
+		Assert.assertEquals(52, trace.iterator().next().getX(), 0.0);
+		trace.setMaxSize(2);
+		trace.addPoint(52, 3);
+		trace.addPoint(50, 4);
+		Assert.assertEquals(2, trace.getSize());
+		it = trace.iterator();
+		ITracePoint2D point = it.next();
+		Assert.assertEquals(50, point.getX(), 0.0);
+		Assert.assertEquals(4, point.getY(), 0.0);
+		Assert.assertEquals(52, it.next().getX(), 0.0);
+		// moved points are found by their new x value:
+		point.setLocation(7, 4);
+		trace.addPoint(7, 5);
+		Assert.assertEquals(2, trace.getSize());
+		Assert.assertEquals(5, point.getY(), 0.0);
+		TestTrace2DLtd.assertExtrema(trace);
+		// points dropped by a resize are not found any more:
+		trace.removeAllPoints();
+		trace.setMaxSize(10);
+		for (int i = 0; i < 10; i++) {
+			trace.addPoint(i, i);
+		}
+		trace.setMaxSize(5);
+		trace.setMaxSize(10);
+		trace.addPoint(0, 42);
+		Assert.assertEquals(6, trace.getSize());
+		it = trace.iterator();
+		for (int i = 5; i < 10; i++) {
+			Assert.assertEquals(i, it.next().getY(), 0.0);
+		}
+		point = it.next();
+		Assert.assertEquals(0, point.getX(), 0.0);
+		Assert.assertEquals(42, point.getY(), 0.0);
+		TestTrace2DLtd.assertExtrema(trace);
+		dummyChart.destroy();
+	}
 }
@@ -0,0 +1,152 @@
+/*
+ *  TestTrace2DLtdReordering.java, a Junit test case for Trace2DLtdReordering.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.Chart2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * A Junit test case for <code>{@link Trace2DLtdReordering}</code>.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann</a>
+ *
+ */
+public class TestTrace2DLtdReordering extends TestCase {
+
+  /**
+   * Test suite for this test class.
+   * <p>
+   *
+   * @return the test suite.
+   */
+  public static Test suite() {
+
+    TestSuite suite = new TestSuite();
+    suite.setName(TestTrace2DLtdReordering.class.getName());
+
+    suite.addTest(new TestTrace2DLtdReordering("testJitter"));
+    suite.addTest(new TestTrace2DLtdReordering("testLatePoints"));
+
+    return suite;
+  }
+
+  /**
+   * Creates a test case with the given name.
+   * <p>
+   *
+   * @param testName
+   *          the name of the test case.
+   */
+  public TestTrace2DLtdReordering(final String testName) {
+    super(testName);
+  }
+
+  /**
+   * Asserts that the given trace contains exactly the given x values in the
+   * given order.
+   * <p>
+   *
+   * @param trace
+   *          the trace to check.
+   * @param xs
+   *          the expected x values.
+   */
+  private void assertXs(final Trace2DLtdReordering trace, final double[] xs) {
+    Assert.assertEquals(xs.length, trace.getSize());
+    Iterator<ITracePoint2D> it = trace.iterator();
+    for (int i = 0; i < xs.length; i++) {
+      Assert.assertEquals(xs[i], it.next().getX(), 0.0);
+    }
+    Assert.assertFalse(it.hasNext());
+  }
+
+  /**
+   * Adds points with a jitter smaller than the reorder window and asserts
+   * that all of them are contained in order after a flush.
+   * <p>
+   */
+  public void testJitter() {
+    Random random = new Random(4711);
+    Chart2D chart = new Chart2D();
+    Trace2DLtdReordering trace = new Trace2DLtdReordering(20000, 20);
+    chart.addTrace(trace);
+    double[] xs = new double[10000];
+    for (int i = 0; i < xs.length; i++) {
+      xs[i] = i - random.nextDouble() * 19;
+      trace.addPoint(xs[i], random.nextDouble());
+      Assert.assertTrue(trace.getBufferedSize() <= 41);
+    }
+    trace.flush();
+    Arrays.sort(xs);
+    this.assertXs(trace, xs);
+    Assert.assertEquals(0, trace.getLatePointCount());
+    Assert.assertEquals(0, trace.getBufferedSize());
+    Assert.assertTrue(trace.isSortedX());
+    Assert.assertEquals(xs[0], trace.getMinX(), 0.0);
+    Assert.assertEquals(xs[xs.length - 1], trace.getMaxX(), 0.0);
+    chart.destroy();
+  }
+
+  /**
+   * Asserts that points later than the reorder window are dropped and that
+   * the reorder window in points limits the buffered points.
+   * <p>
+   */
+  public void testLatePoints() {
+    Chart2D chart = new Chart2D();
+    Trace2DLtdReordering trace = new Trace2DLtdReordering(100, 5);
+    chart.addTrace(trace);
+    for (int i = 0; i < 10; i++) {
+      trace.addPoint(i, i);
+    }
+    this.assertXs(trace, new double[] {0, 1, 2, 3, 4 });
+    Assert.assertEquals(5, trace.getBufferedSize());
+    // later than the released point 4:
+    trace.addPoint(2, 2);
+    trace.addPoint(Double.NaN, 2);
+    Assert.assertEquals(2, trace.getLatePointCount());
+    trace.addPoint(4.5, 3);
+    Assert.assertEquals(6, trace.getBufferedSize());
+    trace.setReorderWindowPoints(2);
+    this.assertXs(trace, new double[] {0, 1, 2, 3, 4, 4.5, 5, 6, 7 });
+    Assert.assertEquals(2, trace.getBufferedSize());
+    trace.flush();
+    this.assertXs(trace, new double[] {0, 1, 2, 3, 4, 4.5, 5, 6, 7, 8, 9 });
+    trace.removeAllPoints();
+    Assert.assertEquals(0, trace.getBufferedSize());
+    trace.addPoint(-1, 0);
+    trace.flush();
+    this.assertXs(trace, new double[] {-1 });
+    chart.destroy();
+  }
+}
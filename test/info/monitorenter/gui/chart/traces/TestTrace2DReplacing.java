@@ -0,0 +1,297 @@
+/*
+ *  TestTrace2DReplacing.java, a Junit test case for Trace2DReplacing and
+ *  Trace2DBijective.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.Chart2D;
+import info.monitorenter.gui.chart.ITrace2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * A Junit test case for <code>{@link Trace2DReplacing}</code> and
+ * <code>{@link Trace2DBijective}</code> that also measures the throughput of
+ * replacing points in traces of different sizes.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann</a>
+ *
+ */
+public class TestTrace2DReplacing extends TestCase {
+
+  /**
+   * Test suite for this test class.
+   * <p>
+   *
+   * @return the test suite.
+   */
+  public static Test suite() {
+
+    TestSuite suite = new TestSuite();
+    suite.setName(TestTrace2DReplacing.class.getName());
+
+    suite.addTest(new TestTrace2DReplacing("testBijective"));
+    suite.addTest(new TestTrace2DReplacing("testConcurrentPaint"));
+    suite.addTest(new TestTrace2DReplacing("testReplacing"));
+    suite.addTest(new TestTrace2DReplacing("testUpdateThroughput"));
+
+    return suite;
+  }
+
+  /**
+   * Creates a test case with the given name.
+   * <p>
+   *
+   * @param testName
+   *          the name of the test case.
+   */
+  public TestTrace2DReplacing(final String testName) {
+    super(testName);
+  }
+
+  /**
+   * Asserts that the bounds of the given trace are equal to the bounds
+   * computed from its points.
+   * <p>
+   *
+   * @param trace
+   *          the trace to check.
+   */
+  private void assertBounds(final ITrace2D trace) {
+    double maxY = -Double.MAX_VALUE;
+    double minY = Double.MAX_VALUE;
+    double maxX = -Double.MAX_VALUE;
+    double minX = Double.MAX_VALUE;
+    ITracePoint2D point;
+    for (Iterator<ITracePoint2D> it = trace.iterator(); it.hasNext();) {
+      point = it.next();
+      maxX = Math.max(maxX, point.getX());
+      minX = Math.min(minX, point.getX());
+      maxY = Math.max(maxY, point.getY());
+      minY = Math.min(minY, point.getY());
+    }
+    Assert.assertEquals(maxX, trace.getMaxX(), 0.0);
+    Assert.assertEquals(minX, trace.getMinX(), 0.0);
+    Assert.assertEquals(maxY, trace.getMaxY(), 0.0);
+    Assert.assertEquals(minY, trace.getMinY(), 0.0);
+  }
+
+  /**
+   * Asserts that the given trace contains exactly the given points in the
+   * given order.
+   * <p>
+   *
+   * @param trace
+   *          the trace to check.
+   * @param xs
+   *          the expected x values.
+   * @param ys
+   *          the expected y values.
+   */
+  private void assertPoints(final ITrace2D trace, final double[] xs, final double[] ys) {
+    Assert.assertEquals(xs.length, trace.getSize());
+    Iterator<ITracePoint2D> it = trace.iterator();
+    ITracePoint2D point;
+    for (int i = 0; i < xs.length; i++) {
+      point = it.next();
+      Assert.assertEquals(xs[i], point.getX(), 0.0);
+      Assert.assertEquals(ys[i], point.getY(), 0.0);
+    }
+    Assert.assertFalse(it.hasNext());
+  }
+
+  /**
+   * Asserts that a point with an x value already contained replaces the old
+   * point at the end of the trace and that removed points are not found
+   * anymore.
+   * <p>
+   */
+  public void testBijective() {
+    Chart2D chart = new Chart2D();
+    ITrace2D trace = new Trace2DBijective();
+    chart.addTrace(trace);
+    trace.addPoint(1, 10);
+    trace.addPoint(2, 20);
+    trace.addPoint(3, 30);
+    trace.addPoint(1, 5);
+    this.assertPoints(trace, new double[] {2, 3, 1 }, new double[] {20, 30, 5 });
+    this.assertBounds(trace);
+    trace.addPoint(3, 1);
+    this.assertPoints(trace, new double[] {2, 1, 3 }, new double[] {20, 5, 1 });
+    this.assertBounds(trace);
+    ITracePoint2D first = trace.iterator().next();
+    Assert.assertTrue(trace.removePoint(first));
+    trace.addPoint(2, 7);
+    this.assertPoints(trace, new double[] {1, 3, 2 }, new double[] {5, 1, 7 });
+    // moving a point keeps the index valid:
+    first = trace.iterator().next();
+    first.setLocation(4, 5);
+    trace.addPoint(4, 6);
+    this.assertPoints(trace, new double[] {3, 2, 4 }, new double[] {1, 7, 6 });
+    this.assertBounds(trace);
+    trace.removeAllPoints();
+    trace.addPoint(3, 3);
+    this.assertPoints(trace, new double[] {3 }, new double[] {3 });
+    chart.destroy();
+  }
+
+  /**
+   * Replaces points of limited replacing traces in one thread while another
+   * thread paints the chart and asserts that no monitor deadlock occurs:
+   * Replacing a point while adding holds the lock on the trace only and must
+   * not acquire the lock on the chart.
+   * <p>
+   *
+   * @throws InterruptedException
+   *           if interrupted while waiting for the threads.
+   */
+  public void testConcurrentPaint() throws InterruptedException {
+    final Chart2D chart = new Chart2D();
+    chart.setSize(400, 300);
+    final ITrace2D[] traces = new ITrace2D[] {new Trace2DLtdReplacing(50),
+        new Trace2DReplacing() };
+    for (ITrace2D trace : traces) {
+      chart.addTrace(trace);
+    }
+    final AtomicBoolean stop = new AtomicBoolean();
+    Thread producer = new Thread("producer") {
+      @Override
+      public void run() {
+        for (int i = 0; (i < 20000) && !stop.get(); i++) {
+          for (ITrace2D trace : traces) {
+            trace.addPoint(i % 20, i);
+          }
+        }
+      }
+    };
+    Thread painter = new Thread("painter") {
+      @Override
+      public void run() {
+        final BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = image.createGraphics();
+        while (!stop.get()) {
+          chart.paint(graphics);
+        }
+        graphics.dispose();
+      }
+    };
+    // a deadlocked test must not keep the vm alive:
+    producer.setDaemon(true);
+    painter.setDaemon(true);
+    producer.start();
+    painter.start();
+    producer.join(5000);
+    stop.set(true);
+    painter.join(1000);
+    Assert.assertNull("Monitor deadlock.", ManagementFactory.getThreadMXBean()
+        .findMonitorDeadlockedThreads());
+    Assert.assertFalse(producer.isAlive());
+    Assert.assertFalse(painter.isAlive());
+    for (ITrace2D trace : traces) {
+      Assert.assertEquals(20, trace.getSize());
+      this.assertBounds(trace);
+    }
+    chart.destroy();
+  }
+
+  /**
+   * Asserts that a point with an x value already contained only replaces the
+   * y value of the old point and that the bounds follow.
+   * <p>
+   */
+  public void testReplacing() {
+    Random random = new Random(4711);
+    Chart2D chart = new Chart2D();
+    ITrace2D trace = new Trace2DReplacing();
+    chart.addTrace(trace);
+    double[] xs = new double[100];
+    double[] ys = new double[100];
+    for (int i = 0; i < 100; i++) {
+      xs[i] = i;
+      ys[i] = random.nextDouble();
+      trace.addPoint(xs[i], ys[i]);
+    }
+    int index;
+    for (int i = 0; i < 10000; i++) {
+      index = random.nextInt(100);
+      ys[index] = random.nextDouble() * 10 - 5;
+      trace.addPoint(index, ys[index]);
+      if (i % 100 == 0) {
+        this.assertPoints(trace, xs, ys);
+        this.assertBounds(trace);
+      }
+    }
+    this.assertPoints(trace, xs, ys);
+    this.assertBounds(trace);
+    chart.destroy();
+  }
+
+  /**
+   * Measures the throughput of replacing points with random x values of
+   * traces of different sizes and writes it to <code>{@link System#out}
+   * </code>.
+   * <p>
+   * The throughput should not depend on the size of the trace.
+   * <p>
+   */
+  public void testUpdateThroughput() {
+    int[] sizes = new int[] {1000, 10000, 50000 };
+    Random random = new Random(4711);
+    Chart2D chart = new Chart2D();
+    ITrace2D trace;
+    long start;
+    long duration;
+    int updates = 200000;
+    for (int size : sizes) {
+      for (int type = 0; type < 2; type++) {
+        trace = (type == 0) ? new Trace2DReplacing() : new Trace2DBijective();
+        chart.addTrace(trace);
+        for (int i = 0; i < size; i++) {
+          trace.addPoint(i, random.nextDouble());
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+          trace.addPoint(random.nextInt(size), random.nextDouble());
+        }
+        duration = System.nanoTime() - start;
+        System.out.println('[' + this.getClass().getName() + "] "
+            + trace.getClass().getName() + " with " + size + " points: "
+            + (updates * 1000000000L / Math.max(duration, 1)) + " updates/s.");
+        Assert.assertEquals(size, trace.getSize());
+        chart.removeTrace(trace);
+      }
+    }
+    chart.destroy();
+  }
+}
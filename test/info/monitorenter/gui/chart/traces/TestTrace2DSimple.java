@@ -25,8 +25,13 @@ package info.monitorenter.gui.chart.traces;
 
 import info.monitorenter.gui.chart.Chart2D;
 import info.monitorenter.gui.chart.ITrace2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 
 import junit.framework.Assert;
 import junit.framework.Test;
@@ -52,6 +57,9 @@ public class TestTrace2DSimple
     TestSuite suite = new TestSuite();
     suite.setName(TestTrace2DSimple.class.getName());
 
+    suite.addTest(new TestTrace2DSimple("testAddPoints"));
+    suite.addTest(new TestTrace2DSimple("testCoalescingEvents"));
+    suite.addTest(new TestTrace2DSimple("testCoalescingEventsBounded"));
     suite.addTest(new TestTrace2DSimple("testMemoryLeakTrace2DListeners"));
     suite.addTest(new TestTrace2DSimple("testMemoryLeakTrace2DListenersSeverity"));
 
@@ -69,6 +77,230 @@ public class TestTrace2DSimple
     super(testName);
   }
 
+  /**
+   * Adds the same values to a trace point by point and to another trace with
+   * <code>{@link ITrace2D#addPoints(double[], double[])}</code> and asserts
+   * that both traces contain the same points and bounds and that the batch
+   * fired only one event for the added points and at most one per bound.
+   * <p>
+   */
+  public void testAddPoints() {
+    final double[] xs = new double[] {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5, 8 };
+    final double[] ys = new double[] {2, 7, 1, 8, 2, 8, 1, 8, 2, 8, 4, 5 };
+    this.assertAddPoints(new Trace2DSimple(), new Trace2DSimple(), xs, ys);
+    this.assertAddPoints(new Trace2DLtd(5), new Trace2DLtd(5), xs, ys);
+    this.assertAddPoints(new Trace2DColumnar(5), new Trace2DColumnar(5), xs, ys);
+  }
+
+  /**
+   * Fills the first trace point by point, the second in one batch and compares
+   * them.
+   * <p>
+   * 
+   * @param single
+   *          the trace to fill point by point.
+   * 
+   * @param batch
+   *          the trace to fill in one batch.
+   * 
+   * @param xs
+   *          the x-values.
+   * 
+   * @param ys
+   *          the y-values.
+   */
+  private void assertAddPoints(final ITrace2D single, final ITrace2D batch, final double[] xs,
+      final double[] ys) {
+    Chart2D chart = new Chart2D();
+    chart.addTrace(single);
+    chart.addTrace(batch);
+    for (int i = 0; i < xs.length; i++) {
+      single.addPoint(xs[i], ys[i]);
+    }
+    final int[] events = new int[3];
+    final Object[] addedPoints = new Object[1];
+    final List<Object> oldMinima = new LinkedList<Object>();
+    PropertyChangeListener listener = new PropertyChangeListener() {
+      public void propertyChange(final PropertyChangeEvent evt) {
+        String property = evt.getPropertyName();
+        if (property.equals(ITrace2D.PROPERTY_TRACEPOINT)) {
+          events[0]++;
+        } else if (property.equals(ITrace2D.PROPERTY_TRACEPOINTS_ADDED)) {
+          events[1]++;
+          addedPoints[0] = evt.getNewValue();
+        } else {
+          events[2]++;
+          if (property.equals(ITrace2D.PROPERTY_MIN_X)
+              || property.equals(ITrace2D.PROPERTY_MIN_Y)) {
+            oldMinima.add(evt.getOldValue());
+          }
+        }
+      }
+    };
+    batch.addPropertyChangeListener(ITrace2D.PROPERTY_TRACEPOINT, listener);
+    batch.addPropertyChangeListener(ITrace2D.PROPERTY_TRACEPOINTS_ADDED, listener);
+    batch.addPropertyChangeListener(ITrace2D.PROPERTY_MAX_X, listener);
+    batch.addPropertyChangeListener(ITrace2D.PROPERTY_MIN_X, listener);
+    batch.addPropertyChangeListener(ITrace2D.PROPERTY_MAX_Y, listener);
+    batch.addPropertyChangeListener(ITrace2D.PROPERTY_MIN_Y, listener);
+    // the first part with arrays longer than the batch:
+    Assert.assertEquals(2, batch.addPoints(xs, ys, 2));
+    Assert.assertEquals(1, events[1]);
+    // the first points of the trace carry 0 as the old minima like addPoint:
+    Assert.assertEquals(2, oldMinima.size());
+    for (Object oldMinimum : oldMinima) {
+      Assert.assertEquals(new Double(0), oldMinimum);
+    }
+    final double[] restX = new double[xs.length - 2];
+    final double[] restY = new double[restX.length];
+    System.arraycopy(xs, 2, restX, 0, restX.length);
+    System.arraycopy(ys, 2, restY, 0, restY.length);
+    events[1] = 0;
+    events[2] = 0;
+    Assert.assertEquals(restX.length, batch.addPoints(restX, restY));
+
+    Assert.assertEquals(0, events[0]);
+    Assert.assertEquals(1, events[1]);
+    Assert.assertTrue("At most one event per bound expected: " + events[2], events[2] <= 4);
+    Assert.assertEquals(restX.length, ((List< ? >) addedPoints[0]).size());
+    Assert.assertEquals(single.getSize(), batch.getSize());
+    Assert.assertEquals(single.getMaxX(), batch.getMaxX(), 0);
+    Assert.assertEquals(single.getMinX(), batch.getMinX(), 0);
+    Assert.assertEquals(single.getMaxY(), batch.getMaxY(), 0);
+    Assert.assertEquals(single.getMinY(), batch.getMinY(), 0);
+    Iterator<ITracePoint2D> itSingle = single.iterator();
+    Iterator<ITracePoint2D> itBatch = batch.iterator();
+    ITracePoint2D expected;
+    ITracePoint2D actual;
+    while (itSingle.hasNext()) {
+      expected = itSingle.next();
+      actual = itBatch.next();
+      Assert.assertEquals(expected.getX(), actual.getX(), 0);
+      Assert.assertEquals(expected.getY(), actual.getY(), 0);
+      Assert.assertSame(batch, actual.getListener());
+    }
+    try {
+      batch.addPoints(xs, new double[1]);
+      Assert.fail("Arrays of different length have to be rejected.");
+    } catch (IllegalArgumentException expectedException) {
+      // fine
+    }
+    try {
+      batch.addPoints(xs, ys, xs.length + 1);
+      Assert.fail("Amounts exceeding the arrays have to be rejected.");
+    } catch (IllegalArgumentException expectedException) {
+      // fine
+    }
+  }
+
+  /**
+   * Asserts that a trace in coalescing mode fires no events for added points
+   * and bounds until <code>{@link ITrace2D#fireCoalescedEvents()}</code> is
+   * invoked and that those events are fired at once then.
+   * <p>
+   */
+  public void testCoalescingEvents() {
+    Chart2D chart = new Chart2D();
+    ITrace2D trace = new Trace2DSimple();
+    chart.addTrace(trace);
+    trace.setCoalescingEvents(true);
+    final int[] events = new int[3];
+    final Object[] addedPoints = new Object[1];
+    PropertyChangeListener listener = new PropertyChangeListener() {
+      public void propertyChange(final PropertyChangeEvent evt) {
+        String property = evt.getPropertyName();
+        if (property.equals(ITrace2D.PROPERTY_TRACEPOINT)) {
+          events[0]++;
+        } else if (property.equals(ITrace2D.PROPERTY_TRACEPOINTS_ADDED)) {
+          events[1]++;
+          addedPoints[0] = evt.getNewValue();
+        } else {
+          events[2]++;
+        }
+      }
+    };
+    trace.addPropertyChangeListener(ITrace2D.PROPERTY_TRACEPOINT, listener);
+    trace.addPropertyChangeListener(ITrace2D.PROPERTY_TRACEPOINTS_ADDED, listener);
+    trace.addPropertyChangeListener(ITrace2D.PROPERTY_MAX_X, listener);
+    trace.addPropertyChangeListener(ITrace2D.PROPERTY_MIN_X, listener);
+    trace.addPropertyChangeListener(ITrace2D.PROPERTY_MAX_Y, listener);
+    trace.addPropertyChangeListener(ITrace2D.PROPERTY_MIN_Y, listener);
+    for (int i = 0; i < 1000; i++) {
+      trace.addPoint(i, i % 17);
+    }
+    Assert.assertEquals(2, trace.addPoints(new double[] {1000, 1001 }, new double[] {-1, 20 }));
+    Assert.assertEquals(0, events[0] + events[1] + events[2]);
+    Assert.assertEquals(1001, trace.getMaxX(), 0);
+
+    Assert.assertTrue(trace.fireCoalescedEvents());
+    Assert.assertEquals(0, events[0]);
+    Assert.assertEquals(1, events[1]);
+    Assert.assertTrue("At most one event per bound expected: " + events[2], events[2] <= 4);
+    Assert.assertEquals(1002, ((List< ? >) addedPoints[0]).size());
+    Assert.assertEquals(1001, chart.getAxisX().getMax(), 0);
+    Assert.assertEquals(-1, chart.getAxisY().getMin(), 0);
+    Assert.assertFalse(trace.fireCoalescedEvents());
+
+    // pending events are fired when turning coalescing off:
+    trace.addPoint(1002, 0);
+    Assert.assertEquals(1, events[1]);
+    trace.setCoalescingEvents(false);
+    Assert.assertEquals(2, events[1]);
+    trace.addPoint(1003, 0);
+    Assert.assertEquals(1, events[0]);
+    Assert.assertEquals(2, events[1]);
+    chart.destroy();
+  }
+
+  /**
+   * Adds far more points than fit into traces with a limited size in coalescing
+   * mode without painting the chart and asserts that only a bounded amount of
+   * events is collected: The batch is degraded to a single event for all
+   * points of the trace that still rescales the axes.
+   * <p>
+   */
+  public void testCoalescingEventsBounded() {
+    ITrace2D[] traces = new ITrace2D[] {new Trace2DLtd(10), new Trace2DColumnar(10),
+        new Trace2DLtdReplacing(10) };
+    for (ITrace2D trace : traces) {
+      Chart2D chart = new Chart2D();
+      chart.addTrace(trace);
+      trace.setCoalescingEvents(true);
+      final int[] events = new int[3];
+      final Object[] addedPoints = new Object[1];
+      PropertyChangeListener listener = new PropertyChangeListener() {
+        public void propertyChange(final PropertyChangeEvent evt) {
+          String property = evt.getPropertyName();
+          if (property.equals(ITrace2D.PROPERTY_TRACEPOINT)) {
+            events[0]++;
+          } else if (property.equals(ITrace2D.PROPERTY_TRACEPOINTS_ADDED)) {
+            events[1]++;
+            addedPoints[0] = evt.getNewValue();
+          } else {
+            events[2]++;
+          }
+        }
+      };
+      trace.addPropertyChangeListener(ITrace2D.PROPERTY_TRACEPOINT, listener);
+      trace.addPropertyChangeListener(ITrace2D.PROPERTY_TRACEPOINTS_ADDED, listener);
+      trace.addPropertyChangeListener(ITrace2D.PROPERTY_POINT_CHANGED, listener);
+      for (int i = 0; i < 200000; i++) {
+        trace.addPoint(i % 20, i);
+      }
+      Assert.assertEquals(0, events[0] + events[1] + events[2]);
+
+      Assert.assertTrue(trace.fireCoalescedEvents());
+      Assert.assertTrue("At most one event for removed points expected: " + events[0],
+          events[0] <= 1);
+      Assert.assertEquals(1, events[1]);
+      Assert.assertTrue("At most one event for changed points expected: " + events[2],
+          events[2] <= 1);
+      Assert.assertEquals(10, ((List< ? >) addedPoints[0]).size());
+      Assert.assertEquals(199999, chart.getAxisY().getMax(), 0);
+      chart.destroy();
+    }
+  }
+
   /**
    * Adds and removes a trace to a chart and asserts that only one and afterwards zero listeners are
    * contained in the chart.
@@ -0,0 +1,235 @@
+/*
+ *  TestTrace2DSorted.java, a Junit test case for Trace2DSorted.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces;
+
+import info.monitorenter.gui.chart.Chart2D;
+import info.monitorenter.gui.chart.ITrace2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.TracePoint2D;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeMap;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * A Junit test case for <code>{@link Trace2DSorted}</code> and its storage
+ * <code>{@link SortedPointArray}</code>.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann</a>
+ *
+ */
+public class TestTrace2DSorted extends TestCase {
+
+  /**
+   * Test suite for this test class.
+   * <p>
+   *
+   * @return the test suite.
+   */
+  public static Test suite() {
+
+    TestSuite suite = new TestSuite();
+    suite.setName(TestTrace2DSorted.class.getName());
+
+    suite.addTest(new TestTrace2DSorted("testNearestPoint"));
+    suite.addTest(new TestTrace2DSorted("testSortedPointArray"));
+    suite.addTest(new TestTrace2DSorted("testStragglers"));
+
+    return suite;
+  }
+
+  /**
+   * Creates a test case with the given name.
+   * <p>
+   *
+   * @param testName
+   *          the name of the test case.
+   */
+  public TestTrace2DSorted(final String testName) {
+    super(testName);
+  }
+
+  /**
+   * Asserts that the given points are the values of the given map in the
+   * same order.
+   * <p>
+   *
+   * @param expected
+   *          the expected points by their x values.
+   * @param it
+   *          the iterator over the points to check.
+   */
+  private void assertPoints(final TreeMap<Double, ITracePoint2D> expected,
+      final Iterator<ITracePoint2D> it) {
+    for (Map.Entry<Double, ITracePoint2D> entry : expected.entrySet()) {
+      Assert.assertSame(entry.getValue(), it.next());
+    }
+    Assert.assertFalse(it.hasNext());
+  }
+
+  /**
+   * Asserts that the nearest point searches that only visit the points close
+   * to the x value find points as close as a search of all points.
+   * <p>
+   */
+  public void testNearestPoint() {
+    Random random = new Random(4711);
+    Chart2D chart = new Chart2D();
+    ITrace2D trace = new Trace2DSorted();
+    chart.addTrace(trace);
+    for (int i = 0; i < 1000; i++) {
+      trace.addPoint(random.nextDouble() * 100, random.nextDouble() * 100);
+    }
+    double x;
+    double y;
+    double shortestEuclid;
+    double shortestManhattan;
+    ITracePoint2D point;
+    for (int i = 0; i < 1000; i++) {
+      x = random.nextDouble() * 1.2 - 0.1;
+      y = random.nextDouble() * 1.2 - 0.1;
+      shortestEuclid = Double.MAX_VALUE;
+      shortestManhattan = Double.MAX_VALUE;
+      for (Iterator<ITracePoint2D> it = trace.iterator(); it.hasNext();) {
+        point = it.next();
+        shortestEuclid = Math.min(shortestEuclid, point.getEuclidDistance(x, y));
+        shortestManhattan = Math.min(shortestManhattan, point.getManhattanDistance(x, y));
+      }
+      Assert.assertEquals(shortestEuclid, trace.getNearestPointEuclid(x, y).getDistance(), 0.0);
+      Assert.assertEquals(shortestManhattan, trace.getNearestPointManhattan(x, y).getDistance(),
+          0.0);
+    }
+    chart.destroy();
+  }
+
+  /**
+   * Compares random operations on a <code>{@link SortedPointArray}</code> and
+   * its views with a <code>{@link TreeMap}</code>.
+   * <p>
+   */
+  public void testSortedPointArray() {
+    Random random = new Random(4711);
+    SortedPointArray points = new SortedPointArray();
+    TreeMap<Double, ITracePoint2D> expected = new TreeMap<Double, ITracePoint2D>();
+    ITracePoint2D point;
+    double x;
+    for (int i = 0; i < 20000; i++) {
+      x = random.nextInt(500);
+      point = new TracePoint2D(x, i);
+      switch (random.nextInt(4)) {
+        case 0:
+          Assert.assertEquals(expected.remove(Double.valueOf(x)) != null, points.remove(point));
+          break;
+        case 1:
+          // remove the first points by an iterator:
+          Iterator<ITracePoint2D> it = points.iterator();
+          for (int j = random.nextInt(3); j > 0 && it.hasNext(); j--) {
+            expected.remove(Double.valueOf(it.next().getX()));
+            it.remove();
+          }
+          break;
+        default:
+          if (!expected.containsKey(Double.valueOf(x))) {
+            expected.put(Double.valueOf(x), point);
+            Assert.assertTrue(points.add(point));
+          } else {
+            Assert.assertFalse(points.add(point));
+          }
+      }
+      Assert.assertEquals(expected.size(), points.size());
+    }
+    this.assertPoints(expected, points.iterator());
+    for (int i = 0; i < expected.size(); i++) {
+      Assert.assertSame(expected.values().toArray()[i], points.get(i));
+    }
+    TracePoint2D from = new TracePoint2D(100, 0);
+    TracePoint2D to = new TracePoint2D(300, 0);
+    SortedSet<ITracePoint2D> sub = points.subSet(from, to);
+    this.assertPoints(new TreeMap<Double, ITracePoint2D>(expected.subMap(Double.valueOf(100),
+        Double.valueOf(300))), sub.iterator());
+    this.assertPoints(new TreeMap<Double, ITracePoint2D>(expected.headMap(Double.valueOf(100))),
+        points.headSet(from).iterator());
+    this.assertPoints(new TreeMap<Double, ITracePoint2D>(expected.tailMap(Double.valueOf(300))),
+        points.tailSet(to).iterator());
+    Assert.assertSame(expected.get(expected.ceilingKey(Double.valueOf(100))), sub.first());
+    Assert.assertSame(expected.get(expected.lowerKey(Double.valueOf(300))), sub.last());
+    try {
+      sub.add(new TracePoint2D(400, 0));
+      Assert.fail("Point out of the range of the view accepted.");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    // views are backed by the set:
+    sub.clear();
+    Assert.assertTrue(points.subSet(from, to).isEmpty());
+    Assert.assertEquals(expected.size() - expected.subMap(Double.valueOf(100), Double.valueOf(300))
+        .size(), points.size());
+  }
+
+  /**
+   * Adds points mostly in order with some points out of order or with x
+   * values already contained and asserts the order of the points and the
+   * range iteration.
+   * <p>
+   */
+  public void testStragglers() {
+    Random random = new Random(4711);
+    Chart2D chart = new Chart2D();
+    ITrace2D trace = new Trace2DSorted();
+    chart.addTrace(trace);
+    TreeMap<Double, ITracePoint2D> expected = new TreeMap<Double, ITracePoint2D>();
+    ITracePoint2D point;
+    double x;
+    for (int i = 0; i < 20000; i++) {
+      x = i;
+      if (random.nextInt(10) == 0) {
+        // a straggler or a replacement:
+        x -= random.nextInt(20);
+      }
+      point = new TracePoint2D(x, random.nextDouble());
+      expected.put(Double.valueOf(x), point);
+      trace.addPoint(point);
+    }
+    this.assertPoints(expected, trace.iterator());
+    Assert.assertEquals(expected.size(), trace.getSize());
+    Assert.assertEquals(expected.firstKey().doubleValue(), trace.getMinX(), 0.0);
+    Assert.assertEquals(expected.lastKey().doubleValue(), trace.getMaxX(), 0.0);
+    Iterator<ITracePoint2D> it = trace.iterator(5000.5, 6000.5);
+    Assert.assertEquals(expected.lowerKey(Double.valueOf(5000.5)).doubleValue(), it.next()
+        .getX(), 0.0);
+    double last = 0;
+    while (it.hasNext()) {
+      last = it.next().getX();
+    }
+    Assert.assertEquals(expected.higherKey(Double.valueOf(6000.5)).doubleValue(), last, 0.0);
+    chart.destroy();
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ *  TestTrace2DArithmeticMean.java of project jchart2d, Junit tests for
+ *  the arithmetic mean traces.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces.computing;
+
+import info.monitorenter.gui.chart.Chart2D;
+import info.monitorenter.gui.chart.ITrace2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.traces.Trace2DSimple;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Junit tests for <code>{@link Trace2DArithmeticMean}</code>,
+ * <code>{@link Trace2DArithmeticMeanX}</code> and
+ * <code>{@link Trace2DArithmeticMeanY}</code>.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann</a>
+ */
+public class TestTrace2DArithmeticMean extends TestCase {
+
+  /**
+   * Test suite for this test class.
+   * <p>
+   *
+   * @return the test suite
+   */
+  public static Test suite() {
+
+    TestSuite suite = new TestSuite();
+    suite.setName(TestTrace2DArithmeticMean.class.getName());
+
+    suite.addTest(new TestTrace2DArithmeticMean("testComputingTrace"));
+    suite.addTest(new TestTrace2DArithmeticMean("testMean"));
+    suite.addTest(new TestTrace2DArithmeticMean("testNaN"));
+
+    return suite;
+  }
+
+  /**
+   * Creates a test case with the given name.
+   * <p>
+   *
+   * @param testName
+   *          the name of the test.
+   */
+  public TestTrace2DArithmeticMean(final String testName) {
+    super(testName);
+  }
+
+  /**
+   * Asserts that the bounds of the given trace are equal to the bounds
+   * computed from its points.
+   * <p>
+   *
+   * @param trace
+   *          the trace to check.
+   */
+  private void assertBounds(final ITrace2D trace) {
+    double maxY = -Double.MAX_VALUE;
+    double minY = Double.MAX_VALUE;
+    double maxX = -Double.MAX_VALUE;
+    double minX = Double.MAX_VALUE;
+    ITracePoint2D point;
+    for (Iterator<ITracePoint2D> it = trace.iterator(); it.hasNext();) {
+      point = it.next();
+      maxX = Math.max(maxX, point.getX());
+      minX = Math.min(minX, point.getX());
+      maxY = Math.max(maxY, point.getY());
+      minY = Math.min(minY, point.getY());
+    }
+    Assert.assertEquals(maxX, trace.getMaxX(), 0.0);
+    Assert.assertEquals(minX, trace.getMinX(), 0.0);
+    Assert.assertEquals(maxY, trace.getMaxY(), 0.0);
+    Assert.assertEquals(minY, trace.getMinY(), 0.0);
+  }
+
+  /**
+   * Returns the exact arithmetic mean of the given values from the given
+   * start index (inclusive) to the given end index (exclusive) rounded to a
+   * double.
+   * <p>
+   *
+   * @param values
+   *          the values.
+   * @param start
+   *          the index of the first value.
+   * @param end
+   *          the index after the last value.
+   *
+   * @return the exact arithmetic mean of the values rounded to a double.
+   */
+  private double mean(final double[] values, final int start, final int end) {
+    BigDecimal sum = BigDecimal.ZERO;
+    for (int i = start; i < end; i++) {
+      sum = sum.add(new BigDecimal(values[i]));
+    }
+    return sum.doubleValue() / (end - start);
+  }
+
+  /**
+   * Feeds a limited mean trace as a computing trace of a trace with values of
+   * a large magnitude and asserts that the computed means do not drift, that
+   * the amount of computed points is limited and that the bounds follow.
+   * <p>
+   */
+  public void testComputingTrace() {
+    Random random = new Random(4711);
+    Chart2D chart = new Chart2D();
+    ITrace2D source = new Trace2DSimple();
+    Trace2DArithmeticMean mean = new Trace2DArithmeticMean(50, 100);
+    chart.addTrace(source);
+    chart.addTrace(mean);
+    source.addComputingTrace(mean);
+    int amount = 100000;
+    double[] xs = new double[amount];
+    double[] ys = new double[amount];
+    for (int i = 0; i < amount; i++) {
+      xs[i] = i;
+      ys[i] = 1e9 + random.nextDouble() * 1e-3;
+      source.addPoint(xs[i], ys[i]);
+    }
+    Assert.assertEquals(amount, source.getSize());
+    Assert.assertEquals(100, mean.getSize());
+    Iterator<ITracePoint2D> it = mean.iterator();
+    ITracePoint2D point;
+    for (int i = amount - 100; i < amount; i++) {
+      point = it.next();
+      Assert.assertEquals(this.mean(xs, i - 49, i + 1), point.getX(), 1e-9);
+      Assert.assertEquals(this.mean(ys, i - 49, i + 1), point.getY(), 1e-6);
+    }
+    this.assertBounds(mean);
+    // the points of the source trace are left to the source trace:
+    point = source.iterator().next();
+    point.setLocation(-1, 0);
+    Assert.assertEquals(-1, source.getMinX(), 0.0);
+    mean.setMaxSize(10);
+    Assert.assertEquals(10, mean.getSize());
+    this.assertBounds(mean);
+    chart.destroy();
+  }
+
+  /**
+   * Asserts that the mean traces compute the mean of the values of the latest
+   * points in the dimensions they are responsible for.
+   * <p>
+   */
+  public void testMean() {
+    Random random = new Random(4711);
+    Chart2D chart = new Chart2D();
+    ITrace2D[] traces = new ITrace2D[] {new Trace2DArithmeticMean(10),
+        new Trace2DArithmeticMeanX(10), new Trace2DArithmeticMeanY(10) };
+    for (ITrace2D trace : traces) {
+      chart.addTrace(trace);
+      double[] xs = new double[1000];
+      double[] ys = new double[1000];
+      Iterator<ITracePoint2D> it;
+      ITracePoint2D point = null;
+      for (int i = 0; i < xs.length; i++) {
+        xs[i] = random.nextDouble() * 100;
+        ys[i] = random.nextDouble() * 100;
+        trace.addPoint(xs[i], ys[i]);
+        for (it = trace.iterator(); it.hasNext();) {
+          point = it.next();
+        }
+        if (trace instanceof Trace2DArithmeticMeanY) {
+          Assert.assertEquals(xs[i], point.getX(), 0.0);
+        } else {
+          Assert.assertEquals(this.mean(xs, Math.max(0, i - 9), i + 1), point.getX(), 1e-9);
+        }
+        if (trace instanceof Trace2DArithmeticMeanX) {
+          Assert.assertEquals(ys[i], point.getY(), 0.0);
+        } else {
+          Assert.assertEquals(this.mean(ys, Math.max(0, i - 9), i + 1), point.getY(), 1e-9);
+        }
+      }
+      Assert.assertEquals(xs.length, trace.getSize());
+      Assert.assertEquals(Integer.MAX_VALUE, trace.getMaxSize());
+      this.assertBounds(trace);
+      trace.removeAllPoints();
+      trace.addPoint(1, 2);
+      Assert.assertEquals(1, trace.iterator().next().getX(), 0.0);
+      Assert.assertEquals(2, trace.iterator().next().getY(), 0.0);
+      chart.removeTrace(trace);
+    }
+    chart.destroy();
+  }
+
+  /**
+   * Asserts that the mean is a number again after a <code>NaN</code> value
+   * left the window.
+   * <p>
+   */
+  public void testNaN() {
+    Chart2D chart = new Chart2D();
+    ITrace2D trace = new Trace2DArithmeticMean(3, 5);
+    chart.addTrace(trace);
+    trace.addPoint(1, 1);
+    trace.addPoint(2, Double.NaN);
+    trace.addPoint(3, Double.POSITIVE_INFINITY);
+    trace.addPoint(4, 4);
+    trace.addPoint(5, 5);
+    trace.addPoint(6, 6);
+    ITracePoint2D point = null;
+    for (Iterator<ITracePoint2D> it = trace.iterator(); it.hasNext();) {
+      point = it.next();
+    }
+    Assert.assertEquals(5, point.getX(), 0.0);
+    Assert.assertEquals(5, point.getY(), 0.0);
+    Assert.assertEquals(5, trace.getSize());
+    chart.destroy();
+  }
+}
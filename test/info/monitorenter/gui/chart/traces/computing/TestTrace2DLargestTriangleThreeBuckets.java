@@ -0,0 +1,179 @@
+/*
+ *  TestTrace2DLargestTriangleThreeBuckets.java of project jchart2d, junit tests
+ *  for Trace2DLargestTriangleThreeBuckets.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.gui.chart.traces.computing;
+
+import info.monitorenter.gui.chart.Chart2D;
+import info.monitorenter.gui.chart.ITrace2D;
+import info.monitorenter.gui.chart.ITracePoint2D;
+import info.monitorenter.gui.chart.traces.Trace2DSimple;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Junit tests for <code>{@link Trace2DLargestTriangleThreeBuckets}</code>.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann</a>
+ */
+public class TestTrace2DLargestTriangleThreeBuckets extends TestCase {
+
+  /**
+   * Test suite for this test class.
+   * <p>
+   *
+   * @return the test suite
+   */
+  public static Test suite() {
+
+    TestSuite suite = new TestSuite();
+    suite.setName(TestTrace2DLargestTriangleThreeBuckets.class.getName());
+
+    suite.addTest(new TestTrace2DLargestTriangleThreeBuckets("testComputingTrace"));
+    suite.addTest(new TestTrace2DLargestTriangleThreeBuckets("testMaxSize"));
+
+    return suite;
+  }
+
+  /**
+   * Creates a test case with the given name.
+   * <p>
+   *
+   * @param testName
+   *          the name of the test.
+   */
+  public TestTrace2DLargestTriangleThreeBuckets(final String testName) {
+    super(testName);
+  }
+
+  /**
+   * Asserts that the view of the given trace is sorted by x, starts with the
+   * given first x value, ends with the given last x value and does not exceed
+   * the maximum size.
+   * <p>
+   *
+   * @param trace
+   *          the trace to check.
+   * @param firstX
+   *          the x value of the first point added.
+   * @param lastX
+   *          the x value of the latest point added.
+   * @return the maximum y value of the view.
+   */
+  private double assertView(final Trace2DLargestTriangleThreeBuckets trace,
+      final double firstX, final double lastX) {
+    Assert.assertTrue("Size " + trace.getSize(), trace.getSize() <= trace.getMaxSize());
+    Iterator<ITracePoint2D> it = trace.iterator();
+    ITracePoint2D point = it.next();
+    Assert.assertEquals(firstX, point.getX(), 0.0);
+    double previousX = point.getX();
+    double result = point.getY();
+    int count = 1;
+    while (it.hasNext()) {
+      point = it.next();
+      Assert.assertTrue("Not ascending: " + point.getX(), point.getX() > previousX);
+      previousX = point.getX();
+      result = Math.max(result, point.getY());
+      count++;
+    }
+    Assert.assertEquals(lastX, previousX, 0.0);
+    Assert.assertEquals(trace.getSize(), count);
+    return result;
+  }
+
+  /**
+   * Feeds a downsampling trace as computing trace of a trace with many noisy
+   * points and a few isolated peaks and asserts that the peaks are kept.
+   * <p>
+   */
+  public void testComputingTrace() {
+    Random random = new Random(4711);
+    Chart2D chart = new Chart2D();
+    ITrace2D source = new Trace2DSimple();
+    Trace2DLargestTriangleThreeBuckets trace = new Trace2DLargestTriangleThreeBuckets(500);
+    chart.addTrace(source);
+    chart.addTrace(trace);
+    source.addComputingTrace(trace);
+    int peaks = 0;
+    for (int i = 0; i < 100000; i++) {
+      if (i % 10000 == 5000) {
+        source.addPoint(i, 1000 + i);
+      } else {
+        source.addPoint(i, Math.sin(i / 1000.0) * 100 + random.nextDouble() * 10);
+      }
+      if (i % 9999 == 0) {
+        this.assertView(trace, 0, i);
+      }
+    }
+    Assert.assertEquals(96000, this.assertView(trace, 0, 99999), 0.0);
+    Assert.assertTrue("Bucket size " + trace.getBucketSize(), trace.getBucketSize() >= 128);
+    for (Iterator<ITracePoint2D> it = trace.iterator(); it.hasNext();) {
+      if (it.next().getY() >= 1000) {
+        peaks++;
+      }
+    }
+    Assert.assertEquals(10, peaks);
+    // the points of the source trace are left to the source trace:
+    for (Iterator<ITracePoint2D> it = source.iterator(); it.hasNext();) {
+      Assert.assertSame(source, it.next().getListener());
+    }
+    for (Iterator<ITracePoint2D> it = trace.iterator(); it.hasNext();) {
+      Assert.assertSame(trace, it.next().getListener());
+    }
+    source.removeAllPoints();
+    Assert.assertTrue(trace.isEmpty());
+    Assert.assertEquals(1, trace.getBucketSize());
+    for (int i = 0; i < 10; i++) {
+      source.addPoint(i, i);
+    }
+    this.assertView(trace, 0, 9);
+    chart.destroy();
+  }
+
+  /**
+   * Asserts that the maximum size has to allow for at least three points.
+   * <p>
+   */
+  public void testMaxSize() {
+    try {
+      new Trace2DLargestTriangleThreeBuckets(2);
+      Assert.fail("Illegal maximum size accepted.");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    Chart2D chart = new Chart2D();
+    Trace2DLargestTriangleThreeBuckets trace = new Trace2DLargestTriangleThreeBuckets(3);
+    chart.addTrace(trace);
+    for (int i = 0; i < 100; i++) {
+      trace.addPoint(i, i % 7);
+      this.assertView(trace, 0, i);
+    }
+    chart.destroy();
+  }
+}
@@ -47,6 +47,7 @@ public final class AllTests {
     // $JUnit-BEGIN$
     suite.addTest(TestTreeSetGreedy.suite());
     suite.addTest(TestRingBufferArrayFast.suite());
+    suite.addTest(TestDoubleHashMap.suite());
     // $JUnit-END$
     return suite;
   }
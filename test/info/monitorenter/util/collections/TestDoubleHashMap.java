@@ -0,0 +1,127 @@
+/*
+ *  TestDoubleHashMap.java, a Junit test case for DoubleHashMap.
+ *  Copyright (C) 2004 - 2011 Achim Westermann.
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ *  If you modify or optimize the code in a useful way please let me know.
+ *  Achim.Westermann@gmx.de
+ *
+ */
+package info.monitorenter.util.collections;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Junit test case for class <code>{@link DoubleHashMap}</code>.
+ * <p>
+ *
+ * @author <a href="mailto:Achim.Westermann@gmx.de">Achim Westermann </a>
+ *
+ */
+public class TestDoubleHashMap extends TestCase {
+
+  /**
+   * Test suite for this test class.
+   * <p>
+   *
+   * @return the test suite
+   */
+  public static Test suite() {
+
+    TestSuite suite = new TestSuite();
+    suite.setName(TestDoubleHashMap.class.getName());
+
+    suite.addTest(new TestDoubleHashMap("testKeys"));
+    suite.addTest(new TestDoubleHashMap("testRandomOperations"));
+
+    return suite;
+  }
+
+  /**
+   * Creates a test case with the given name.
+   * <p>
+   *
+   * @param testName
+   *          the name of the test case.
+   */
+  public TestDoubleHashMap(final String testName) {
+    super(testName);
+  }
+
+  /**
+   * Asserts that keys are compared like by <code>==</code> except for
+   * <code>NaN</code>.
+   * <p>
+   */
+  public void testKeys() {
+    DoubleHashMap<String> map = new DoubleHashMap<String>();
+    Assert.assertNull(map.put(0.0, "zero"));
+    Assert.assertEquals("zero", map.get(-0.0));
+    Assert.assertNull(map.put(Double.NaN, "nan"));
+    Assert.assertEquals("nan", map.get(0.0 / 0.0));
+    Assert.assertEquals("zero", map.put(-0.0, "negative zero"));
+    Assert.assertEquals(2, map.size());
+    Assert.assertFalse(map.containsKey(Double.MIN_VALUE));
+    Assert.assertEquals("negative zero", map.remove(0.0));
+    Assert.assertNull(map.remove(0.0));
+    Assert.assertEquals(1, map.size());
+    try {
+      map.put(1.0, null);
+      Assert.fail("Null value accepted.");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    map.clear();
+    Assert.assertTrue(map.isEmpty());
+    Assert.assertNull(map.get(Double.NaN));
+  }
+
+  /**
+   * Performs random puts and removes on few keys (to provoke collisions and
+   * removals within probe sequences) and compares the results with a
+   * <code>{@link HashMap}</code>.
+   * <p>
+   */
+  public void testRandomOperations() {
+    Random random = new Random(4711);
+    DoubleHashMap<Integer> map = new DoubleHashMap<Integer>(4);
+    Map<Double, Integer> expected = new HashMap<Double, Integer>();
+    double key;
+    Integer value;
+    for (int i = 0; i < 200000; i++) {
+      // multiples of 1/4 share the lower bits:
+      key = random.nextInt(1000) / 4.0;
+      if (random.nextInt(3) == 0) {
+        Assert.assertEquals(expected.remove(Double.valueOf(key)), map.remove(key));
+      } else {
+        value = Integer.valueOf(i);
+        Assert.assertEquals(expected.put(Double.valueOf(key), value), map.put(key, value));
+      }
+      Assert.assertEquals(expected.size(), map.size());
+    }
+    for (int i = 0; i < 1000; i++) {
+      key = i / 4.0;
+      Assert.assertEquals(expected.get(Double.valueOf(key)), map.get(key));
+    }
+  }
+}
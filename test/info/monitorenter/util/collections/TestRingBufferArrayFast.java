@@ -51,6 +51,7 @@ public class TestRingBufferArrayFast
     suite.setName(TestRingBufferArrayFast.class.getName());
 
     suite.addTest(new TestRingBufferArrayFast("testAdd"));
+    suite.addTest(new TestRingBufferArrayFast("testGet"));
     suite.addTest(new TestRingBufferArrayFast("testIteratorF2L"));
     suite.addTest(new TestRingBufferArrayFast("testIteratorL2F"));
     suite.addTest(new TestRingBufferArrayFast("testSetBufferSize"));
@@ -179,6 +180,36 @@ public class TestRingBufferArrayFast
     Assert.assertFalse(it.hasNext());
   }
 
+  /**
+   * Test method for {@link info.monitorenter.util.collections.RingBufferArrayFast#get(int)} and
+   * {@link info.monitorenter.util.collections.RingBufferArrayFast#iteratorL2F(int)} with a wrapped
+   * buffer.
+   * <p>
+   */
+  public void testGet() {
+    RingBufferArrayFast<Integer> ringBuffer = new RingBufferArrayFast<Integer>(10);
+    System.out.println("Adding 15 elements to a buffer of size 10");
+    for (int i = 0; i < 15; i++) {
+      ringBuffer.add(Integer.valueOf(i));
+    }
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(i + 5, ringBuffer.get(i).intValue());
+      int value = i + 5;
+      for (Iterator<Integer> it = ringBuffer.iteratorL2F(i); it.hasNext();) {
+        Assert.assertEquals(value, it.next().intValue());
+        value++;
+      }
+      Assert.assertEquals(15, value);
+    }
+    Assert.assertFalse(ringBuffer.iteratorL2F(10).hasNext());
+    try {
+      ringBuffer.get(10);
+      Assert.fail("Index 10 of a buffer with 10 elements has to be rejected.");
+    } catch (IndexOutOfBoundsException expected) {
+      // nop
+    }
+  }
+
   /**
    * Test method for {@link info.monitorenter.util.collections.RingBufferArrayFast#iteratorL2F()}.
    * <p>